@@ -0,0 +1,79 @@
+package csw.benchmark.event
+
+import java.nio.file.{Files, Paths}
+import java.util.concurrent.TimeUnit
+
+import csw.event.client.internal.redis.EventRomaineCodecs.EventRomaineCodec
+import csw.event.client.pb.{PbConverter, PbEventDecoder}
+import csw.params.core.generics.KeyType.{ByteArrayKey, DoubleKey, FloatMatrixKey, IntKey, StringKey}
+import csw.params.core.models.Units.pascal
+import csw.params.core.models.{ArrayData, MatrixData, Prefix}
+import csw.params.events.{Event, EventName, SystemEvent}
+import csw_protobuf.events.PbEvent
+import io.netty.buffer.{ByteBuf, PooledByteBufAllocator}
+import org.openjdk.jmh.annotations._
+
+/**
+ * Compares the protobuf codec of events used before, which goes through the generated protobuf model and intermediate
+ * byte arrays, with the codec used by the redis event service, which encodes into pooled netty buffers and decodes the
+ * wire format straight into events. The matrix payload shows the bytes allocated to encode the rows of a matrix.
+ */
+// ============================== HOW TO RUN THIS TEST: ====================================
+//
+// single thread, reporting allocations/op along with ns/op:
+// sbt csw-benchmark/jmh:run -f 1 -wi 10 -i 20 -prof gc .*EventCodecBenchmark.*
+//
+// for machine readable results, add:
+// -rf json -rff event-codec.json
+//
+@State(Scope.Benchmark)
+@BenchmarkMode(Array(Mode.AverageTime))
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+class EventCodecBenchmark {
+
+  @Param(Array("small", "512k_image", "256x256_matrix"))
+  var payload: String = _
+
+  private var event: Event            = _
+  private var eventBytes: Array[Byte] = _
+  private var buffer: ByteBuf         = _
+
+  @Setup(Level.Trial)
+  def setup(): Unit = {
+    val baseEvent = SystemEvent(Prefix("wfos.blue.filter"), EventName("filter wheel"))
+    event = payload match {
+      case "small" ⇒
+        baseEvent.madd(
+          IntKey.make("encoder").set(1, 2, 3),
+          DoubleKey.make("position").set(12.5),
+          StringKey.make("state").set("moving")
+        )
+      case "256x256_matrix" ⇒
+        baseEvent.add(FloatMatrixKey.make("frame").set(MatrixData.fromFlatArray(256, 256, Array.tabulate(256 * 256)(_ / 7f))))
+      case image ⇒
+        val imagePath = Paths.get(getClass.getResource(s"/images/$image.bin").getPath)
+        baseEvent.add(ByteArrayKey.make("imageKey").set(ArrayData.fromArray(Files.readAllBytes(imagePath))).withUnits(pascal))
+    }
+    eventBytes = PbConverter.toPbEvent(event).toByteArray
+    buffer = PooledByteBufAllocator.DEFAULT.directBuffer(eventBytes.length)
+  }
+
+  @TearDown(Level.Trial)
+  def teardown(): Unit = buffer.release()
+
+  @Benchmark
+  def encodeToByteArray(): Array[Byte] = PbConverter.toPbEvent(event).toByteArray
+
+  @Benchmark
+  def encodeToPooledBuffer(): ByteBuf = {
+    buffer.clear()
+    EventRomaineCodec.writeBytes(event, buffer)
+    buffer
+  }
+
+  @Benchmark
+  def decodeViaPbEvent(): Event = PbConverter.fromPbEvent[Event](PbEvent.parseFrom(eventBytes))
+
+  @Benchmark
+  def decodeDirectly(): Event = PbEventDecoder.decode(eventBytes)
+}
@@ -0,0 +1,77 @@
+package csw.benchmark.event
+
+import java.util.concurrent.TimeUnit
+
+import akka.Done
+import csw.event.api.scaladsl.EventPublisher
+import csw.params.core.generics.KeyType.{DoubleKey, IntKey, StringKey}
+import csw.params.core.models.Prefix
+import csw.params.events.{Event, EventName, SystemEvent}
+import org.openjdk.jmh.annotations._
+
+import scala.concurrent.duration.DurationInt
+import scala.concurrent.{Await, Future}
+
+/**
+ * Measures publishing a representative event one at a time (throughput and latency distribution), and publishing events
+ * without waiting for the previous ones in between.
+ */
+// ============================== HOW TO RUN THIS TEST: ====================================
+//
+// single thread:
+// sbt csw-benchmark/jmh:run -f 1 -wi 5 -i 10 .*EventPublishBenchmark.*
+//
+// for machine readable results, add:
+// -rf json -rff event-publish.json
+//
+@State(Scope.Benchmark)
+@Fork(1)
+@Threads(1)
+@Warmup(iterations = 5, time = 1, timeUnit = TimeUnit.SECONDS)
+@Measurement(iterations = 10, time = 1, timeUnit = TimeUnit.SECONDS)
+class EventPublishBenchmark {
+  final private val PipelinedEvents = 1000
+
+  @Param(Array("redis", "in-memory"))
+  var store: String = _
+
+  private var wiring: EventServiceWiring = _
+  private var publisher: EventPublisher  = _
+  private var event: Event               = _
+
+  @Setup(Level.Trial)
+  def setup(): Unit = {
+    wiring = new EventServiceWiring(store)
+    publisher = wiring.eventService.makeNewPublisher()
+    event = SystemEvent(Prefix("wfos.blue.filter"), EventName("filter wheel")).madd(
+      IntKey.make("encoder").set(1, 2, 3),
+      DoubleKey.make("position").set(12.5),
+      StringKey.make("state").set("moving")
+    )
+  }
+
+  @TearDown(Level.Trial)
+  def teardown(): Unit = {
+    Await.result(publisher.shutdown(), 5.seconds)
+    wiring.shutdown()
+  }
+
+  @Benchmark
+  @BenchmarkMode(Array(Mode.Throughput))
+  @OutputTimeUnit(TimeUnit.SECONDS)
+  def publishThroughput(): Done = Await.result(publisher.publish(event), 5.seconds)
+
+  @Benchmark
+  @BenchmarkMode(Array(Mode.SampleTime))
+  @OutputTimeUnit(TimeUnit.MICROSECONDS)
+  def publishLatency(): Done = Await.result(publisher.publish(event), 5.seconds)
+
+  @Benchmark
+  @BenchmarkMode(Array(Mode.Throughput))
+  @OutputTimeUnit(TimeUnit.SECONDS)
+  @OperationsPerInvocation(PipelinedEvents)
+  def pipelinedPublishThroughput(): Seq[Done] = {
+    import wiring.actorSystem.dispatcher
+    Await.result(Future.sequence((1 to PipelinedEvents).map(_ ⇒ publisher.publish(event))), 1.minute)
+  }
+}
@@ -0,0 +1,48 @@
+package csw.benchmark.event
+
+import akka.actor.ActorSystem
+import akka.stream.{ActorMaterializer, Materializer}
+import csw.commons.redis.EmbeddedRedis
+import csw.event.api.scaladsl.EventService
+import csw.event.client.EventServiceFactory
+import csw.event.client.models.EventStores.{InMemoryStore, RedisStore}
+import csw.network.utils.SocketUtils.getFreePort
+import io.lettuce.core.RedisClient
+import redis.embedded.{RedisSentinel, RedisServer}
+
+import scala.concurrent.Await
+import scala.concurrent.duration.DurationInt
+
+/**
+ * Event service of the event benchmarks, backed either by an embedded redis (sentinel and master) or by the in-memory store.
+ * The in-memory store tells the cost of the event client itself apart from the cost of going through redis.
+ *
+ * @param store `redis` or `in-memory`
+ */
+class EventServiceWiring(store: String) extends EmbeddedRedis {
+
+  implicit val actorSystem: ActorSystem = ActorSystem("event-benchmark")
+  implicit val mat: Materializer        = ActorMaterializer()
+
+  private val masterId     = actorSystem.settings.config.getString("csw-event.redis.masterId")
+  private val sentinelPort = getFreePort
+  private val redisClient  = RedisClient.create()
+
+  private val redis: Option[(RedisSentinel, RedisServer)] = store match {
+    case "redis"     ⇒ Some(startSentinel(sentinelPort, getFreePort, masterId))
+    case "in-memory" ⇒ None
+    case _           ⇒ throw new IllegalArgumentException(s"Unknown event store: $store")
+  }
+
+  val eventService: EventService = redis match {
+    case Some(_) ⇒ new EventServiceFactory(RedisStore(redisClient)).make("localhost", sentinelPort)
+    case None    ⇒ new EventServiceFactory(InMemoryStore).make("localhost", sentinelPort)
+  }
+
+  def shutdown(): Unit = {
+    Await.result(eventService.defaultPublisher.shutdown(), 5.seconds)
+    redisClient.shutdown()
+    redis.foreach { case (sentinel, server) ⇒ stopSentinel(sentinel, server) }
+    Await.result(actorSystem.terminate(), 5.seconds)
+  }
+}
@@ -0,0 +1,85 @@
+package csw.benchmark.event
+
+import java.util.concurrent.{CountDownLatch, TimeUnit}
+
+import csw.event.api.scaladsl.{EventPublisher, EventSubscription}
+import csw.params.core.models.{Prefix, Subsystem}
+import csw.params.events.{Event, EventName, SystemEvent}
+import org.openjdk.jmh.annotations._
+
+import scala.concurrent.Await
+import scala.concurrent.duration.DurationInt
+
+/**
+ * Measures the rate at which published events are delivered to a subscription, spreading the events over 1 to 1000 keys.
+ * The subscription either lists all the keys or matches them with a pattern, which tells the overhead of pattern matching.
+ */
+// ============================== HOW TO RUN THIS TEST: ====================================
+//
+// single thread:
+// sbt csw-benchmark/jmh:run -f 1 -wi 5 -i 10 .*EventSubscribeBenchmark.*
+//
+// for machine readable results, add:
+// -rf json -rff event-subscribe.json
+//
+@State(Scope.Benchmark)
+@Fork(1)
+@Threads(1)
+@BenchmarkMode(Array(Mode.Throughput))
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5, time = 1, timeUnit = TimeUnit.SECONDS)
+@Measurement(iterations = 10, time = 1, timeUnit = TimeUnit.SECONDS)
+class EventSubscribeBenchmark {
+  // kept below the buffer of a subscription, so that no event gets dropped
+  final private val EventsPerInvocation = 1000
+
+  @Param(Array("redis", "in-memory"))
+  var store: String = _
+
+  @Param(Array("1", "100", "1000"))
+  var keyCount: Int = _
+
+  @Param(Array("keys", "pattern"))
+  var subscriptionType: String = _
+
+  private var wiring: EventServiceWiring      = _
+  private var publisher: EventPublisher       = _
+  private var subscription: EventSubscription = _
+  private var events: Array[Event]            = _
+
+  @volatile private var latch: CountDownLatch = new CountDownLatch(0)
+
+  @Setup(Level.Trial)
+  def setup(): Unit = {
+    wiring = new EventServiceWiring(store)
+    publisher = wiring.eventService.makeNewPublisher()
+
+    val keyEvents = Array.tabulate(keyCount)(i ⇒ SystemEvent(Prefix("wfos.blue.filter"), EventName(s"benchmark_$i")))
+    events = Array.tabulate(EventsPerInvocation)(i ⇒ keyEvents(i % keyCount))
+
+    val subscriber = wiring.eventService.makeNewSubscriber()
+    // the latest events delivered on subscription are invalid events, as none of the keys has been published yet
+    val onEvent = (event: Event) ⇒ if (!event.isInvalid) latch.countDown()
+    subscription = subscriptionType match {
+      case "keys"    ⇒ subscriber.subscribeCallback(keyEvents.map(_.eventKey).toSet, onEvent)
+      case "pattern" ⇒ subscriber.pSubscribeCallback(Subsystem.WFOS, "blue.filter.benchmark_*", onEvent)
+    }
+    Await.result(subscription.ready(), 30.seconds)
+  }
+
+  @TearDown(Level.Trial)
+  def teardown(): Unit = {
+    Await.result(subscription.unsubscribe(), 5.seconds)
+    Await.result(publisher.shutdown(), 5.seconds)
+    wiring.shutdown()
+  }
+
+  @Benchmark
+  @OperationsPerInvocation(EventsPerInvocation)
+  def deliveryRate(): Unit = {
+    latch = new CountDownLatch(EventsPerInvocation)
+    events.foreach(event ⇒ publisher.publish(event))
+    if (!latch.await(1, TimeUnit.MINUTES))
+      throw new RuntimeException(s"Only ${EventsPerInvocation - latch.getCount} of $EventsPerInvocation events were delivered")
+  }
+}
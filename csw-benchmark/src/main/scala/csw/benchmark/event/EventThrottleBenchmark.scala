@@ -0,0 +1,66 @@
+package csw.benchmark.event
+
+import java.util.concurrent.TimeUnit
+
+import akka.actor.ActorSystem
+import akka.stream.scaladsl.{Flow, Sink, Source}
+import akka.stream.{ActorMaterializer, Materializer}
+import akka.{Done, NotUsed}
+import csw.event.client.internal.commons.throttle.{RateAdapterStage, RateLimiterStage}
+import csw.params.core.models.Prefix
+import csw.params.events.{Event, EventName, SystemEvent}
+import org.openjdk.jmh.annotations._
+
+import scala.concurrent.Await
+import scala.concurrent.duration.DurationInt
+
+/**
+ * Measures the cost per event of the stages applying subscription modes, compared with a stage passing events through.
+ * Events flow through a stage much faster than its rate, so nearly all of them are dropped, as with a fast publisher.
+ */
+// ============================== HOW TO RUN THIS TEST: ====================================
+//
+// single thread:
+// sbt csw-benchmark/jmh:run -f 1 -wi 5 -i 10 .*EventThrottleBenchmark.*
+//
+// for machine readable results, add:
+// -rf json -rff event-throttle.json
+//
+@State(Scope.Benchmark)
+@Fork(1)
+@Threads(1)
+@BenchmarkMode(Array(Mode.AverageTime))
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1, timeUnit = TimeUnit.SECONDS)
+@Measurement(iterations = 10, time = 1, timeUnit = TimeUnit.SECONDS)
+class EventThrottleBenchmark {
+  final private val EventsPerInvocation = 10000
+
+  @Param(Array("pass-through", "rate-adapter", "rate-limiter"))
+  var stage: String = _
+
+  private implicit var actorSystem: ActorSystem = _
+  private implicit var mat: Materializer        = _
+  private var events: Source[Event, NotUsed]    = _
+  private var flow: Flow[Event, Event, NotUsed] = _
+
+  @Setup(Level.Trial)
+  def setup(): Unit = {
+    actorSystem = ActorSystem("event-throttle-benchmark")
+    mat = ActorMaterializer()
+    val event = SystemEvent(Prefix("wfos.blue.filter"), EventName("filter wheel"))
+    events = Source.repeat(event).take(EventsPerInvocation)
+    flow = stage match {
+      case "pass-through" ⇒ Flow[Event].map(identity)
+      case "rate-adapter" ⇒ Flow.fromGraph(new RateAdapterStage[Event](10.millis))
+      case "rate-limiter" ⇒ Flow.fromGraph(new RateLimiterStage[Event](10.millis))
+    }
+  }
+
+  @TearDown(Level.Trial)
+  def teardown(): Unit = Await.result(actorSystem.terminate(), 5.seconds)
+
+  @Benchmark
+  @OperationsPerInvocation(EventsPerInvocation)
+  def throttle(): Done = Await.result(events.via(flow).runWith(Sink.ignore), 1.minute)
+}
@@ -0,0 +1,126 @@
+package csw.benchmark.params
+
+import java.time.Instant
+import java.util.concurrent.TimeUnit
+
+import akka.actor.{ActorSystem, ExtendedActorSystem}
+import com.twitter.chill.akka.AkkaSerializer
+import csw.command.client.serialization.CommandSerializer
+import csw.params.commands.CommandResponse.{CompletedWithResult, SubmitResponse}
+import csw.params.commands.{CommandName, Result, Setup ⇒ SetupCommand}
+import csw.params.core.generics.KeyType._
+import csw.params.core.generics.Parameter
+import csw.params.core.models.Units.meter
+import csw.params.core.models._
+import org.openjdk.jmh.annotations._
+
+import scala.concurrent.Await
+import scala.concurrent.duration.DurationDouble
+
+/**
+ * Compares the time taken by Kryo and by the binary serializer of commands to write a setup and read it back, and to do
+ * the same for the response completing it. The typical setup holds a dozen scalar parameters, the large one also holds an
+ * array of 10000 ints and a 100x100 matrix of floats. The sizes of the serialized setups are reported by `setupSizes`.
+ */
+// ============================== HOW TO RUN THIS TEST: ====================================
+//
+// single thread:
+// sbt csw-benchmark/jmh:run -f 1 -wi 10 -i 20 .*CommandSerializationBenchmark.*
+//
+// with the bytes allocated per operation (gc.alloc.rate.norm):
+// sbt csw-benchmark/jmh:run -f 1 -wi 10 -i 20 -prof gc .*CommandSerializationBenchmark.*
+//
+@State(Scope.Benchmark)
+@BenchmarkMode(Array(Mode.AverageTime))
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+class CommandSerializationBenchmark {
+
+  @Param(Array("typical", "large"))
+  var paramSet: String = _
+
+  private var system: ActorSystem           = _
+  private var kryo: AkkaSerializer          = _
+  private var binary: CommandSerializer     = _
+  private var setup: SetupCommand           = _
+  private var response: SubmitResponse      = _
+  private var setupManifest: String         = _
+  private var responseManifest: String      = _
+  private var kryoSetupBytes: Array[Byte]   = _
+  private var binarySetupBytes: Array[Byte] = _
+
+  @Setup(Level.Trial)
+  def setupTrial(): Unit = {
+    val typical: Set[Parameter[_]] = Set(
+      StringKey.make("filter").set("red"),
+      ChoiceKey.make("mode", Choice("fast"), Choice("slow")).set(Choice("fast")),
+      RaDecKey.make("target").set(RaDec(7.3, 12.1)),
+      TimestampKey.make("exposureStart").set(Instant.parse("2019-03-07T23:06:40.123Z")),
+      BooleanKey.make("shutterOpen").set(true),
+      IntKey.make("exposures").set(1, 2, 3),
+      LongKey.make("counts").set(123456789L),
+      FloatKey.make("temperature").set(-12.5f),
+      DoubleKey.make("position").set(12.345, 67.89).withUnits(meter),
+      IntArrayKey.make("window").set(ArrayData.fromArray(0, 0, 2048, 2048)),
+      StructKey.make("status").set(Struct().madd(StringKey.make("state").set("ready"), IntKey.make("errors").set(0))),
+      CharKey.make("grating").set('A')
+    )
+    val large: Set[Parameter[_]] = typical ++ Set(
+      IntArrayKey.make("histogram").set(ArrayData.fromArray(Array.range(0, 10000))),
+      FloatMatrixKey.make("flat").set(MatrixData.fromFlatArray(100, 100, Array.tabulate(10000)(_ / 7f)))
+    )
+
+    system = ActorSystem("example")
+    kryo = new AkkaSerializer(system.asInstanceOf[ExtendedActorSystem])
+    binary = new CommandSerializer
+
+    val prefix = Prefix("wfos.blue.filter")
+    setup = SetupCommand(prefix, CommandName("move"), Some(ObsId("Obs001")), if (paramSet == "large") large else typical)
+    response = CompletedWithResult(setup.runId, Result(prefix, typical))
+    setupManifest = binary.manifest(setup)
+    responseManifest = binary.manifest(response)
+
+    kryoSetupBytes = kryo.toBinary(setup)
+    binarySetupBytes = binary.toBinary(setup)
+  }
+
+  @TearDown(Level.Trial)
+  def teardown(): Unit = Await.result(system.terminate(), 5.seconds)
+
+  // reports the sizes of the serialized setups as its kryoSetupBytes and binarySetupBytes secondary results, its own score is
+  // meaningless
+  @Benchmark
+  @BenchmarkMode(Array(Mode.SingleShotTime))
+  def setupSizes(sizes: SerializedSetupSizes): Unit = {
+    sizes.kryoSetupBytes = kryoSetupBytes.length
+    sizes.binarySetupBytes = binarySetupBytes.length
+  }
+
+  @Benchmark
+  def kryoSetupRoundTrip(): AnyRef = kryo.fromBinary(kryo.toBinary(setup))
+
+  @Benchmark
+  def binarySetupRoundTrip(): AnyRef = binary.fromBinary(binary.toBinary(setup), setupManifest)
+
+  @Benchmark
+  def kryoSetupRead(): AnyRef = kryo.fromBinary(kryoSetupBytes)
+
+  @Benchmark
+  def binarySetupRead(): AnyRef = binary.fromBinary(binarySetupBytes, setupManifest)
+
+  @Benchmark
+  def kryoResponseRoundTrip(): AnyRef = kryo.fromBinary(kryo.toBinary(response))
+
+  @Benchmark
+  def binaryResponseRoundTrip(): AnyRef = binary.fromBinary(binary.toBinary(response), responseManifest)
+}
+
+/**
+ * Sizes in bytes of the setup of a [[CommandSerializationBenchmark]] serialized by Kryo and by the binary serializer, reported
+ * once per iteration of a single thread
+ */
+@State(Scope.Thread)
+@AuxCounters(AuxCounters.Type.EVENTS)
+class SerializedSetupSizes {
+  var kryoSetupBytes: Long   = _
+  var binarySetupBytes: Long = _
+}
@@ -0,0 +1,29 @@
+package csw.benchmark.params
+
+import java.util.concurrent.TimeUnit
+
+import csw.params.core.models.IdGenerator
+import org.openjdk.jmh.annotations._
+
+/**
+ * Tests the throughput of the id generators used for the runIds of commands and the eventIds of events.
+ */
+// ============================== HOW TO RUN THIS TEST: ====================================
+//
+// single thread:
+// sbt csw-benchmark/jmh:run -f 1 -wi 10 -i 20 .*IdGeneratorBenchmark.*
+//
+// multiple threads (for example, 8 threads), where the random UUIDs contend on their shared SecureRandom:
+// sbt csw-benchmark/jmh:run -f 1 -wi 10 -i 20 -t 8 .*IdGeneratorBenchmark.*
+//
+@State(Scope.Benchmark)
+@BenchmarkMode(Array(Mode.Throughput))
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+class IdGeneratorBenchmark {
+
+  @Benchmark
+  def randomUUID(): String = IdGenerator.RandomUUID.generate()
+
+  @Benchmark
+  def timeOrderedUUID(): String = IdGenerator.TimeOrderedUUID.generate()
+}
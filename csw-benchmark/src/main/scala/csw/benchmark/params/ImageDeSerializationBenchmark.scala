@@ -4,7 +4,7 @@ import java.nio.file.{Files, Paths}
 import java.util.concurrent.TimeUnit
 
 import akka.actor.ActorSystem
-import akka.serialization.{Serialization, SerializationExtension}
+import akka.serialization.{Serialization, SerializationExtension, SerializerWithStringManifest}
 import csw.params.commands.{CommandName, Observe}
 import csw.params.core.generics.KeyType.ByteArrayKey
 import csw.params.core.generics.{Key, Parameter}
@@ -70,27 +70,33 @@ class ImageDeSerializationBenchmark {
     (observeSerializer.toBinary(observe), observe)
   }
 
+  // serializers with string manifests, such as the one of commands, read the bytes back with the manifest of the value
+  private def deserialize(bytes: Array[Byte], observe: Observe): Observe = {
+    val value = serialization.findSerializerFor(observe) match {
+      case serializer: SerializerWithStringManifest ⇒ serializer.fromBinary(bytes, serializer.manifest(observe))
+      case serializer                               ⇒ serializer.fromBinary(bytes)
+    }
+    value.asInstanceOf[Observe]
+  }
+
   @Benchmark
   @BenchmarkMode(Array(Mode.AverageTime))
   @OutputTimeUnit(TimeUnit.MILLISECONDS)
   def _032kImageDeSerializationBench(): Observe = {
-    val observeSerializer = serialization.findSerializerFor(img_32k_tuple._2)
-    observeSerializer.fromBinary(img_32k_tuple._1).asInstanceOf[Observe]
+    deserialize(img_32k_tuple._1, img_32k_tuple._2)
   }
 
   @Benchmark
   @BenchmarkMode(Array(Mode.AverageTime))
   @OutputTimeUnit(TimeUnit.MILLISECONDS)
   def _128kImageDeSerializationBench(): Observe = {
-    val observeSerializer = serialization.findSerializerFor(img_128k_tuple._2)
-    observeSerializer.fromBinary(img_128k_tuple._1).asInstanceOf[Observe]
+    deserialize(img_128k_tuple._1, img_128k_tuple._2)
   }
 
   @Benchmark
   @BenchmarkMode(Array(Mode.AverageTime))
   @OutputTimeUnit(TimeUnit.MILLISECONDS)
   def _512kImageDeSerializationBench(): Observe = {
-    val observeSerializer = serialization.findSerializerFor(img_512k_tuple._2)
-    observeSerializer.fromBinary(img_512k_tuple._1).asInstanceOf[Observe]
+    deserialize(img_512k_tuple._1, img_512k_tuple._2)
   }
 }
@@ -0,0 +1,75 @@
+package csw.benchmark.params
+
+import java.time.Instant
+import java.util.concurrent.TimeUnit
+
+import csw.params.core.formats.{JsonSupport, StreamingJsonCodec}
+import csw.params.core.generics.KeyType._
+import csw.params.core.generics.Parameter
+import csw.params.core.models.Units.meter
+import csw.params.core.models._
+import csw.params.events.{Event, EventName, SystemEvent}
+import org.openjdk.jmh.annotations._
+import play.api.libs.json.Json
+
+/**
+ * Compares the throughput of the play-json formats and of the streaming codec writing and reading events to and from JSON.
+ * The typical event holds a dozen scalar parameters, the large one also holds an array of 10000 ints and a 100x100 matrix
+ * of floats.
+ */
+// ============================== HOW TO RUN THIS TEST: ====================================
+//
+// single thread:
+// sbt csw-benchmark/jmh:run -f 1 -wi 10 -i 20 .*JsonCodecBenchmark.*
+//
+// with the bytes allocated per operation (gc.alloc.rate.norm):
+// sbt csw-benchmark/jmh:run -f 1 -wi 10 -i 20 -prof gc .*JsonCodecBenchmark.*
+//
+@State(Scope.Benchmark)
+@BenchmarkMode(Array(Mode.Throughput))
+@OutputTimeUnit(TimeUnit.SECONDS)
+class JsonCodecBenchmark {
+
+  @Param(Array("typical", "large"))
+  var paramSet: String = _
+
+  private var event: Event       = _
+  private var bytes: Array[Byte] = _
+
+  @Setup(Level.Trial)
+  def setup(): Unit = {
+    val typical: Set[Parameter[_]] = Set(
+      StringKey.make("filter").set("red"),
+      ChoiceKey.make("mode", Choice("fast"), Choice("slow")).set(Choice("fast")),
+      RaDecKey.make("target").set(RaDec(7.3, 12.1)),
+      TimestampKey.make("exposureStart").set(Instant.parse("2019-03-07T23:06:40.123Z")),
+      BooleanKey.make("shutterOpen").set(true),
+      IntKey.make("exposures").set(1, 2, 3),
+      LongKey.make("counts").set(123456789L),
+      FloatKey.make("temperature").set(-12.5f),
+      DoubleKey.make("position").set(12.345, 67.89).withUnits(meter),
+      IntArrayKey.make("window").set(ArrayData.fromArray(0, 0, 2048, 2048)),
+      StructKey.make("status").set(Struct().madd(StringKey.make("state").set("ready"), IntKey.make("errors").set(0))),
+      CharKey.make("grating").set('A')
+    )
+    val large: Set[Parameter[_]] = typical ++ Set(
+      IntArrayKey.make("histogram").set(ArrayData.fromArray(Array.range(0, 10000))),
+      FloatMatrixKey.make("flat").set(MatrixData.fromFlatArray(100, 100, Array.tabulate(10000)(_ / 7f)))
+    )
+
+    event = SystemEvent(Prefix("wfos.blue.filter"), EventName("filter wheel"), if (paramSet == "large") large else typical)
+    bytes = StreamingJsonCodec.writeEvent(event)
+  }
+
+  @Benchmark
+  def playJsonWrite(): Array[Byte] = Json.toBytes(JsonSupport.writeEvent(event))
+
+  @Benchmark
+  def streamingWrite(): Array[Byte] = StreamingJsonCodec.writeEvent(event)
+
+  @Benchmark
+  def playJsonRead(): Event = JsonSupport.readEvent[Event](Json.parse(bytes))
+
+  @Benchmark
+  def streamingRead(): Event = StreamingJsonCodec.readEvent[Event](bytes)
+}
@@ -0,0 +1,73 @@
+package csw.benchmark.params
+
+import java.util.concurrent.TimeUnit
+
+import csw.params.commands
+import csw.params.commands.CommandName
+import csw.params.core.generics.KeyType.IntKey
+import csw.params.core.generics.{Key, Parameter}
+import csw.params.core.models.Prefix
+import csw.params.events.{EventName, SystemEvent}
+import org.openjdk.jmh.annotations._
+
+/**
+ * Tests the performance of looking up, adding and removing parameters of parameter sets of different sizes.
+ */
+// ============================== HOW TO RUN THIS TEST: ====================================
+//
+// single thread:
+// sbt csw-benchmark/jmh:run -f 1 -wi 10 -i 20 .*ParameterSetBenchmark.*
+//
+// for the parameter sets of a given size only:
+// sbt csw-benchmark/jmh:run -f 1 -wi 10 -i 20 -p parameterCount=100 .*ParameterSetBenchmark.*
+//
+@State(Scope.Benchmark)
+@BenchmarkMode(Array(Mode.AverageTime))
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+class ParameterSetBenchmark {
+
+  @Param(Array("10", "100", "1000"))
+  var parameterCount: Int = _
+
+  private var setup: commands.Setup              = _
+  private var systemEvent: SystemEvent           = _
+  private var parameters: Set[Parameter[Int]]    = _
+  private var lastKey: Key[Int]                  = _
+  private var missingKey: Key[Int]               = _
+  private var replacingParameter: Parameter[Int] = _
+
+  @Setup(Level.Trial)
+  def setUp(): Unit = {
+    val prefix = Prefix("wfos.blue.filter")
+    parameters = (1 to parameterCount).map(i ⇒ IntKey.make(s"key$i").set(i)).toSet
+    setup = commands.Setup(prefix, CommandName("move"), None, parameters.asInstanceOf[Set[Parameter[_]]])
+    systemEvent = SystemEvent(prefix, EventName("filter wheel"), parameters.asInstanceOf[Set[Parameter[_]]])
+    lastKey = IntKey.make(s"key$parameterCount")
+    missingKey = IntKey.make("missing")
+    replacingParameter = lastKey.set(-1)
+  }
+
+  @Benchmark
+  def getFromSetup(): Option[Parameter[Int]] = setup.get(lastKey)
+
+  @Benchmark
+  def getFromSystemEvent(): Option[Parameter[Int]] = systemEvent.get(lastKey)
+
+  @Benchmark
+  def existsInSetup(): Boolean = setup.exists(missingKey)
+
+  @Benchmark
+  def addToSetup(): commands.Setup = setup.add(replacingParameter)
+
+  @Benchmark
+  def addToSystemEvent(): SystemEvent = systemEvent.add(replacingParameter)
+
+  @Benchmark
+  def removeFromSetup(): commands.Setup = setup.remove(lastKey)
+
+  @Benchmark
+  def removeFromSystemEvent(): SystemEvent = systemEvent.remove(lastKey)
+
+  @Benchmark
+  def buildSetup(): commands.Setup = commands.Setup(Prefix("wfos.blue.filter"), CommandName("move"), None).madd(parameters)
+}
@@ -0,0 +1,55 @@
+package csw.command.client.serialization
+
+import java.io.NotSerializableException
+
+import akka.serialization.SerializerWithStringManifest
+import csw.params.commands.CommandResponse.SubmitResponse
+import csw.params.commands.ControlCommand
+import csw.params.core.formats.BinaryCodec
+import csw.params.core.generics.Parameter
+import csw.params.core.states.CurrentState
+
+/**
+ * Akka serializer of control commands, submit responses, current states and parameters, the messages exchanged with
+ * components most often, in the compact binary form of [[csw.params.core.formats.BinaryCodec]].
+ *
+ * It is bound to these messages in the `reference.conf` of csw-command-client, all other `TMTSerializable` messages are
+ * serialized by Kryo. The manifests name the kind of message rather than its class, so renaming or moving a class does
+ * not change the bytes sent for it.
+ */
+class CommandSerializer extends SerializerWithStringManifest {
+
+  private val ControlCommandManifest = "ControlCommand"
+  private val SubmitResponseManifest = "SubmitResponse"
+  private val CurrentStateManifest   = "CurrentState"
+  private val ParameterManifest      = "Parameter"
+
+  override def identifier: Int = 19580
+
+  override def manifest(o: AnyRef): String = o match {
+    case _: ControlCommand ⇒ ControlCommandManifest
+    case _: SubmitResponse ⇒ SubmitResponseManifest
+    case _: CurrentState   ⇒ CurrentStateManifest
+    case _: Parameter[_]   ⇒ ParameterManifest
+    case _                 ⇒ unsupported(o)
+  }
+
+  override def toBinary(o: AnyRef): Array[Byte] = o match {
+    case x: ControlCommand ⇒ BinaryCodec.writeCommand(x)
+    case x: SubmitResponse ⇒ BinaryCodec.writeSubmitResponse(x)
+    case x: CurrentState   ⇒ BinaryCodec.writeCurrentState(x)
+    case x: Parameter[_]   ⇒ BinaryCodec.writeParameter(x)
+    case _                 ⇒ unsupported(o)
+  }
+
+  override def fromBinary(bytes: Array[Byte], manifest: String): AnyRef = manifest match {
+    case ControlCommandManifest ⇒ BinaryCodec.readCommand[ControlCommand](bytes)
+    case SubmitResponseManifest ⇒ BinaryCodec.readSubmitResponse[SubmitResponse](bytes)
+    case CurrentStateManifest   ⇒ BinaryCodec.readCurrentState(bytes)
+    case ParameterManifest      ⇒ BinaryCodec.readParameter(bytes)
+    case _                      ⇒ throw new NotSerializableException(s"Unknown manifest [$manifest] in [${getClass.getName}]")
+  }
+
+  private def unsupported(o: AnyRef): Nothing =
+    throw new IllegalArgumentException(s"Can't serialize object of type ${o.getClass} in [${getClass.getName}]")
+}
@@ -6,7 +6,7 @@ import java.time.Instant
 import akka.actor.testkit.typed.scaladsl.TestProbe
 import akka.actor.typed.scaladsl.adapter.UntypedActorSystemOps
 import akka.actor.{typed, ActorSystem}
-import akka.serialization.SerializationExtension
+import akka.serialization.{SerializationExtension, SerializerWithStringManifest}
 import com.twitter.chill.akka.AkkaSerializer
 import csw.command.client.messages.ComponentCommonMessage.{
   ComponentStateSubscription,
@@ -21,6 +21,7 @@ import csw.command.client.models.framework.LocationServiceUsage.DoNotRegister
 import csw.command.client.models.framework.PubSub.Subscribe
 import csw.command.client.models.framework.ToComponentLifecycleMessages.{GoOffline, GoOnline}
 import csw.command.client.models.framework._
+import csw.command.client.serialization.CommandSerializer
 import csw.commons.tagobjects.FileSystemSensitive
 import csw.location.api.models.ComponentType.HCD
 import csw.location.api.models.Connection
@@ -48,6 +49,9 @@ class AkkaKryoSerializationTest extends FunSpec with Matchers with BeforeAndAfte
 
   override protected def afterAll(): Unit = Await.result(system.terminate(), 2.seconds)
 
+  private def manifest(o: AnyRef): String =
+    serialization.findSerializerFor(o).asInstanceOf[SerializerWithStringManifest].manifest(o)
+
   describe("Test akka serialization of Commands") {
 
     it("should serialize Setup") {
@@ -57,10 +61,10 @@ class AkkaKryoSerializationTest extends FunSpec with Matchers with BeforeAndAfte
       val setup           = Setup(prefix, CommandName("move"), Some(ObsId("Obs001"))).add(param)
       val setupSerializer = serialization.findSerializerFor(setup)
 
-      setupSerializer.getClass shouldBe classOf[AkkaSerializer]
+      setupSerializer.getClass shouldBe classOf[CommandSerializer]
 
       val setupBytes: Array[Byte] = setupSerializer.toBinary(setup)
-      setupSerializer.fromBinary(setupBytes) shouldBe setup
+      serialization.deserialize(setupBytes, setupSerializer.identifier, manifest(setup)).get shouldBe setup
     }
 
     it("should serialize Observe", FileSystemSensitive) {
@@ -76,10 +80,10 @@ class AkkaKryoSerializationTest extends FunSpec with Matchers with BeforeAndAfte
       val observe           = Observe(prefix, CommandName("move"), Some(ObsId("Obs001"))).add(param)
       val observeSerializer = serialization.findSerializerFor(observe)
 
-      observeSerializer.getClass shouldBe classOf[AkkaSerializer]
+      observeSerializer.getClass shouldBe classOf[CommandSerializer]
 
       val observeBytes: Array[Byte] = observeSerializer.toBinary(observe)
-      observeSerializer.fromBinary(observeBytes) shouldBe observe
+      serialization.deserialize(observeBytes, observeSerializer.identifier, manifest(observe)).get shouldBe observe
     }
 
     it("should serialize Wait") {
@@ -155,10 +159,12 @@ class AkkaKryoSerializationTest extends FunSpec with Matchers with BeforeAndAfte
       val currentState           = CurrentState(prefix, StateName("testStateName")).madd(charParam, intArrayParam)
       val currentStateSerializer = serialization.findSerializerFor(currentState)
 
-      currentStateSerializer.getClass shouldBe classOf[AkkaSerializer]
+      currentStateSerializer.getClass shouldBe classOf[CommandSerializer]
 
       val currentStateBytes: Array[Byte] = currentStateSerializer.toBinary(currentState)
-      currentStateSerializer.fromBinary(currentStateBytes) shouldBe currentState
+      serialization
+        .deserialize(currentStateBytes, currentStateSerializer.identifier, manifest(currentState))
+        .get shouldBe currentState
     }
 
     it("should serialize DemandState") {
@@ -252,7 +258,7 @@ class AkkaKryoSerializationTest extends FunSpec with Matchers with BeforeAndAfte
       serialization.findSerializerFor(CommandResponse.Accepted(Id())).getClass shouldBe classOf[AkkaSerializer]
       serialization
         .findSerializerFor(Invalid(Id(), CommandIssue.OtherIssue("test issue")))
-        .getClass shouldBe classOf[AkkaSerializer]
+        .getClass shouldBe classOf[CommandSerializer]
     }
 
     it("should serialize CommandExecutionResponse messages") {
@@ -268,7 +274,7 @@ class AkkaKryoSerializationTest extends FunSpec with Matchers with BeforeAndAfte
       forAll(testData) { commandResponse ⇒
         serialization
           .findSerializerFor(commandResponse)
-          .getClass shouldBe classOf[AkkaSerializer]
+          .getClass shouldBe classOf[CommandSerializer]
 
       }
     }
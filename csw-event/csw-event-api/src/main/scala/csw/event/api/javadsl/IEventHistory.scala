@@ -0,0 +1,24 @@
+package csw.event.api.javadsl
+
+import java.util
+import java.util.concurrent.CompletableFuture
+
+import csw.params.events.{Event, EventKey}
+
+/**
+ * Java API for [[csw.event.api.scaladsl.EventHistory]]. The [[csw.event.api.javadsl.IEventSubscriber]]s of the event stores
+ * which keep a bounded history of the events of every key implement this interface too, which callers check with
+ * `instanceof`.
+ */
+trait IEventHistory {
+
+  /**
+   * Fetches the latest events of the given key still held by the event store, e.g. to draw the trend of a value
+   *
+   * @param eventKey the key whose events are fetched
+   * @param count maximum number of events fetched
+   * @return a CompletableFuture which completes with the events, the oldest first, or an empty list if no event of the key
+   *         is held
+   */
+  def history(eventKey: EventKey, count: Int): CompletableFuture[util.List[Event]]
+}
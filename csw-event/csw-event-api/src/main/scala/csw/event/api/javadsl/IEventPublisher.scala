@@ -7,6 +7,7 @@ import java.util.function.{Consumer, Supplier}
 
 import akka.Done
 import akka.actor.Cancellable
+import akka.stream.QueueOfferResult
 import akka.stream.javadsl.Source
 import csw.event.api.exceptions.PublishFailure
 import csw.params.events.Event
@@ -31,6 +32,23 @@ trait IEventPublisher {
    */
   def publish(event: Event): CompletableFuture[Done]
 
+  /**
+   * Offer a single [[csw.params.events.Event]] to be published, without waiting for it to be published
+   *
+   * Unlike `publish(event)`, offered events go through a bounded queue which reports whether an event was accepted or not.
+   * While the publisher is busy, the queued events of a [[csw.params.events.EventKey]] are coalesced and only the latest of
+   * them gets published. A high rate stream of events of a few keys is hence thinned out under pressure, without pushing
+   * the events of other keys out of the queue.
+   *
+   * Failures to publish an accepted event are logged and not reported back to the caller.
+   *
+   * @param event an event to be published
+   * @return a completable future which completes with [[akka.stream.QueueOfferResult.Enqueued]] when the event is accepted,
+   *         [[akka.stream.QueueOfferResult.Dropped]] when the queue is full or [[akka.stream.QueueOfferResult.QueueClosed]]
+   *         when the publisher is shut down
+   */
+  def offer(event: Event): CompletableFuture[QueueOfferResult]
+
   /**
    * Publish from a stream of [[csw.params.events.Event]]
    *
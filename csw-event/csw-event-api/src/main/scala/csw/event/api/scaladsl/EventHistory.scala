@@ -0,0 +1,22 @@
+package csw.event.api.scaladsl
+
+import csw.params.events.{Event, EventKey}
+
+import scala.concurrent.Future
+
+/**
+ * A capability of the [[csw.event.api.scaladsl.EventSubscriber]]s of the event stores which keep a bounded history of the
+ * events of every key, e.g. the Redis streams store. Such a subscriber, including the subscribers wrapping it, implements
+ * this trait on top of [[csw.event.api.scaladsl.EventSubscriber]], which callers check with a type pattern.
+ */
+trait EventHistory {
+
+  /**
+   * Fetches the latest events of the given key still held by the event store, e.g. to draw the trend of a value
+   *
+   * @param eventKey the key whose events are fetched
+   * @param count maximum number of events fetched
+   * @return a future which completes with the events, the oldest first, or an empty list if no event of the key is held
+   */
+  def history(eventKey: EventKey, count: Int): Future[List[Event]]
+}
@@ -2,6 +2,7 @@ package csw.event.api.scaladsl
 
 import akka.Done
 import akka.actor.Cancellable
+import akka.stream.QueueOfferResult
 import akka.stream.scaladsl.Source
 import csw.event.api.exceptions.PublishFailure
 import csw.params.events.Event
@@ -29,6 +30,23 @@ trait EventPublisher {
    */
   def publish(event: Event): Future[Done]
 
+  /**
+   * Offer a single [[csw.params.events.Event]] to be published, without waiting for it to be published
+   *
+   * Unlike `publish(event)`, offered events go through a bounded queue which reports whether an event was accepted or not.
+   * While the publisher is busy, the queued events of a [[csw.params.events.EventKey]] are coalesced and only the latest of
+   * them gets published. A high rate stream of events of a few keys is hence thinned out under pressure, without pushing
+   * the events of other keys out of the queue.
+   *
+   * Failures to publish an accepted event are logged and not reported back to the caller.
+   *
+   * @param event an event to be published
+   * @return a future which completes with [[akka.stream.QueueOfferResult.Enqueued]] when the event is accepted,
+   *         [[akka.stream.QueueOfferResult.Dropped]] when the queue is full or [[akka.stream.QueueOfferResult.QueueClosed]]
+   *         when the publisher is shut down
+   */
+  def offer(event: Event): Future[QueueOfferResult]
+
   /**
    * Publish from a stream of [[csw.params.events.Event]]
    *
@@ -1,5 +1,6 @@
 package csw.event.api.scaladsl
 
+import akka.NotUsed
 import akka.actor.typed.ActorRef
 import akka.stream.scaladsl.Source
 import csw.params.core.models.Subsystem
@@ -215,6 +216,19 @@ trait EventSubscriber {
    */
   def get(eventKeys: Set[EventKey]): Future[Set[Event]]
 
+  /**
+   * Get latest events for multiple Event Keys as a stream. Events are fetched in chunks and emitted as soon as a chunk is
+   * received, which suits fetching a large number of Event Keys at once. If event is not published for one or more event keys,
+   * `invalid event` will be received for those Event Keys.
+   *
+   * In case the underlying server is not available, the stream fails with [[csw.event.api.exceptions.EventServerNotAvailable]] exception.
+   * In all other cases of exception, the stream fails with the respective exception
+   *
+   * @param eventKeys a set of [[csw.params.events.EventKey]] to fetch
+   * @return a [[akka.stream.scaladsl.Source]] of latest [[csw.params.events.Event]] for the provided Event Keys
+   */
+  def getAll(eventKeys: Set[EventKey]): Source[Event, NotUsed]
+
   /**
    * Get latest event for the given Event Key. If an event is not published for any eventKey, then `invalid event` is returned for that Event Key.
    *
@@ -86,9 +86,10 @@ class CommandLineRunner(eventService: EventService, actorRuntime: ActorRuntime,
     }
   }
 
-  private def getEvents(keys: Seq[EventKey]) = {
+  private def getEvents(keys: Seq[EventKey]) = async {
     val subscriber = eventService.defaultSubscriber
-    Future.traverse(keys)(subscriber.get)
+    val events     = await(subscriber.getAll(keys.toSet).runWith(Sink.seq)).map(event ⇒ event.eventKey → event).toMap
+    keys.map(key ⇒ events.getOrElse(key, Event.badEvent()))
   }
 
   private def getEvent(key: EventKey, eventData: Option[File]) = {
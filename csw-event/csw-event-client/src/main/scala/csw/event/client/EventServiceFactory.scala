@@ -1,35 +1,64 @@
 package csw.event.client
 
+import akka.NotUsed
 import akka.actor.ActorSystem
+import akka.stream.scaladsl.Source
 import akka.stream.{ActorMaterializer, ActorMaterializerSettings, Materializer}
 import csw.event.api.javadsl.IEventService
 import csw.event.api.scaladsl.EventService
-import csw.event.client.internal.commons.EventStreamSupervisionStrategy
+import csw.event.client.internal.commons.{EventStreamSupervisionStrategy, Settings}
 import csw.event.client.internal.commons.javawrappers.JEventService
 import csw.event.client.internal.commons.serviceresolver.{
   EventServiceHostPortResolver,
   EventServiceLocationResolver,
   EventServiceResolver
 }
+import csw.event.client.internal.inmemory.{InMemoryEventBroker, InMemoryEventService}
 import csw.event.client.internal.kafka.KafkaEventService
+import csw.event.client.internal.local.{LocalDeliveryEventService, LocalEventHub}
+import csw.event.client.internal.nearcache.NearCachedEventService
 import csw.event.client.internal.redis.RedisEventService
+import csw.event.client.internal.redisstreams.RedisStreamsEventService
 import csw.event.client.models.EventStore
-import csw.event.client.models.EventStores.{KafkaStore, RedisStore}
+import csw.event.client.models.EventStores.{InMemoryStore, KafkaStore, RedisStore, RedisStreamsStore}
 import csw.location.api.javadsl.ILocationService
 import csw.location.api.scaladsl.LocationService
+import io.lettuce.core.RedisClient
+import io.lettuce.core.event.connection.DisconnectedEvent
 
 import scala.concurrent.ExecutionContext
 
 /**
  * Factory to create EventService
  */
-class EventServiceFactory(store: EventStore = RedisStore()) {
+class EventServiceFactory private (store: EventStore, nearCacheMaxSize: Option[Long]) {
+
+  // shared by all the event services made by this factory which deliver events locally
+  private lazy val localEventHub = new LocalEventHub
+
+  // stands in for the event server of all the event services made by this factory with the in-memory store
+  private lazy val inMemoryEventBroker = new InMemoryEventBroker
+
+  /**
+   * Constructs an EventServiceFactory which creates event services backed by the given store
+   */
+  def this(store: EventStore = RedisStore()) = this(store, None)
 
   /**
    * A java helper to construct EventServiceFactory
    */
   def this() = this(RedisStore())
 
+  /**
+   * Creates a factory whose event services keep the latest event of every subscribed key in a local cache, so that `get`
+   * on such a key does not go to the event server. The hits and misses of the caches of all the subscribers of the JVM are
+   * reported by the `NearCacheHits` and `NearCacheMisses` attributes of the `csw.event:type=EventServiceMetrics` MBean.
+   *
+   * @param maxSize maximum number of keys held in the cache of every subscriber
+   * @return a new factory with the near cache enabled
+   */
+  def withNearCache(maxSize: Long): EventServiceFactory = new EventServiceFactory(store, Some(maxSize))
+
   /**
    * API to create [[EventService]] using [[LocationService]] to resolve Event Server.
    *
@@ -83,11 +112,48 @@ class EventServiceFactory(store: EventStore = RedisStore()) {
     implicit val ec: ExecutionContext       = system.dispatcher
     implicit val materializer: Materializer = mat()
 
-    def masterId = system.settings.config.getString("csw-event.redis.masterId")
+    val settings = new Settings(system.settings.config)
+
+    val storeService = store match {
+      case RedisStore(client)        ⇒ new RedisEventService(eventServiceResolver, settings, client)
+      case RedisStreamsStore(client) ⇒ new RedisStreamsEventService(eventServiceResolver, settings, client)
+      case KafkaStore                ⇒ new KafkaEventService(eventServiceResolver, settings)
+      case InMemoryStore             ⇒ new InMemoryEventService(inMemoryEventBroker, settings)
+    }
+
+    val service =
+      if (settings.localDeliveryEnabled)
+        new LocalDeliveryEventService(
+          storeService,
+          localEventHub,
+          settings.localDeliveryBufferSize,
+          settings.localDeliveryDedupWindow,
+          settings.taiAlignedTicks,
+          settings.asyncCallbackParallelism
+        )
+      else storeService
 
-    store match {
-      case RedisStore(client) ⇒ new RedisEventService(eventServiceResolver, masterId, client)
-      case KafkaStore         ⇒ new KafkaEventService(eventServiceResolver)
+    nearCacheMaxSize match {
+      case Some(maxSize) ⇒
+        new NearCachedEventService(
+          service,
+          maxSize,
+          () ⇒ disconnections(),
+          settings.taiAlignedTicks,
+          settings.asyncCallbackParallelism
+        )
+      case None          ⇒ service
     }
   }
+
+  // lettuce reports every lost connection of a client on its event bus, kafka consumers reconnect on their own and the
+  // in-memory store has no connection
+  private def disconnections(): Source[Any, NotUsed] = store match {
+    case RedisStore(client)         ⇒ redisDisconnections(client)
+    case RedisStreamsStore(client)  ⇒ redisDisconnections(client)
+    case KafkaStore | InMemoryStore ⇒ Source.empty
+  }
+
+  private def redisDisconnections(client: RedisClient): Source[Any, NotUsed] =
+    Source.fromPublisher(client.getResources.eventBus().get()).filter(_.isInstanceOf[DisconnectedEvent])
 }
@@ -0,0 +1,16 @@
+package csw.event.client.internal.commons
+
+import csw.event.api.scaladsl.EventHistory
+import csw.params.events.{Event, EventKey}
+
+import scala.concurrent.Future
+
+/**
+ * Mixed into a subscriber wrapping another one which implements [[csw.event.api.scaladsl.EventHistory]], so that the wrapping
+ * subscriber serves the history of the wrapped one
+ */
+private[event] trait DelegatedEventHistory extends EventHistory {
+  protected def eventHistory: EventHistory
+
+  override def history(eventKey: EventKey, count: Int): Future[List[Event]] = eventHistory.history(eventKey, count)
+}
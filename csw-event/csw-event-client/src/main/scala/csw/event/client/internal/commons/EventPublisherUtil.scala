@@ -1,34 +1,85 @@
 package csw.event.client.internal.commons
 
+import java.util.concurrent.atomic.AtomicInteger
+
 import akka.Done
 import akka.actor.{Cancellable, PoisonPill}
-import akka.stream.scaladsl.{Sink, Source}
+import akka.stream.scaladsl.{Sink, Source, SourceQueueWithComplete}
 import akka.stream.{Materializer, OverflowStrategy}
 import csw.event.api.exceptions.PublishFailure
-import csw.params.events.Event
+import csw.event.client.internal.metrics.EventServiceMetrics
+import csw.params.events.{Event, EventKey}
 
+import scala.collection.mutable
 import scala.concurrent.duration.FiniteDuration
 import scala.concurrent.{ExecutionContext, Future, Promise}
 import scala.util.control.NonFatal
 
 /**
  * Utility class to provided common functionalities to different implementations of EventPublisher
+ *
+ * @param laneCount number of lanes events are published through. The events of a key always go through the same lane, so
+ *                  that they are published in order, while the lanes are published concurrently.
  */
-class EventPublisherUtil(implicit ec: ExecutionContext, mat: Materializer) {
+class EventPublisherUtil(laneCount: Int = 1)(implicit ec: ExecutionContext, mat: Materializer) {
 
-  private val logger = EventServiceLogger.getLogger
+  private val logger     = EventServiceLogger.getLogger
+  private val bufferSize = 1024
 
-  lazy val (actorRef, stream) = Source.actorRef[(Event, Promise[Done])](1024, OverflowStrategy.dropHead).preMaterialize()
+  private lazy val lanes = Vector.tabulate(laneCount)(new Lane(_))
 
-  def streamTermination(f: Event => Future[Done]): Future[Done] =
-    stream
+  // the publish of an event is timed from the moment it leaves its queue, the time spent in the queue is recorded on its own
+  def streamTermination(f: Event => Future[Done]): Future[Done] = runLanes { lane ⇒
+    lane.stream
       .mapAsync(1) {
         case (e, p) =>
-          f(e).map(p.trySuccess).recover {
+          EventServiceMetrics.timePublish(f(e)).map(p.trySuccess).recover {
             case ex => p.tryFailure(ex)
           }
       }
       .runForeach(_ => ())
+  }
+
+  // groups the queued events into micro batches, a batch is handed over to `f` only after the previous one is done so that
+  // the order of publishing is preserved, while the promise of every event is completed as soon as its own result is available
+  def batchedStreamTermination(maxBatchSize: Int, maxLinger: FiniteDuration)(
+      f: Seq[Event] => Future[Seq[Future[Done]]]
+  ): Future[Done] = runLanes { lane ⇒
+    lane.stream
+      .groupedWithin(maxBatchSize, maxLinger)
+      .mapAsync(1) { batch =>
+        val (events, promises) = batch.unzip
+        val start              = System.nanoTime()
+        f(events)
+          .map { results =>
+            promises.zip(results).foreach {
+              case (p, result) => p.tryCompleteWith(EventServiceMetrics.timePublishSince(start, result))
+            }
+          }
+          .recover {
+            case ex => promises.foreach(_.tryFailure(ex))
+          }
+      }
+      .runForeach(_ => ())
+  }
+
+  // publishing is considered terminated as soon as any of the lanes is, as the events of its keys could not be published anymore
+  private def runLanes(run: Lane ⇒ Future[Done]): Future[Done] = Future.firstCompletedOf(lanes.map(run))
+
+  // events offered while `f` is busy are coalesced by key, only the latest pending event of a key gets published. A bounded queue
+  // in front of the stream rejects new events instead of dropping the ones it already accepted, should it ever fill up.
+  def coalescingQueue(bufferSize: Int)(f: Event => Future[Done]): SourceQueueWithComplete[Event] =
+    Source
+      .queue[Event](bufferSize, OverflowStrategy.dropNew)
+      .conflateWithSeed(event ⇒ mutable.LinkedHashMap[EventKey, Event](event.eventKey → event)) { (pending, event) ⇒
+        if (pending.contains(event.eventKey)) EventServiceMetrics.coalesced()
+        pending.update(event.eventKey, event)
+        pending
+      }
+      .mapConcat(_.values.toList)
+      .mapAsync(1)(event ⇒ EventServiceMetrics.timePublish(f(event)).recover { case NonFatal(_) ⇒ Done })
+      .to(Sink.ignore)
+      .run()
 
   // create an akka stream source out of eventGenerator function
   def eventSource(
@@ -44,16 +95,15 @@ class EventPublisherUtil(implicit ec: ExecutionContext, mat: Materializer) {
       parallelism: Int,
       publish: Event ⇒ Future[Done],
       maybeOnError: Option[PublishFailure ⇒ Unit]
-  ): Mat =
-    source
-      .mapAsync(parallelism) { event ⇒
-        publishWithRecovery(event, publish, maybeOnError)
-      }
-      .to(Sink.ignore)
-      .run()
+  ): Mat = {
+    val published =
+      if (laneCount == 1) source.mapAsync(parallelism)(publishWithRecovery(_, publish, maybeOnError))
+      else source.groupBy(laneCount, laneOf).mapAsync(parallelism)(publishWithRecovery(_, publish, maybeOnError)).mergeSubstreams
+    published.to(Sink.ignore).run()
+  }
 
   private def publishWithRecovery(event: Event, publish: Event ⇒ Future[Done], maybeOnError: Option[PublishFailure ⇒ Unit]) =
-    publish(event).recover[Done] {
+    EventServiceMetrics.timePublish(publish(event)).recover[Done] {
       case failure @ PublishFailure(_, _) ⇒
         maybeOnError.foreach(onError ⇒ onError(failure))
         Done
@@ -64,11 +114,37 @@ class EventPublisherUtil(implicit ec: ExecutionContext, mat: Materializer) {
   def publish(event: Event, isStreamTerminated: Boolean): Future[Done] = {
     val p = Promise[Done]
     if (isStreamTerminated) p.tryFailure(PublishFailure(event, new RuntimeException("Publisher is shutdown")))
-    else actorRef ! ((event, p))
+    else lanes(laneOf(event)).enqueue(event, p)
     p.future
   }
 
-  def shutdown(): Unit = actorRef ! PoisonPill
+  def shutdown(): Unit = lanes.foreach(_.actorRef ! PoisonPill)
+
+  private def laneOf(event: Event): Int = Math.floorMod(event.eventKey.key.hashCode, laneCount)
+
+  private class Lane(index: Int) {
+    private val queueDepth = new AtomicInteger
+
+    val (actorRef, stream) = Source
+      .actorRef[(Event, Promise[Done], Long)](bufferSize, OverflowStrategy.dropHead)
+      .map {
+        case (event, p, enqueuedAt) ⇒
+          queueDepth.decrementAndGet()
+          EventServiceMetrics.dequeued(index)
+          EventServiceMetrics.queueWaited(enqueuedAt)
+          (event, p)
+      }
+      .preMaterialize()
+
+    def enqueue(event: Event, p: Promise[Done]): Unit = {
+      // the queue drops its oldest event when it is full
+      if (queueDepth.incrementAndGet() > bufferSize) {
+        queueDepth.decrementAndGet()
+        EventServiceMetrics.droppedFromQueue()
+      } else EventServiceMetrics.enqueued(index)
+      actorRef ! ((event, p, System.nanoTime()))
+    }
+  }
 
   // log error for any exception from provided eventGenerator
   private def withErrorLogging(eventGenerator: => Future[Option[Event]]): Future[Event] =
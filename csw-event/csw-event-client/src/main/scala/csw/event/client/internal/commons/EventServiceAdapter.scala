@@ -10,7 +10,7 @@ import csw.event.client.internal.commons.javawrappers.{JEventPublisher, JEventSe
 private[csw] object EventServiceAdapter {
   def asJava(eventPublisher: EventPublisher): IEventPublisher = new JEventPublisher(eventPublisher)
 
-  def asJava(eventSubscriber: EventSubscriber): IEventSubscriber = new JEventSubscriber(eventSubscriber)
+  def asJava(eventSubscriber: EventSubscriber): IEventSubscriber = JEventSubscriber(eventSubscriber)
 
   def asJava(eventService: EventService): IEventService = new JEventService(eventService)
 }
@@ -14,19 +14,25 @@ import scala.concurrent.duration.FiniteDuration
 
 /**
  * Utility class to provided common functionalities to different implementations of EventSubscriber
+ *
+ * @param alignedTicks whether subscriptions with a [[csw.event.api.scaladsl.SubscriptionMode]] are driven by the shared TAI
+ *                     aligned ticks instead of a timer per subscription
+ * @param asyncCallbackParallelism maximum number of callbacks of a `subscribeAsync` subscription running at once, concurrently
+ *                                 across keys when more than 1
  */
-class EventSubscriberUtil(implicit mat: Materializer) {
+class EventSubscriberUtil(alignedTicks: Boolean, asyncCallbackParallelism: Int)(implicit mat: Materializer) {
 
   def subscriptionModeStage(
       every: FiniteDuration,
       mode: SubscriptionMode
   ): GraphStage[FlowShape[Event, Event]] = mode match {
-    case RateAdapterMode => new RateAdapterStage[Event](every)
-    case RateLimiterMode => new RateLimiterStage[Event](every)
+    case RateAdapterMode => new RateAdapterStage[Event](every, alignedTicks)
+    case RateLimiterMode => new RateLimiterStage[Event](every, alignedTicks)
   }
 
   def subscribeAsync(eventSource: Source[Event, EventSubscription], callback: Event => Future[_]): EventSubscription =
-    eventSource.mapAsync(1)(x => callback(x)).to(Sink.ignore).run()
+    if (asyncCallbackParallelism > 1) eventSource.to(new KeyedCallbackStage(asyncCallbackParallelism, callback)).run()
+    else eventSource.mapAsync(1)(x => callback(x)).to(Sink.ignore).run()
 
   def subscribeCallback(eventSource: Source[Event, EventSubscription], callback: Event => Unit): EventSubscription =
     eventSource.to(Sink.foreach(callback)).run()
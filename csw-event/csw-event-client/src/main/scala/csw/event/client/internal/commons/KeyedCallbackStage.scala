@@ -0,0 +1,78 @@
+package csw.event.client.internal.commons
+
+import akka.dispatch.ExecutionContexts
+import akka.stream.stage.{GraphStage, GraphStageLogic, InHandler}
+import akka.stream.{ActorAttributes, Attributes, Inlet, SinkShape, Supervision}
+import csw.params.events.{Event, EventKey}
+
+import scala.collection.mutable
+import scala.concurrent.Future
+import scala.util.control.NonFatal
+import scala.util.{Failure, Try}
+
+/**
+ * Sink invoking an asynchronous callback for the events of a subscription concurrently across their keys.
+ *
+ * The callback runs for one event of a key at a time, in the order the events of the key are received, and for up to
+ * `maxParallelism` keys at once. While the callback of a key is running, or while the callbacks of `maxParallelism` other keys
+ * are running, only the latest event received for the key is kept and the older ones are dropped, so a slow callback for a
+ * key neither holds back the other keys nor the stream. A callback which fails is handled by the supervision strategy of the
+ * stream, as it is when the callbacks run one after the other: the event is skipped when the strategy resumes or restarts,
+ * and the stream fails when it stops.
+ *
+ * @param maxParallelism maximum number of callbacks running at once
+ * @param callback the callback to run for every event which is not dropped
+ */
+private[event] class KeyedCallbackStage(maxParallelism: Int, callback: Event ⇒ Future[_]) extends GraphStage[SinkShape[Event]] {
+  require(maxParallelism > 0, s"max parallelism must be positive, found [$maxParallelism]")
+
+  final val in    = Inlet.create[Event]("KeyedCallbackStage.in")
+  final val shape = SinkShape.of(in)
+
+  override def createLogic(inheritedAttributes: Attributes): GraphStageLogic = new GraphStageLogic(shape) with InHandler {
+    private var running: Set[EventKey] = Set.empty
+    // latest event of every key waiting for its callback, the key waiting the longest first
+    private val pending = mutable.LinkedHashMap.empty[EventKey, Event]
+
+    private val decider =
+      inheritedAttributes.get[ActorAttributes.SupervisionStrategy].map(_.decider).getOrElse(Supervision.stoppingDecider)
+
+    private val completed = getAsyncCallback[(EventKey, Try[Any])] {
+      case (_, Failure(ex)) if decider(ex) == Supervision.Stop ⇒ failStage(ex)
+      case (eventKey, _) ⇒
+        running -= eventKey
+        pending.iterator
+          .filterNot { case (key, _) ⇒ running.contains(key) }
+          .take(maxParallelism - running.size)
+          .toList
+          .foreach {
+            case (key, event) ⇒
+              pending.remove(key)
+              run(event)
+          }
+        if (running.isEmpty && isClosed(in)) completeStage()
+    }
+
+    override def preStart(): Unit = pull(in)
+
+    override def onPush(): Unit = {
+      val event = grab(in)
+      if (running.size < maxParallelism && !running.contains(event.eventKey)) run(event)
+      else pending.update(event.eventKey, event) // the position of a key already waiting is kept
+      pull(in)
+    }
+
+    // events are only waiting while a callback is running
+    override def onUpstreamFinish(): Unit = if (running.isEmpty) completeStage()
+
+    private def run(event: Event): Unit = {
+      running += event.eventKey
+      val result =
+        try callback(event)
+        catch { case NonFatal(ex) ⇒ Future.failed(ex) }
+      result.onComplete(outcome ⇒ completed.invoke((event.eventKey, outcome)))(ExecutionContexts.sameThreadExecutionContext)
+    }
+
+    setHandler(in, this)
+  }
+}
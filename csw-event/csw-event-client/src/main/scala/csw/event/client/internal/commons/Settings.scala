@@ -0,0 +1,74 @@
+package csw.event.client.internal.commons
+
+import com.typesafe.config.Config
+
+import scala.collection.JavaConverters.asScalaSetConverter
+import scala.compat.java8.DurationConverters.DurationOps
+import scala.concurrent.duration.FiniteDuration
+
+/**
+ * Represents the runtime configuration of event service client read from `csw-event` section
+ *
+ * @param config config containing `csw-event` section
+ */
+class Settings(config: Config) {
+
+  private val eventConfig           = config.getConfig("csw-event")
+  private val redisPublisherConfig  = eventConfig.getConfig("redis.publisher")
+  private val redisSubscriberConfig = eventConfig.getConfig("redis.subscriber")
+  private val publisherConfig       = eventConfig.getConfig("publisher")
+  private val subscriberConfig      = eventConfig.getConfig("subscriber")
+  private val localDeliveryConfig   = eventConfig.getConfig("local-delivery")
+  private val redisStreamsConfig    = eventConfig.getConfig("redis-streams")
+  private val inMemoryConfig        = eventConfig.getConfig("in-memory")
+  private val kafkaPublisherConfig  = eventConfig.getConfig("kafka.publisher")
+  private val kafkaSubscriberConfig = eventConfig.getConfig("kafka.subscriber")
+
+  val masterId: String = eventConfig.getString("redis.masterId")
+
+  val publishBatchingEnabled: Boolean      = redisPublisherConfig.getBoolean("batching-enabled")
+  val publishMaxBatchSize: Int             = redisPublisherConfig.getInt("max-batch-size")
+  val publishMaxLinger: FiniteDuration     = redisPublisherConfig.getDuration("max-linger").toScala
+  val publishDeltaEncodingEnabled: Boolean = redisPublisherConfig.getBoolean("delta-encoding-enabled")
+  val publishDeltaKeyframeInterval: Int    = redisPublisherConfig.getInt("delta-keyframe-interval")
+
+  val subscriptionMultiplexingEnabled: Boolean = redisSubscriberConfig.getBoolean("multiplexing-enabled")
+  val subscriptionConnectionPoolSize: Int      = redisSubscriberConfig.getInt("connection-pool-size")
+  val subscriptionBufferSize: Int              = redisSubscriberConfig.getInt("buffer-size")
+  val getBatchSize: Int                        = redisSubscriberConfig.getInt("get-batch-size")
+
+  val streamsMaxLength: Long                = redisStreamsConfig.getLong("max-length")
+  val streamsReadCount: Int                 = redisStreamsConfig.getInt("read-count")
+  val streamsBlock: FiniteDuration          = redisStreamsConfig.getDuration("block").toScala
+  val streamsRetryDelay: FiniteDuration     = redisStreamsConfig.getDuration("retry-delay").toScala
+  val streamsBufferSize: Int                = redisStreamsConfig.getInt("buffer-size")
+  val streamsRescanInterval: FiniteDuration = redisStreamsConfig.getDuration("pattern-rescan-interval").toScala
+
+  val kafkaPublishBatchingEnabled: Boolean  = kafkaPublisherConfig.getBoolean("batching-enabled")
+  val kafkaPublishMaxBatchSize: Int         = kafkaPublisherConfig.getInt("max-batch-size")
+  val kafkaPublishMaxLinger: FiniteDuration = kafkaPublisherConfig.getDuration("max-linger").toScala
+  val kafkaBatchingProducerProperties: Map[String, String] =
+    kafkaPublisherConfig
+      .getConfig("batching-kafka-clients")
+      .entrySet()
+      .asScala
+      .map(entry ⇒ entry.getKey → entry.getValue.unwrapped.toString)
+      .toMap
+
+  val kafkaSharedConsumerEnabled: Boolean            = kafkaSubscriberConfig.getBoolean("shared-consumer-enabled")
+  val kafkaSubscriptionBufferSize: Int               = kafkaSubscriberConfig.getInt("buffer-size")
+  val kafkaSharedConsumerPollTimeout: FiniteDuration = kafkaSubscriberConfig.getDuration("poll-timeout").toScala
+
+  val publishLanes: Int    = publisherConfig.getInt("lanes")
+  val offerBufferSize: Int = publisherConfig.getInt("offer-buffer-size")
+
+  val localDeliveryEnabled: Boolean = localDeliveryConfig.getBoolean("enabled")
+  val localDeliveryBufferSize: Int  = localDeliveryConfig.getInt("buffer-size")
+  val localDeliveryDedupWindow: Int = localDeliveryConfig.getInt("dedup-window-size")
+
+  val inMemoryBufferSize: Int = inMemoryConfig.getInt("buffer-size")
+
+  val lazyDecoding: Boolean         = subscriberConfig.getBoolean("lazy-decoding")
+  val taiAlignedTicks: Boolean      = subscriberConfig.getBoolean("tai-aligned-ticks")
+  val asyncCallbackParallelism: Int = subscriberConfig.getInt("async-callback-parallelism")
+}
@@ -7,6 +7,7 @@ import java.util.function.{Consumer, Supplier}
 
 import akka.Done
 import akka.actor.Cancellable
+import akka.stream.QueueOfferResult
 import akka.stream.javadsl.Source
 import csw.event.api.exceptions.PublishFailure
 import csw.event.api.javadsl.IEventPublisher
@@ -25,6 +26,8 @@ import scala.compat.java8.FutureConverters.{CompletionStageOps, FutureOps}
 class JEventPublisher(eventPublisher: EventPublisher) extends IEventPublisher {
   override def publish(event: Event): CompletableFuture[Done] = eventPublisher.publish(event).toJava.toCompletableFuture
 
+  override def offer(event: Event): CompletableFuture[QueueOfferResult] = eventPublisher.offer(event).toJava.toCompletableFuture
+
   override def publish[Mat](source: Source[Event, Mat]): Mat = eventPublisher.publish(source.asScala)
 
   override def publish[Mat](source: Source[Event, Mat], onError: Consumer[PublishFailure]): Mat =
@@ -14,7 +14,7 @@ class JEventService(eventService: EventService) extends IEventService {
 
   override def makeNewPublisher(): JEventPublisher = new JEventPublisher(eventService.makeNewPublisher())
 
-  override def makeNewSubscriber(): JEventSubscriber = new JEventSubscriber(eventService.defaultSubscriber)
+  override def makeNewSubscriber(): JEventSubscriber = JEventSubscriber(eventService.defaultSubscriber)
 
   override def asScala: EventService = eventService
 }
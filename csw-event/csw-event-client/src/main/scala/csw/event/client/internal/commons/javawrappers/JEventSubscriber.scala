@@ -5,16 +5,16 @@ import java.util
 import java.util.concurrent.CompletableFuture
 import java.util.function.Consumer
 
-import akka.Done
+import akka.{Done, NotUsed}
 import akka.actor.typed.ActorRef
 import akka.stream.javadsl.Source
 import csw.params.events.{Event, EventKey}
 import csw.params.core.models.Subsystem
 import csw.event.api.internal.EventServiceExts.RichEventSubscription
-import csw.event.api.javadsl.{IEventSubscriber, IEventSubscription}
-import csw.event.api.scaladsl.{EventSubscriber, EventSubscription, SubscriptionMode}
+import csw.event.api.javadsl.{IEventHistory, IEventSubscriber, IEventSubscription}
+import csw.event.api.scaladsl.{EventHistory, EventSubscriber, EventSubscription, SubscriptionMode}
 
-import scala.collection.JavaConverters.{asScalaSetConverter, setAsJavaSetConverter}
+import scala.collection.JavaConverters.{asScalaSetConverter, seqAsJavaListConverter, setAsJavaSetConverter}
 import scala.compat.java8.DurationConverters.DurationOps
 import scala.compat.java8.FutureConverters.{CompletionStageOps, FutureOps}
 
@@ -87,7 +87,25 @@ class JEventSubscriber(eventSubscriber: EventSubscriber) extends IEventSubscribe
   def get(eventKeys: util.Set[EventKey]): CompletableFuture[util.Set[Event]] =
     eventSubscriber.get(eventKeys.asScala.toSet).toJava.toCompletableFuture.thenApply(_.asJava)
 
+  def getAll(eventKeys: util.Set[EventKey]): Source[Event, NotUsed] = eventSubscriber.getAll(eventKeys.asScala.toSet).asJava
+
   def get(eventKey: EventKey): CompletableFuture[Event] = eventSubscriber.get(eventKey).toJava.toCompletableFuture
 
   def asScala: EventSubscriber = eventSubscriber
 }
+
+object JEventSubscriber {
+
+  /**
+   * Wraps the given subscriber, the wrapper implements [[csw.event.api.javadsl.IEventHistory]] when the subscriber implements
+   * [[csw.event.api.scaladsl.EventHistory]]
+   */
+  def apply(eventSubscriber: EventSubscriber): JEventSubscriber = eventSubscriber match {
+    case subscriber: EventHistory ⇒
+      new JEventSubscriber(subscriber) with IEventHistory {
+        override def history(eventKey: EventKey, count: Int): CompletableFuture[util.List[Event]] =
+          subscriber.history(eventKey, count).toJava.toCompletableFuture.thenApply(_.asJava)
+      }
+    case subscriber ⇒ new JEventSubscriber(subscriber)
+  }
+}
@@ -2,6 +2,7 @@ package csw.event.client.internal.commons.throttle
 
 import akka.stream.stage._
 import akka.stream.{Attributes, FlowShape, Inlet, Outlet}
+import csw.event.client.internal.metrics.EventServiceMetrics
 
 import scala.concurrent.duration.FiniteDuration
 
@@ -11,27 +12,31 @@ import scala.concurrent.duration.FiniteDuration
  * It drops the elements in case the elements are received at a rate higher than delay.
  * It pushes the recent element the in case the elements are received at a rate slower than delay.
  * @param delay the duration determining the frequency/rate of elements
+ * @param alignedTicks whether the rate is driven by the shared TAI aligned ticks instead of a timer of this stage
  */
-class RateAdapterStage[A](delay: FiniteDuration) extends GraphStage[FlowShape[A, A]] {
+class RateAdapterStage[A](delay: FiniteDuration, alignedTicks: Boolean = false) extends GraphStage[FlowShape[A, A]] {
   final val in    = Inlet.create[A]("DroppingThrottle.in")
   final val out   = Outlet.create[A]("DroppingThrottle.out")
   final val shape = FlowShape.of(in, out)
 
-  override def createLogic(inheritedAttributes: Attributes): GraphStageLogic = new TimerGraphStageLogic(shape) {
+  override def createLogic(inheritedAttributes: Attributes): GraphStageLogic = new TickingStageLogic(shape, delay, alignedTicks) {
     private var isPulled             = false
     private var firstTick            = true
     private var maybeElem: Option[A] = None
+    private var isPending            = false // maybeElem has not been pushed yet
 
     override def preStart(): Unit = {
-      schedulePeriodically(None, delay)
+      startTicks()
       pull(in)
     }
 
     setHandler(in, new InHandler {
       override def onPush(): Unit = {
         val ele = grab(in)
+        if (isPending) EventServiceMetrics.droppedByThrottle()
         maybeElem = Some(ele)
-        if (firstTick) { push(out, ele); firstTick = false }
+        isPending = true
+        if (firstTick) { push(out, ele); firstTick = false; isPending = false }
         pull(in) //drop
       }
     })
@@ -41,9 +46,10 @@ class RateAdapterStage[A](delay: FiniteDuration) extends GraphStage[FlowShape[A,
         isPulled = true
     })
 
-    override def onTimer(key: Any): Unit = {
+    override def onTick(): Unit = {
       if (isPulled) maybeElem.foreach { x =>
         isPulled = false
+        isPending = false
         push(out, x)
       }
     }
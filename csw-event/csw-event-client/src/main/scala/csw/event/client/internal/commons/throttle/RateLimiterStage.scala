@@ -2,6 +2,7 @@ package csw.event.client.internal.commons.throttle
 
 import akka.stream.stage._
 import akka.stream.{Attributes, FlowShape, Inlet, Outlet}
+import csw.event.client.internal.metrics.EventServiceMetrics
 
 import scala.concurrent.duration.FiniteDuration
 
@@ -11,21 +12,24 @@ import scala.concurrent.duration.FiniteDuration
  * to match the required frequency. It will not provide any element if it is not available from upstream
  * It drops the elements in case the elements are received at a rate higher than delay.
  * @param delay the duration determining the frequency/rate of elements
+ * @param alignedTicks whether the rate is driven by the shared TAI aligned ticks instead of a timer of this stage
  */
-class RateLimiterStage[A](delay: FiniteDuration) extends GraphStage[FlowShape[A, A]] {
+class RateLimiterStage[A](delay: FiniteDuration, alignedTicks: Boolean = false) extends GraphStage[FlowShape[A, A]] {
   final val in    = Inlet.create[A]("DroppingThrottle.in")
   final val out   = Outlet.create[A]("DroppingThrottle.out")
   final val shape = FlowShape.of(in, out)
 
-  override def createLogic(inheritedAttributes: Attributes): GraphStageLogic = new TimerGraphStageLogic(shape) {
+  override def createLogic(inheritedAttributes: Attributes): GraphStageLogic = new TickingStageLogic(shape, delay, alignedTicks) {
     private var open = false
 
-    override def preStart(): Unit = schedulePeriodically(None, delay)
+    override def preStart(): Unit = startTicks()
 
     setHandler(in, new InHandler {
       override def onPush(): Unit = {
-        if (open) pull(in) //drop
-        else {
+        if (open) {
+          EventServiceMetrics.droppedByThrottle()
+          pull(in) //drop
+        } else {
           push(out, grab(in))
           open = true
         }
@@ -36,7 +40,7 @@ class RateLimiterStage[A](delay: FiniteDuration) extends GraphStage[FlowShape[A,
       override def onPull(): Unit = pull(in)
     })
 
-    override def onTimer(key: Any): Unit =
+    override def onTick(): Unit =
       open = false
   }
 }
@@ -0,0 +1,112 @@
+package csw.event.client.internal.commons.throttle
+
+import java.util.concurrent.{Executors, RejectedExecutionException, ScheduledFuture, ThreadFactory, TimeUnit}
+
+import csw.event.client.internal.commons.EventServiceLogger
+import csw.time.core.models.TAITime
+
+import scala.concurrent.duration.FiniteDuration
+import scala.util.control.NonFatal
+
+/**
+ * Delivers ticks of a given period to any number of listeners of the JVM from a single timer per period.
+ *
+ * Ticks are aligned on TAI: a tick of period `p` fires at the instants which are a whole multiple of `p` since the TAI epoch,
+ * so all the listeners of a period are notified at the same instants, whenever they attached. Every tick is scheduled from
+ * the current TAI time, hence the ticks do not drift however late the previous one fired. The scheduler waits on the
+ * monotonic clock, which may run ahead of TAI, so a tick which wakes up before its TAI instant waits for the rest of it.
+ */
+private[event] object TaiTickHub {
+
+  private val log = EventServiceLogger.getLogger
+
+  @volatile private var hubThread: Thread = _
+
+  private val scheduler = Executors.newSingleThreadScheduledExecutor(new ThreadFactory {
+    override def newThread(r: Runnable): Thread = {
+      val thread = new Thread(r, "csw-event-tai-tick-hub")
+      thread.setDaemon(true)
+      hubThread = thread
+      thread
+    }
+  })
+
+  // only accessed while holding the lock of the hub
+  private var tickers: Map[FiniteDuration, Ticker] = Map.empty
+
+  /**
+   * Attaches a listener to the ticks of the given period. The listener is invoked on the thread of the hub, hence it is
+   * expected to hand the tick over and return immediately.
+   *
+   * @return a function detaching the listener without blocking, the timer of a period is stopped once its last listener is
+   *         detached. A tick which is being delivered may still reach the listener, use [[awaitTick]] to wait for it.
+   */
+  def attach(period: FiniteDuration, listener: () ⇒ Unit): () ⇒ Unit = synchronized {
+    val ticker = tickers.getOrElse(period, new Ticker(period))
+    tickers += period → ticker
+    ticker.listeners :+= listener
+    () ⇒ detach(period, listener)
+  }
+
+  /**
+   * Blocks until the tick being delivered, if any, is over, so a listener detached beforehand is not invoked anymore once
+   * it returns. It returns immediately on the thread of the hub, which is already past that point.
+   */
+  def awaitTick(): Unit =
+    if (Thread.currentThread() ne hubThread) {
+      // the hub runs one task at a time, so a task submitted now runs once the tick being delivered is over
+      try scheduler.submit(new Runnable { override def run(): Unit = () }).get()
+      catch { case _: RejectedExecutionException ⇒ } // no tick is delivered by a hub which is shut down
+    }
+
+  private def detach(period: FiniteDuration, listener: () ⇒ Unit): Unit = synchronized {
+    tickers.get(period).foreach { ticker ⇒
+      ticker.listeners = ticker.listeners.filterNot(_ eq listener)
+      if (ticker.listeners.isEmpty) {
+        ticker.stop()
+        tickers -= period
+      }
+    }
+  }
+
+  // number of timers currently running, one per distinct period
+  private[throttle] def timerCount: Int = synchronized(tickers.size)
+
+  private[throttle] def nanosToNextTick(periodNanos: Long, now: TAITime): Long =
+    periodNanos - Math.floorMod(taiNanos(now), periodNanos)
+
+  private def taiNanos(time: TAITime): Long = TimeUnit.SECONDS.toNanos(time.value.getEpochSecond) + time.value.getNano
+
+  private class Ticker(period: FiniteDuration) {
+    @volatile var listeners: Vector[() ⇒ Unit]     = Vector.empty
+    @volatile private var stopped                  = false
+    @volatile private var next: ScheduledFuture[_] = scheduleNext()
+
+    private def scheduleNext(): ScheduledFuture[_] = {
+      val now = TAITime.now()
+      schedule(taiNanos(now) + nanosToNextTick(period.toNanos, now), taiNanos(now))
+    }
+
+    private def schedule(tickNanos: Long, nowNanos: Long): ScheduledFuture[_] =
+      scheduler.schedule(new Runnable {
+        override def run(): Unit = tick(tickNanos)
+      }, tickNanos - nowNanos, TimeUnit.NANOSECONDS)
+
+    private def tick(tickNanos: Long): Unit = if (!stopped) {
+      val nowNanos = taiNanos(TAITime.now())
+      if (nowNanos < tickNanos) next = schedule(tickNanos, nowNanos)
+      else {
+        listeners.foreach { listener ⇒
+          try listener()
+          catch { case NonFatal(ex) ⇒ log.error("Tick listener failed", ex = ex) }
+        }
+        next = scheduleNext()
+      }
+    }
+
+    def stop(): Unit = {
+      stopped = true
+      next.cancel(false)
+    }
+  }
+}
@@ -0,0 +1,29 @@
+package csw.event.client.internal.commons.throttle
+
+import akka.stream.Shape
+import akka.stream.stage.TimerGraphStageLogic
+
+import scala.concurrent.duration.FiniteDuration
+
+/**
+ * Stage logic invoking `onTick` at every `delay`, either from a timer of its own or from the shared ticks of the
+ * [[csw.event.client.internal.commons.throttle.TaiTickHub]] when `alignedTicks` is enabled
+ */
+private[throttle] abstract class TickingStageLogic(shape: Shape, delay: FiniteDuration, alignedTicks: Boolean)
+    extends TimerGraphStageLogic(shape) {
+
+  private var detachTicks: () ⇒ Unit = () ⇒ ()
+
+  protected def onTick(): Unit
+
+  protected def startTicks(): Unit =
+    if (alignedTicks) {
+      val tickCallback = getAsyncCallback[Unit](_ ⇒ onTick())
+      detachTicks = TaiTickHub.attach(delay, () ⇒ tickCallback.invoke(()))
+    } else schedulePeriodically(None, delay)
+
+  override protected def onTimer(timerKey: Any): Unit = onTick()
+
+  // does not wait for a tick being delivered, its callback is dropped once the stage is stopped
+  override def postStop(): Unit = detachTicks()
+}
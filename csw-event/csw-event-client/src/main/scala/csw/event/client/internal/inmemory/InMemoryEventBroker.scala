@@ -0,0 +1,95 @@
+package csw.event.client.internal.inmemory
+
+import java.util.concurrent.ConcurrentHashMap
+
+import akka.Done
+import akka.actor.{ActorRef, PoisonPill}
+import akka.dispatch.ExecutionContexts
+import akka.stream.OverflowStrategy
+import akka.stream.scaladsl.{Keep, Source}
+import csw.event.api.scaladsl.EventSubscription
+import csw.params.events.{Event, EventKey}
+
+import scala.concurrent.Future
+import scala.util.matching.Regex
+
+/**
+ * Stands in for the event server in the memory of this JVM: it keeps the latest event of every key and hands every published
+ * event over as it is to the subscriptions of its key, without encoding it.
+ *
+ * Publishing and subscribing hold the lock of the broker, so that a new subscription receives the latest event of a key
+ * before any event published after it.
+ */
+private[event] class InMemoryEventBroker {
+
+  private val latestEvents = new ConcurrentHashMap[EventKey, Event]()
+
+  // only accessed while holding the lock of the broker
+  private var subscribers: Map[EventKey, Set[ActorRef]]   = Map.empty
+  private var patternSubscribers: List[(Regex, ActorRef)] = Nil
+
+  def publish(event: Event): Unit = synchronized {
+    latestEvents.put(event.eventKey, event)
+    subscribers.getOrElse(event.eventKey, Set.empty).foreach(_ ! event)
+    patternSubscribers.foreach {
+      case (keyPattern, subscriber) ⇒ if (keyPattern.pattern.matcher(event.eventKey.key).matches()) subscriber ! event
+    }
+  }
+
+  def get(eventKey: EventKey): Event = {
+    val event = latestEvents.get(eventKey)
+    if (event == null) Event.invalidEvent(eventKey) else event
+  }
+
+  /**
+   * Creates a stream starting with the latest event of every given key, or an invalid event for the keys never published,
+   * followed by the events of the keys published from now on
+   *
+   * @param bufferSize number of events buffered for a slow subscription before the oldest ones get dropped
+   */
+  def subscribe(eventKeys: Set[EventKey], bufferSize: Int): Source[Event, EventSubscription] =
+    subscription(bufferSize) { subscriber ⇒
+      synchronized {
+        subscribers = eventKeys.foldLeft(subscribers) { (acc, key) ⇒
+          acc.updated(key, acc.getOrElse(key, Set.empty[ActorRef]) + subscriber)
+        }
+        eventKeys.foreach(key ⇒ subscriber ! get(key))
+      }
+      () ⇒
+        synchronized {
+          subscribers = eventKeys.foldLeft(subscribers) { (acc, key) ⇒
+            val remaining = acc.getOrElse(key, Set.empty[ActorRef]) - subscriber
+            if (remaining.isEmpty) acc - key else acc.updated(key, remaining)
+          }
+        }
+    }
+
+  /**
+   * Creates a stream of the events published from now on whose key matches the given regular expression
+   *
+   * @param bufferSize number of events buffered for a slow subscription before the oldest ones get dropped
+   */
+  def pSubscribe(keyPattern: Regex, bufferSize: Int): Source[Event, EventSubscription] =
+    subscription(bufferSize) { subscriber ⇒
+      synchronized(patternSubscribers ::= keyPattern → subscriber)
+      () ⇒ synchronized(patternSubscribers = patternSubscribers.filterNot(_._2 == subscriber))
+    }
+
+  // registers the actor of every materialized stream and unregisters it once the stream terminates
+  private def subscription(bufferSize: Int)(register: ActorRef ⇒ () ⇒ Unit): Source[Event, EventSubscription] =
+    Source
+      .actorRef[Event](bufferSize, OverflowStrategy.dropHead)
+      .watchTermination()(Keep.both)
+      .mapMaterializedValue {
+        case (subscriber, terminationSignal) ⇒
+          val unregister = register(subscriber)
+          terminationSignal.onComplete(_ ⇒ unregister())(ExecutionContexts.sameThreadExecutionContext)
+          new EventSubscription {
+            override def unsubscribe(): Future[Done] = {
+              subscriber ! PoisonPill
+              terminationSignal
+            }
+            override def ready(): Future[Done] = Future.successful(Done)
+          }
+      }
+}
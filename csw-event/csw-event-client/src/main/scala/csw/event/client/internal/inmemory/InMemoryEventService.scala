@@ -0,0 +1,27 @@
+package csw.event.client.internal.inmemory
+
+import akka.stream.Materializer
+import csw.event.api.scaladsl.EventService
+import csw.event.client.internal.commons.Settings
+
+import scala.concurrent.ExecutionContext
+
+/**
+ * Implementation of [[csw.event.api.scaladsl.EventService]] which keeps events in the memory of this JVM instead of an event
+ * server. Events are only shared with the event services using the same [[csw.event.client.internal.inmemory.InMemoryEventBroker]],
+ * which makes it fit for unit tests and for measuring the cost of the event client alone.
+ *
+ * @param broker the broker standing in for the event server
+ * @param settings the event service settings deciding the buffer of the subscriptions and how subscription modes tick
+ * @param executionContext the execution context to be used for performing asynchronous operations
+ * @param mat the materializer to be used for materializing underlying streams
+ */
+class InMemoryEventService private[event] (broker: InMemoryEventBroker, settings: Settings)(
+    implicit val executionContext: ExecutionContext,
+    mat: Materializer
+) extends EventService {
+
+  override def makeNewPublisher(): InMemoryPublisher = new InMemoryPublisher(broker)
+
+  override def makeNewSubscriber(): InMemorySubscriber = new InMemorySubscriber(broker, settings)
+}
@@ -0,0 +1,89 @@
+package csw.event.client.internal.inmemory
+
+import akka.Done
+import akka.actor.Cancellable
+import akka.stream.scaladsl.Source
+import akka.stream.{Materializer, QueueOfferResult}
+import csw.event.api.exceptions.PublishFailure
+import csw.event.api.scaladsl.EventPublisher
+import csw.event.client.internal.commons.EventPublisherUtil
+import csw.params.events.Event
+import csw.time.core.models.TMTTime
+
+import scala.concurrent.duration.{DurationInt, FiniteDuration}
+import scala.concurrent.{ExecutionContext, Future}
+
+/**
+ * An implementation of [[csw.event.api.scaladsl.EventPublisher]] API which publishes events to an
+ * [[csw.event.client.internal.inmemory.InMemoryEventBroker]]. An event is published by the time `publish` returns.
+ *
+ * @param broker the broker standing in for the event server
+ * @param ec the execution context to be used for performing asynchronous operations
+ * @param mat the materializer to be used for materializing underlying streams
+ */
+class InMemoryPublisher private[inmemory] (broker: InMemoryEventBroker)(implicit ec: ExecutionContext, mat: Materializer)
+    extends EventPublisher {
+
+  private val parallelism                         = 1
+  private val defaultInitialDelay: FiniteDuration = 0.millis
+  private val eventPublisherUtil                  = new EventPublisherUtil()
+
+  override def publish(event: Event): Future[Done] = publishInternal(event)
+
+  override def offer(event: Event): Future[QueueOfferResult] = {
+    broker.publish(event)
+    Future.successful(QueueOfferResult.Enqueued)
+  }
+
+  private def publishInternal(event: Event): Future[Done] = {
+    broker.publish(event)
+    Future.successful(Done)
+  }
+
+  override def publish[Mat](source: Source[Event, Mat]): Mat =
+    eventPublisherUtil.publishFromSource(source, parallelism, publishInternal, None)
+
+  override def publish[Mat](source: Source[Event, Mat], onError: PublishFailure ⇒ Unit): Mat =
+    eventPublisherUtil.publishFromSource(source, parallelism, publishInternal, Some(onError))
+
+  override def publish(eventGenerator: => Option[Event], every: FiniteDuration): Cancellable =
+    publish(eventPublisherUtil.eventSource(Future.successful(eventGenerator), parallelism, defaultInitialDelay, every))
+
+  override def publish(eventGenerator: => Option[Event], startTime: TMTTime, every: FiniteDuration): Cancellable =
+    publish(eventPublisherUtil.eventSource(Future.successful(eventGenerator), parallelism, startTime.durationFromNow, every))
+
+  override def publish(eventGenerator: ⇒ Option[Event], every: FiniteDuration, onError: PublishFailure ⇒ Unit): Cancellable =
+    publish(eventPublisherUtil.eventSource(Future.successful(eventGenerator), parallelism, defaultInitialDelay, every), onError)
+
+  override def publish(
+      eventGenerator: => Option[Event],
+      startTime: TMTTime,
+      every: FiniteDuration,
+      onError: PublishFailure => Unit
+  ): Cancellable =
+    publish(eventPublisherUtil.eventSource(Future.successful(eventGenerator), parallelism, startTime.durationFromNow, every),
+            onError)
+
+  override def publishAsync(eventGenerator: ⇒ Future[Option[Event]], every: FiniteDuration): Cancellable =
+    publish(eventPublisherUtil.eventSource(eventGenerator, parallelism, defaultInitialDelay, every))
+
+  override def publishAsync(eventGenerator: => Future[Option[Event]], startTime: TMTTime, every: FiniteDuration): Cancellable =
+    publish(eventPublisherUtil.eventSource(eventGenerator, parallelism, startTime.durationFromNow, every))
+
+  override def publishAsync(
+      eventGenerator: ⇒ Future[Option[Event]],
+      every: FiniteDuration,
+      onError: PublishFailure ⇒ Unit
+  ): Cancellable =
+    publish(eventPublisherUtil.eventSource(eventGenerator, parallelism, defaultInitialDelay, every), onError)
+
+  override def publishAsync(
+      eventGenerator: => Future[Option[Event]],
+      startTime: TMTTime,
+      every: FiniteDuration,
+      onError: PublishFailure => Unit
+  ): Cancellable =
+    publish(eventPublisherUtil.eventSource(eventGenerator, parallelism, startTime.durationFromNow, every), onError)
+
+  override def shutdown(): Future[Done] = Future.successful(Done)
+}
@@ -0,0 +1,87 @@
+package csw.event.client.internal.inmemory
+
+import akka.NotUsed
+import akka.actor.typed.ActorRef
+import akka.stream.Materializer
+import akka.stream.scaladsl.Source
+import csw.event.api.scaladsl.{EventSubscriber, EventSubscription, SubscriptionMode}
+import csw.event.client.internal.commons.{EventSubscriberUtil, Settings}
+import csw.event.client.internal.metrics.EventServiceMetrics
+import csw.event.client.utils.Utils
+import csw.params.core.models.Subsystem
+import csw.params.events.{Event, EventKey}
+
+import scala.concurrent.duration.FiniteDuration
+import scala.concurrent.{ExecutionContext, Future}
+
+/**
+ * An implementation of [[csw.event.api.scaladsl.EventSubscriber]] API which subscribes to the events of an
+ * [[csw.event.client.internal.inmemory.InMemoryEventBroker]]. Subscriptions behave as the ones of the redis event service:
+ * they start with the latest event of every key and subscription modes are applied by the same stages.
+ *
+ * @param broker the broker standing in for the event server
+ * @param settings the event service settings deciding the buffer of the subscriptions and how subscription modes tick
+ * @param ec the execution context to be used for performing asynchronous operations
+ * @param mat the materializer to be used for materializing underlying streams
+ */
+class InMemorySubscriber private[inmemory] (broker: InMemoryEventBroker, settings: Settings)(
+    implicit ec: ExecutionContext,
+    mat: Materializer
+) extends EventSubscriber {
+
+  private val eventSubscriberUtil = new EventSubscriberUtil(settings.taiAlignedTicks, settings.asyncCallbackParallelism)
+
+  override def subscribe(eventKeys: Set[EventKey]): Source[Event, EventSubscription] =
+    broker.subscribe(eventKeys, settings.inMemoryBufferSize).map(EventServiceMetrics.received)
+
+  override def subscribe(
+      eventKeys: Set[EventKey],
+      every: FiniteDuration,
+      mode: SubscriptionMode
+  ): Source[Event, EventSubscription] = subscribe(eventKeys).via(eventSubscriberUtil.subscriptionModeStage(every, mode))
+
+  override def subscribeAsync(eventKeys: Set[EventKey], callback: Event => Future[_]): EventSubscription =
+    eventSubscriberUtil.subscribeAsync(subscribe(eventKeys), callback)
+
+  override def subscribeAsync(
+      eventKeys: Set[EventKey],
+      callback: Event => Future[_],
+      every: FiniteDuration,
+      mode: SubscriptionMode
+  ): EventSubscription = eventSubscriberUtil.subscribeAsync(subscribe(eventKeys, every, mode), callback)
+
+  override def subscribeCallback(eventKeys: Set[EventKey], callback: Event => Unit): EventSubscription =
+    eventSubscriberUtil.subscribeCallback(subscribe(eventKeys), callback)
+
+  override def subscribeCallback(
+      eventKeys: Set[EventKey],
+      callback: Event => Unit,
+      every: FiniteDuration,
+      mode: SubscriptionMode
+  ): EventSubscription = eventSubscriberUtil.subscribeCallback(subscribe(eventKeys, every, mode), callback)
+
+  override def subscribeActorRef(eventKeys: Set[EventKey], actorRef: ActorRef[Event]): EventSubscription =
+    subscribeCallback(eventKeys, eventSubscriberUtil.actorCallback(actorRef))
+
+  override def subscribeActorRef(
+      eventKeys: Set[EventKey],
+      actorRef: ActorRef[Event],
+      every: FiniteDuration,
+      mode: SubscriptionMode
+  ): EventSubscription = subscribeCallback(eventKeys, eventSubscriberUtil.actorCallback(actorRef), every, mode)
+
+  // the pattern is a glob matched against the key, as redis matches the channels of a pattern subscription
+  override def pSubscribe(subsystem: Subsystem, pattern: String): Source[Event, EventSubscription] = {
+    val keyPattern = s"${subsystem.entryName}\\.${Utils.globToRegex(pattern)}".r
+    broker.pSubscribe(keyPattern, settings.inMemoryBufferSize).map(EventServiceMetrics.received)
+  }
+
+  override def pSubscribeCallback(subsystem: Subsystem, pattern: String, callback: Event ⇒ Unit): EventSubscription =
+    eventSubscriberUtil.pSubscribe(pSubscribe(subsystem, pattern), callback)
+
+  override def get(eventKeys: Set[EventKey]): Future[Set[Event]] = Future.successful(eventKeys.map(broker.get))
+
+  override def getAll(eventKeys: Set[EventKey]): Source[Event, NotUsed] = Source(eventKeys.toList).map(broker.get)
+
+  override def get(eventKey: EventKey): Future[Event] = Future.successful(broker.get(eventKey))
+}
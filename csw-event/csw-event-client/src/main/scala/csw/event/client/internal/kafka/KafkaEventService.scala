@@ -2,10 +2,12 @@ package csw.event.client.internal.kafka
 
 import java.util.UUID
 
-import akka.actor.ActorSystem
+import akka.Done
+import akka.actor.{ActorSystem, CoordinatedShutdown}
 import akka.kafka.{ConsumerSettings, ProducerSettings}
 import akka.stream.Materializer
 import csw.event.api.scaladsl.EventService
+import csw.event.client.internal.commons.Settings
 import csw.event.client.internal.commons.serviceresolver.EventServiceResolver
 
 import scala.concurrent.{ExecutionContext, Future}
@@ -15,20 +17,51 @@ import scala.concurrent.{ExecutionContext, Future}
  * and [[csw.event.api.scaladsl.EventSubscriber]] backed by Kafka
  *
  * @param eventServiceResolver to get the connection information of event service
+ * @param settings the event service settings which hold the publisher and subscriber options
  * @param actorSystem actor system to be used by Producer and Consumer API of akka-stream-kafka
  * @param mat the materializer to be used for materializing underlying streams
  */
-class KafkaEventService(eventServiceResolver: EventServiceResolver)(implicit actorSystem: ActorSystem, mat: Materializer)
-    extends EventService {
+class KafkaEventService(eventServiceResolver: EventServiceResolver, settings: Settings)(
+    implicit actorSystem: ActorSystem,
+    mat: Materializer
+) extends EventService {
 
   implicit val executionContext: ExecutionContext = actorSystem.dispatcher
 
-  override def makeNewPublisher(): KafkaPublisher   = new KafkaPublisher(producerSettings)
-  override def makeNewSubscriber(): KafkaSubscriber = new KafkaSubscriber(consumerSettings)
+  override def makeNewPublisher(): KafkaPublisher   = new KafkaPublisher(producerSettings, settings)
+  override def makeNewSubscriber(): KafkaSubscriber =
+    new KafkaSubscriber(consumerSettings, settings, if (settings.kafkaSharedConsumerEnabled) Some(sharedConsumer) else None)
+
+  @volatile private var sharedConsumerCreated = false
+
+  // shared by all the subscribers of this event service when the shared consumer is enabled, it is shut down with the actor
+  // system at the latest
+  private lazy val sharedConsumer: KafkaSharedConsumer = {
+    val consumer = new KafkaSharedConsumer(
+      consumerSettings,
+      KafkaSubscriber.decoder(settings),
+      settings.kafkaSubscriptionBufferSize,
+      settings.kafkaSharedConsumerPollTimeout
+    )
+    sharedConsumerCreated = true
+    CoordinatedShutdown(actorSystem).addTask(CoordinatedShutdown.PhaseServiceStop, "shutdown-kafka-shared-consumer") { () ⇒
+      consumer.shutdown()
+    }
+    consumer
+  }
+
+  /**
+   * Stops the consumer shared by the subscribers of this event service, completing all the subscriptions it serves
+   *
+   * @return a future which completes once the consumer is closed
+   */
+  def shutdown(): Future[Done] = if (sharedConsumerCreated) sharedConsumer.shutdown() else Future.successful(Done)
 
   // resolve event service every time before creating a new publisher
-  private def producerSettings: Future[ProducerSettings[String, Array[Byte]]] = eventServiceResolver.uri().map { uri ⇒
-    ProducerSettings(actorSystem, None, None).withBootstrapServers(s"${uri.getHost}:${uri.getPort}")
+  private[event] def producerSettings: Future[ProducerSettings[String, Array[Byte]]] = eventServiceResolver.uri().map { uri ⇒
+    val producerSettings = ProducerSettings(actorSystem, None, None).withBootstrapServers(s"${uri.getHost}:${uri.getPort}")
+    if (settings.kafkaPublishBatchingEnabled) producerSettings.withProperties(settings.kafkaBatchingProducerProperties)
+    else producerSettings
   }
 
   // resolve event service every time before creating a new subscriber
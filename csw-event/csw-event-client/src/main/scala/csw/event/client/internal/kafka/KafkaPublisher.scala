@@ -3,11 +3,11 @@ package csw.event.client.internal.kafka
 import akka.Done
 import akka.actor.Cancellable
 import akka.kafka.ProducerSettings
-import akka.stream.Materializer
-import akka.stream.scaladsl.Source
+import akka.stream.scaladsl.{Source, SourceQueueWithComplete}
+import akka.stream.{Materializer, QueueOfferResult}
 import csw.event.api.exceptions.PublishFailure
 import csw.event.api.scaladsl.EventPublisher
-import csw.event.client.internal.commons.EventPublisherUtil
+import csw.event.client.internal.commons.{EventPublisherUtil, Settings}
 import csw.event.client.pb.TypeMapperSupport
 import csw.params.events.Event
 import csw.time.core.models.TMTTime
@@ -22,24 +22,36 @@ import scala.util.control.NonFatal
  * and subscribing events.
  *
  * @param producerSettings future of settings for akka-streams-kafka API for Apache Kafka producer
+ * @param settings         event service settings deciding whether queued events are published in micro batches
  * @param ec               the execution context to be used for performing asynchronous operations
  * @param mat              the materializer to be used for materializing underlying streams
  */
-class KafkaPublisher(producerSettings: Future[ProducerSettings[String, Array[Byte]]])(implicit ec: ExecutionContext,
-                                                                                      mat: Materializer)
-    extends EventPublisher {
+class KafkaPublisher(producerSettings: Future[ProducerSettings[String, Array[Byte]]], settings: Settings)(
+    implicit ec: ExecutionContext,
+    mat: Materializer
+) extends EventPublisher {
 
   private val parallelism                         = 1
   private val defaultInitialDelay: FiniteDuration = 0.millis
   private val kafkaProducer                       = producerSettings.map(_.createKafkaProducer())
-  private val eventPublisherUtil                  = new EventPublisherUtil()
+  private val eventPublisherUtil                  = new EventPublisherUtil(settings.publishLanes)
 
-  private val streamTermination: Future[Done] = eventPublisherUtil.streamTermination(publishInternal)
+  private val streamTermination: Future[Done] =
+    if (settings.kafkaPublishBatchingEnabled)
+      eventPublisherUtil.batchedStreamTermination(settings.kafkaPublishMaxBatchSize, settings.kafkaPublishMaxLinger)(
+        publishBatchInternal
+      )
+    else eventPublisherUtil.streamTermination(publishInternal)
+
+  private val offerQueue: SourceQueueWithComplete[Event] =
+    eventPublisherUtil.coalescingQueue(settings.offerBufferSize)(publishInternal)
 
   override def publish(event: Event): Future[Done] = {
     eventPublisherUtil.publish(event, streamTermination.isCompleted)
   }
 
+  override def offer(event: Event): Future[QueueOfferResult] = offerQueue.offer(event)
+
   private def publishInternal(event: Event): Future[Done] = {
     val p = Promise[Done]
     kafkaProducer.map(_.send(eventToProducerRecord(event), completePromise(event, p))).recover {
@@ -48,6 +60,21 @@ class KafkaPublisher(producerSettings: Future[ProducerSettings[String, Array[Byt
     p.future
   }
 
+  // records of the whole batch are handed over to the producer, which groups them into requests of its own. The batch completes
+  // as soon as they are all sent, without waiting for their acknowledgement, so that the next batch is sent while this one is
+  // still in flight. The producer keeps the records of a key in order, as they all go to the same partition.
+  private def publishBatchInternal(events: Seq[Event]): Future[Seq[Future[Done]]] =
+    kafkaProducer.map { producer ⇒
+      events.map { event ⇒
+        val p = Promise[Done]
+        try producer.send(eventToProducerRecord(event), completePromise(event, p))
+        catch { case NonFatal(ex) ⇒ p.failure(PublishFailure(event, ex)) }
+        p.future
+      }
+    } recover {
+      case NonFatal(ex) ⇒ events.map(event ⇒ Future.failed(PublishFailure(event, ex)))
+    }
+
   override def publish[Mat](source: Source[Event, Mat]): Mat =
     eventPublisherUtil.publishFromSource(source, parallelism, publishInternal, None)
 
@@ -95,6 +122,7 @@ class KafkaPublisher(producerSettings: Future[ProducerSettings[String, Array[Byt
 
   override def shutdown(): Future[Done] = kafkaProducer.map { x =>
     eventPublisherUtil.shutdown()
+    offerQueue.complete()
     scala.concurrent.blocking(x.close())
     Done
   }
@@ -0,0 +1,238 @@
+package csw.event.client.internal.kafka
+
+import java.util.concurrent.LinkedBlockingQueue
+
+import akka.Done
+import akka.actor.{ActorRef, PoisonPill, Status}
+import akka.kafka.ConsumerSettings
+import akka.stream.scaladsl.{Keep, Source}
+import akka.stream.{Materializer, OverflowStrategy}
+import csw.event.api.scaladsl.EventSubscription
+import csw.event.client.internal.commons.EventServiceLogger
+import csw.event.client.internal.metrics.EventServiceMetrics
+import csw.params.events.{Event, EventKey}
+import org.apache.kafka.clients.consumer.{Consumer, ConsumerRecords}
+import org.apache.kafka.common.TopicPartition
+import org.apache.kafka.common.errors.WakeupException
+
+import scala.collection.JavaConverters._
+import scala.compat.java8.DurationConverters.FiniteDurationops
+import scala.concurrent.duration.FiniteDuration
+import scala.concurrent.{ExecutionContext, Future, Promise}
+import scala.util.control.NonFatal
+
+/**
+ * Serves the subscriptions of any number of [[csw.event.client.internal.kafka.KafkaSubscriber]] with a single kafka consumer
+ * instead of a consumer per subscription.
+ *
+ * The consumer is assigned the union of the topics subscribed to, a topic is added to the assignment when the first
+ * subscription asks for it and removed when the last of them goes away. Received records are decoded once and fanned out to
+ * all the subscriptions of their topic. The consumer is only ever touched by its own polling thread, subscriptions hand over
+ * their requests through a queue which is drained before every poll.
+ *
+ * A subscription whose topics can not be assigned, e.g. as their offsets can not be fetched, is failed on its own and the
+ * assignment of the other topics is left as it was. A failed poll fails all the subscriptions.
+ *
+ * The polling thread runs until [[shutdown]] is invoked, which completes the streams of all the subscriptions and closes
+ * the consumer.
+ *
+ * @param consumerSettings future of settings for akka-streams-kafka API for Apache Kafka consumer
+ * @param decode decodes the value of a record into an event
+ * @param bufferSize number of events buffered for a slow subscription before the oldest ones get dropped
+ * @param pollTimeout maximum time a poll waits for records, which is also the maximum time a subscription waits to be served
+ * @param ec the execution context to be used for performing asynchronous operations
+ * @param mat the materializer to be used for materializing underlying streams
+ */
+private[event] class KafkaSharedConsumer(
+    consumerSettings: Future[ConsumerSettings[String, Array[Byte]]],
+    decode: Array[Byte] ⇒ Event,
+    bufferSize: Int,
+    pollTimeout: FiniteDuration
+)(implicit ec: ExecutionContext, mat: Materializer) {
+
+  private val log      = EventServiceLogger.getLogger
+  private val requests = new LinkedBlockingQueue[Request]()
+
+  private val stopped = Promise[Done]
+
+  // only accessed by the polling thread
+  private var topics: Map[String, TopicState] = Map.empty
+
+  @volatile private var running        = true
+  @volatile private var startRequested = false
+
+  private lazy val started: Future[Consumer[String, Array[Byte]]] = consumerSettings.map { settings ⇒
+    val consumer = settings.createKafkaConsumer()
+    val thread   = new Thread(() ⇒ run(consumer), "csw-event-kafka-shared-consumer")
+    thread.setDaemon(true)
+    thread.start()
+    consumer
+  }
+
+  def subscribe(eventKeys: Set[EventKey]): Source[Event, EventSubscription] =
+    Source
+      .actorRef[Event](bufferSize, OverflowStrategy.dropHead)
+      .watchTermination()(Keep.both)
+      .mapMaterializedValue {
+        case (subscriber, terminationSignal) ⇒
+          val topicNames   = eventKeys.map(_.key)
+          val readyPromise = Promise[Done]
+          startRequested = true
+          if (running) requests.put(Subscribe(topicNames, subscriber, readyPromise))
+          else rejectSubscription(subscriber, readyPromise)
+          terminationSignal.onComplete(_ ⇒ requests.put(Unsubscribe(topicNames, subscriber)))
+          started.failed.foreach { ex ⇒
+            readyPromise.tryFailure(ex)
+            subscriber ! Status.Failure(ex)
+          }
+          new EventSubscription {
+            override def unsubscribe(): Future[Done] = {
+              subscriber ! PoisonPill
+              terminationSignal
+            }
+            override def ready(): Future[Done] = readyPromise.future
+          }
+      }
+
+  /**
+   * Stops the polling thread, completes the streams of all the subscriptions and closes the consumer. Subscriptions made
+   * afterwards are failed.
+   *
+   * @return a future which completes once the polling thread has ended
+   */
+  def shutdown(): Future[Done] = {
+    running = false
+    requests.put(Stop)
+    if (!startRequested) Future.successful(Done)
+    else
+      started
+        .flatMap { consumer ⇒
+          consumer.wakeup()
+          stopped.future
+        }
+        .recover { case NonFatal(_) ⇒ Done }
+  }
+
+  private def run(consumer: Consumer[String, Array[Byte]]): Unit =
+    try {
+      while (running) {
+        try {
+          // nothing to poll, block until a subscription or the shutdown comes in
+          if (topics.isEmpty) handle(consumer, requests.take())
+          Iterator.continually(requests.poll()).takeWhile(_ != null).foreach(handle(consumer, _))
+          if (topics.nonEmpty && running) dispatch(consumer.poll(pollTimeout.toJava))
+        } catch {
+          case _: WakeupException if !running ⇒ // woken up by shutdown
+          case NonFatal(ex) ⇒
+            log.error("Polling the shared kafka consumer failed, failing all its subscriptions", ex = ex)
+            topics.values.flatMap(_.subscribers).toSet[ActorRef].foreach(_ ! Status.Failure(ex))
+            topics = Map.empty
+            consumer.unsubscribe()
+        }
+      }
+    } finally {
+      topics.values.flatMap(_.subscribers).toSet[ActorRef].foreach(_ ! Status.Success(Done))
+      topics = Map.empty
+      Iterator.continually(requests.poll()).takeWhile(_ != null).foreach {
+        case Subscribe(_, subscriber, ready) ⇒ rejectSubscription(subscriber, ready)
+        case _                               ⇒
+      }
+      consumer.close()
+      stopped.trySuccess(Done)
+    }
+
+  private def rejectSubscription(subscriber: ActorRef, ready: Promise[Done]): Unit = {
+    val ex = new IllegalStateException("Shared kafka consumer is shut down")
+    ready.tryFailure(ex)
+    subscriber ! Status.Failure(ex)
+  }
+
+  private def handle(consumer: Consumer[String, Array[Byte]], request: Request): Unit = request match {
+    case Subscribe(topicNames, subscriber, ready) ⇒
+      val newTopics = topicNames.filterNot(topics.contains)
+      try {
+        assign(consumer, newTopics)
+        topicNames.foreach { topicName ⇒
+          val state = topics(topicName)
+          state.subscribers += subscriber
+          // a new subscription starts with the latest event of the topic, unless it is still on its way from kafka
+          state.latest match {
+            case Some(event)                 ⇒ subscriber ! event
+            case None if !state.awaitsLatest ⇒ subscriber ! Event.invalidEvent(EventKey(topicName))
+            case None                        ⇒
+          }
+        }
+        ready.trySuccess(Done)
+      } catch {
+        case ex: WakeupException if !running ⇒ throw ex
+        case NonFatal(ex) ⇒
+          log.error(s"Subscribing to topics $topicNames on the shared kafka consumer failed", ex = ex)
+          ready.tryFailure(ex)
+          subscriber ! Status.Failure(ex)
+          topics.values.foreach(_.subscribers -= subscriber)
+          topics --= newTopics
+          reassign(consumer)
+      }
+
+    case Unsubscribe(topicNames, subscriber) ⇒
+      val removedTopics = topicNames.filter { topicName ⇒
+        topics.get(topicName).exists { state ⇒
+          state.subscribers -= subscriber
+          state.subscribers.isEmpty
+        }
+      }
+      if (removedTopics.nonEmpty) {
+        topics --= removedTopics
+        reassign(consumer)
+      }
+
+    case Stop ⇒
+  }
+
+  // assigns the topics subscribed to, the topics which stay assigned keep their position
+  private def reassign(consumer: Consumer[String, Array[Byte]]): Unit =
+    if (topics.isEmpty) consumer.unsubscribe()
+    else consumer.assign(topics.values.map(_.partition).asJavaCollection)
+
+  // positions every new topic on its last record if there is any, so that it is delivered to the subscriptions waiting for it
+  private def assign(consumer: Consumer[String, Array[Byte]], newTopics: Set[String]): Unit =
+    if (newTopics.nonEmpty) {
+      val newPartitions = newTopics.map(topicName ⇒ new TopicPartition(topicName, 0))
+      val endOffsets    = consumer.endOffsets(newPartitions.asJava).asScala
+      topics ++= newPartitions.map(partition ⇒ partition.topic() → new TopicState(partition))
+      consumer.assign(topics.values.map(_.partition).asJavaCollection)
+
+      newPartitions.foreach { partition ⇒
+        val endOffset: Long = endOffsets(partition)
+        if (endOffset == 0) consumer.seek(partition, 0)
+        else {
+          consumer.seek(partition, endOffset - 1)
+          topics(partition.topic()).awaitsLatest = true
+        }
+      }
+    }
+
+  private def dispatch(records: ConsumerRecords[String, Array[Byte]]): Unit =
+    records.asScala.foreach { record ⇒
+      topics.get(record.topic()).foreach { state ⇒
+        val event =
+          try decode(record.value())
+          catch { case NonFatal(_) ⇒ Event.badEvent() }
+        EventServiceMetrics.received(event)
+        state.latest = Some(event)
+        state.awaitsLatest = false
+        state.subscribers.foreach(_ ! event)
+      }
+    }
+
+  private class TopicState(val partition: TopicPartition) {
+    var subscribers: Set[ActorRef] = Set.empty
+    var latest: Option[Event]      = None
+    var awaitsLatest: Boolean      = false
+  }
+
+  private sealed trait Request
+  private case class Subscribe(topicNames: Set[String], subscriber: ActorRef, ready: Promise[Done]) extends Request
+  private case class Unsubscribe(topicNames: Set[String], subscriber: ActorRef)                     extends Request
+  private case object Stop                                                                          extends Request
+}
@@ -1,17 +1,17 @@
 package csw.event.client.internal.kafka
 
-import akka.Done
+import akka.{Done, NotUsed}
 import akka.actor.typed.ActorRef
 import akka.kafka.{scaladsl, ConsumerSettings, Subscription, Subscriptions}
 import akka.stream.{Materializer, StreamDetachedException}
 import akka.stream.scaladsl.{Keep, Sink, Source}
 import csw.params.events._
 import csw.params.core.models.Subsystem
-import csw.event.client.pb.PbConverter
+import csw.event.client.pb.PbEventDecoder
 import csw.event.api.scaladsl.{EventSubscriber, EventSubscription, SubscriptionMode}
-import csw.event.client.internal.commons.EventSubscriberUtil
+import csw.event.client.internal.commons.{EventSubscriberUtil, Settings}
+import csw.event.client.internal.metrics.EventServiceMetrics
 import csw.event.client.utils.Utils
-import csw_protobuf.events.PbEvent
 import org.apache.kafka.clients.consumer.Consumer
 import org.apache.kafka.common.TopicPartition
 
@@ -26,18 +26,29 @@ import scala.util.control.NonFatal
  * and subscribing events.
  *
  * @param consumerSettings  future of settings for akka-streams-kafka API for Apache Kafka consumer
+ * @param settings          the event service settings which decide how received events are decoded
+ * @param sharedConsumer    the consumer serving subscriptions to event keys, if they are not to get a consumer of their own
  * @param ec                the execution context to be used for performing asynchronous operations
  * @param mat               the materializer to be used for materializing underlying streams
  */
-class KafkaSubscriber(consumerSettings: Future[ConsumerSettings[String, Array[Byte]]])(
-    implicit ec: ExecutionContext,
-    mat: Materializer
-) extends EventSubscriber {
-
-  private val consumer: Future[Consumer[String, Array[Byte]]] = consumerSettings.map(_.createKafkaConsumer())
-  private val eventSubscriberUtil                             = new EventSubscriberUtil()
+class KafkaSubscriber(
+    consumerSettings: Future[ConsumerSettings[String, Array[Byte]]],
+    settings: Settings,
+    sharedConsumer: Option[KafkaSharedConsumer]
+)(implicit ec: ExecutionContext, mat: Materializer)
+    extends EventSubscriber {
+
+  private lazy val consumer: Future[Consumer[String, Array[Byte]]] = consumerSettings.map(_.createKafkaConsumer())
+  private val eventSubscriberUtil =
+    new EventSubscriberUtil(settings.taiAlignedTicks, settings.asyncCallbackParallelism)
+  private val decode: Array[Byte] ⇒ Event                          = KafkaSubscriber.decoder(settings)
+
+  override def subscribe(eventKeys: Set[EventKey]): Source[Event, EventSubscription] = sharedConsumer match {
+    case Some(shared) ⇒ shared.subscribe(eventKeys)
+    case None         ⇒ dedicatedSubscription(eventKeys)
+  }
 
-  override def subscribe(eventKeys: Set[EventKey]): Source[Event, EventSubscription] = {
+  private def dedicatedSubscription(eventKeys: Set[EventKey]): Source[Event, EventSubscription] = {
     val offsetsF = getLatestOffsets(eventKeys)
 
     // Subscribe to the 0th offset if nothing has been published yet or `current offset - 1` to receive the last published event
@@ -126,11 +137,15 @@ class KafkaSubscriber(consumerSettings: Future[ConsumerSettings[String, Array[By
 
   override def get(eventKey: EventKey): Future[Event] = get(Set(eventKey)).map(_.head)
 
+  override def getAll(eventKeys: Set[EventKey]): Source[Event, NotUsed] = Source.fromFuture(get(eventKeys)).mapConcat(identity)
+
   private def getEventStream(subscription: Future[Subscription]): Source[Event, Future[scaladsl.Consumer.Control]] = {
     val future = subscription.flatMap(s => consumerSettings.map(c => scaladsl.Consumer.plainSource(c, s)))
     Source.fromFutureSource(future).map { record ⇒
-      try PbConverter.fromPbEvent(PbEvent.parseFrom(record.value()))
-      catch { case NonFatal(_) ⇒ Event.badEvent() }
+      val event =
+        try decode(record.value())
+        catch { case NonFatal(_) ⇒ Event.badEvent() }
+      EventServiceMetrics.received(event)
     }
   }
 
@@ -153,3 +168,8 @@ class KafkaSubscriber(consumerSettings: Future[ConsumerSettings[String, Array[By
     }
   }
 }
+
+private[kafka] object KafkaSubscriber {
+  def decoder(settings: Settings): Array[Byte] ⇒ Event =
+    if (settings.lazyDecoding) PbEventDecoder.decodeLazily else PbEventDecoder.decode
+}
@@ -0,0 +1,45 @@
+package csw.event.client.internal.local
+
+import akka.stream.Materializer
+import csw.event.api.scaladsl.{EventHistory, EventPublisher, EventService, EventSubscriber}
+import csw.event.client.internal.commons.DelegatedEventHistory
+
+import scala.concurrent.ExecutionContext
+
+/**
+ * Implementation of [[csw.event.api.scaladsl.EventService]] which short circuits the delivery of events between the publishers
+ * and subscribers of this JVM through a [[csw.event.client.internal.local.LocalEventHub]], while the events are still
+ * published to the event server of the underlying event service for remote subscribers and for `get`
+ *
+ * @param underlying the event service to wrap
+ * @param hub the hub shared by all the event services of this JVM which deliver events locally
+ * @param bufferSize number of locally delivered events buffered for a slow subscription before the oldest ones get dropped
+ * @param dedupWindow number of local events a subscription remembers until their copy comes back from the event server
+ * @param alignedTicks whether subscriptions with a subscription mode are driven by the shared TAI aligned ticks
+ * @param asyncCallbackParallelism maximum number of callbacks of a `subscribeAsync` subscription running at once
+ * @param executionContext the execution context to be used for performing asynchronous operations
+ * @param mat the materializer to be used for materializing underlying streams
+ */
+class LocalDeliveryEventService private[event] (
+    underlying: EventService,
+    hub: LocalEventHub,
+    bufferSize: Int,
+    dedupWindow: Int,
+    alignedTicks: Boolean,
+    asyncCallbackParallelism: Int
+)(implicit val executionContext: ExecutionContext, mat: Materializer)
+    extends EventService {
+
+  override def makeNewPublisher(): EventPublisher = new LocalDeliveryPublisher(underlying.makeNewPublisher(), hub)
+
+  // the history of the underlying subscriber, if it keeps one, is served as it is
+  override def makeNewSubscriber(): EventSubscriber = underlying.makeNewSubscriber() match {
+    case subscriber: EventHistory ⇒
+      new LocalDeliverySubscriber(subscriber, hub, bufferSize, dedupWindow, alignedTicks, asyncCallbackParallelism)
+      with DelegatedEventHistory {
+        override protected def eventHistory: EventHistory = subscriber
+      }
+    case subscriber ⇒
+      new LocalDeliverySubscriber(subscriber, hub, bufferSize, dedupWindow, alignedTicks, asyncCallbackParallelism)
+  }
+}
@@ -0,0 +1,72 @@
+package csw.event.client.internal.local
+
+import akka.Done
+import akka.actor.Cancellable
+import akka.stream.QueueOfferResult
+import akka.stream.scaladsl.Source
+import csw.event.api.exceptions.PublishFailure
+import csw.event.api.scaladsl.EventPublisher
+import csw.params.events.Event
+import csw.time.core.models.TMTTime
+
+import scala.concurrent.duration.FiniteDuration
+import scala.concurrent.{ExecutionContext, Future}
+
+/**
+ * An [[csw.event.api.scaladsl.EventPublisher]] which hands every event over to the subscribers of this JVM through the
+ * [[csw.event.client.internal.local.LocalEventHub]] before publishing it with the underlying publisher. Local subscribers
+ * see an event even if its publish to the event server fails afterwards.
+ *
+ * @param underlying the publisher used to publish events to the event server
+ * @param hub the hub delivering events to the subscribers of this JVM
+ * @param ec the execution context to be used for performing asynchronous operations
+ */
+private[local] class LocalDeliveryPublisher(underlying: EventPublisher, hub: LocalEventHub)(implicit ec: ExecutionContext)
+    extends EventPublisher {
+
+  override def publish(event: Event): Future[Done] = underlying.publish(hub.publish(event))
+
+  override def offer(event: Event): Future[QueueOfferResult] = underlying.offer(hub.publish(event))
+
+  override def publish[Mat](source: Source[Event, Mat]): Mat = underlying.publish(source.map(hub.publish))
+
+  override def publish[Mat](source: Source[Event, Mat], onError: PublishFailure ⇒ Unit): Mat =
+    underlying.publish(source.map(hub.publish), onError)
+
+  override def publish(eventGenerator: ⇒ Option[Event], every: FiniteDuration): Cancellable =
+    underlying.publish(eventGenerator.map(hub.publish), every)
+
+  override def publish(eventGenerator: ⇒ Option[Event], startTime: TMTTime, every: FiniteDuration): Cancellable =
+    underlying.publish(eventGenerator.map(hub.publish), startTime, every)
+
+  override def publish(eventGenerator: ⇒ Option[Event], every: FiniteDuration, onError: PublishFailure ⇒ Unit): Cancellable =
+    underlying.publish(eventGenerator.map(hub.publish), every, onError)
+
+  override def publish(
+      eventGenerator: ⇒ Option[Event],
+      startTime: TMTTime,
+      every: FiniteDuration,
+      onError: PublishFailure ⇒ Unit
+  ): Cancellable = underlying.publish(eventGenerator.map(hub.publish), startTime, every, onError)
+
+  override def publishAsync(eventGenerator: ⇒ Future[Option[Event]], every: FiniteDuration): Cancellable =
+    underlying.publishAsync(eventGenerator.map(_.map(hub.publish)), every)
+
+  override def publishAsync(eventGenerator: ⇒ Future[Option[Event]], startTime: TMTTime, every: FiniteDuration): Cancellable =
+    underlying.publishAsync(eventGenerator.map(_.map(hub.publish)), startTime, every)
+
+  override def publishAsync(
+      eventGenerator: ⇒ Future[Option[Event]],
+      every: FiniteDuration,
+      onError: PublishFailure ⇒ Unit
+  ): Cancellable = underlying.publishAsync(eventGenerator.map(_.map(hub.publish)), every, onError)
+
+  override def publishAsync(
+      eventGenerator: ⇒ Future[Option[Event]],
+      startTime: TMTTime,
+      every: FiniteDuration,
+      onError: PublishFailure ⇒ Unit
+  ): Cancellable = underlying.publishAsync(eventGenerator.map(_.map(hub.publish)), startTime, every, onError)
+
+  override def shutdown(): Future[Done] = underlying.shutdown()
+}
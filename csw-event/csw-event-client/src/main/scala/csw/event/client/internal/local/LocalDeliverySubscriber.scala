@@ -0,0 +1,117 @@
+package csw.event.client.internal.local
+
+import akka.actor.typed.ActorRef
+import akka.stream.Materializer
+import akka.stream.scaladsl.{Keep, Source}
+import akka.NotUsed
+import csw.event.api.scaladsl.{EventSubscriber, EventSubscription, SubscriptionMode}
+import csw.event.client.internal.commons.EventSubscriberUtil
+import csw.params.core.models.Subsystem
+import csw.params.events.{Event, EventKey}
+
+import scala.concurrent.duration.FiniteDuration
+import scala.concurrent.{ExecutionContext, Future}
+
+/**
+ * An [[csw.event.api.scaladsl.EventSubscriber]] whose subscriptions receive the events published in this JVM straight from the
+ * [[csw.event.client.internal.local.LocalEventHub]], next to the events received from the event server.
+ *
+ * An event published in this JVM reaches a subscription twice, once through the hub and once through the event server. Only
+ * the first copy to arrive is passed on, which is almost always the local one, as long as no more than `dedupWindow` other
+ * local events reach the subscription in between. An event whose publish fails is still delivered through the hub. Pattern
+ * subscriptions and `get` are served by the underlying subscriber only.
+ *
+ * @param underlying the subscriber used to receive events from the event server
+ * @param hub the hub delivering the events published in this JVM
+ * @param bufferSize number of locally delivered events buffered for a slow subscription before the oldest ones get dropped
+ * @param dedupWindow number of local events a subscription remembers until their copy comes back from the event server
+ * @param alignedTicks whether subscriptions with a subscription mode are driven by the shared TAI aligned ticks
+ * @param asyncCallbackParallelism maximum number of callbacks of a `subscribeAsync` subscription running at once
+ * @param ec the execution context to be used for performing asynchronous operations
+ * @param mat the materializer to be used for materializing underlying streams
+ */
+private[local] class LocalDeliverySubscriber(
+    underlying: EventSubscriber,
+    hub: LocalEventHub,
+    bufferSize: Int,
+    dedupWindow: Int,
+    alignedTicks: Boolean,
+    asyncCallbackParallelism: Int
+)(implicit ec: ExecutionContext, mat: Materializer)
+    extends EventSubscriber {
+
+  private val eventSubscriberUtil = new EventSubscriberUtil(alignedTicks, asyncCallbackParallelism)
+
+  override def subscribe(eventKeys: Set[EventKey]): Source[Event, EventSubscription] =
+    // the local subscription is ready right away and goes away with the merged stream once the remote one is unsubscribed
+    underlying
+      .subscribe(eventKeys)
+      .mergeMat(hub.subscribe(eventKeys, bufferSize), eagerComplete = true)(Keep.left)
+      .statefulMapConcat { () ⇒
+        val deliveredEvents = new DeliveredEvents
+        event ⇒
+          if (hub.isPublishedLocally(event) && !deliveredEvents.firstCopy(event)) Nil
+          else List(event)
+      }
+
+  override def subscribe(
+      eventKeys: Set[EventKey],
+      every: FiniteDuration,
+      mode: SubscriptionMode
+  ): Source[Event, EventSubscription] = subscribe(eventKeys).via(eventSubscriberUtil.subscriptionModeStage(every, mode))
+
+  override def subscribeAsync(eventKeys: Set[EventKey], callback: Event ⇒ Future[_]): EventSubscription =
+    eventSubscriberUtil.subscribeAsync(subscribe(eventKeys), callback)
+
+  override def subscribeAsync(
+      eventKeys: Set[EventKey],
+      callback: Event ⇒ Future[_],
+      every: FiniteDuration,
+      mode: SubscriptionMode
+  ): EventSubscription = eventSubscriberUtil.subscribeAsync(subscribe(eventKeys, every, mode), callback)
+
+  override def subscribeCallback(eventKeys: Set[EventKey], callback: Event ⇒ Unit): EventSubscription =
+    eventSubscriberUtil.subscribeCallback(subscribe(eventKeys), callback)
+
+  override def subscribeCallback(
+      eventKeys: Set[EventKey],
+      callback: Event ⇒ Unit,
+      every: FiniteDuration,
+      mode: SubscriptionMode
+  ): EventSubscription = eventSubscriberUtil.subscribeCallback(subscribe(eventKeys, every, mode), callback)
+
+  override def subscribeActorRef(eventKeys: Set[EventKey], actorRef: ActorRef[Event]): EventSubscription =
+    subscribeCallback(eventKeys, eventSubscriberUtil.actorCallback(actorRef))
+
+  override def subscribeActorRef(
+      eventKeys: Set[EventKey],
+      actorRef: ActorRef[Event],
+      every: FiniteDuration,
+      mode: SubscriptionMode
+  ): EventSubscription = subscribeCallback(eventKeys, eventSubscriberUtil.actorCallback(actorRef), every, mode)
+
+  override def pSubscribe(subsystem: Subsystem, pattern: String): Source[Event, EventSubscription] =
+    underlying.pSubscribe(subsystem, pattern)
+
+  override def pSubscribeCallback(subsystem: Subsystem, pattern: String, callback: Event ⇒ Unit): EventSubscription =
+    underlying.pSubscribeCallback(subsystem, pattern, callback)
+
+  override def get(eventKeys: Set[EventKey]): Future[Set[Event]] = underlying.get(eventKeys)
+
+  override def getAll(eventKeys: Set[EventKey]): Source[Event, NotUsed] = underlying.getAll(eventKeys)
+
+  override def get(eventKey: EventKey): Future[Event] = underlying.get(eventKey)
+
+  // remembers the last local events passed on by a subscription, until the other copy of each of them arrives
+  private class DeliveredEvents extends java.util.LinkedHashSet[Any] {
+    def firstCopy(event: Event): Boolean = {
+      val identity = LocalEventHub.identity(event)
+      if (remove(identity)) false
+      else {
+        add(identity)
+        if (size() > dedupWindow) remove(iterator().next())
+        true
+      }
+    }
+  }
+}
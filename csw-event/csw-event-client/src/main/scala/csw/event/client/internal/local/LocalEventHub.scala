@@ -0,0 +1,86 @@
+package csw.event.client.internal.local
+
+import java.util.concurrent.TimeUnit
+
+import akka.Done
+import akka.actor.{ActorRef, PoisonPill}
+import akka.dispatch.ExecutionContexts
+import akka.stream.OverflowStrategy
+import akka.stream.scaladsl.{Keep, Source}
+import com.github.benmanes.caffeine.cache.{Cache, Caffeine}
+import csw.event.api.scaladsl.EventSubscription
+import csw.params.core.models.Id
+import csw.params.events.{Event, EventKey}
+import csw.time.core.models.UTCTime
+
+import scala.concurrent.Future
+
+/**
+ * Delivers the events published in this JVM to the subscriptions of this JVM, without encoding them and without going
+ * through the event server. Subscribers receive the very same immutable event instance that was published.
+ *
+ * The hub also remembers which events were published through it for a while, so that subscribers can recognise the copy of
+ * such an event which comes back from the event server.
+ */
+private[event] class LocalEventHub {
+
+  // only updated while holding the lock of the hub
+  @volatile private var subscribers: Map[EventKey, Set[ActorRef]] = Map.empty
+
+  private val publishedEvents: Cache[(EventKey, Id, UTCTime), java.lang.Boolean] = Caffeine
+    .newBuilder()
+    .maximumSize(100000)
+    .expireAfterWrite(1, TimeUnit.MINUTES)
+    .build()
+
+  def publish(event: Event): Event = {
+    publishedEvents.put(LocalEventHub.identity(event), true)
+    subscribers.getOrElse(event.eventKey, Set.empty).foreach(_ ! event)
+    event
+  }
+
+  /**
+   * Whether the given event was published through this hub, in which case it is also delivered by the hub
+   */
+  def isPublishedLocally(event: Event): Boolean = publishedEvents.getIfPresent(LocalEventHub.identity(event)) != null
+
+  /**
+   * Creates a stream of the events of the given keys published in this JVM from now on
+   *
+   * @param bufferSize number of events buffered for a slow subscription before the oldest ones get dropped
+   */
+  def subscribe(eventKeys: Set[EventKey], bufferSize: Int): Source[Event, EventSubscription] =
+    Source
+      .actorRef[Event](bufferSize, OverflowStrategy.dropHead)
+      .watchTermination()(Keep.both)
+      .mapMaterializedValue {
+        case (subscriber, terminationSignal) ⇒
+          register(eventKeys, subscriber)
+          terminationSignal.onComplete(_ ⇒ unregister(eventKeys, subscriber))(ExecutionContexts.sameThreadExecutionContext)
+          new EventSubscription {
+            override def unsubscribe(): Future[Done] = {
+              subscriber ! PoisonPill
+              terminationSignal
+            }
+            override def ready(): Future[Done] = Future.successful(Done)
+          }
+      }
+
+  private def register(eventKeys: Set[EventKey], subscriber: ActorRef): Unit = synchronized {
+    subscribers = eventKeys.foldLeft(subscribers) { (acc, key) ⇒
+      acc.updated(key, acc.getOrElse(key, Set.empty[ActorRef]) + subscriber)
+    }
+  }
+
+  private def unregister(eventKeys: Set[EventKey], subscriber: ActorRef): Unit = synchronized {
+    subscribers = eventKeys.foldLeft(subscribers) { (acc, key) ⇒
+      val remaining = acc.getOrElse(key, Set.empty[ActorRef]) - subscriber
+      if (remaining.isEmpty) acc - key else acc.updated(key, remaining)
+    }
+  }
+}
+
+private[local] object LocalEventHub {
+  // the id of an event alone is not enough, as events are often copied with a new time but the same id
+  def identity(event: Event): (EventKey, Id, UTCTime) = (event.eventKey, event.eventId, event.eventTime)
+}
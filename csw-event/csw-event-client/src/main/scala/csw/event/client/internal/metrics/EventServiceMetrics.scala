@@ -0,0 +1,216 @@
+package csw.event.client.internal.metrics
+
+import java.lang.management.ManagementFactory
+import java.time.Instant
+import java.util.concurrent.{ConcurrentHashMap, TimeUnit}
+import java.util.concurrent.atomic.LongAdder
+
+import csw.event.client.internal.commons.EventServiceLogger
+import csw.params.events.Event
+import javax.management.{ObjectName, StandardMBean}
+import org.HdrHistogram.{Histogram, Recorder}
+
+import scala.collection.JavaConverters._
+import scala.concurrent.{ExecutionContext, Future}
+import scala.util.Success
+import scala.util.control.NonFatal
+
+/**
+ * Management interface of the event service client metrics, registered with the platform MBean server under
+ * `csw.event:type=EventServiceMetrics`. Latencies are reported in microseconds and accumulate until [[reset]] is invoked.
+ */
+trait EventServiceMetricsMBean {
+
+  /**
+   * Number of published events acknowledged by the event server, measured from the moment they were handed over to the
+   * event server, whether published one by one, in batches, offered or from a stream
+   */
+  def getPublishLatencyCount: Long
+  def getPublishLatencyP50Micros: Long
+  def getPublishLatencyP99Micros: Long
+  def getPublishLatencyMaxMicros: Long
+
+  /** Number of events published with `publish(event)`, measured from the moment they were queued until they left the queue */
+  def getPublishQueueWaitCount: Long
+  def getPublishQueueWaitP50Micros: Long
+  def getPublishQueueWaitP99Micros: Long
+  def getPublishQueueWaitMaxMicros: Long
+
+  /**
+   * Number of received events, measured from their `eventTime` to the moment they were received. With kafka, the latest
+   * event replayed to a new subscription is measured as well.
+   */
+  def getEndToEndLatencyCount: Long
+  def getEndToEndLatencyP50Micros: Long
+  def getEndToEndLatencyP99Micros: Long
+  def getEndToEndLatencyMaxMicros: Long
+
+  /** Number of events waiting in the queues of the publishers to be published */
+  def getPublishQueueDepth: Long
+
+  /** Number of events waiting to be published in each of the publish lanes, summed up over all the publishers */
+  def getPublishLaneQueueDepths: Array[Long]
+
+  /** Number of events dropped because the queue of a publisher was full */
+  def getDroppedPublishEvents: Long
+
+  /** Number of offered events superseded by a later event of the same key before they could be published */
+  def getCoalescedPublishEvents: Long
+
+  /** Number of events dropped by subscriptions with a [[csw.event.api.scaladsl.SubscriptionMode]] */
+  def getDroppedThrottledEvents: Long
+
+  /** Number of keys fetched with `get` which were answered from the near cache of a subscriber */
+  def getNearCacheHits: Long
+
+  /** Number of keys fetched with `get` by a subscriber with a near cache which had to be fetched from the event server */
+  def getNearCacheMisses: Long
+
+  /** Clears the latency histograms and the event and near cache counters */
+  def reset(): Unit
+}
+
+/**
+ * Metrics shared by all the publishers and subscribers of the JVM. Recording is wait free so that it can stay enabled in
+ * production, the histograms are only consolidated when they are read through JMX.
+ */
+private[event] object EventServiceMetrics extends EventServiceMetricsMBean {
+
+  private val log = EventServiceLogger.getLogger
+
+  private val publishLatency   = new LatencyHistogram
+  private val publishQueueWait = new LatencyHistogram
+  private val endToEndLatency  = new LatencyHistogram
+
+  private val publishQueueDepth      = new LongAdder
+  private val laneQueueDepths        = new ConcurrentHashMap[Int, LongAdder]
+  private val droppedPublishEvents   = new LongAdder
+  private val coalescedPublishEvents = new LongAdder
+  private val droppedThrottledEvents = new LongAdder
+  private val nearCacheHits          = new LongAdder
+  private val nearCacheMisses        = new LongAdder
+
+  try {
+    val mBean = new StandardMBean(this, classOf[EventServiceMetricsMBean])
+    ManagementFactory.getPlatformMBeanServer.registerMBean(mBean, new ObjectName("csw.event:type=EventServiceMetrics"))
+  } catch {
+    case NonFatal(ex) ⇒ log.warn("Could not register the event service metrics with JMX", ex = ex)
+  }
+
+  /**
+   * Records the time taken by the given publish to be acknowledged, failed publishes are not recorded
+   */
+  def timePublish[T](publish: ⇒ Future[T])(implicit ec: ExecutionContext): Future[T] = {
+    val start = System.nanoTime()
+    timePublishSince(start, publish)
+  }
+
+  /**
+   * Records the time from `start`, as given by `System.nanoTime`, until the given publish is acknowledged, failed publishes
+   * are not recorded
+   */
+  def timePublishSince[T](start: Long, published: Future[T])(implicit ec: ExecutionContext): Future[T] = {
+    published.onComplete {
+      case Success(_) ⇒ publishLatency.record(System.nanoTime() - start)
+      case _          ⇒
+    }
+    published
+  }
+
+  /**
+   * Records the time an event waited in a publish queue, from `enqueuedAt` as given by `System.nanoTime`
+   */
+  def queueWaited(enqueuedAt: Long): Unit = publishQueueWait.record(System.nanoTime() - enqueuedAt)
+
+  /**
+   * Records the end to end latency of a received event, events which were never published are skipped
+   */
+  def received(event: Event): Event = {
+    if (!event.isInvalid) {
+      val now       = Instant.now()
+      val eventTime = event.eventTime.value
+      val seconds   = now.getEpochSecond - eventTime.getEpochSecond
+      endToEndLatency.record(TimeUnit.SECONDS.toNanos(seconds) + now.getNano - eventTime.getNano)
+    }
+    event
+  }
+
+  def enqueued(lane: Int): Unit = {
+    publishQueueDepth.increment()
+    laneQueueDepth(lane).increment()
+  }
+
+  def dequeued(lane: Int): Unit = {
+    publishQueueDepth.decrement()
+    laneQueueDepth(lane).decrement()
+  }
+
+  def droppedFromQueue(): Unit  = droppedPublishEvents.increment()
+  def coalesced(): Unit         = coalescedPublishEvents.increment()
+  def droppedByThrottle(): Unit = droppedThrottledEvents.increment()
+
+  def nearCacheLookedUp(hits: Int, misses: Int): Unit = {
+    nearCacheHits.add(hits)
+    nearCacheMisses.add(misses)
+  }
+
+  private def laneQueueDepth(lane: Int): LongAdder = laneQueueDepths.computeIfAbsent(lane, _ ⇒ new LongAdder)
+
+  override def getPublishLatencyCount: Long     = publishLatency.snapshot().getTotalCount
+  override def getPublishLatencyP50Micros: Long = publishLatency.snapshot().getValueAtPercentile(50)
+  override def getPublishLatencyP99Micros: Long = publishLatency.snapshot().getValueAtPercentile(99)
+  override def getPublishLatencyMaxMicros: Long = publishLatency.snapshot().getMaxValue
+
+  override def getPublishQueueWaitCount: Long     = publishQueueWait.snapshot().getTotalCount
+  override def getPublishQueueWaitP50Micros: Long = publishQueueWait.snapshot().getValueAtPercentile(50)
+  override def getPublishQueueWaitP99Micros: Long = publishQueueWait.snapshot().getValueAtPercentile(99)
+  override def getPublishQueueWaitMaxMicros: Long = publishQueueWait.snapshot().getMaxValue
+
+  override def getEndToEndLatencyCount: Long     = endToEndLatency.snapshot().getTotalCount
+  override def getEndToEndLatencyP50Micros: Long = endToEndLatency.snapshot().getValueAtPercentile(50)
+  override def getEndToEndLatencyP99Micros: Long = endToEndLatency.snapshot().getValueAtPercentile(99)
+  override def getEndToEndLatencyMaxMicros: Long = endToEndLatency.snapshot().getMaxValue
+
+  override def getPublishQueueDepth: Long      = publishQueueDepth.sum()
+  override def getDroppedPublishEvents: Long   = droppedPublishEvents.sum()
+  override def getCoalescedPublishEvents: Long = coalescedPublishEvents.sum()
+  override def getDroppedThrottledEvents: Long = droppedThrottledEvents.sum()
+  override def getNearCacheHits: Long          = nearCacheHits.sum()
+  override def getNearCacheMisses: Long        = nearCacheMisses.sum()
+
+  // a lane is only known once an event went through it, lanes which were never used are reported as empty
+  override def getPublishLaneQueueDepths: Array[Long] = {
+    val lanes = laneQueueDepths.keySet().asScala
+    if (lanes.isEmpty) Array.emptyLongArray
+    else Array.tabulate(lanes.max + 1)(lane ⇒ Option(laneQueueDepths.get(lane)).fold(0L)(_.sum()))
+  }
+
+  override def reset(): Unit = {
+    publishLatency.reset()
+    publishQueueWait.reset()
+    endToEndLatency.reset()
+    droppedPublishEvents.reset()
+    coalescedPublishEvents.reset()
+    droppedThrottledEvents.reset()
+    nearCacheHits.reset()
+    nearCacheMisses.reset()
+  }
+
+  // values are recorded by any number of threads through a recorder and accumulated into a histogram when read
+  private class LatencyHistogram {
+    private val recorder    = new Recorder(3)
+    private val accumulated = new Histogram(3)
+
+    def record(nanos: Long): Unit = recorder.recordValue(TimeUnit.NANOSECONDS.toMicros(math.max(nanos, 0)))
+
+    def snapshot(): Histogram = synchronized {
+      accumulated.add(recorder.getIntervalHistogram)
+      accumulated.copy()
+    }
+
+    def reset(): Unit = synchronized {
+      recorder.reset()
+      accumulated.reset()
+    }
+  }
+}
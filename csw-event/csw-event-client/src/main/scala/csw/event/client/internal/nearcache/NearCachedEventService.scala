@@ -0,0 +1,44 @@
+package csw.event.client.internal.nearcache
+
+import akka.NotUsed
+import akka.stream.Materializer
+import akka.stream.scaladsl.Source
+import csw.event.api.scaladsl.{EventHistory, EventPublisher, EventService}
+import csw.event.client.internal.commons.DelegatedEventHistory
+
+import scala.concurrent.ExecutionContext
+
+/**
+ * Implementation of [[csw.event.api.scaladsl.EventService]] which hands out the publishers of the underlying event service
+ * and wraps its subscribers into [[csw.event.client.internal.nearcache.NearCachedEventSubscriber]]
+ *
+ * @param underlying the event service to wrap
+ * @param maxSize maximum number of keys held in the cache of every subscriber
+ * @param disconnections creates a stream which emits every time a connection to the event server is lost
+ * @param alignedTicks whether subscriptions with a subscription mode are driven by the shared TAI aligned ticks
+ * @param asyncCallbackParallelism maximum number of callbacks of a `subscribeAsync` subscription running at once
+ * @param executionContext the execution context to be used for performing asynchronous operations
+ * @param mat the materializer to be used for materializing underlying streams
+ */
+class NearCachedEventService(
+    underlying: EventService,
+    maxSize: Long,
+    disconnections: () ⇒ Source[Any, NotUsed],
+    alignedTicks: Boolean,
+    asyncCallbackParallelism: Int
+)(implicit val executionContext: ExecutionContext, mat: Materializer)
+    extends EventService {
+
+  override def makeNewPublisher(): EventPublisher = underlying.makeNewPublisher()
+
+  // the history of the underlying subscriber, if it keeps one, is served as it is
+  override def makeNewSubscriber(): NearCachedEventSubscriber = underlying.makeNewSubscriber() match {
+    case subscriber: EventHistory ⇒
+      new NearCachedEventSubscriber(subscriber, maxSize, disconnections(), alignedTicks, asyncCallbackParallelism)
+      with DelegatedEventHistory {
+        override protected def eventHistory: EventHistory = subscriber
+      }
+    case subscriber ⇒
+      new NearCachedEventSubscriber(subscriber, maxSize, disconnections(), alignedTicks, asyncCallbackParallelism)
+  }
+}
@@ -0,0 +1,174 @@
+package csw.event.client.internal.nearcache
+
+import akka.NotUsed
+import akka.actor.typed.ActorRef
+import akka.stream.Materializer
+import akka.stream.scaladsl.{Keep, Source}
+import com.github.benmanes.caffeine.cache.{Cache, Caffeine}
+import csw.event.api.scaladsl.{EventSubscriber, EventSubscription, SubscriptionMode}
+import csw.event.client.internal.commons.{EventServiceLogger, EventSubscriberUtil}
+import csw.event.client.internal.metrics.EventServiceMetrics
+import csw.params.core.models.Subsystem
+import csw.params.events.{Event, EventKey}
+
+import scala.collection.JavaConverters.seqAsJavaListConverter
+import scala.concurrent.duration.FiniteDuration
+import scala.concurrent.{ExecutionContext, Future}
+import scala.util.Failure
+
+/**
+ * An [[csw.event.api.scaladsl.EventSubscriber]] which keeps the latest event of every key it is subscribed to in a bounded
+ * local cache, so that `get` for such a key is answered without a round trip to the event server.
+ *
+ * The cache is populated and refreshed only by the subscription streams created through this subscriber. A key is dropped
+ * from the cache once the last subscription to it terminates, the whole cache is dropped whenever `disconnections` emits, so
+ * that an event missed while the connection was down is never served from the cache. Keys which are not subscribed to are
+ * always fetched from the event server.
+ *
+ * @param underlying the subscriber used to subscribe and to fetch keys which are not in the cache
+ * @param maxSize maximum number of keys held in the cache
+ * @param disconnections emits every time a connection to the event server is lost
+ * @param alignedTicks whether subscriptions with a subscription mode are driven by the shared TAI aligned ticks
+ * @param asyncCallbackParallelism maximum number of callbacks of a `subscribeAsync` subscription running at once
+ * @param ec the execution context to be used for performing asynchronous operations
+ * @param mat the materializer to be used for materializing underlying streams
+ */
+class NearCachedEventSubscriber(
+    underlying: EventSubscriber,
+    maxSize: Long,
+    disconnections: Source[Any, NotUsed],
+    alignedTicks: Boolean,
+    asyncCallbackParallelism: Int
+)(implicit ec: ExecutionContext, mat: Materializer)
+    extends EventSubscriber {
+
+  private val log                 = EventServiceLogger.getLogger
+  private val eventSubscriberUtil = new EventSubscriberUtil(alignedTicks, asyncCallbackParallelism)
+
+  private val cache: Cache[EventKey, Event] = Caffeine
+    .newBuilder()
+    .maximumSize(maxSize)
+    .recordStats()
+    .build()
+
+  // number of live subscriptions per key, only accessed while holding the lock
+  private var watchers: Map[EventKey, Int] = Map.empty
+
+  disconnections.runForeach { _ ⇒
+    log.info("Connection to event server lost, invalidating the cached events")
+    cache.invalidateAll()
+  }
+
+  /**
+   * Number of `get` lookups answered from the cache
+   */
+  def hitCount: Long = cache.stats().hitCount()
+
+  /**
+   * Number of `get` lookups which had to be fetched from the event server
+   */
+  def missCount: Long = cache.stats().missCount()
+
+  override def subscribe(eventKeys: Set[EventKey]): Source[Event, EventSubscription] =
+    underlying
+      .subscribe(eventKeys)
+      .map { event ⇒
+        if (eventKeys.contains(event.eventKey)) cache.put(event.eventKey, event)
+        event
+      }
+      .watchTermination()(Keep.both)
+      .mapMaterializedValue {
+        case (subscription, terminationSignal) ⇒
+          watch(eventKeys)
+          terminationSignal.onComplete { result ⇒
+            unwatch(eventKeys)
+            // the stream failed, the cached events of its keys may not be the latest anymore
+            if (result.isInstanceOf[Failure[_]]) cache.invalidateAll(eventKeys.toList.asJava)
+          }
+          subscription
+      }
+
+  override def subscribe(
+      eventKeys: Set[EventKey],
+      every: FiniteDuration,
+      mode: SubscriptionMode
+  ): Source[Event, EventSubscription] = subscribe(eventKeys).via(eventSubscriberUtil.subscriptionModeStage(every, mode))
+
+  override def subscribeAsync(eventKeys: Set[EventKey], callback: Event ⇒ Future[_]): EventSubscription =
+    eventSubscriberUtil.subscribeAsync(subscribe(eventKeys), callback)
+
+  override def subscribeAsync(
+      eventKeys: Set[EventKey],
+      callback: Event ⇒ Future[_],
+      every: FiniteDuration,
+      mode: SubscriptionMode
+  ): EventSubscription = eventSubscriberUtil.subscribeAsync(subscribe(eventKeys, every, mode), callback)
+
+  override def subscribeCallback(eventKeys: Set[EventKey], callback: Event ⇒ Unit): EventSubscription =
+    eventSubscriberUtil.subscribeCallback(subscribe(eventKeys), callback)
+
+  override def subscribeCallback(
+      eventKeys: Set[EventKey],
+      callback: Event ⇒ Unit,
+      every: FiniteDuration,
+      mode: SubscriptionMode
+  ): EventSubscription = eventSubscriberUtil.subscribeCallback(subscribe(eventKeys, every, mode), callback)
+
+  override def subscribeActorRef(eventKeys: Set[EventKey], actorRef: ActorRef[Event]): EventSubscription =
+    subscribeCallback(eventKeys, eventSubscriberUtil.actorCallback(actorRef))
+
+  override def subscribeActorRef(
+      eventKeys: Set[EventKey],
+      actorRef: ActorRef[Event],
+      every: FiniteDuration,
+      mode: SubscriptionMode
+  ): EventSubscription = subscribeCallback(eventKeys, eventSubscriberUtil.actorCallback(actorRef), every, mode)
+
+  override def pSubscribe(subsystem: Subsystem, pattern: String): Source[Event, EventSubscription] =
+    underlying.pSubscribe(subsystem, pattern)
+
+  override def pSubscribeCallback(subsystem: Subsystem, pattern: String, callback: Event ⇒ Unit): EventSubscription =
+    eventSubscriberUtil.pSubscribe(pSubscribe(subsystem, pattern), callback)
+
+  override def get(eventKeys: Set[EventKey]): Future[Set[Event]] = {
+    val (cachedEvents, missingKeys) = lookup(eventKeys)
+    if (missingKeys.isEmpty) Future.successful(cachedEvents.toSet)
+    else underlying.get(missingKeys).map(_ ++ cachedEvents)
+  }
+
+  override def getAll(eventKeys: Set[EventKey]): Source[Event, NotUsed] = {
+    val (cachedEvents, missingKeys) = lookup(eventKeys)
+    if (missingKeys.isEmpty) Source(cachedEvents)
+    else Source(cachedEvents).concat(underlying.getAll(missingKeys))
+  }
+
+  override def get(eventKey: EventKey): Future[Event] = Option(cache.getIfPresent(eventKey)) match {
+    case Some(event) ⇒
+      EventServiceMetrics.nearCacheLookedUp(hits = 1, misses = 0)
+      Future.successful(event)
+    case None ⇒
+      EventServiceMetrics.nearCacheLookedUp(hits = 0, misses = 1)
+      underlying.get(eventKey)
+  }
+
+  private def lookup(eventKeys: Set[EventKey]): (List[Event], Set[EventKey]) = {
+    val cachedEvents = eventKeys.toList.flatMap(eventKey ⇒ Option(cache.getIfPresent(eventKey)))
+    EventServiceMetrics.nearCacheLookedUp(cachedEvents.size, eventKeys.size - cachedEvents.size)
+    (cachedEvents, eventKeys -- cachedEvents.map(_.eventKey))
+  }
+
+  private def watch(eventKeys: Set[EventKey]): Unit = synchronized {
+    watchers = eventKeys.foldLeft(watchers)((acc, key) ⇒ acc.updated(key, acc.getOrElse(key, 0) + 1))
+  }
+
+  private def unwatch(eventKeys: Set[EventKey]): Unit = synchronized {
+    eventKeys.foreach { key ⇒
+      watchers.getOrElse(key, 0) match {
+        case count if count > 1 ⇒ watchers = watchers.updated(key, count - 1)
+        case _ ⇒
+          watchers -= key
+          cache.invalidate(key)
+      }
+    }
+  }
+}
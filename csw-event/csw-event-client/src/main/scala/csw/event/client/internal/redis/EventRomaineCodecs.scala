@@ -2,10 +2,11 @@ package csw.event.client.internal.redis
 
 import java.nio.ByteBuffer
 
+import com.google.protobuf.CodedOutputStream
 import csw.params.events.{Event, EventKey}
-import csw.event.client.pb.PbConverter
-import csw_protobuf.events.PbEvent
-import romaine.codec.{RomaineByteCodec, RomaineStringCodec}
+import csw.event.client.pb.{PbConverter, PbDeltaCodec, PbEventDecoder}
+import io.netty.buffer.ByteBuf
+import romaine.codec.{RomaineByteBufCodec, RomaineByteCodec, RomaineStringCodec}
 
 import scala.util.control.NonFatal
 
@@ -19,20 +20,74 @@ object EventRomaineCodecs {
     override def fromString(str: String): EventKey    = EventKey(str)
   }
 
-  implicit object EventRomaineCodec extends RomaineByteCodec[Event] {
+  implicit object EventRomaineCodec extends RomaineByteBufCodec[Event] {
     override def toBytes(event: Event): ByteBuffer = {
       val pbEvent = PbConverter.toPbEvent(event)
       ByteBuffer.wrap(pbEvent.toByteArray)
     }
-    override def fromBytes(byteBuffer: ByteBuffer): Event = {
-      try {
-        val bytes = new Array[Byte](byteBuffer.remaining)
-        byteBuffer.get(bytes)
-        PbConverter.fromPbEvent(PbEvent.parseFrom(bytes))
-      } catch {
-        case NonFatal(_) ⇒ Event.badEvent()
-      }
+
+    // serializes the event straight into the buffer of the redis connection instead of an intermediate byte array
+    override def writeBytes(event: Event, target: ByteBuf): Unit = {
+      val pbEvent = PbConverter.toPbEvent(event)
+      val size    = pbEvent.serializedSize
+      target.ensureWritable(size)
+      if (target.nioBufferCount == 1) {
+        val output = CodedOutputStream.newInstance(target.nioBuffer(target.writerIndex, size))
+        pbEvent.writeTo(output)
+        output.flush()
+        target.writerIndex(target.writerIndex + size)
+      } else target.writeBytes(pbEvent.toByteArray)
     }
+
+    override def fromBytes(byteBuffer: ByteBuffer): Event =
+      try PbEventDecoder.decode(byteBuffer)
+      catch { case NonFatal(_) ⇒ Event.badEvent() }
+  }
+
+  /**
+   * Same as [[EventRomaineCodec]] except that the parameters of a decoded event are decoded only when they are looked up
+   */
+  object LazyEventRomaineCodec extends RomaineByteBufCodec[Event] {
+    override def toBytes(event: Event): ByteBuffer               = EventRomaineCodec.toBytes(event)
+    override def writeBytes(event: Event, target: ByteBuf): Unit = EventRomaineCodec.writeBytes(event, target)
+
+    override def fromBytes(byteBuffer: ByteBuffer): Event =
+      try PbEventDecoder.decodeLazily(byteBuffer)
+      catch { case NonFatal(_) ⇒ Event.badEvent() }
+  }
+
+  /**
+   * Decodes the events written by a [[csw.event.client.pb.PbDeltaCodec.Encoder]] along with the events written in full, which
+   * are decoded by the given codec, as are the parameters of a delta encoded event written in full. Rebuilding a delta encoded event takes the events of its key decoded before, hence an
+   * instance is meant to decode the events of a single subscription connection. An event which can not be rebuilt is decoded
+   * as [[MissingDeltaBase]].
+   */
+  class DeltaEventRomaineCodec(eventCodec: RomaineByteBufCodec[Event]) extends RomaineByteBufCodec[Event] {
+    private val decoder = new PbDeltaCodec.Decoder(eventCodec.fromBytes)
+
+    override def toBytes(event: Event): ByteBuffer               = eventCodec.toBytes(event)
+    override def writeBytes(event: Event, target: ByteBuf): Unit = eventCodec.writeBytes(event, target)
+
+    override def fromBytes(byteBuffer: ByteBuffer): Event =
+      if (!PbDeltaCodec.isDeltaEncoded(byteBuffer)) eventCodec.fromBytes(byteBuffer)
+      else
+        try decoder.decode(byteBuffer).getOrElse(MissingDeltaBase)
+        catch { case NonFatal(_) ⇒ Event.badEvent() }
   }
 
+  // decoded in place of a delta encoded event whose base was missed, subscribers drop it
+  val MissingDeltaBase: Event = Event.badEvent()
+
+  /**
+   * Values which are events encoded upfront, e.g. by a [[csw.event.client.pb.PbDeltaCodec.Encoder]]
+   */
+  implicit object EncodedEventRomaineCodec extends RomaineByteCodec[Array[Byte]] {
+    override def toBytes(bytes: Array[Byte]): ByteBuffer = ByteBuffer.wrap(bytes)
+
+    override def fromBytes(byteBuffer: ByteBuffer): Array[Byte] = {
+      val bytes = new Array[Byte](byteBuffer.remaining())
+      byteBuffer.get(bytes)
+      bytes
+    }
+  }
 }
@@ -2,6 +2,7 @@ package csw.event.client.internal.redis
 
 import akka.stream.Materializer
 import csw.event.api.scaladsl.EventService
+import csw.event.client.internal.commons.Settings
 import csw.event.client.internal.commons.serviceresolver.EventServiceResolver
 import io.lettuce.core.{RedisClient, RedisURI}
 
@@ -12,22 +13,23 @@ import scala.concurrent.{ExecutionContext, Future}
  * and [[csw.event.api.scaladsl.EventSubscriber]] backed by Redis
  *
  * @param eventServiceResolver to get the connection information of event service
- * @param masterId the Id used by Redis Sentinel to identify the master
+ * @param settings the event service settings which hold the Id used by Redis Sentinel to identify the master, along with the
+ *                 publisher and subscriber options
  * @param redisClient the client instance of [[io.lettuce.core.RedisClient]]
  * @param executionContext the execution context to be used for performing asynchronous operations
  * @param mat the materializer to be used for materializing underlying streams
  */
-class RedisEventService(eventServiceResolver: EventServiceResolver, masterId: String, redisClient: RedisClient)(
+class RedisEventService(eventServiceResolver: EventServiceResolver, settings: Settings, redisClient: RedisClient)(
     implicit val executionContext: ExecutionContext,
     mat: Materializer
 ) extends EventService {
 
-  override def makeNewPublisher(): RedisPublisher = new RedisPublisher(redisURI(), redisClient)
+  override def makeNewPublisher(): RedisPublisher = new RedisPublisher(redisURI(), redisClient, settings)
 
-  override def makeNewSubscriber(): RedisSubscriber = new RedisSubscriber(redisURI(), redisClient)
+  override def makeNewSubscriber(): RedisSubscriber = new RedisSubscriber(redisURI(), redisClient, settings)
 
   // resolve event service every time before creating a new publisher or subscriber
   private def redisURI(): Future[RedisURI] =
-    eventServiceResolver.uri().map(uri ⇒ RedisURI.Builder.sentinel(uri.getHost, uri.getPort, masterId).build())
+    eventServiceResolver.uri().map(uri ⇒ RedisURI.Builder.sentinel(uri.getHost, uri.getPort, settings.masterId).build())
 
 }
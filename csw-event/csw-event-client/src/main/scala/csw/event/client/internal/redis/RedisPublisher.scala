@@ -1,12 +1,15 @@
 package csw.event.client.internal.redis
 
+import java.util.concurrent.ConcurrentHashMap
+
 import akka.Done
 import akka.actor.Cancellable
-import akka.stream.Materializer
-import akka.stream.scaladsl.Source
+import akka.stream.scaladsl.{Source, SourceQueueWithComplete}
+import akka.stream.{Materializer, QueueOfferResult}
 import csw.event.api.exceptions.PublishFailure
 import csw.event.api.scaladsl.EventPublisher
-import csw.event.client.internal.commons.EventPublisherUtil
+import csw.event.client.internal.commons.{EventPublisherUtil, Settings}
+import csw.event.client.pb.PbDeltaCodec
 import csw.params.events.Event
 import csw.time.core.models.TMTTime
 import io.lettuce.core.{RedisClient, RedisURI}
@@ -16,6 +19,7 @@ import romaine.async.RedisAsyncApi
 import scala.async.Async._
 import scala.concurrent.duration.{DurationInt, FiniteDuration}
 import scala.concurrent.{Await, ExecutionContext, Future}
+import scala.util.Success
 import scala.util.control.NonFatal
 
 /**
@@ -24,21 +28,42 @@ import scala.util.control.NonFatal
  *
  * @param redisURI    future containing connection details for the Redis/Sentinel connections.
  * @param redisClient redis client available from lettuce
+ * @param settings    event service settings deciding whether queued events are published in micro batches and delta encoded
  * @param mat         the materializer to be used for materializing underlying streams
  */
-class RedisPublisher(redisURI: Future[RedisURI], redisClient: RedisClient)(implicit mat: Materializer, ec: ExecutionContext)
-    extends EventPublisher {
+class RedisPublisher(redisURI: Future[RedisURI], redisClient: RedisClient, settings: Settings)(
+    implicit mat: Materializer,
+    ec: ExecutionContext
+) extends EventPublisher {
 
-  // inorder to preserve the order of publishing events, the parallelism level is maintained to 1
+  // the order of publishing events of a key is preserved by publishing each lane with a parallelism of 1
   private val parallelism                         = 1
   private val defaultInitialDelay: FiniteDuration = 0.millis
-  private val eventPublisherUtil                  = new EventPublisherUtil()
+  private val eventPublisherUtil                  = new EventPublisherUtil(settings.publishLanes)
   private val romaineFactory                      = new RomaineFactory(redisClient)
   import EventRomaineCodecs._
 
   private val asyncApi: RedisAsyncApi[String, Event] = romaineFactory.redisAsyncApi(redisURI)
 
-  private val streamTermination: Future[Done] = eventPublisherUtil.streamTermination(publishInternal)
+  // when delta encoding is enabled, events are published delta encoded on a connection of their own, while the latest event
+  // stored for `get` is always complete
+  private val deltaPublishing: Option[(PbDeltaCodec.Encoder, RedisAsyncApi[String, Array[Byte]])] =
+    if (!settings.publishDeltaEncodingEnabled) None
+    else {
+      val encoder = new PbDeltaCodec.Encoder(settings.publishDeltaKeyframeInterval)
+      Some((encoder, romaineFactory.redisAsyncApi[String, Array[Byte]](redisURI)))
+    }
+
+  // the PUBLISH commands of the delta encoded events of a key last dispatched, only accessed holding the lock of the key
+  private val deltaDispatches = new ConcurrentHashMap[String, Future[Any]]()
+
+  private val streamTermination: Future[Done] =
+    if (settings.publishBatchingEnabled)
+      eventPublisherUtil.batchedStreamTermination(settings.publishMaxBatchSize, settings.publishMaxLinger)(publishBatchInternal)
+    else eventPublisherUtil.streamTermination(publishInternal)
+
+  private val offerQueue: SourceQueueWithComplete[Event] =
+    eventPublisherUtil.coalescingQueue(settings.offerBufferSize)(publishInternal)
 
   // This blocks main thread and publish dummy initialization event.
   // We have observed higher latencies for few initial events with [[EventPublisher.publish(event: Event)]] API when used for periodic publish.
@@ -47,9 +72,11 @@ class RedisPublisher(redisURI: Future[RedisURI], redisClient: RedisClient)(impli
 
   override def publish(event: Event): Future[Done] = eventPublisherUtil.publish(event, streamTermination.isCompleted)
 
+  override def offer(event: Event): Future[QueueOfferResult] = offerQueue.offer(event)
+
   private def publishInternal(event: Event): Future[Done] =
     async {
-      await(asyncApi.publish(event.eventKey.key, event))
+      await(publishToChannel(event))
       set(event, asyncApi) // set will run independent of publish
       Done
     } recover {
@@ -59,6 +86,51 @@ class RedisPublisher(redisURI: Future[RedisURI], redisClient: RedisClient)(impli
         throw failure
     }
 
+  // PUBLISH commands of the whole batch are pipelined, the batch completes once the latest values are stored with a single MSET.
+  // As redis replies in order, this also means that all the PUBLISH commands of this batch have been acknowledged.
+  private def publishBatchInternal(events: Seq[Event]): Future[Seq[Future[Done]]] =
+    async {
+      val replies = await(publishAllToChannels(events))
+      val results = events.zip(replies).map {
+        case (event, reply) ⇒ reply.map(_ ⇒ Done).recover { case NonFatal(ex) ⇒ throw publishFailure(event, ex) }
+      }
+      await(mset(events, asyncApi)) // failure of mset does not fail the publish
+      results
+    } recover {
+      case NonFatal(ex) ⇒ events.map(event ⇒ Future.failed(publishFailure(event, ex)))
+    }
+
+  private def publishToChannel(event: Event): Future[Long] = deltaPublishing match {
+    case Some((encoder, api)) ⇒ publishDeltas(encoder, api, List(event)).flatMap(_.head)
+    case None                 ⇒ asyncApi.publish(event.eventKey.key, event)
+  }
+
+  private def publishAllToChannels(events: Seq[Event]): Future[List[Future[Long]]] = deltaPublishing match {
+    case Some((encoder, api)) ⇒ publishDeltas(encoder, api, events)
+    case None                 ⇒ asyncApi.publishAll(events.map(event ⇒ (event.eventKey.key, event)).toList)
+  }
+
+  // publish, offer and sources encode events concurrently, the events of a key are dispatched once the previous events of that
+  // key are written, so that they reach redis in the order they are encoded
+  private def publishDeltas(
+      encoder: PbDeltaCodec.Encoder,
+      api: RedisAsyncApi[String, Array[Byte]],
+      events: Seq[Event]
+  ): Future[List[Future[Long]]] =
+    encoder.encodeAll(events) { encoded ⇒
+      val keys       = events.map(_.eventKey.key)
+      val previous   = keys.distinct.map(key ⇒ deltaDispatches.getOrDefault(key, Future.unit).transform(_ ⇒ Success(Done)))
+      val dispatched = Future.sequence(previous).flatMap(_ ⇒ api.publishAll(keys.zip(encoded).toList))
+      keys.foreach(deltaDispatches.put(_, dispatched))
+      dispatched
+    }
+
+  private def publishFailure(event: Event, ex: Throwable): PublishFailure = {
+    val failure = PublishFailure(event, ex)
+    eventPublisherUtil.logError(failure)
+    failure
+  }
+
   override def publish[Mat](source: Source[Event, Mat]): Mat =
     eventPublisherUtil.publishFromSource(source, parallelism, publishInternal, None)
 
@@ -106,12 +178,18 @@ class RedisPublisher(redisURI: Future[RedisURI], redisClient: RedisClient)(impli
 
   override def shutdown(): Future[Done] = {
     eventPublisherUtil.shutdown()
+    offerQueue.complete()
+    deltaPublishing.foreach { case (_, api) ⇒ api.quit() }
     asyncApi.quit().map(_ ⇒ Done)
   }
 
   private def set(event: Event, commands: RedisAsyncApi[String, Event]): Future[Done] =
     commands.set(event.eventKey.key, event).recover { case NonFatal(_) ⇒ Done }
 
+  // the latest event of every key in the batch wins
+  private def mset(events: Seq[Event], commands: RedisAsyncApi[String, Event]): Future[Done] =
+    commands.mset(events.map(event ⇒ event.eventKey.key → event).toMap).recover { case NonFatal(_) ⇒ Done }
+
   private def publishInitializationEvent() = Await.result(publish(InitializationEvent.value), 30.seconds)
 
 }
@@ -8,14 +8,15 @@ import csw.params.events._
 import csw.params.core.models.Subsystem
 import csw.event.api.exceptions.EventServerNotAvailable
 import csw.event.api.scaladsl.{EventSubscriber, EventSubscription, SubscriptionMode}
-import csw.event.client.internal.commons.{EventServiceLogger, EventSubscriberUtil}
+import csw.event.client.internal.commons.{EventServiceLogger, EventSubscriberUtil, Settings}
+import csw.event.client.internal.metrics.EventServiceMetrics
 import io.lettuce.core.{RedisClient, RedisURI}
 import reactor.core.publisher.FluxSink.OverflowStrategy
 import romaine.RomaineFactory
 import romaine.async.RedisAsyncApi
-import romaine.codec.RomaineStringCodec
+import romaine.codec.{RomaineByteBufCodec, RomaineByteCodec, RomaineStringCodec}
 import romaine.exceptions.RedisServerNotAvailable
-import romaine.reactive.{RedisSubscription, RedisSubscriptionApi}
+import romaine.reactive.{RedisSubscription, RedisSubscriptionApi, RedisSubscriptionMultiplexer}
 
 import scala.async.Async._
 import scala.concurrent.duration.FiniteDuration
@@ -27,33 +28,75 @@ import scala.concurrent.{ExecutionContext, Future}
  *
  * @param redisURI    future containing connection details for the Redis/Sentinel connections.
  * @param redisClient redis client available from lettuce
+ * @param settings    the event service settings which decide how subscriptions are served and received events are decoded
  * @param ec          the execution context to be used for performing asynchronous operations
  * @param mat         the materializer to be used for materializing underlying streams
  */
-class RedisSubscriber(redisURI: Future[RedisURI], redisClient: RedisClient)(
+class RedisSubscriber(redisURI: Future[RedisURI], redisClient: RedisClient, settings: Settings)(
     implicit ec: ExecutionContext,
     mat: Materializer
 ) extends EventSubscriber {
 
-  import EventRomaineCodecs._
+  import EventRomaineCodecs.EventKeyRomaineCodec
+
+  private implicit val eventRomaineCodec: RomaineByteBufCodec[Event] =
+    if (settings.lazyDecoding) EventRomaineCodecs.LazyEventRomaineCodec else EventRomaineCodecs.EventRomaineCodec
 
   private val log                 = EventServiceLogger.getLogger
-  private val eventSubscriberUtil = new EventSubscriberUtil()
+  private val eventSubscriberUtil = new EventSubscriberUtil(settings.taiAlignedTicks, settings.asyncCallbackParallelism)
 
   private val romaineFactory = new RomaineFactory(redisClient)
 
   private val asyncApi: RedisAsyncApi[EventKey, Event] = romaineFactory.redisAsyncApi[EventKey, Event](redisURI)
 
+  // a delta encoded event is rebuilt from the events of its key received before, hence every subscription connection decodes
+  // the events it receives with a codec of its own
+  private def subscriptionCodec(): RomaineByteCodec[Event] = new EventRomaineCodecs.DeltaEventRomaineCodec(eventRomaineCodec)
+
   private def subscriptionApi[T: RomaineStringCodec](): RedisSubscriptionApi[T, Event] =
-    romaineFactory.redisSubscriptionApi[T, Event](redisURI)
+    romaineFactory.redisSubscriptionApi[T, Event](redisURI)(implicitly[RomaineByteCodec[T]], subscriptionCodec())
+
+  @volatile private var subscriptionMultiplexerCreated        = false
+  @volatile private var patternSubscriptionMultiplexerCreated = false
+
+  // shared by all the subscriptions of this subscriber when multiplexing is enabled
+  private lazy val subscriptionMultiplexer: RedisSubscriptionMultiplexer[EventKey, Event] = {
+    subscriptionMultiplexerCreated = true
+    multiplexer()
+  }
+  private lazy val patternSubscriptionMultiplexer: RedisSubscriptionMultiplexer[String, Event] = {
+    patternSubscriptionMultiplexerCreated = true
+    multiplexer()
+  }
+
+  private def multiplexer[T: RomaineStringCodec](): RedisSubscriptionMultiplexer[T, Event] =
+    romaineFactory.redisSubscriptionMultiplexer[T, Event](
+      redisURI,
+      settings.subscriptionConnectionPoolSize,
+      settings.subscriptionBufferSize,
+      OverflowStrategy.LATEST,
+      () ⇒ subscriptionCodec()
+    )
+
+  /**
+   * Closes the connections shared by the multiplexed subscriptions of this subscriber, completing their streams, and the
+   * connection used to get events. Subscriptions which are not multiplexed own their connection and are left untouched.
+   *
+   * @return a future which completes once the connection used to get events is closed
+   */
+  def shutdown(): Future[Done] = {
+    if (subscriptionMultiplexerCreated) subscriptionMultiplexer.shutdown()
+    if (patternSubscriptionMultiplexerCreated) patternSubscriptionMultiplexer.shutdown()
+    asyncApi.quit().map(_ ⇒ Done)
+  }
 
   override def subscribe(eventKeys: Set[EventKey]): Source[Event, EventSubscription] = {
     log.info(s"Subscribing to event keys: $eventKeys")
-    val eventSubscriptionApi: RedisSubscriptionApi[EventKey, Event] = subscriptionApi()
 
     val latestEventStream: Source[Event, NotUsed] = Source.fromFuture(get(eventKeys)).mapConcat(identity)
     val redisStream: Source[Event, RedisSubscription] =
-      eventSubscriptionApi.subscribe(eventKeys.toList, OverflowStrategy.LATEST).map(_.value)
+      if (settings.subscriptionMultiplexingEnabled) subscriptionMultiplexer.subscribe(eventKeys.toList).map(_.value)
+      else subscriptionApi[EventKey]().subscribe(eventKeys.toList, OverflowStrategy.LATEST).map(_.value)
 
     latestEventStream.concatMat(eventStream(eventKeys, redisStream))(Keep.right)
   }
@@ -98,16 +141,25 @@ class RedisSubscriber(redisURI: Future[RedisURI], redisClient: RedisClient)(
     val keyPattern = s"${subsystem.entryName}.$pattern"
     log.info(s"Subscribing to event key pattern: $keyPattern")
 
-    val patternSubscriptionApi: RedisSubscriptionApi[String, Event] = subscriptionApi()
     val redisStream: Source[Event, RedisSubscription] =
-      patternSubscriptionApi.psubscribe(List(keyPattern), OverflowStrategy.LATEST).map(_.value)
+      if (settings.subscriptionMultiplexingEnabled) patternSubscriptionMultiplexer.psubscribe(List(keyPattern)).map(_.value)
+      else subscriptionApi[String]().psubscribe(List(keyPattern), OverflowStrategy.LATEST).map(_.value)
     eventStream(keyPattern, redisStream)
   }
 
   override def pSubscribeCallback(subsystem: Subsystem, pattern: String, callback: Event ⇒ Unit): EventSubscription =
     eventSubscriberUtil.pSubscribe(pSubscribe(subsystem, pattern), callback)
 
-  override def get(eventKeys: Set[EventKey]): Future[Set[Event]] = Future.sequence(eventKeys.map(get))
+  override def get(eventKeys: Set[EventKey]): Future[Set[Event]] = {
+    log.debug(s"Fetching ${eventKeys.size} event keys")
+    // chunks are pipelined on the same connection, so that all of them cost a single round trip
+    Future.traverse(eventKeys.toList.grouped(settings.getBatchSize).toList)(mget).map(_.flatten.toSet)
+  }
+
+  override def getAll(eventKeys: Set[EventKey]): Source[Event, NotUsed] = {
+    log.debug(s"Fetching ${eventKeys.size} event keys")
+    Source(eventKeys.toList).grouped(settings.getBatchSize).mapAsync(1)(mget).mapConcat(identity)
+  }
 
   override def get(eventKey: EventKey): Future[Event] = async {
     log.info(s"Fetching event key: $eventKey")
@@ -115,19 +167,25 @@ class RedisSubscriber(redisURI: Future[RedisURI], redisClient: RedisClient)(
     event.getOrElse(Event.invalidEvent(eventKey))
   }
 
+  private def mget(eventKeys: Seq[EventKey]): Future[List[Event]] =
+    asyncApi.mget(eventKeys.toList).map(_.map(result ⇒ result.value.getOrElse(Event.invalidEvent(result.key))))
+
   private def eventStream[T](
       eventKeys: T,
       eventStreamF: Source[Event, RedisSubscription]
   ): Source[Event, EventSubscription] =
-    eventStreamF.mapMaterializedValue { redisSubscription =>
-      new EventSubscription {
-        override def unsubscribe(): Future[Done] = {
-          log.info(s"Unsubscribing for keys=$eventKeys")
-          redisSubscription.unsubscribe()
-        }
-        override def ready(): Future[Done] = redisSubscription.ready().recover {
-          case RedisServerNotAvailable(ex) => throw EventServerNotAvailable(ex)
+    eventStreamF
+      .filterNot(_ eq EventRomaineCodecs.MissingDeltaBase)
+      .map(EventServiceMetrics.received)
+      .mapMaterializedValue { redisSubscription =>
+        new EventSubscription {
+          override def unsubscribe(): Future[Done] = {
+            log.info(s"Unsubscribing for keys=$eventKeys")
+            redisSubscription.unsubscribe()
+          }
+          override def ready(): Future[Done] = redisSubscription.ready().recover {
+            case RedisServerNotAvailable(ex) => throw EventServerNotAvailable(ex)
+          }
         }
       }
-    }
 }
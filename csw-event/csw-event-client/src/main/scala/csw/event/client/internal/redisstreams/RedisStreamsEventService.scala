@@ -0,0 +1,36 @@
+package csw.event.client.internal.redisstreams
+
+import akka.stream.Materializer
+import csw.event.api.scaladsl.EventService
+import csw.event.client.internal.commons.Settings
+import csw.event.client.internal.commons.serviceresolver.EventServiceResolver
+import io.lettuce.core.{RedisClient, RedisURI}
+
+import scala.concurrent.{ExecutionContext, Future}
+
+/**
+ * Implementation of [[csw.event.api.scaladsl.EventService]] which provides handle to [[csw.event.api.scaladsl.EventPublisher]]
+ * and [[csw.event.api.scaladsl.EventSubscriber]] backed by Redis streams. Every event key is a stream holding a bounded
+ * history of its events, instead of a pub/sub channel and the latest event only.
+ *
+ * @param eventServiceResolver to get the connection information of event service
+ * @param settings the event service settings which hold the Id used by Redis Sentinel to identify the master, along with the
+ *                 options of the streams
+ * @param redisClient the client instance of [[io.lettuce.core.RedisClient]]
+ * @param executionContext the execution context to be used for performing asynchronous operations
+ * @param mat the materializer to be used for materializing underlying streams
+ */
+class RedisStreamsEventService(eventServiceResolver: EventServiceResolver, settings: Settings, redisClient: RedisClient)(
+    implicit val executionContext: ExecutionContext,
+    mat: Materializer
+) extends EventService {
+
+  override def makeNewPublisher(): RedisStreamsPublisher = new RedisStreamsPublisher(redisURI(), redisClient, settings)
+
+  override def makeNewSubscriber(): RedisStreamsSubscriber = new RedisStreamsSubscriber(redisURI(), redisClient, settings)
+
+  // resolve event service every time before creating a new publisher or subscriber
+  private def redisURI(): Future[RedisURI] =
+    eventServiceResolver.uri().map(uri ⇒ RedisURI.Builder.sentinel(uri.getHost, uri.getPort, settings.masterId).build())
+
+}
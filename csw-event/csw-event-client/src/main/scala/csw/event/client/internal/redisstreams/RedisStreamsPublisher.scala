@@ -0,0 +1,114 @@
+package csw.event.client.internal.redisstreams
+
+import akka.Done
+import akka.actor.Cancellable
+import akka.stream.scaladsl.{Source, SourceQueueWithComplete}
+import akka.stream.{Materializer, QueueOfferResult}
+import csw.event.api.exceptions.PublishFailure
+import csw.event.api.scaladsl.EventPublisher
+import csw.event.client.internal.commons.{EventPublisherUtil, Settings}
+import csw.event.client.internal.redis.EventRomaineCodecs.EventRomaineCodec
+import csw.params.events.{Event, EventKey}
+import csw.time.core.models.TMTTime
+import io.lettuce.core.{RedisClient, RedisURI}
+import romaine.RomaineFactory
+import romaine.codec.RomaineStringCodec
+import romaine.streams.RedisStreamsApi
+
+import scala.concurrent.duration.{DurationInt, FiniteDuration}
+import scala.concurrent.{ExecutionContext, Future}
+import scala.util.control.NonFatal
+
+/**
+ * An implementation of [[csw.event.api.scaladsl.EventPublisher]] API which appends every event to the Redis stream of its key.
+ * Streams are trimmed to about `csw-event.redis-streams.max-length` events, trimming happens by whole nodes of the stream
+ * so a stream can briefly hold a few more events.
+ *
+ * @param redisURI    future containing connection details for the Redis/Sentinel connections.
+ * @param redisClient redis client available from lettuce
+ * @param settings    event service settings deciding the length of the streams and the lanes of the publisher
+ * @param mat         the materializer to be used for materializing underlying streams
+ */
+class RedisStreamsPublisher(redisURI: Future[RedisURI], redisClient: RedisClient, settings: Settings)(
+    implicit mat: Materializer,
+    ec: ExecutionContext
+) extends EventPublisher {
+
+  // the order of publishing events of a key is preserved by publishing each lane with a parallelism of 1
+  private val parallelism                         = 1
+  private val defaultInitialDelay: FiniteDuration = 0.millis
+  private val eventPublisherUtil                  = new EventPublisherUtil(settings.publishLanes)
+  private val romaineFactory                      = new RomaineFactory(redisClient)
+
+  private implicit val streamKeyCodec: RomaineStringCodec[EventKey] = StreamKeyRomaineCodec
+
+  private val streamsApi: RedisStreamsApi[EventKey, Event] = romaineFactory.redisStreamsApi[EventKey, Event](redisURI)
+
+  private val streamTermination: Future[Done] = eventPublisherUtil.streamTermination(publishInternal)
+
+  private val offerQueue: SourceQueueWithComplete[Event] =
+    eventPublisherUtil.coalescingQueue(settings.offerBufferSize)(publishInternal)
+
+  override def publish(event: Event): Future[Done] = eventPublisherUtil.publish(event, streamTermination.isCompleted)
+
+  override def offer(event: Event): Future[QueueOfferResult] = offerQueue.offer(event)
+
+  private def publishInternal(event: Event): Future[Done] =
+    streamsApi.xadd(event.eventKey, settings.streamsMaxLength, event).map(_ ⇒ Done).recover {
+      case NonFatal(ex) ⇒
+        val failure = PublishFailure(event, ex)
+        eventPublisherUtil.logError(failure)
+        throw failure
+    }
+
+  override def publish[Mat](source: Source[Event, Mat]): Mat =
+    eventPublisherUtil.publishFromSource(source, parallelism, publishInternal, None)
+
+  override def publish[Mat](source: Source[Event, Mat], onError: PublishFailure ⇒ Unit): Mat =
+    eventPublisherUtil.publishFromSource(source, parallelism, publishInternal, Some(onError))
+
+  override def publish(eventGenerator: => Option[Event], every: FiniteDuration): Cancellable =
+    publish(eventPublisherUtil.eventSource(Future.successful(eventGenerator), parallelism, defaultInitialDelay, every))
+
+  override def publish(eventGenerator: => Option[Event], startTime: TMTTime, every: FiniteDuration): Cancellable =
+    publish(eventPublisherUtil.eventSource(Future.successful(eventGenerator), parallelism, startTime.durationFromNow, every))
+
+  override def publish(eventGenerator: ⇒ Option[Event], every: FiniteDuration, onError: PublishFailure ⇒ Unit): Cancellable =
+    publish(eventPublisherUtil.eventSource(Future.successful(eventGenerator), parallelism, defaultInitialDelay, every), onError)
+
+  override def publish(
+      eventGenerator: => Option[Event],
+      startTime: TMTTime,
+      every: FiniteDuration,
+      onError: PublishFailure => Unit
+  ): Cancellable =
+    publish(eventPublisherUtil.eventSource(Future.successful(eventGenerator), parallelism, startTime.durationFromNow, every),
+            onError)
+
+  override def publishAsync(eventGenerator: ⇒ Future[Option[Event]], every: FiniteDuration): Cancellable =
+    publish(eventPublisherUtil.eventSource(eventGenerator, parallelism, defaultInitialDelay, every))
+
+  override def publishAsync(eventGenerator: => Future[Option[Event]], startTime: TMTTime, every: FiniteDuration): Cancellable =
+    publish(eventPublisherUtil.eventSource(eventGenerator, parallelism, startTime.durationFromNow, every))
+
+  override def publishAsync(
+      eventGenerator: ⇒ Future[Option[Event]],
+      every: FiniteDuration,
+      onError: PublishFailure ⇒ Unit
+  ): Cancellable =
+    publish(eventPublisherUtil.eventSource(eventGenerator, parallelism, defaultInitialDelay, every), onError)
+
+  override def publishAsync(
+      eventGenerator: => Future[Option[Event]],
+      startTime: TMTTime,
+      every: FiniteDuration,
+      onError: PublishFailure => Unit
+  ): Cancellable =
+    publish(eventPublisherUtil.eventSource(eventGenerator, parallelism, startTime.durationFromNow, every), onError)
+
+  override def shutdown(): Future[Done] = {
+    eventPublisherUtil.shutdown()
+    offerQueue.complete()
+    streamsApi.quit().map(_ ⇒ Done)
+  }
+}
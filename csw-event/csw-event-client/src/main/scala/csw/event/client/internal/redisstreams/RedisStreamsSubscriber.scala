@@ -0,0 +1,254 @@
+package csw.event.client.internal.redisstreams
+
+import akka.actor.typed.ActorRef
+import akka.stream.scaladsl.{Keep, Source, SourceQueueWithComplete}
+import akka.stream.{Materializer, OverflowStrategy}
+import akka.{Done, NotUsed}
+import csw.event.api.exceptions.EventServerNotAvailable
+import csw.event.api.scaladsl.{EventHistory, EventSubscriber, EventSubscription, SubscriptionMode}
+import csw.event.client.internal.commons.{EventServiceLogger, EventSubscriberUtil, Settings}
+import csw.event.client.internal.metrics.EventServiceMetrics
+import csw.event.client.internal.redis.EventRomaineCodecs
+import csw.params.core.models.Subsystem
+import csw.params.events.{Event, EventKey}
+import io.lettuce.core.{RedisClient, RedisURI}
+import romaine.RomaineFactory
+import romaine.codec.{RomaineByteCodec, RomaineStringCodec}
+import romaine.exceptions.RedisServerNotAvailable
+import romaine.streams.{RedisStreamsApi, StreamEntry}
+
+import scala.concurrent.duration.{Deadline, FiniteDuration}
+import scala.concurrent.{ExecutionContext, Future, Promise}
+import scala.util.control.NonFatal
+
+/**
+ * An implementation of [[csw.event.api.scaladsl.EventSubscriber]] API which reads the Redis streams of the subscribed keys.
+ *
+ * A subscription remembers the id of the last event it read from every stream and always reads on from there, hence it
+ * receives every event of its keys, in order, even across a reconnection to the server (as long as the events are not
+ * trimmed off their stream meanwhile). A slow subscription backpressures its reads instead of dropping events.
+ *
+ * @param redisURI    future containing connection details for the Redis/Sentinel connections.
+ * @param redisClient redis client available from lettuce
+ * @param settings    the event service settings which decide how streams are read and received events are decoded
+ * @param ec          the execution context to be used for performing asynchronous operations
+ * @param mat         the materializer to be used for materializing underlying streams
+ */
+class RedisStreamsSubscriber(redisURI: Future[RedisURI], redisClient: RedisClient, settings: Settings)(
+    implicit ec: ExecutionContext,
+    mat: Materializer
+) extends EventSubscriber
+    with EventHistory {
+
+  private implicit val streamKeyCodec: RomaineStringCodec[EventKey] = StreamKeyRomaineCodec
+  private implicit val eventRomaineCodec: RomaineByteCodec[Event] =
+    if (settings.lazyDecoding) EventRomaineCodecs.LazyEventRomaineCodec else EventRomaineCodecs.EventRomaineCodec
+
+  // id preceding every entry of a stream
+  private val StreamStart = "0-0"
+
+  private val log                 = EventServiceLogger.getLogger
+  private val eventSubscriberUtil = new EventSubscriberUtil(settings.taiAlignedTicks, settings.asyncCallbackParallelism)
+  private val romaineFactory      = new RomaineFactory(redisClient)
+
+  // blocking reads of a subscription hold their connection, so every subscription reads through a connection of its own
+  private val streamsApi: RedisStreamsApi[EventKey, Event] = romaineFactory.redisStreamsApi[EventKey, Event](redisURI)
+
+  override def subscribe(eventKeys: Set[EventKey]): Source[Event, EventSubscription] = {
+    log.info(s"Subscribing to event keys: $eventKeys")
+    streamSubscription(eventKeys, Future.successful(eventKeys), rescan = None, deliverLatest = true)
+  }
+
+  override def subscribe(
+      eventKeys: Set[EventKey],
+      every: FiniteDuration,
+      mode: SubscriptionMode
+  ): Source[Event, EventSubscription] = subscribe(eventKeys).via(eventSubscriberUtil.subscriptionModeStage(every, mode))
+
+  override def subscribeAsync(eventKeys: Set[EventKey], callback: Event => Future[_]): EventSubscription =
+    eventSubscriberUtil.subscribeAsync(subscribe(eventKeys), callback)
+
+  override def subscribeAsync(
+      eventKeys: Set[EventKey],
+      callback: Event => Future[_],
+      every: FiniteDuration,
+      mode: SubscriptionMode
+  ): EventSubscription = eventSubscriberUtil.subscribeAsync(subscribe(eventKeys, every, mode), callback)
+
+  override def subscribeCallback(eventKeys: Set[EventKey], callback: Event => Unit): EventSubscription =
+    eventSubscriberUtil.subscribeCallback(subscribe(eventKeys), callback)
+
+  override def subscribeCallback(
+      eventKeys: Set[EventKey],
+      callback: Event => Unit,
+      every: FiniteDuration,
+      mode: SubscriptionMode
+  ): EventSubscription = eventSubscriberUtil.subscribeCallback(subscribe(eventKeys, every, mode), callback)
+
+  override def subscribeActorRef(eventKeys: Set[EventKey], actorRef: ActorRef[Event]): EventSubscription =
+    subscribeCallback(eventKeys, eventSubscriberUtil.actorCallback(actorRef))
+
+  override def subscribeActorRef(
+      eventKeys: Set[EventKey],
+      actorRef: ActorRef[Event],
+      every: FiniteDuration,
+      mode: SubscriptionMode
+  ): EventSubscription = subscribeCallback(eventKeys, eventSubscriberUtil.actorCallback(actorRef), every, mode)
+
+  /**
+   * Subscribes to the streams whose key matches the pattern. The streams are looked up when the subscription is made and
+   * again every `pattern-rescan-interval`, a stream created in between is read from its start once it is found.
+   */
+  override def pSubscribe(subsystem: Subsystem, pattern: String): Source[Event, EventSubscription] = {
+    val keyPattern = s"${subsystem.entryName}.$pattern"
+    log.info(s"Subscribing to event key pattern: $keyPattern")
+    val scan = () ⇒ streamsApi.scan(StreamKeyRomaineCodec.Prefix + keyPattern).map(_.toSet)
+    streamSubscription(keyPattern, scan(), rescan = Some(scan), deliverLatest = false)
+  }
+
+  override def pSubscribeCallback(subsystem: Subsystem, pattern: String, callback: Event ⇒ Unit): EventSubscription =
+    eventSubscriberUtil.pSubscribe(pSubscribe(subsystem, pattern), callback)
+
+  override def get(eventKeys: Set[EventKey]): Future[Set[Event]] = {
+    log.info(s"Fetching event keys: $eventKeys")
+    Future.traverse(eventKeys)(latest)
+  }
+
+  override def getAll(eventKeys: Set[EventKey]): Source[Event, NotUsed] = {
+    log.info(s"Fetching event keys: $eventKeys")
+    // commands are pipelined on the same connection
+    Source(eventKeys.toList).mapAsync(settings.getBatchSize)(latest)
+  }
+
+  override def get(eventKey: EventKey): Future[Event] = {
+    log.info(s"Fetching event key: $eventKey")
+    latest(eventKey)
+  }
+
+  // the events held by the stream of the key, an empty list if the key has no stream
+  override def history(eventKey: EventKey, count: Int): Future[List[Event]] = {
+    log.info(s"Fetching $count latest events of event key: $eventKey")
+    streamsApi.xrevrange(eventKey, count).map(_.reverseMap(_.value))
+  }
+
+  private def latestEntry(eventKey: EventKey): Future[(EventKey, Option[StreamEntry[EventKey, Event]])] =
+    streamsApi.xrevrange(eventKey, 1).map(eventKey → _.headOption)
+
+  private def latest(eventKey: EventKey): Future[Event] =
+    streamsApi.xrevrange(eventKey, 1).map(_.headOption.fold(Event.invalidEvent(eventKey))(_.value))
+
+  private def streamSubscription[T](
+      subscribed: T,
+      eventKeysF: Future[Set[EventKey]],
+      rescan: Option[() ⇒ Future[Set[EventKey]]],
+      deliverLatest: Boolean
+  ): Source[Event, EventSubscription] =
+    Source
+      .queue[Event](settings.streamsBufferSize, OverflowStrategy.backpressure)
+      .watchTermination()(Keep.both)
+      .mapMaterializedValue {
+        case (queue, terminationSignal) ⇒
+          val readyPromise = Promise[Done]
+          val readApi      = romaineFactory.redisStreamsApi[EventKey, Event](redisURI)
+
+          // the subscription is ready once the id it reads on from is known for every stream
+          eventKeysF
+            .flatMap(eventKeys ⇒ Future.traverse(eventKeys.toList)(latestEntry))
+            .flatMap { latest ⇒
+              readyPromise.trySuccess(Done)
+              val offsets = latest.map { case (key, entry) ⇒ key → entry.fold(StreamStart)(_.id) }.toMap
+              val delivered =
+                if (deliverLatest) offer(queue, latest.map { case (key, entry) ⇒ entry.fold(Event.invalidEvent(key))(_.value) })
+                else Future.successful(Done)
+              val streams = new Streams(offsets, rescan)
+              delivered.flatMap(_ ⇒ read(readApi, queue, streams, terminationSignal))
+            }
+            .recover {
+              case NonFatal(ex) ⇒
+                readyPromise.tryFailure(ex)
+                queue.fail(ex)
+                Done
+            }
+            .onComplete(_ ⇒ readApi.quit())
+
+          new EventSubscription {
+            override def unsubscribe(): Future[Done] = {
+              log.info(s"Unsubscribing for keys=$subscribed")
+              queue.complete()
+              terminationSignal
+            }
+            override def ready(): Future[Done] = readyPromise.future.recover {
+              case RedisServerNotAvailable(ex) => throw EventServerNotAvailable(ex)
+            }
+          }
+      }
+
+  // reads on from the given ids until the subscription terminates, a failed read is retried from the same ids after a delay
+  private def read(
+      readApi: RedisStreamsApi[EventKey, Event],
+      queue: SourceQueueWithComplete[Event],
+      streams: Streams,
+      terminationSignal: Future[Done]
+  ): Future[Done] =
+    if (terminationSignal.isCompleted) Future.successful(Done)
+    else if (streams.rescanDue) rescan(streams).flatMap(read(readApi, queue, _, terminationSignal))
+    else if (streams.offsets.isEmpty)
+      if (streams.rescan.isEmpty) Future.successful(Done)
+      else after(streams.rescanAt.timeLeft)(streams).flatMap(read(readApi, queue, _, terminationSignal))
+    else
+      readApi
+        .xread(streams.offsets, settings.streamsReadCount, settings.streamsBlock)
+        .flatMap { entries ⇒
+          val events = entries.map(entry ⇒ EventServiceMetrics.received(entry.value))
+          offer(queue, events).map(_ ⇒ streams.readUpTo(lastIds(entries)))
+        }
+        .recoverWith {
+          case NonFatal(ex) if !terminationSignal.isCompleted ⇒
+            val retryDelay = settings.streamsRetryDelay
+            log.warn(s"Reading the event streams of ${streams.offsets} failed, reading again in $retryDelay", ex = ex)
+            after(retryDelay)(streams)
+        }
+        .flatMap(read(readApi, queue, _, terminationSignal))
+
+  // the streams found since the last lookup are read from their start, a failed lookup is tried again at the next interval
+  private def rescan(streams: Streams): Future[Streams] =
+    streams.rescan
+      .fold(Future.successful(Set.empty[EventKey]))(_.apply())
+      .map(streams.withKeys)
+      .recover {
+        case NonFatal(ex) ⇒
+          log.warn("Looking up the event streams of a pattern subscription failed", ex = ex)
+          streams.withKeys(Set.empty)
+      }
+
+  // the id each stream is read on from, with the lookup of the streams of a pattern subscription
+  private class Streams(
+      val offsets: Map[EventKey, String],
+      val rescan: Option[() ⇒ Future[Set[EventKey]]],
+      val rescanAt: Deadline = settings.streamsRescanInterval.fromNow
+  ) {
+    def rescanDue: Boolean = rescan.isDefined && rescanAt.isOverdue()
+
+    def readUpTo(lastIds: Map[EventKey, String]): Streams = new Streams(offsets ++ lastIds, rescan, rescanAt)
+
+    def withKeys(eventKeys: Set[EventKey]): Streams =
+      new Streams((eventKeys -- offsets.keySet).map(_ → StreamStart).toMap ++ offsets, rescan)
+  }
+
+  private def lastIds(entries: List[StreamEntry[EventKey, Event]]): Map[EventKey, String] =
+    entries.map(entry ⇒ entry.key → entry.id).toMap
+
+  // the queue backpressures, so every event is offered once the previous one is enqueued
+  private def offer(queue: SourceQueueWithComplete[Event], events: List[Event]): Future[Done] =
+    events.foldLeft(Future.successful(Done)) { (previous, event) ⇒
+      previous.flatMap(_ ⇒ queue.offer(event).map(_ ⇒ Done))
+    }
+
+  private def after[T](delay: FiniteDuration)(value: T): Future[T] = {
+    val promise = Promise[T]
+    mat.scheduleOnce(delay, new Runnable {
+      override def run(): Unit = promise.success(value)
+    })
+    promise.future
+  }
+}
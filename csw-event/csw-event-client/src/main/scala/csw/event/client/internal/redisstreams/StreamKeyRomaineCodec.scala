@@ -0,0 +1,15 @@
+package csw.event.client.internal.redisstreams
+
+import csw.params.events.EventKey
+import romaine.codec.RomaineStringCodec
+
+/**
+ * Encodes the EventKey of a stream with a prefix, so that streams do not clash with the keys written by the pub/sub event
+ * store on the same server
+ */
+private[redisstreams] object StreamKeyRomaineCodec extends RomaineStringCodec[EventKey] {
+  val Prefix = "stream:"
+
+  override def toString(eventKey: EventKey): String = Prefix + eventKey.key
+  override def fromString(str: String): EventKey    = EventKey(str.stripPrefix(Prefix))
+}
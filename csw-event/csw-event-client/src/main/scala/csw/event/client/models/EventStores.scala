@@ -5,19 +5,25 @@ import io.lettuce.core.RedisClient
 sealed trait EventStore
 
 /**
- * Event service supports two underlying implementations for event store
+ * Event service supports four underlying implementations for event store
  * 1. [[csw.event.client.models.EventStores.RedisStore]]: This is the default and recommended store. If you are creating [[csw.event.api.scaladsl.EventService]] using [[csw.event.client.EventServiceFactory]], then you should shutdown redis client when it is no longer in use.
- * 2. [[csw.event.client.models.EventStores.KafkaStore]]: This can be used to create an [[csw.event.api.scaladsl.EventService]] which is backed by Kafka event store. You should not use this unless you have strong reasons to do so.
+ * 2. [[csw.event.client.models.EventStores.RedisStreamsStore]]: This creates an [[csw.event.api.scaladsl.EventService]] backed by Redis streams, which keep a bounded history of the events of every key. Subscriptions receive every event of their keys, even across reconnections, and can read the latest events of a key. It needs Redis 5 or later, and you should shutdown redis client when it is no longer in use.
+ * 3. [[csw.event.client.models.EventStores.KafkaStore]]: This can be used to create an [[csw.event.api.scaladsl.EventService]] which is backed by Kafka event store. You should not use this unless you have strong reasons to do so.
+ * 4. [[csw.event.client.models.EventStores.InMemoryStore]]: This creates an [[csw.event.api.scaladsl.EventService]] which keeps events in the memory of the JVM, without any event server. Events are shared by the event services made by the same [[csw.event.client.EventServiceFactory]], and the location of the event server is never resolved. It is meant for unit tests and benchmarks.
  *
  * @note If you are using csw-framework, your component will already have an event service injected which is backed up by [[csw.event.client.models.EventStores.RedisStore]]. You do not need to take the [[csw.event.client.EventServiceFactory]] route.
  */
 object EventStores {
-  case class RedisStore(redisClient: RedisClient = RedisClient.create()) extends EventStore
-  case object KafkaStore                                                 extends EventStore
+  case class RedisStore(redisClient: RedisClient = RedisClient.create())        extends EventStore
+  case class RedisStreamsStore(redisClient: RedisClient = RedisClient.create()) extends EventStore
+  case object KafkaStore                                                        extends EventStore
+  case object InMemoryStore                                                     extends EventStore
 
   /**
    * Java helpers to select appropriate event store.
    */
-  val jRedisStore: EventStore = RedisStore()
-  val jKafkaStore: EventStore = KafkaStore
+  val jRedisStore: EventStore        = RedisStore()
+  val jRedisStreamsStore: EventStore = RedisStreamsStore()
+  val jKafkaStore: EventStore        = KafkaStore
+  val jInMemoryStore: EventStore     = InMemoryStore
 }
@@ -2,10 +2,13 @@ package csw.event.client.pb
 
 import java.time.Instant
 
-import com.google.protobuf.ByteString
 import com.google.protobuf.timestamp.Timestamp
+import com.google.protobuf.{ByteString, UnsafeByteOperations}
+import csw.params.core.models.ByteBufferArray
 import scalapb.TypeMapper
 
+import scala.collection.mutable
+
 /**
  * Type mappers for implicit conversions of data types that are not directly supported by Protobuf.
  */
@@ -22,10 +25,15 @@ object Implicits {
     }
 
   /**
-   * Implicit conversion of Seq[Byte](supported by csw) to ByteString(supported by Protobuf)
+   * Implicit conversion of Seq[Byte](supported by csw) to ByteString(supported by Protobuf). The bytes of a ByteString are
+   * read in place and the bytes held in a buffer are written in place, since neither ByteStrings nor those buffers change.
    */
   implicit val bytesMapper: TypeMapper[ByteString, Seq[Byte]] =
-    TypeMapper[ByteString, Seq[Byte]](_.toByteArray)(xs ⇒ ByteString.copyFrom(xs.toArray))
+    TypeMapper[ByteString, Seq[Byte]](bytes ⇒ ByteBufferArray.ofBytes(bytes.asReadOnlyByteBuffer())) {
+      case buffered: ByteBufferArray[_]       ⇒ UnsafeByteOperations.unsafeWrap(buffered.byteBuffer)
+      case bytes: mutable.WrappedArray.ofByte ⇒ ByteString.copyFrom(bytes.array)
+      case xs                                 ⇒ ByteString.copyFrom(xs.toArray)
+    }
 
   /**
    * Implicit conversion of Seq[Char](supported by csw) to String(supported by Protobuf)
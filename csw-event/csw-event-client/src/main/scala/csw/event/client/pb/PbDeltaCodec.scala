@@ -0,0 +1,414 @@
+package csw.event.client.pb
+
+import java.lang.Double.{doubleToRawLongBits, longBitsToDouble}
+import java.lang.Float.{floatToRawIntBits, intBitsToFloat}
+import java.nio.ByteBuffer
+import java.util.concurrent.{ConcurrentHashMap, ThreadLocalRandom}
+
+import com.google.protobuf.{ByteString, CodedInputStream, CodedOutputStream}
+import csw.event.client.pb.TypeMapperSupport.{keyTypeTypeMapper, unitsTypeMapper}
+import csw.params.core.generics.KeyType._
+import csw.params.core.generics.{KeyType, Parameter}
+import csw.params.core.models.{ArrayData, MatrixData, Prefix}
+import csw.params.events._
+import csw_protobuf.events.PbDeltaHeader
+import csw_protobuf.keytype.PbKeyType
+import csw_protobuf.parameter.{DeltaItems, PbParameter}
+import play.api.libs.json.Format
+
+import scala.collection.mutable
+import scala.reflect.ClassTag
+
+/**
+ * Delta encoding of the events of high rate streams whose large numeric array and matrix parameters change little from one
+ * event to the next.
+ *
+ * An encoder numbers the events of every key it encodes. Every `keyframeInterval`-th event of a key is a keyframe, written in
+ * full. Any other event refers to the previous event of its key as its base, and each of its byte, short, int, long, float
+ * and double array or matrix parameters having the same shape as in the base is written as [[csw_protobuf.parameter.DeltaItems]]:
+ * for every value differing from the base, the number of unchanged values skipped since the previous differing value, then
+ * the XOR of the bits of the value with the bits of the base value, both as varints. All the other parameters are written in
+ * full. A delta encoded event starts with a [[csw_protobuf.events.PbDeltaHeader]] identifying the encoder, the event and its
+ * base, it is otherwise a plain [[csw_protobuf.events.PbEvent]].
+ *
+ * A decoder rebuilds an event from the event of its key it decoded last. An event whose base it did not decode, e.g. when
+ * receiving a stream from its middle or after a lost event, can not be rebuilt, the events of its key are then missed until
+ * the next keyframe.
+ */
+object PbDeltaCodec {
+
+  // field 1 of PbEvent, length delimited, which no event written without delta encoding starts with
+  private val HeaderTag = 10
+
+  /**
+   * Whether the given bytes hold a delta encoded event, the position of the buffer is left unchanged
+   */
+  def isDeltaEncoded(bytes: ByteBuffer): Boolean = bytes.hasRemaining && bytes.get(bytes.position()) == HeaderTag
+
+  /**
+   * Delta encodes the events of any number of keys. The events of a key are expected to be delivered in the order they are
+   * encoded, a decoder misses the events of a key delivered out of order until the next keyframe.
+   *
+   * @param keyframeInterval number of events of a key from one keyframe to the next, 1 writes every event in full
+   */
+  class Encoder(keyframeInterval: Int) {
+    require(keyframeInterval > 0, s"keyframe interval must be positive, found [$keyframeInterval]")
+
+    // tells the events of this encoder apart from the events of the same keys encoded by other encoders
+    private val stream = ThreadLocalRandom.current().nextLong(1, Long.MaxValue)
+    private val states = new ConcurrentHashMap[EventKey, KeyState]()
+
+    def encode(event: Event): Array[Byte] = encodeAll(List(event))(_.head)
+
+    /**
+     * Encodes the given events and hands their bytes over to `send` while holding the locks of their keys, so that the events
+     * of a key which concurrent callers send are sent in the order they are encoded.
+     */
+    def encodeAll[T](events: Seq[Event])(send: Seq[Array[Byte]] ⇒ T): T = {
+      // the locks are taken in the order of the keys, so that callers sending different keys can not deadlock
+      def locked(keyStates: List[KeyState]): T = keyStates match {
+        case Nil               ⇒ send(events.map(encodeLocked))
+        case keyState :: other ⇒ keyState.synchronized(locked(other))
+      }
+      locked(events.map(_.eventKey).distinct.sortBy(_.key).map(state).toList)
+    }
+
+    private def state(eventKey: EventKey): KeyState = states.computeIfAbsent(eventKey, _ ⇒ new KeyState)
+
+    private def encodeLocked(event: Event): Array[Byte] = {
+      val state    = states.get(event.eventKey)
+      val sequence = state.sequence + 1
+      val params   = deltaParams(event)
+      val pbEvent  = PbConverter.toPbEvent(event)
+      val encoded =
+        if (state.sequence % keyframeInterval == 0) pbEvent.withDelta(PbDeltaHeader(stream, sequence))
+        else
+          pbEvent
+            .withDelta(PbDeltaHeader(stream, sequence, state.sequence))
+            .withParamSet(pbEvent.paramSet.map(withDeltas(_, params, state.params)))
+      state.sequence = sequence
+      state.params = params
+      encoded.toByteArray
+    }
+
+    private def withDeltas(
+        pbParameter: PbParameter,
+        params: Map[String, Parameter[_]],
+        bases: Map[String, Parameter[_]]
+    ): PbParameter = {
+      val deltas = for {
+        param  ← params.get(pbParameter.name)
+        base   ← bases.get(pbParameter.name)
+        deltas ← deltaKinds(param.keyType).deltas(base, param)
+      } yield deltas
+      deltas.fold(pbParameter)(deltas ⇒ pbParameter.withDeltaItems(DeltaItems(deltas)))
+    }
+  }
+
+  /**
+   * Decodes the delta encoded events of any number of keys. The events of a key are expected to be decoded in the order they
+   * are encoded, hence a decoder is meant to decode the events of a single connection. An event decoded twice in a row, as
+   * when it is received for two patterns, is decoded once.
+   *
+   * @param decodeEvent decodes a keyframe, or the parameters of a delta encoded event which are written in full, from its
+   *                    protobuf bytes, e.g. lazily. Only the array and matrix parameters of a decoded event are looked up.
+   */
+  class Decoder(decodeEvent: ByteBuffer ⇒ Event = PbEventDecoder.decode) {
+    private val states = new ConcurrentHashMap[EventKey, KeyState]()
+
+    /**
+     * @return the decoded event, or None if the event refers to a base which this decoder did not decode
+     */
+    def decode(bytes: ByteBuffer): Option[Event] = {
+      val frame  = new Frame(bytes)
+      val header = frame.header
+      val state  = states.computeIfAbsent(frame.eventKey, _ ⇒ new KeyState)
+      state.synchronized {
+        val event =
+          if (header.stream == state.stream && header.sequence == state.sequence) state.event // the same event received again
+          else if (header.base == 0) Some(decodeEvent(bytes.duplicate())) // the header is skipped as an unknown field
+          else if (header.stream == state.stream && header.base == state.sequence) rebuild(frame, state.params)
+          else None
+        event.foreach { decoded ⇒
+          state.stream = header.stream
+          state.sequence = header.sequence
+          state.params = deltaParams(decoded, frame.params)
+          state.event = event
+        }
+        event
+      }
+    }
+
+    private def rebuild(frame: Frame, bases: Map[String, Parameter[_]]): Option[Event] = {
+      val params = frame.deltas.map { pbParameter ⇒
+        bases.get(pbParameter.name).map(base ⇒ deltaKinds(base.keyType).applyDeltas(base, pbParameter))
+      }
+      if (params.exists(_.isEmpty)) None
+      else
+        Some(decodeEvent(frame.withoutDeltas) match {
+          case event: SystemEvent  ⇒ event.madd(params.flatten: _*)
+          case event: ObserveEvent ⇒ event.madd(params.flatten: _*)
+        })
+    }
+  }
+
+  /**
+   * The fields of a delta encoded event which a decoder looks at. The header and the key of the event are read first, the
+   * names and key types of its parameters only when they are looked up, without reading their values, except for the
+   * parameters written as deltas.
+   */
+  private final class Frame(bytes: ByteBuffer) {
+    private val in          = CodedInputStream.newInstance(bytes.duplicate())
+    private val paramFields = Vector.newBuilder[ParamField]
+    private var source      = Option.empty[String]
+    private var name        = Option.empty[String]
+    private var deltaHeader = PbDeltaHeader.defaultInstance
+
+    // the header is field 1, which is written first, followed by the other fields in the order of their numbers
+    read(untilKey = true)
+
+    def header: PbDeltaHeader = deltaHeader
+
+    def eventKey: EventKey = EventKey(Prefix(source.getOrElse("")), EventName(name.getOrElse("")))
+
+    lazy val params: Vector[ParamField] = {
+      read(untilKey = false)
+      paramFields.result()
+    }
+
+    def deltas: Vector[PbParameter] = params.flatMap(_.deltas)
+
+    /**
+     * The bytes of the event without its parameters written as deltas, copied as they are rather than encoded again
+     */
+    def withoutDeltas: ByteBuffer = {
+      val ranges = params.filter(_.deltas.isDefined)
+      val out    = ByteBuffer.allocate(bytes.remaining() - ranges.map(field ⇒ field.end - field.start).sum)
+      val end = ranges.foldLeft(0) { (from, field) ⇒
+        out.put(slice(from, field.start))
+        field.end
+      }
+      out.put(slice(end, bytes.remaining()))
+      out.flip()
+      out
+    }
+
+    private def read(untilKey: Boolean): Unit = {
+      var done = false
+      while (!done) {
+        val start = in.getTotalBytesRead
+        in.readTag() match {
+          case 0         ⇒ done = true
+          case HeaderTag ⇒ deltaHeader = readHeader()
+          case SourceTag ⇒ source = Some(in.readStringRequireUtf8())
+          case NameTag   ⇒ name = Some(in.readStringRequireUtf8())
+          case ParamTag  ⇒ paramFields += readParam(start)
+          case tag       ⇒ in.skipField(tag)
+        }
+        if (untilKey && source.isDefined && name.isDefined) done = true
+      }
+    }
+
+    private def readHeader(): PbDeltaHeader = {
+      val limit = in.pushLimit(in.readRawVarint32())
+      val read  = PbDeltaHeader.parseFrom(in)
+      in.popLimit(limit)
+      read
+    }
+
+    private def readParam(start: Int): ParamField = {
+      val length    = in.readRawVarint32()
+      val bodyStart = in.getTotalBytesRead
+      val limit     = in.pushLimit(length)
+      var paramName = ""
+      var keyType   = 0
+      var delta     = false
+      var done      = false
+      while (!done) {
+        in.readTag() match {
+          case 0            ⇒ done = true
+          case ParamNameTag ⇒ paramName = in.readStringRequireUtf8()
+          case KeyTypeTag   ⇒ keyType = in.readEnum()
+          case tag ⇒
+            delta ||= tag == DeltaItemsTag
+            in.skipField(tag)
+        }
+      }
+      in.popLimit(limit)
+      val deltas =
+        if (!delta) None
+        else Some(PbParameter.parseFrom(CodedInputStream.newInstance(slice(bodyStart, bodyStart + length))))
+      ParamField(paramName, keyTypeTypeMapper.toCustom(PbKeyType.fromValue(keyType)), start, in.getTotalBytesRead, deltas)
+    }
+
+    private def slice(from: Int, until: Int): ByteBuffer = {
+      val slice = bytes.duplicate()
+      slice.position(bytes.position() + from)
+      slice.limit(bytes.position() + until)
+      slice
+    }
+  }
+
+  // a parameter of a frame, spanning the bytes from start until end, with its protobuf parameter when written as deltas
+  private final case class ParamField(name: String, keyType: KeyType[_], start: Int, end: Int, deltas: Option[PbParameter])
+
+  // tags of the fields which a frame reads, every other field is skipped
+  private val SourceTag     = 90  // field 11 of PbEvent
+  private val NameTag       = 98  // field 12 of PbEvent
+  private val ParamTag      = 114 // field 14 of PbEvent
+  private val ParamNameTag  = 10  // field 1 of PbParameter
+  private val KeyTypeTag    = 24  // field 3 of PbParameter
+  private val DeltaItemsTag = 602 // field 75 of PbParameter
+
+  // only accessed while holding the lock of the state
+  private class KeyState {
+    var stream: Long                      = 0
+    var sequence: Long                    = 0
+    var params: Map[String, Parameter[_]] = Map.empty
+    var event: Option[Event]              = None
+  }
+
+  private def deltaParams(event: Event): Map[String, Parameter[_]] =
+    event.paramSet.collect { case param if deltaKinds.contains(param.keyType) ⇒ param.keyName → param }.toMap
+
+  // looks up the parameters by the names written in the given frame, so that the other parameters of a lazily decoded event
+  // stay undecoded
+  private def deltaParams(event: Event, params: Vector[ParamField]): Map[String, Parameter[_]] =
+    params.iterator
+      .collect { case field if deltaKinds.contains(field.keyType) ⇒ event.get(field.name, field.keyType) }
+      .flatten
+      .map(param ⇒ param.keyName → param)
+      .toMap
+
+  /**
+   * The values of the items of an array or matrix key type seen as rows of primitives, which are XORed by their bits
+   */
+  private abstract class DeltaKind[T: ClassTag, S: Format: ClassTag] {
+    protected def rows(item: S): Array[Array[T]]
+    protected def item(rows: Array[Array[T]]): S
+    protected def xor(values: Array[T], bases: Array[T], index: Int): Long
+    protected def applyXor(values: Array[T], index: Int, xor: Long): Unit
+
+    /**
+     * @return the deltas of the values of the parameter from the values of its base, None if their shapes differ
+     */
+    def deltas(base: Parameter[_], param: Parameter[_]): Option[ByteString] = {
+      val baseItems  = items(base).map(rows)
+      val paramItems = items(param).map(rows)
+      if (base.keyType != param.keyType || !sameShape(baseItems, paramItems)) None
+      else {
+        val output   = ByteString.newOutput()
+        val out      = CodedOutputStream.newInstance(output)
+        val bases    = baseItems.flatten
+        val values   = paramItems.flatten
+        var index    = 0
+        var previous = -1
+        var row      = 0
+        while (row < values.length) {
+          var col = 0
+          while (col < values(row).length) {
+            val bits = xor(values(row), bases(row), col)
+            if (bits != 0) {
+              out.writeUInt32NoTag(index - previous - 1)
+              out.writeUInt64NoTag(bits)
+              previous = index
+            }
+            index += 1
+            col += 1
+          }
+          row += 1
+        }
+        out.flush()
+        Some(output.toByteString)
+      }
+    }
+
+    /**
+     * @return the parameter holding the values of its base with the given deltas applied
+     */
+    def applyDeltas(base: Parameter[_], pbParameter: PbParameter): Parameter[S] = {
+      val copies = items(base).map(rows(_).map(_.clone()))
+      val values = copies.flatten
+      val in     = pbParameter.getDeltaItems.deltas.newCodedInput()
+      var row    = 0
+      var col    = -1
+      while (!in.isAtEnd) {
+        col += in.readUInt32() + 1
+        while (col >= values(row).length) {
+          col -= values(row).length
+          row += 1
+        }
+        applyXor(values(row), col, in.readUInt64())
+      }
+      val units  = unitsTypeMapper.toCustom(pbParameter.units)
+      Parameter(pbParameter.name, base.keyType.asInstanceOf[KeyType[S]], copies.map(item), units)
+    }
+
+    private def items(param: Parameter[_]): Array[S] = param.items.asInstanceOf[mutable.WrappedArray[S]].array
+
+    private def sameShape(left: Array[Array[Array[T]]], right: Array[Array[Array[T]]]): Boolean =
+      left.length == right.length && left.indices.forall { i ⇒
+        left(i).length == right(i).length && left(i).indices.forall(row ⇒ left(i)(row).length == right(i)(row).length)
+      }
+  }
+
+  private abstract class ArrayKind[T: Format: ClassTag] extends DeltaKind[T, ArrayData[T]] {
+    override protected def rows(item: ArrayData[T]): Array[Array[T]] = Array(item.values)
+    override protected def item(rows: Array[Array[T]]): ArrayData[T] = ArrayData.fromJavaArray(rows(0))
+  }
+
+  private abstract class MatrixKind[T: Format: ClassTag] extends DeltaKind[T, MatrixData[T]] {
+    override protected def rows(item: MatrixData[T]): Array[Array[T]] = item.values
+    override protected def item(rows: Array[Array[T]]): MatrixData[T] = MatrixData.fromArrays[T](rows)
+  }
+
+  // the bits of every value are XORed as an unsigned number, so that small deltas are written as short varints
+  private trait ByteBits {
+    protected def xor(values: Array[Byte], bases: Array[Byte], index: Int): Long = (values(index) ^ bases(index)) & 0xffL
+    protected def applyXor(values: Array[Byte], index: Int, xor: Long): Unit     = values(index) = (values(index) ^ xor).toByte
+  }
+
+  private trait ShortBits {
+    protected def xor(values: Array[Short], bases: Array[Short], index: Int): Long = (values(index) ^ bases(index)) & 0xffffL
+    protected def applyXor(values: Array[Short], index: Int, xor: Long): Unit     = values(index) = (values(index) ^ xor).toShort
+  }
+
+  private trait IntBits {
+    protected def xor(values: Array[Int], bases: Array[Int], index: Int): Long = (values(index) ^ bases(index)) & 0xffffffffL
+    protected def applyXor(values: Array[Int], index: Int, xor: Long): Unit     = values(index) = (values(index) ^ xor).toInt
+  }
+
+  private trait LongBits {
+    protected def xor(values: Array[Long], bases: Array[Long], index: Int): Long = values(index) ^ bases(index)
+    protected def applyXor(values: Array[Long], index: Int, xor: Long): Unit     = values(index) = values(index) ^ xor
+  }
+
+  private trait FloatBits {
+    protected def xor(values: Array[Float], bases: Array[Float], index: Int): Long =
+      (floatToRawIntBits(values(index)) ^ floatToRawIntBits(bases(index))) & 0xffffffffL
+    protected def applyXor(values: Array[Float], index: Int, xor: Long): Unit =
+      values(index) = intBitsToFloat(floatToRawIntBits(values(index)) ^ xor.toInt)
+  }
+
+  private trait DoubleBits {
+    protected def xor(values: Array[Double], bases: Array[Double], index: Int): Long =
+      doubleToRawLongBits(values(index)) ^ doubleToRawLongBits(bases(index))
+    protected def applyXor(values: Array[Double], index: Int, xor: Long): Unit =
+      values(index) = longBitsToDouble(doubleToRawLongBits(values(index)) ^ xor)
+  }
+
+  private val deltaKinds: Map[KeyType[_], DeltaKind[_, _]] = Map(
+    ByteArrayKey    → new ArrayKind[Byte] with ByteBits,
+    ShortArrayKey   → new ArrayKind[Short] with ShortBits,
+    IntArrayKey     → new ArrayKind[Int] with IntBits,
+    LongArrayKey    → new ArrayKind[Long] with LongBits,
+    FloatArrayKey   → new ArrayKind[Float] with FloatBits,
+    DoubleArrayKey  → new ArrayKind[Double] with DoubleBits,
+    ByteMatrixKey   → new MatrixKind[Byte] with ByteBits,
+    ShortMatrixKey  → new MatrixKind[Short] with ShortBits,
+    IntMatrixKey    → new MatrixKind[Int] with IntBits,
+    LongMatrixKey   → new MatrixKind[Long] with LongBits,
+    FloatMatrixKey  → new MatrixKind[Float] with FloatBits,
+    DoubleMatrixKey → new MatrixKind[Double] with DoubleBits
+  )
+}
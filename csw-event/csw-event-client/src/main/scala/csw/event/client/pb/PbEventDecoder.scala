@@ -0,0 +1,368 @@
+package csw.event.client.pb
+
+import java.nio.{ByteBuffer, ByteOrder}
+import java.time.Instant
+
+import com.google.protobuf.{CodedInputStream, WireFormat}
+import csw.event.client.pb.TypeMapperSupport.{keyTypeTypeMapper, unitsTypeMapper}
+import csw.params.core.formats.MiscJsonFormats
+import csw.params.core.generics.{KeyType, LazyParameterSet, Parameter}
+import csw.params.core.models._
+import csw.params.events.{Event, EventName, ObserveEvent, SystemEvent}
+import csw.time.core.models.UTCTime
+import csw_protobuf.keytype.PbKeyType
+import csw_protobuf.units.PbUnits
+import play.api.libs.json.Format
+
+import scala.collection.mutable
+import scala.reflect.ClassTag
+
+/**
+ * Decodes the protobuf wire format of [[csw_protobuf.events.PbEvent]] straight into an [[csw.params.events.Event]].
+ *
+ * Unlike `PbConverter.fromPbEvent(PbEvent.parseFrom(bytes))`, no intermediate protobuf model is built: numeric values are read
+ * from the input into primitive arrays which back the resulting parameters, hence no boxing happens per value. The input
+ * is only read, nothing in the decoded event refers back to it, so it is safe to reuse the input buffer afterwards.
+ */
+object PbEventDecoder extends MiscJsonFormats {
+
+  private type ParameterFactory = (String, KeyType[_], Units) ⇒ Parameter[_]
+
+  // tags of the fields of PbEvent
+  private val EventIdTag   = 82
+  private val SourceTag    = 90
+  private val NameTag      = 98
+  private val EventTimeTag = 106
+  private val ParamTag     = 114
+  private val EventTypeTag = 120
+
+  // tags of the fields of PbParameter, the field number of `items` decides the type of values
+  private val ParamNameTag    = 10
+  private val ParamUnitsTag   = 16
+  private val ParamKeyTypeTag = 24
+
+  /**
+   * Decodes an event from the remaining bytes of the given buffer, direct buffers are read in place
+   *
+   * @param byteBuffer buffer holding an event in protobuf format
+   * @return the decoded event
+   */
+  def decode(byteBuffer: ByteBuffer): Event = decode(CodedInputStream.newInstance(byteBuffer), new EagerParamSetBuilder)
+
+  /**
+   * Decodes an event from the given bytes
+   *
+   * @param bytes an event in protobuf format
+   * @return the decoded event
+   */
+  def decode(bytes: Array[Byte]): Event = decode(CodedInputStream.newInstance(bytes), new EagerParamSetBuilder)
+
+  /**
+   * Decodes an event whose parameters are decoded only when they are looked up, see
+   * [[csw.params.core.generics.LazyParameterSet]]. The remaining bytes of the buffer are copied as the event refers to
+   * them till all its parameters are decoded.
+   *
+   * @param byteBuffer buffer holding an event in protobuf format
+   * @return the decoded event
+   */
+  def decodeLazily(byteBuffer: ByteBuffer): Event = {
+    val bytes = new Array[Byte](byteBuffer.remaining)
+    byteBuffer.get(bytes)
+    decodeLazily(bytes)
+  }
+
+  /**
+   * Decodes an event whose parameters are decoded only when they are looked up, see
+   * [[csw.params.core.generics.LazyParameterSet]]. The event refers to the given bytes, so they must not be modified: the
+   * values of its byte and float array parameters are read in place from them, see [[csw.params.core.models.ByteBufferArray]].
+   *
+   * @param bytes an event in protobuf format
+   * @return the decoded event
+   */
+  def decodeLazily(bytes: Array[Byte]): Event = decode(CodedInputStream.newInstance(bytes), new LazyParamSetBuilder(bytes))
+
+  private def decode(in: CodedInputStream, paramSet: ParamSetBuilder): Event = {
+    var eventId            = ""
+    var source             = ""
+    var name               = ""
+    var eventTime: UTCTime = null
+    var eventType          = 0
+
+    readFields(in) {
+      case EventIdTag   ⇒ eventId = in.readStringRequireUtf8()
+      case SourceTag    ⇒ source = in.readStringRequireUtf8()
+      case NameTag      ⇒ name = in.readStringRequireUtf8()
+      case EventTimeTag ⇒ eventTime = UTCTime(readMessage(in)(readInstant))
+      case ParamTag     ⇒ paramSet.add(in)
+      case EventTypeTag ⇒ eventType = in.readEnum()
+      case tag          ⇒ in.skipField(tag)
+    }
+
+    if (eventTime == null) throw new NoSuchElementException("eventTime is missing")
+
+    val factory: (Id, Prefix, EventName, UTCTime, Set[Parameter[_]]) ⇒ Event = eventType match {
+      case 0 ⇒ ObserveEvent.apply
+      case 1 ⇒ SystemEvent.apply
+      case x ⇒ throw new RuntimeException(s"unknown event type=[$x]")
+    }
+
+    factory(Id(eventId), Prefix(source), EventName(name), eventTime, paramSet.result())
+  }
+
+  private sealed trait ParamSetBuilder {
+    def add(in: CodedInputStream): Unit
+    def result(): Set[Parameter[_]]
+  }
+
+  private final class EagerParamSetBuilder extends ParamSetBuilder {
+    private val paramSet = Set.newBuilder[Parameter[_]]
+
+    override def add(in: CodedInputStream): Unit = paramSet += readMessage(in)(readParameter(_, aliasing = false))
+    override def result(): Set[Parameter[_]]     = paramSet.result()
+  }
+
+  // only reads the key name of every parameter and remembers where the parameter is located in `bytes`
+  private final class LazyParamSetBuilder(bytes: Array[Byte]) extends ParamSetBuilder {
+    private val keyNames = mutable.ArrayBuilder.make[String]()
+    private val offsets  = new mutable.ArrayBuilder.ofInt
+    private val lengths  = new mutable.ArrayBuilder.ofInt
+
+    override def add(in: CodedInputStream): Unit = {
+      val length = in.readRawVarint32()
+      offsets += in.getTotalBytesRead
+      lengths += length
+      val limit = in.pushLimit(length)
+      keyNames += readParameterName(in)
+      in.popLimit(limit)
+    }
+
+    override def result(): Set[Parameter[_]] = {
+      val paramOffsets = offsets.result()
+      val paramLengths = lengths.result()
+      new LazyParameterSet(keyNames.result(), { index ⇒
+        val in = CodedInputStream.newInstance(bytes, paramOffsets(index), paramLengths(index))
+        in.enableAliasing(true)
+        readParameter(in, aliasing = true)
+      })
+    }
+  }
+
+  private def readParameterName(in: CodedInputStream): String = {
+    var name = ""
+    readFields(in) {
+      case ParamNameTag ⇒ name = in.readStringRequireUtf8()
+      case tag          ⇒ in.skipField(tag)
+    }
+    name
+  }
+
+  // with `aliasing`, the byte and float arrays refer to the bytes read by `in` instead of copies of them
+  private def readParameter(in: CodedInputStream, aliasing: Boolean): Parameter[_] = {
+    var name                               = ""
+    var units: PbUnits                     = PbUnits.fromValue(0)
+    var keyType: PbKeyType                 = PbKeyType.fromValue(0)
+    var parameterFactory: ParameterFactory = null
+
+    readFields(in) {
+      case ParamNameTag    ⇒ name = in.readStringRequireUtf8()
+      case ParamUnitsTag   ⇒ units = PbUnits.fromValue(in.readEnum())
+      case ParamKeyTypeTag ⇒ keyType = PbKeyType.fromValue(in.readEnum())
+      case tag if WireFormat.getTagWireType(tag) == WireFormat.WIRETYPE_LENGTH_DELIMITED ⇒
+        readItems(in, WireFormat.getTagFieldNumber(tag), aliasing) match {
+          case Some(factory) ⇒ parameterFactory = factory
+          case None          ⇒ in.skipField(tag)
+        }
+      case tag ⇒ in.skipField(tag)
+    }
+
+    if (parameterFactory == null) throw new RuntimeException(s"no items found for parameter [$name]")
+    parameterFactory(name, keyTypeTypeMapper.toCustom(keyType), unitsTypeMapper.toCustom(units))
+  }
+
+  private def readItems(in: CodedInputStream, fieldNumber: Int, aliasing: Boolean): Option[ParameterFactory] = fieldNumber match {
+    case 50 ⇒ Some(items(readMessage(in)(readRepeated(_)(Choice(in.readStringRequireUtf8())))))
+    case 51 ⇒ Some(items(readMessage(in)(readRepeated(_)(readMessage(in)(readRaDec)))))
+    case 52 ⇒ Some(items(readMessage(in)(readRepeated(_)(readMessage(in)(readStruct(_, aliasing))))))
+    case 53 ⇒ Some(items(readMessage(in)(readRepeated(_)(readMessage(in)(readInstant)))))
+    case 54 ⇒ Some(items(readMessage(in)(readRepeated(_)(in.readStringRequireUtf8()))))
+    case 55 ⇒ Some(items(readMessage(in)(readBooleans)))
+    case 56 ⇒ Some(items(readMessage(in)(readChars)))
+    case 57 ⇒ Some(items(readMessage(in)(readBytes)))
+    case 58 ⇒ Some(items(readMessage(in)(readShorts)))
+    case 59 ⇒ Some(items(readMessage(in)(readInts)))
+    case 60 ⇒ Some(items(readMessage(in)(readLongs)))
+    case 61 ⇒ Some(items(readMessage(in)(readDoubles)))
+    case 62 ⇒ Some(items(readMessage(in)(readFloats)))
+    case 63 if aliasing ⇒ Some(items(readMessage(in)(readBufferArrays(_)(readBytesBuffer)(ArrayData.fromByteBuffer))))
+    case 67 if aliasing ⇒ Some(items(readMessage(in)(readBufferArrays(_)(readFloatsBuffer)(ArrayData.fromByteBufferOfFloats))))
+    case 63 ⇒ Some(items(readMessage(in)(readArrays(_)(readBytes))))
+    case 64 ⇒ Some(items(readMessage(in)(readArrays(_)(readShorts))))
+    case 65 ⇒ Some(items(readMessage(in)(readArrays(_)(readInts))))
+    case 66 ⇒ Some(items(readMessage(in)(readArrays(_)(readLongs))))
+    case 67 ⇒ Some(items(readMessage(in)(readArrays(_)(readFloats))))
+    case 68 ⇒ Some(items(readMessage(in)(readArrays(_)(readDoubles))))
+    case 69 ⇒ Some(items(readMessage(in)(readMatrices(_)(readBytes))))
+    case 70 ⇒ Some(items(readMessage(in)(readMatrices(_)(readShorts))))
+    case 71 ⇒ Some(items(readMessage(in)(readMatrices(_)(readInts))))
+    case 72 ⇒ Some(items(readMessage(in)(readMatrices(_)(readLongs))))
+    case 73 ⇒ Some(items(readMessage(in)(readMatrices(_)(readFloats))))
+    case 74 ⇒ Some(items(readMessage(in)(readMatrices(_)(readDoubles))))
+    case _  ⇒ None
+  }
+
+  private def items[S: Format: ClassTag](values: Array[S]): ParameterFactory = { (name, keyType, units) ⇒
+    Parameter(name, keyType.asInstanceOf[KeyType[S]], values, units)
+  }
+
+  private def readStruct(in: CodedInputStream, aliasing: Boolean): Struct = {
+    val paramSet = Set.newBuilder[Parameter[_]]
+    readValues(in)(_ ⇒ paramSet += readMessage(in)(readParameter(_, aliasing)))
+    Struct(paramSet.result())
+  }
+
+  private def readRaDec(in: CodedInputStream): RaDec = {
+    var ra  = 0.0
+    var dec = 0.0
+    readFields(in) {
+      case 9   ⇒ ra = in.readDouble()
+      case 17  ⇒ dec = in.readDouble()
+      case tag ⇒ in.skipField(tag)
+    }
+    RaDec(ra, dec)
+  }
+
+  private def readInstant(in: CodedInputStream): Instant = {
+    var seconds = 0L
+    var nanos   = 0
+    readFields(in) {
+      case 8   ⇒ seconds = in.readInt64()
+      case 16  ⇒ nanos = in.readInt32()
+      case tag ⇒ in.skipField(tag)
+    }
+    Instant.ofEpochSecond(seconds, nanos)
+  }
+
+  // CharItems and ByteItems hold all the values in a single string/bytes field
+  private def readChars(in: CodedInputStream): Array[Char] = {
+    var chars = Array.emptyCharArray
+    readValues(in)(_ ⇒ chars = in.readStringRequireUtf8().toCharArray)
+    chars
+  }
+
+  private def readBytes(in: CodedInputStream): Array[Byte] = {
+    var bytes = Array.emptyByteArray
+    readValues(in)(_ ⇒ bytes = in.readByteArray())
+    bytes
+  }
+
+  // with aliasing enabled on `in`, the buffer refers to the bytes read by `in`
+  private def readBytesBuffer(in: CodedInputStream): ByteBuffer = {
+    var bytes = ByteBuffer.allocate(0)
+    readValues(in)(_ ⇒ bytes = in.readByteBuffer())
+    bytes
+  }
+
+  // packed floats are little endian fixed32 values, read in place as above unless they were written in several chunks
+  private def readFloatsBuffer(in: CodedInputStream): ByteBuffer = {
+    val chunks = mutable.ArrayBuffer.empty[ByteBuffer]
+    readValues(in) { tag ⇒
+      if (WireFormat.getTagWireType(tag) == WireFormat.WIRETYPE_LENGTH_DELIMITED) chunks += in.readByteBuffer()
+      else chunks += ByteBuffer.wrap(in.readRawBytes(4))
+    }
+    val floats =
+      if (chunks.size == 1) chunks.head
+      else {
+        val joined = ByteBuffer.allocate(chunks.map(_.remaining).sum)
+        chunks.foreach(joined.put)
+        joined.flip()
+        joined
+      }
+    floats.order(ByteOrder.LITTLE_ENDIAN)
+  }
+
+  private def readBooleans(in: CodedInputStream): Array[Boolean] = {
+    val builder = new mutable.ArrayBuilder.ofBoolean
+    readValues(in)(readPrimitives(in, _)(builder += in.readBool()))
+    builder.result()
+  }
+
+  private def readShorts(in: CodedInputStream): Array[Short] = {
+    val builder = new mutable.ArrayBuilder.ofShort
+    readValues(in)(readPrimitives(in, _)(builder += in.readInt32().toShort))
+    builder.result()
+  }
+
+  private def readInts(in: CodedInputStream): Array[Int] = {
+    val builder = new mutable.ArrayBuilder.ofInt
+    readValues(in)(readPrimitives(in, _)(builder += in.readInt32()))
+    builder.result()
+  }
+
+  private def readLongs(in: CodedInputStream): Array[Long] = {
+    val builder = new mutable.ArrayBuilder.ofLong
+    readValues(in)(readPrimitives(in, _)(builder += in.readFixed64()))
+    builder.result()
+  }
+
+  private def readFloats(in: CodedInputStream): Array[Float] = {
+    val builder = new mutable.ArrayBuilder.ofFloat
+    readValues(in)(readPrimitives(in, _)(builder += in.readFloat()))
+    builder.result()
+  }
+
+  private def readDoubles(in: CodedInputStream): Array[Double] = {
+    val builder = new mutable.ArrayBuilder.ofDouble
+    readValues(in)(readPrimitives(in, _)(builder += in.readDouble()))
+    builder.result()
+  }
+
+  private def readArrays[T: ClassTag](in: CodedInputStream)(readArray: CodedInputStream ⇒ Array[T]): Array[ArrayData[T]] =
+    readRows(in)(readArray).map(row ⇒ ArrayData(row: mutable.WrappedArray[T]))
+
+  private def readBufferArrays[T](in: CodedInputStream)(readBuffer: CodedInputStream ⇒ ByteBuffer)(
+      arrayData: ByteBuffer ⇒ ArrayData[T]
+  ): Array[ArrayData[T]] =
+    readRepeated(in)(arrayData(readMessage(in)(readBuffer)))
+
+  private def readMatrices[T: ClassTag](in: CodedInputStream)(readArray: CodedInputStream ⇒ Array[T]): Array[MatrixData[T]] =
+    readRepeated(in)(MatrixData.fromArrays(readMessage(in)(readRows(_)(readArray))))
+
+  private def readRows[T: ClassTag](in: CodedInputStream)(readArray: CodedInputStream ⇒ Array[T]): Array[Array[T]] =
+    readRepeated(in)(readMessage(in)(readArray))
+
+  // reads every occurrence of the `values = 1` field of a message holding non packable values
+  private def readRepeated[T: ClassTag](in: CodedInputStream)(readValue: ⇒ T): Array[T] = {
+    val builder = mutable.ArrayBuilder.make[T]()
+    readValues(in)(_ ⇒ builder += readValue)
+    builder.result()
+  }
+
+  // proto3 writes repeated scalars packed, the unpacked form is accepted as well as demanded by the protobuf spec
+  private def readPrimitives(in: CodedInputStream, tag: Int)(readValue: ⇒ Unit): Unit =
+    if (WireFormat.getTagWireType(tag) == WireFormat.WIRETYPE_LENGTH_DELIMITED) {
+      val limit = in.pushLimit(in.readRawVarint32())
+      while (in.getBytesUntilLimit > 0) readValue
+      in.popLimit(limit)
+    } else readValue
+
+  // calls `onValue` with the tag of every occurrence of the `values = 1` field, which is the only field of all the item types
+  private def readValues(in: CodedInputStream)(onValue: Int ⇒ Unit): Unit = readFields(in) {
+    case tag if WireFormat.getTagFieldNumber(tag) == 1 ⇒ onValue(tag)
+    case tag                                         ⇒ in.skipField(tag)
+  }
+
+  private def readMessage[T](in: CodedInputStream)(read: CodedInputStream ⇒ T): T = {
+    val limit  = in.pushLimit(in.readRawVarint32())
+    val result = read(in)
+    in.popLimit(limit)
+    result
+  }
+
+  private def readFields(in: CodedInputStream)(onField: Int ⇒ Unit): Unit = {
+    var tag = in.readTag()
+    while (tag != 0) {
+      onField(tag)
+      tag = in.readTag()
+    }
+  }
+}
@@ -110,7 +110,8 @@ object TypeMapperSupport {
 
   implicit def matrixDataTypeMapper[T: ClassTag, S <: ItemType[ArrayData[T]]: ItemTypeCompanion]: TypeMapper[S, MatrixData[T]] =
     TypeMapper[S, MatrixData[T]](x ⇒ MatrixData.fromArrays(x.values.toArray.map(a ⇒ a.data.array)))(
-      x ⇒ ItemTypeCompanion.make(x.data.map(ArrayData.apply))
+      // the rows are written from views over the values of the matrix, which are not copied
+      x ⇒ ItemTypeCompanion.make(x.rowViews.map(ArrayData.apply))
     )
 
   implicit val raDecTypeMapper: TypeMapper[PbRaDec, RaDec] =
@@ -120,7 +121,13 @@ object TypeMapperSupport {
     TypeMapper[PbKeyType, KeyType[_]](x ⇒ KeyType.withName(x.toString()))(x ⇒ PbKeyType.fromName(x.toString).get)
 
   implicit def arrayDataTypeMapper[T: ClassTag, S <: ItemType[T]: ItemTypeCompanion]: TypeMapper[S, ArrayData[T]] =
-    TypeMapper[S, ArrayData[T]](x ⇒ ArrayData(x.values.toArray[T]))(x ⇒ ItemTypeCompanion.make(x.data))
+    TypeMapper[S, ArrayData[T]] { x ⇒
+      x.values match {
+        // the bytes of ByteItems stay in the ByteString they were parsed into
+        case buffered: ByteBufferArray[_] ⇒ ArrayData(buffered.asInstanceOf[ByteBufferArray[T]])
+        case values                       ⇒ ArrayData(values.toArray[T])
+      }
+    }(x ⇒ ItemTypeCompanion.make(x.data))
 
   implicit val obsIdTypeMapper: TypeMapper[String, Option[ObsId]] = TypeMapper[String, Option[ObsId]] { x ⇒
     if (x.isEmpty) None else Some(ObsId(x))
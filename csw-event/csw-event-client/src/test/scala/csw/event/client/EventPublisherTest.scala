@@ -2,11 +2,15 @@ package csw.event.client
 
 import akka.actor.Cancellable
 import akka.actor.testkit.typed.scaladsl.TestProbe
+import akka.stream.QueueOfferResult
 import akka.stream.scaladsl.{Keep, Sink, Source}
+import com.typesafe.config.ConfigFactory
+import csw.event.api.exceptions.PublishFailure
 import csw.event.client.helpers.TestFutureExt.RichFuture
-import csw.event.client.helpers.Utils.{makeDistinctEvent, makeEvent, makeEventWithPrefix}
+import csw.event.client.helpers.Utils.{makeDistinctEvent, makeEvent, makeEventForPrefixAndKeyName, makeEventWithPrefix}
+import csw.event.client.internal.commons.Settings
 import csw.event.client.internal.kafka.KafkaTestProps
-import csw.event.client.internal.redis.{InitializationEvent, RedisTestProps}
+import csw.event.client.internal.redis.{InitializationEvent, RedisPublisher, RedisTestProps}
 import csw.event.client.internal.wiring._
 import csw.params.core.models.{Prefix, Subsystem}
 import csw.params.events.{Event, EventKey}
@@ -235,4 +239,122 @@ class EventPublisherTest extends TestNGSuite with Matchers with Eventually with
     // The 4 published events will follow
     queue should (have length 5 and contain allElementsOf Seq(Event.invalidEvent(eventKey)) ++ events.take(4))
   }
+
+  @Test(dataProvider = "event-service-provider")
+  def should_coalesce_offered_events_of_a_key_without_dropping_events_of_other_keys(baseProperties: BaseProperties): Unit = {
+    import baseProperties._
+
+    val highRateEvent  = makeDistinctEvent(Random.nextInt())
+    val highRateEvents = (1 to 2000).map(makeEventForPrefixAndKeyName(highRateEvent.source, highRateEvent.eventName, _))
+    val lowRateEvent   = makeDistinctEvent(Random.nextInt())
+
+    // the low rate event is offered in the middle of the burst of high rate events
+    val (burst1, burst2) = highRateEvents.splitAt(1000)
+    val offerResults     = Future.sequence(((burst1 :+ lowRateEvent) ++ burst2).map(publisher.offer)).await
+
+    offerResults.toSet shouldBe Set(QueueOfferResult.Enqueued)
+    eventually {
+      subscriber.get(lowRateEvent.eventKey).await shouldBe lowRateEvent
+      subscriber.get(highRateEvent.eventKey).await shouldBe highRateEvents.last
+    }
+  }
+
+  private def redisBatchingPublisher(maxBatchSize: Int, maxLinger: String): RedisPublisher =
+    redisTestProps.makePublisher(
+      new Settings(
+        ConfigFactory
+          .parseString(
+            s"csw-event.redis.publisher { batching-enabled = true, max-batch-size = $maxBatchSize, max-linger = $maxLinger }"
+          )
+          .withFallback(redisTestProps.actorSystem.settings.config)
+      )
+    )
+
+  @Test
+  def should_publish_a_batch_of_redis_events_as_soon_as_it_is_full(): Unit = {
+    // the initialization event published on creation waits for the linger
+    val publisher = redisBatchingPublisher(maxBatchSize = 3, maxLinger = "3s")
+    val event     = makeDistinctEvent(Random.nextInt())
+    val events    = (1 to 3).map(makeEventForPrefixAndKeyName(event.eventKey.source, event.eventKey.eventName, _))
+
+    val published = events.take(2).map(publisher.publish)
+    Thread.sleep(500)
+    published.exists(_.isCompleted) shouldBe false
+
+    (published :+ publisher.publish(events(2))).foreach(_.await(1.second))
+    redisTestProps.subscriber.get(event.eventKey).await shouldBe events.last
+    publisher.shutdown().await
+  }
+
+  @Test
+  def should_publish_a_batch_of_redis_events_which_is_not_full_once_its_linger_is_over(): Unit = {
+    val publisher = redisBatchingPublisher(maxBatchSize = 100, maxLinger = "200ms")
+    val event     = makeDistinctEvent(Random.nextInt())
+
+    publisher.publish(event).await(1.second)
+
+    redisTestProps.subscriber.get(event.eventKey).await shouldBe event
+    publisher.shutdown().await
+  }
+
+  @Test
+  def should_deliver_the_redis_events_of_a_batch_in_the_order_they_are_published(): Unit = {
+    import redisTestProps._
+    val publisher = redisBatchingPublisher(maxBatchSize = 10, maxLinger = "100ms")
+    val event     = makeDistinctEvent(Random.nextInt())
+    val events    = (1 to 10).map(makeEventForPrefixAndKeyName(event.eventKey.source, event.eventKey.eventName, _))
+
+    val (subscription, seqF) = subscriber.subscribe(Set(event.eventKey)).take(11).toMat(Sink.seq)(Keep.both).run()
+    subscription.ready().await
+
+    events.map(publisher.publish).foreach(_.await)
+
+    seqF.await shouldBe Event.invalidEvent(event.eventKey) +: events
+    publisher.shutdown().await
+  }
+
+  @Test
+  def should_complete_the_batching_redis_publish_stream_on_shutdown(): Unit = {
+    val publisher = redisBatchingPublisher(maxBatchSize = 10, maxLinger = "10ms")
+    val event     = makeDistinctEvent(Random.nextInt())
+    publisher.publish(event).await
+
+    publisher.shutdown().await
+
+    eventually {
+      val failure = intercept[PublishFailure](publisher.publish(event).await)
+      failure.event shouldBe event
+      failure.getCause.getMessage shouldBe "Publisher is shutdown"
+    }
+  }
+
+  private lazy val kafkaBatchingSettings = new Settings(
+    ConfigFactory
+      .parseString("csw-event.kafka.publisher { batching-enabled = true, max-linger = 10ms }")
+      .withFallback(kafkaTestProps.actorSystem.settings.config)
+  )
+
+  @Test
+  def should_apply_the_batching_properties_to_the_kafka_producer_only_when_batching_is_enabled(): Unit = {
+    val batchingProperties = kafkaTestProps.makeEventService(kafkaBatchingSettings).producerSettings.await.properties
+    batchingProperties should contain allElementsOf kafkaBatchingSettings.kafkaBatchingProducerProperties
+    batchingProperties should contain allOf ("linger.ms" → "5", "compression.type" → "lz4", "enable.idempotence" → "true")
+
+    val defaultSettings = new Settings(kafkaTestProps.actorSystem.settings.config)
+    kafkaTestProps.makeEventService(defaultSettings).producerSettings.await.properties should not contain key("linger.ms")
+  }
+
+  @Test
+  def should_complete_a_batched_kafka_publish_once_the_broker_acknowledged_its_event(): Unit = {
+    val service    = kafkaTestProps.makeEventService(kafkaBatchingSettings)
+    val publisher  = service.makeNewPublisher()
+    val subscriber = service.makeNewSubscriber()
+    val event      = makeDistinctEvent(Random.nextInt())
+    val events     = (1 to 20).map(makeEventForPrefixAndKeyName(event.eventKey.source, event.eventKey.eventName, _))
+
+    // every publish completes only once the broker holds its event, so the latest one can be read right away
+    events.map(publisher.publish).foreach(_.await)
+    subscriber.get(event.eventKey).await shouldBe events.last
+    publisher.shutdown().await
+  }
 }
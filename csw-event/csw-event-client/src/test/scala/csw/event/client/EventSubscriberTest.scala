@@ -465,6 +465,37 @@ class EventSubscriberTest extends TestNGSuite with Matchers with Eventually {
     eventsF.await shouldBe Set(Event.invalidEvent(eventKey2), event1)
   }
 
+  @Test(dataProvider = "event-service-provider")
+  def should_be_able_to_get_a_stream_of_events_for_multiple_event_keys(baseProperties: BaseProperties): Unit = {
+    import baseProperties._
+
+    val event1    = makeDistinctEvent(Random.nextInt())
+    val eventKey1 = event1.eventKey
+
+    val event2    = makeDistinctEvent(Random.nextInt())
+    val eventKey2 = event2.eventKey
+
+    publisher.publish(event1).await
+    Thread.sleep(500)
+
+    val eventsF = subscriber.getAll(Set(eventKey1, eventKey2)).runWith(Sink.seq)
+    eventsF.await.toSet shouldBe Set(Event.invalidEvent(eventKey2), event1)
+  }
+
+  @Test(dataProvider = "redis-provider")
+  def should_be_able_to_get_a_stream_of_events_for_a_large_number_of_event_keys(redisProps: RedisTestProps): Unit = {
+    import redisProps._
+
+    val publishedEvents = (1 to 10).map(_ ⇒ makeDistinctEvent(Random.nextInt()))
+    val missingKeys     = (1 to 1200).map(id ⇒ EventKey(Prefix("wfos.blue.missing"), EventName(s"move_$id")))
+
+    publishedEvents.foreach(publisher.publish(_).await)
+    Thread.sleep(500)
+
+    val eventsF = subscriber.getAll(publishedEvents.map(_.eventKey).toSet ++ missingKeys).runWith(Sink.seq)
+    eventsF.await.toSet shouldBe publishedEvents.toSet ++ missingKeys.map(Event.invalidEvent)
+  }
+
   @Test(dataProvider = "event-service-provider")
   def should_be_able_to_get_invalid_event_on_event_parse_failure(baseProperties: BaseProperties): Unit = {
     import baseProperties._
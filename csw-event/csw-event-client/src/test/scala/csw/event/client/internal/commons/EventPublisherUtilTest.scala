@@ -0,0 +1,56 @@
+package csw.event.client.internal.commons
+
+import java.util.concurrent.ConcurrentLinkedQueue
+
+import akka.Done
+import akka.actor.ActorSystem
+import akka.stream.scaladsl.Source
+import akka.stream.{ActorMaterializer, Materializer}
+import csw.event.client.helpers.TestFutureExt.RichFuture
+import csw.event.client.helpers.Utils.{makeDistinctEvent, makeEvent}
+import csw.params.events.Event
+import org.scalatest.concurrent.Eventually
+import org.scalatest.{BeforeAndAfterAll, FunSuite, Matchers}
+
+import scala.collection.JavaConverters._
+import scala.concurrent.{ExecutionContext, Future, Promise}
+
+class EventPublisherUtilTest extends FunSuite with Matchers with Eventually with BeforeAndAfterAll {
+
+  private implicit val actorSystem: ActorSystem = ActorSystem("event-publisher-util")
+  private implicit val mat: Materializer        = ActorMaterializer()
+  private implicit val ec: ExecutionContext     = actorSystem.dispatcher
+
+  override def afterAll(): Unit = actorSystem.terminate().await
+
+  test("should publish events of other keys while an event is still being published") {
+    val publisherUtil = new EventPublisherUtil(4)
+    val slowEvent     = makeDistinctEvent(0)
+    val slowPublish   = Promise[Done]
+    publisherUtil.streamTermination(event ⇒ if (event == slowEvent) slowPublish.future else Future.successful(Done))
+
+    val slowResult = publisherUtil.publish(slowEvent, isStreamTerminated = false)
+    val results    = (1 to 20).map(id ⇒ publisherUtil.publish(makeDistinctEvent(id), isStreamTerminated = false))
+
+    eventually(results.count(_.isCompleted) should be > 0)
+    slowResult.isCompleted shouldBe false
+
+    slowPublish.success(Done)
+    Future.sequence(slowResult +: results).await
+    publisherUtil.shutdown()
+  }
+
+  test("should publish the events of a key in order when publishing from a stream through many lanes") {
+    val publisherUtil = new EventPublisherUtil(4)
+    val events        = (1 to 100).map(makeEvent) ++ (1 to 100).map(makeDistinctEvent)
+    val published     = new ConcurrentLinkedQueue[Event]()
+
+    publisherUtil.publishFromSource(Source(events), 1, { event: Event ⇒
+      published.add(event)
+      Future.successful(Done)
+    }, None)
+
+    eventually(published.size() shouldBe events.size)
+    published.asScala.filter(_.eventKey == events.head.eventKey).toList shouldBe events.take(100).toList
+  }
+}
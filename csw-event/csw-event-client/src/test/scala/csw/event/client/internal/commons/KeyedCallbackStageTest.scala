@@ -0,0 +1,99 @@
+package csw.event.client.internal.commons
+
+import java.util.concurrent.ConcurrentLinkedQueue
+
+import akka.Done
+import akka.actor.ActorSystem
+import akka.stream.scaladsl.{Keep, Sink, Source}
+import akka.stream.{ActorAttributes, ActorMaterializer, Attributes, Materializer}
+import csw.event.client.helpers.TestFutureExt.RichFuture
+import csw.event.client.helpers.Utils.{makeDistinctEvent, makeEvent}
+import csw.params.events.Event
+import org.scalatest.concurrent.Eventually
+import org.scalatest.{BeforeAndAfterAll, FunSuite, Matchers}
+
+import scala.collection.JavaConverters._
+import scala.concurrent.{Future, Promise}
+
+class KeyedCallbackStageTest extends FunSuite with Matchers with Eventually with BeforeAndAfterAll {
+
+  private implicit val actorSystem: ActorSystem = ActorSystem("keyed-callback-stage")
+  private implicit val mat: Materializer        = ActorMaterializer()
+
+  override def afterAll(): Unit = actorSystem.terminate().await
+
+  // runs the callback for the given events, completing the callback of an event with the future returned by `result`
+  private def run(events: Seq[Event], maxParallelism: Int, attributes: Attributes = Attributes.none)(
+      result: Event ⇒ Future[Done]
+  ): (ConcurrentLinkedQueue[Event], Future[Done]) = {
+    val received = new ConcurrentLinkedQueue[Event]()
+    val upstream = Source(events.toList)
+      .watchTermination()(Keep.right)
+      .to(Sink.fromGraph(new KeyedCallbackStage(maxParallelism, { event ⇒
+        received.add(event)
+        result(event)
+      })).withAttributes(attributes))
+      .run()
+    (received, upstream)
+  }
+
+  test("should run the callbacks of other keys while the callback of a key is still running") {
+    val slowEvent     = makeDistinctEvent(0)
+    val slowResult    = Promise[Done]
+    val events        = slowEvent +: (1 to 10).map(makeDistinctEvent)
+    val (received, _) = run(events, 4)(event ⇒ if (event == slowEvent) slowResult.future else Future.successful(Done))
+
+    eventually(received.asScala.toSet shouldBe events.toSet)
+    slowResult.success(Done)
+  }
+
+  test("should run the callback of a key for its latest event only once the previous callback of the key completed") {
+    val events               = (1 to 5).map(makeEvent)
+    val firstResult          = Promise[Done]
+    val (received, upstream) = run(events, 4)(event ⇒ if (event == events.head) firstResult.future else Future.successful(Done))
+
+    upstream.await
+    received.asScala.toList shouldBe List(events.head)
+
+    firstResult.success(Done)
+    eventually(received.asScala.toList shouldBe List(events.head, events.last))
+  }
+
+  test("should run the callbacks of at most max parallelism keys at once") {
+    val events        = (1 to 3).map(makeDistinctEvent)
+    val results       = events.map(_ ⇒ Promise[Done])
+    val (received, _) = run(events, 2)(event ⇒ results(events.indexOf(event)).future)
+
+    eventually(received.asScala.toList shouldBe events.take(2).toList)
+
+    results.head.success(Done)
+    eventually(received.asScala.toList shouldBe events.toList)
+    results.tail.foreach(_.success(Done))
+  }
+
+  test("should skip the event of a failed callback and keep running the callbacks when the supervision strategy resumes") {
+    val events       = Seq(makeEvent(1), makeEvent(2), makeDistinctEvent(3))
+    val failedResult = Promise[Done]
+    val attributes   = ActorAttributes.supervisionStrategy(EventStreamSupervisionStrategy.decider)
+    val (received, _) =
+      run(events, 2, attributes)(event ⇒ if (event == events.head) failedResult.future else Future.successful(Done))
+
+    eventually(received.asScala.toList shouldBe List(events.head, events(2)))
+
+    // the next event of the key of the failed callback waits for it
+    failedResult.failure(new RuntimeException("callback failed"))
+    eventually(received.asScala.toList shouldBe events.toList)
+  }
+
+  test("should fail once a callback failed when the supervision strategy stops") {
+    val events       = Seq(makeEvent(1), makeEvent(2))
+    val failedResult = Promise[Done]
+    val (received, upstream) =
+      run(events, 2)(event ⇒ if (event == events.head) failedResult.future else Future.successful(Done))
+
+    upstream.await
+    failedResult.failure(new RuntimeException("callback failed"))
+    Thread.sleep(200)
+    received.asScala.toList shouldBe List(events.head)
+  }
+}
@@ -0,0 +1,69 @@
+package csw.event.client.internal.commons.throttle
+
+import java.time.Instant
+import java.util.concurrent.atomic.AtomicInteger
+
+import akka.actor.testkit.typed.scaladsl.ActorTestKit
+import csw.time.core.models.TAITime
+import org.scalatest.concurrent.Eventually
+import org.scalatest.{BeforeAndAfterAll, FunSuite, Matchers}
+
+import scala.concurrent.duration.DurationInt
+
+class TaiTickHubTest extends FunSuite with Matchers with Eventually with BeforeAndAfterAll {
+
+  private val testKit = ActorTestKit()
+
+  override def afterAll(): Unit = testKit.shutdownTestKit()
+
+  test("should schedule ticks on the instants which are a multiple of the period since the TAI epoch") {
+    val periodNanos = 100.millis.toNanos
+
+    TaiTickHub.nanosToNextTick(periodNanos, TAITime(Instant.ofEpochSecond(10, 250000000))) shouldBe 50.millis.toNanos
+    TaiTickHub.nanosToNextTick(periodNanos, TAITime(Instant.ofEpochSecond(10, 300000000))) shouldBe periodNanos
+  }
+
+  test("should tick all the listeners of a period from a single timer") {
+    val timerCount = TaiTickHub.timerCount
+    val ticks1     = new AtomicInteger
+    val ticks2     = new AtomicInteger
+
+    val detach1 = TaiTickHub.attach(23.millis, () ⇒ ticks1.incrementAndGet())
+    val detach2 = TaiTickHub.attach(23.millis, () ⇒ ticks2.incrementAndGet())
+    TaiTickHub.timerCount shouldBe timerCount + 1
+
+    eventually {
+      ticks1.get() should be > 2
+      ticks2.get() should be > 2
+    }
+
+    detach1()
+    TaiTickHub.timerCount shouldBe timerCount + 1
+    detach2()
+    TaiTickHub.timerCount shouldBe timerCount
+  }
+
+  test("should stop ticking a listener once it is detached") {
+    val probe  = testKit.createTestProbe[String]()
+    val detach = TaiTickHub.attach(17.millis, () ⇒ probe.ref ! "tick")
+    probe.expectMessage("tick")
+
+    detach()
+    // returns once a tick being delivered is over, so no tick follows the marker
+    TaiTickHub.awaitTick()
+    probe.ref ! "detached"
+    Iterator.continually(probe.receiveMessage()).takeWhile(_ != "detached").foreach(_ shouldBe "tick")
+    probe.expectNoMessage(100.millis)
+  }
+
+  test("should not deliver a tick before its TAI instant") {
+    val period = 200.millis
+    val probe  = testKit.createTestProbe[TAITime]()
+    val detach = TaiTickHub.attach(period, () ⇒ probe.ref ! TAITime.now())
+
+    (1 to 3).foreach { _ ⇒
+      TaiTickHub.nanosToNextTick(period.toNanos, probe.receiveMessage()) should be > period.toNanos / 2
+    }
+    detach()
+  }
+}
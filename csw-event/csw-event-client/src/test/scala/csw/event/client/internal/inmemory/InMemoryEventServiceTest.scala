@@ -0,0 +1,92 @@
+package csw.event.client.internal.inmemory
+
+import akka.actor.ActorSystem
+import akka.stream.scaladsl.{Keep, Sink}
+import akka.stream.{ActorMaterializer, Materializer}
+import csw.event.api.scaladsl.{EventService, SubscriptionModes}
+import csw.event.client.EventServiceFactory
+import csw.event.client.helpers.TestFutureExt.RichFuture
+import csw.event.client.helpers.Utils.{makeDistinctEvent, makeEvent, makeEventForKeyName}
+import csw.event.client.models.EventStores.InMemoryStore
+import csw.params.core.models.Subsystem
+import csw.params.events.{Event, EventName}
+import org.scalatest.{BeforeAndAfterAll, FunSuite, Matchers}
+
+import scala.concurrent.duration.DurationInt
+import scala.util.Random
+
+class InMemoryEventServiceTest extends FunSuite with Matchers with BeforeAndAfterAll {
+
+  private implicit val actorSystem: ActorSystem = ActorSystem("in-memory-event-service")
+  private implicit val mat: Materializer        = ActorMaterializer()
+
+  // the location of the event server is never resolved with the in-memory store
+  private val eventServiceFactory        = new EventServiceFactory(InMemoryStore)
+  private val eventService: EventService = eventServiceFactory.make("localhost", 0)
+  private val otherService: EventService = eventServiceFactory.make("localhost", 0)
+  private val publisher                  = eventService.defaultPublisher
+  private val subscriber                 = otherService.defaultSubscriber
+
+  override def afterAll(): Unit = actorSystem.terminate().await
+
+  test("should deliver the very same instance of a published event to the subscribers of the event services of a factory") {
+    val event1 = makeDistinctEvent(Random.nextInt())
+
+    val (subscription, seqF) = subscriber.subscribe(Set(event1.eventKey)).take(2).toMat(Sink.seq)(Keep.both).run()
+    subscription.ready().await
+    publisher.publish(event1).await
+
+    val events = seqF.await
+    events shouldBe Seq(Event.invalidEvent(event1.eventKey), event1)
+    events(1) should be theSameInstanceAs event1
+  }
+
+  test("should get the latest event of a key") {
+    val event1 = makeDistinctEvent(Random.nextInt())
+    val event2 = makeDistinctEvent(Random.nextInt())
+
+    subscriber.get(event1.eventKey).await shouldBe Event.invalidEvent(event1.eventKey)
+
+    publisher.publish(event1).await
+    publisher.publish(event2).await
+
+    subscriber.get(event1.eventKey).await shouldBe event1
+    subscriber.get(Set(event1.eventKey, event2.eventKey)).await shouldBe Set(event1, event2)
+  }
+
+  test("should not share events with the event services of another factory") {
+    val event1       = makeDistinctEvent(Random.nextInt())
+    val otherFactory = new EventServiceFactory(InMemoryStore)
+
+    otherFactory.make("localhost", 0).defaultPublisher.publish(event1).await
+
+    subscriber.get(event1.eventKey).await shouldBe Event.invalidEvent(event1.eventKey)
+  }
+
+  test("should deliver the events whose key matches the pattern of a pattern subscription") {
+    val movementEvent    = makeEventForKeyName(EventName("movement.linear"), 1)
+    val temperatureEvent = makeEventForKeyName(EventName("temperature"), 2)
+
+    val (subscription, seqF) = subscriber.pSubscribe(Subsystem.TEST, "*.movement.*").take(1).toMat(Sink.seq)(Keep.both).run()
+    subscription.ready().await
+    publisher.publish(temperatureEvent).await
+    publisher.publish(movementEvent).await
+
+    seqF.await shouldBe Seq(movementEvent)
+  }
+
+  test("should apply subscription modes as the other event stores") {
+    val events = (1 to 10).map(makeEvent)
+
+    val (subscription, seqF) = subscriber
+      .subscribe(Set(events.head.eventKey), 100.millis, SubscriptionModes.RateLimiterMode)
+      .takeWithin(500.millis)
+      .toMat(Sink.seq)(Keep.both)
+      .run()
+    subscription.ready().await
+    events.foreach(publisher.publish(_).await)
+
+    // the events published at once are dropped but the first of every tick
+    seqF.await.size should be < events.size
+  }
+}
@@ -2,9 +2,11 @@ package csw.event.client.internal.kafka
 
 import akka.actor.testkit.typed.scaladsl.TestProbe
 import akka.stream.scaladsl.Source
+import com.typesafe.config.ConfigFactory
 import csw.event.api.exceptions.PublishFailure
 import csw.event.client.helpers.TestFutureExt.RichFuture
 import csw.event.client.helpers.Utils
+import csw.event.client.internal.commons.Settings
 import csw.params.events.Event
 import csw.time.core.models.UTCTime
 import io.lettuce.core.RedisException
@@ -40,6 +42,23 @@ class KafkaFailureTest extends FunSuite with Matchers with MockitoSugar with Bef
 
   }
 
+  test("failure in publishing a batch should fail the future of every event with the error of the broker") {
+    val batchingSettings = new Settings(
+      ConfigFactory
+        .parseString("csw-event.kafka.publisher { batching-enabled = true, max-linger = 10ms }")
+        .withFallback(actorSystem.settings.config)
+    )
+    val batchingPublisher = makeEventService(batchingSettings).makeNewPublisher()
+
+    // the futures complete with the response of the broker, which rejects every record
+    val failedEvents = (1 to 3).map(Utils.makeEvent)
+    val failures     = failedEvents.map(batchingPublisher.publish).map(published ⇒ intercept[PublishFailure](published.await))
+
+    failures.map(_.event) shouldBe failedEvents
+    failures.foreach(_.getCause shouldBe a[RecordTooLargeException])
+    batchingPublisher.shutdown().await
+  }
+
   //DEOPSCSW-334: Publish an event
   test("handle failed publish event with a callback") {
 
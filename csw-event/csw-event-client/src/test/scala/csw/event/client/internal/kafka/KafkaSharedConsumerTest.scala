@@ -0,0 +1,123 @@
+package csw.event.client.internal.kafka
+
+import akka.stream.scaladsl.{Keep, Sink}
+import com.typesafe.config.ConfigFactory
+import csw.event.client.helpers.TestFutureExt.RichFuture
+import csw.event.client.helpers.Utils.{makeDistinctEvent, makeEventForPrefixAndKeyName}
+import csw.event.client.internal.commons.Settings
+import csw.params.events.{Event, EventKey, EventName}
+import org.apache.kafka.common.KafkaException
+import org.scalatest.concurrent.Eventually
+import org.scalatest.{BeforeAndAfterAll, FunSuite, Matchers}
+
+import scala.collection.JavaConverters.asScalaSetConverter
+import scala.util.Random
+
+class KafkaSharedConsumerTest extends FunSuite with Matchers with Eventually with BeforeAndAfterAll {
+
+  private val kafkaTestProps: KafkaTestProps = KafkaTestProps.createKafkaProperties()
+  import kafkaTestProps._
+
+  private val sharedConsumerSettings = new Settings(
+    ConfigFactory
+      .parseString("csw-event.kafka.subscriber.shared-consumer-enabled = true")
+      .withFallback(actorSystem.settings.config)
+  )
+
+  private lazy val sharedConsumerService = makeEventService(sharedConsumerSettings)
+
+  override def beforeAll(): Unit = kafkaTestProps.start()
+
+  override def afterAll(): Unit = kafkaTestProps.shutdown()
+
+  test("should deliver events of a key to the subscriptions of all the subscribers sharing the consumer") {
+    val event1 = makeDistinctEvent(Random.nextInt())
+
+    val (subscription1, seqF1) =
+      sharedConsumerService.makeNewSubscriber().subscribe(Set(event1.eventKey)).take(2).toMat(Sink.seq)(Keep.both).run()
+    val (subscription2, seqF2) =
+      sharedConsumerService.makeNewSubscriber().subscribe(Set(event1.eventKey)).take(2).toMat(Sink.seq)(Keep.both).run()
+    subscription1.ready().await
+    subscription2.ready().await
+
+    publisher.publish(event1).await
+
+    seqF1.await shouldBe Seq(Event.invalidEvent(event1.eventKey), event1)
+    seqF2.await shouldBe Seq(Event.invalidEvent(event1.eventKey), event1)
+  }
+
+  test("should start a subscription to a key which is already consumed with the latest event of that key") {
+    val event1     = makeDistinctEvent(Random.nextInt())
+    val event2     = makeEventForPrefixAndKeyName(event1.eventKey.source, event1.eventKey.eventName, 2)
+    val subscriber = sharedConsumerService.makeNewSubscriber()
+
+    val (subscription1, seqF1) = subscriber.subscribe(Set(event1.eventKey)).take(2).toMat(Sink.seq)(Keep.both).run()
+    subscription1.ready().await
+    publisher.publish(event1).await
+    seqF1.await shouldBe Seq(Event.invalidEvent(event1.eventKey), event1)
+
+    val (subscription2, seqF2) = subscriber.subscribe(Set(event1.eventKey)).take(2).toMat(Sink.seq)(Keep.both).run()
+    subscription2.ready().await
+    publisher.publish(event2).await
+
+    seqF2.await shouldBe Seq(event1, event2)
+  }
+
+  test("should keep delivering events to other subscriptions of a key when one of them unsubscribes") {
+    val event1     = makeDistinctEvent(Random.nextInt())
+    val event2     = makeEventForPrefixAndKeyName(event1.eventKey.source, event1.eventKey.eventName, 2)
+    val subscriber = sharedConsumerService.makeNewSubscriber()
+
+    val (subscription1, _)     = subscriber.subscribe(Set(event1.eventKey)).toMat(Sink.ignore)(Keep.both).run()
+    val (subscription2, seqF2) = subscriber.subscribe(Set(event1.eventKey)).take(3).toMat(Sink.seq)(Keep.both).run()
+    subscription1.ready().await
+    subscription2.ready().await
+
+    subscription1.unsubscribe().await
+    publisher.publish(event1).await
+    publisher.publish(event2).await
+
+    seqF2.await shouldBe Seq(Event.invalidEvent(event1.eventKey), event1, event2)
+  }
+
+  test("should fail only the subscription whose topics can not be assigned and keep delivering to the others") {
+    // fetching the offsets of a topic which can not exist times out instead of retrying for the default minute
+    val consumer   = makeSharedConsumer(sharedConsumerSettings, Map("default.api.timeout.ms" → "2000"))
+    val event1     = makeDistinctEvent(Random.nextInt())
+    val event2     = makeEventForPrefixAndKeyName(event1.eventKey.source, event1.eventKey.eventName, 2)
+    val invalidKey = EventKey(event1.eventKey.source, EventName("not a topic name"))
+
+    val (subscription1, seqF1) = consumer.subscribe(Set(event1.eventKey)).take(3).toMat(Sink.seq)(Keep.both).run()
+    subscription1.ready().await
+
+    val (subscription2, doneF2) = consumer.subscribe(Set(event1.eventKey, invalidKey)).toMat(Sink.ignore)(Keep.both).run()
+    a[KafkaException] shouldBe thrownBy subscription2.ready().await
+    a[KafkaException] shouldBe thrownBy doneF2.await
+
+    publisher.publish(event1).await
+    publisher.publish(event2).await
+
+    seqF1.await shouldBe Seq(Event.invalidEvent(event1.eventKey), event1, event2)
+    consumer.shutdown().await
+  }
+
+  test("should complete its subscriptions and end its polling thread on shutdown") {
+    def consumerThreads = Thread.getAllStackTraces.keySet.asScala.filter(_.getName == "csw-event-kafka-shared-consumer")
+
+    val event1        = makeDistinctEvent(Random.nextInt())
+    val service       = makeEventService(sharedConsumerSettings)
+    val subscriber    = service.makeNewSubscriber()
+    val threadsBefore = consumerThreads
+
+    val (subscription, doneF) = subscriber.subscribe(Set(event1.eventKey)).toMat(Sink.ignore)(Keep.both).run()
+    subscription.ready().await
+    val startedThreads = consumerThreads -- threadsBefore
+    startedThreads should not be empty
+
+    service.shutdown().await
+
+    doneF.await
+    eventually(startedThreads.filter(_.isAlive) shouldBe empty)
+    an[IllegalStateException] shouldBe thrownBy subscriber.subscribe(Set(event1.eventKey)).runWith(Sink.ignore).await
+  }
+}
@@ -1,13 +1,17 @@
 package csw.event.client.internal.kafka
 
+import java.util.UUID
+
 import akka.Done
 import akka.actor.ActorSystem
 import akka.http.scaladsl.Http
-import akka.kafka.ProducerSettings
+import akka.kafka.{ConsumerSettings, ProducerSettings}
 import csw.event.api.javadsl.{IEventPublisher, IEventService, IEventSubscriber}
 import csw.event.api.scaladsl.{EventPublisher, EventService, EventSubscriber}
 import csw.event.client.EventServiceFactory
 import csw.event.client.helpers.TestFutureExt.RichFuture
+import csw.event.client.internal.commons.Settings
+import csw.event.client.internal.commons.serviceresolver.EventServiceLocationResolver
 import csw.event.client.internal.wiring.BaseProperties
 import csw.event.client.internal.wiring.BaseProperties.createInfra
 import csw.event.client.models.EventStores.KafkaStore
@@ -18,7 +22,7 @@ import csw.network.utils.Networks
 import csw.network.utils.SocketUtils.getFreePort
 import net.manub.embeddedkafka.{EmbeddedKafka, EmbeddedKafkaConfig}
 import org.apache.kafka.clients.producer.ProducerRecord
-import org.apache.kafka.common.serialization.StringSerializer
+import org.apache.kafka.common.serialization.{ByteArrayDeserializer, StringDeserializer, StringSerializer}
 
 import scala.collection.JavaConverters.mapAsScalaMapConverter
 import scala.concurrent.Future
@@ -51,6 +55,23 @@ class KafkaTestProps(
 
   override def toString: String = "Kafka"
 
+  def makeEventService(settings: Settings): KafkaEventService =
+    new KafkaEventService(new EventServiceLocationResolver(locationService), settings)
+
+  // a shared consumer on its own, its kafka consumer is configured with the given properties on top of the defaults
+  def makeSharedConsumer(settings: Settings, consumerProperties: Map[String, String]): KafkaSharedConsumer = {
+    val consumerSettings = ConsumerSettings(actorSystem, new StringDeserializer, new ByteArrayDeserializer)
+      .withBootstrapServers(s"${Networks().hostname}:$kafkaPort")
+      .withGroupId(UUID.randomUUID().toString)
+      .withProperties(consumerProperties)
+    new KafkaSharedConsumer(
+      Future.successful(consumerSettings),
+      KafkaSubscriber.decoder(settings),
+      settings.kafkaSubscriptionBufferSize,
+      settings.kafkaSharedConsumerPollTimeout
+    )
+  }
+
   override val eventPattern: String = ".*sys.*"
 
   override def publishGarbage(channel: String, message: String): Future[Done] =
@@ -0,0 +1,69 @@
+package csw.event.client.internal.local
+
+import akka.stream.scaladsl.{Keep, Sink}
+import csw.event.client.helpers.TestFutureExt.RichFuture
+import csw.event.client.helpers.Utils.{makeDistinctEvent, makeEventForPrefixAndKeyName}
+import csw.event.client.internal.redis.RedisTestProps
+import csw.params.events.Event
+import org.scalatest.concurrent.Eventually
+import org.scalatest.{BeforeAndAfterAll, FunSuite, Matchers}
+
+import scala.util.Random
+
+class LocalDeliveryEventServiceTest extends FunSuite with Matchers with Eventually with BeforeAndAfterAll {
+
+  private val redisTestProps: RedisTestProps = RedisTestProps.createRedisProperties()
+  import redisTestProps._
+
+  private lazy val localDeliveryService = new LocalDeliveryEventService(eventService, new LocalEventHub, 1024, 8192, false, 1)
+
+  override def beforeAll(): Unit = redisTestProps.start()
+
+  override def afterAll(): Unit = redisTestProps.shutdown()
+
+  test("should deliver the very same instance of a locally published event exactly once") {
+    val event1 = makeDistinctEvent(Random.nextInt())
+    val event2 = makeEventForPrefixAndKeyName(event1.eventKey.source, event1.eventKey.eventName, 2)
+    val event3 = makeEventForPrefixAndKeyName(event1.eventKey.source, event1.eventKey.eventName, 3)
+
+    val (subscription, seqF) =
+      localDeliveryService.makeNewSubscriber().subscribe(Set(event1.eventKey)).take(4).toMat(Sink.seq)(Keep.both).run()
+    subscription.ready().await
+
+    val localPublisher = localDeliveryService.makeNewPublisher()
+    localPublisher.publish(event1).await
+    localPublisher.publish(event2).await
+    // published through the event server only, it arrives after the copies of the local events coming back from the server
+    publisher.publish(event3).await
+
+    val events = seqF.await
+    events shouldBe Seq(Event.invalidEvent(event1.eventKey), event1, event2, event3)
+    events(1) should be theSameInstanceAs event1
+    events(2) should be theSameInstanceAs event2
+  }
+
+  test("should pass on the server copy of a local event once it is out of the dedup window of the subscription") {
+    val service = new LocalDeliveryEventService(eventService, new LocalEventHub, 1024, 1, false, 1)
+    val event1  = makeDistinctEvent(Random.nextInt())
+    val event2  = makeEventForPrefixAndKeyName(event1.eventKey.source, event1.eventKey.eventName, 2)
+
+    val (subscription, seqF) =
+      service.makeNewSubscriber().subscribe(Set(event1.eventKey)).take(4).toMat(Sink.seq)(Keep.both).run()
+    subscription.ready().await
+
+    // both are delivered locally before the copy of the first one comes back, which then is no longer remembered
+    val localPublisher = service.makeNewPublisher()
+    val published      = List(localPublisher.publish(event1), localPublisher.publish(event2))
+    published.foreach(_.await)
+
+    seqF.await.count(_ == event1) shouldBe 2
+  }
+
+  test("should keep publishing locally published events to the event server") {
+    val event1 = makeDistinctEvent(Random.nextInt())
+
+    localDeliveryService.makeNewPublisher().publish(event1).await
+
+    eventually(subscriber.get(event1.eventKey).await shouldBe event1)
+  }
+}
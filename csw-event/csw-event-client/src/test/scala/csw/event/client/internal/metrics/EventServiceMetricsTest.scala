@@ -0,0 +1,55 @@
+package csw.event.client.internal.metrics
+
+import java.lang.management.ManagementFactory
+import java.time.Instant
+import java.util.concurrent.TimeUnit
+
+import csw.event.client.helpers.TestFutureExt.RichFuture
+import csw.event.client.helpers.Utils.event
+import csw.time.core.models.UTCTime
+import javax.management.ObjectName
+import org.scalatest.concurrent.Eventually
+import org.scalatest.{FunSuite, Matchers}
+
+import scala.concurrent.ExecutionContext.Implicits.global
+import scala.concurrent.Future
+
+// metrics are shared by the whole JVM, so other suites may record values concurrently
+class EventServiceMetricsTest extends FunSuite with Matchers with Eventually {
+
+  test("should record the end to end latency of received events") {
+    val countBefore   = EventServiceMetrics.getEndToEndLatencyCount
+    val receivedEvent = event.copy(eventTime = UTCTime(Instant.now().minusMillis(20)))
+
+    EventServiceMetrics.received(receivedEvent) shouldBe receivedEvent
+
+    EventServiceMetrics.getEndToEndLatencyCount should be > countBefore
+    EventServiceMetrics.getEndToEndLatencyMaxMicros should be >= 20000L
+  }
+
+  test("should record the latency of successful publishes") {
+    val countBefore = EventServiceMetrics.getPublishLatencyCount
+
+    EventServiceMetrics.timePublish(Future { Thread.sleep(10); "published" }).await shouldBe "published"
+
+    eventually(EventServiceMetrics.getPublishLatencyCount should be > countBefore)
+    EventServiceMetrics.getPublishLatencyMaxMicros should be >= 10000L
+  }
+
+  test("should record the time events waited in a publish queue") {
+    val countBefore = EventServiceMetrics.getPublishQueueWaitCount
+
+    EventServiceMetrics.queueWaited(System.nanoTime() - TimeUnit.MILLISECONDS.toNanos(20))
+
+    EventServiceMetrics.getPublishQueueWaitCount should be > countBefore
+    EventServiceMetrics.getPublishQueueWaitMaxMicros should be >= 20000L
+  }
+
+  test("should expose the metrics through JMX") {
+    EventServiceMetrics.droppedByThrottle()
+    val attribute = ManagementFactory.getPlatformMBeanServer
+      .getAttribute(new ObjectName("csw.event:type=EventServiceMetrics"), "DroppedThrottledEvents")
+
+    attribute.asInstanceOf[Long] should be >= 1L
+  }
+}
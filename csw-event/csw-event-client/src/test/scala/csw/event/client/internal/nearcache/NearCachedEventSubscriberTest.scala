@@ -0,0 +1,108 @@
+package csw.event.client.internal.nearcache
+
+import akka.stream.scaladsl.Source
+import akka.stream.testkit.TestPublisher
+import csw.event.client.helpers.TestFutureExt.RichFuture
+import csw.event.client.helpers.Utils.{makeDistinctEvent, makeEventForPrefixAndKeyName}
+import csw.event.client.internal.metrics.EventServiceMetrics
+import csw.event.client.internal.redis.RedisTestProps
+import csw.params.events.Event
+import org.scalatest.concurrent.Eventually
+import org.scalatest.{BeforeAndAfterAll, FunSuite, Matchers}
+
+import scala.util.Random
+
+class NearCachedEventSubscriberTest extends FunSuite with Matchers with Eventually with BeforeAndAfterAll {
+
+  private val redisTestProps: RedisTestProps = RedisTestProps.createRedisProperties()
+  import redisTestProps._
+
+  override def beforeAll(): Unit = redisTestProps.start()
+
+  override def afterAll(): Unit = redisTestProps.shutdown()
+
+  private def nearCachedSubscriber(disconnections: TestPublisher.Probe[Any] = TestPublisher.probe[Any]()) =
+    new NearCachedEventSubscriber(
+      eventService.makeNewSubscriber(),
+      100,
+      Source.fromPublisher(disconnections),
+      alignedTicks = false,
+      asyncCallbackParallelism = 1
+    )
+
+  test("should serve get of a subscribed key from the cache") {
+    val cachedSubscriber = nearCachedSubscriber()
+    val event1           = makeDistinctEvent(Random.nextInt())
+    val event2           = makeEventForPrefixAndKeyName(event1.eventKey.source, event1.eventKey.eventName, 2)
+
+    val subscription = cachedSubscriber.subscribeCallback(Set(event1.eventKey), _ ⇒ ())
+    subscription.ready().await
+    val reportedHits = EventServiceMetrics.getNearCacheHits
+
+    cachedSubscriber.get(event1.eventKey).await shouldBe Event.invalidEvent(event1.eventKey)
+
+    publisher.publish(event1).await
+    eventually(cachedSubscriber.get(event1.eventKey).await shouldBe event1)
+
+    publisher.publish(event2).await
+    eventually(cachedSubscriber.get(event1.eventKey).await shouldBe event2)
+
+    cachedSubscriber.hitCount should be > 0L
+    EventServiceMetrics.getNearCacheHits should be > reportedHits
+    subscription.unsubscribe().await
+  }
+
+  test("should fetch keys which are not subscribed from the event server") {
+    val cachedSubscriber = nearCachedSubscriber()
+    val event1           = makeDistinctEvent(Random.nextInt())
+
+    publisher.publish(event1).await
+
+    cachedSubscriber.get(event1.eventKey).await shouldBe event1
+    cachedSubscriber.get(Set(event1.eventKey)).await shouldBe Set(event1)
+    cachedSubscriber.hitCount shouldBe 0
+    cachedSubscriber.missCount shouldBe 2
+  }
+
+  test("should stop serving a key from the cache once it is unsubscribed") {
+    val cachedSubscriber = nearCachedSubscriber()
+    val event1           = makeDistinctEvent(Random.nextInt())
+
+    publisher.publish(event1).await
+    val subscription = cachedSubscriber.subscribeCallback(Set(event1.eventKey), _ ⇒ ())
+    subscription.ready().await
+    eventually {
+      cachedSubscriber.get(event1.eventKey).await
+      cachedSubscriber.hitCount shouldBe 1
+    }
+
+    subscription.unsubscribe().await
+    eventually {
+      val missCount = cachedSubscriber.missCount
+      cachedSubscriber.get(event1.eventKey).await shouldBe event1
+      cachedSubscriber.missCount shouldBe missCount + 1
+    }
+  }
+
+  test("should invalidate the cache when the connection to the event server is lost") {
+    val disconnections   = TestPublisher.probe[Any]()
+    val cachedSubscriber = nearCachedSubscriber(disconnections)
+    val event1           = makeDistinctEvent(Random.nextInt())
+
+    publisher.publish(event1).await
+    val subscription = cachedSubscriber.subscribeCallback(Set(event1.eventKey), _ ⇒ ())
+    subscription.ready().await
+    eventually {
+      cachedSubscriber.get(event1.eventKey).await
+      cachedSubscriber.hitCount shouldBe 1
+    }
+
+    disconnections.sendNext("disconnected")
+    eventually {
+      val missCount = cachedSubscriber.missCount
+      cachedSubscriber.get(event1.eventKey).await shouldBe event1
+      cachedSubscriber.missCount shouldBe missCount + 1
+    }
+    subscription.unsubscribe().await
+  }
+}
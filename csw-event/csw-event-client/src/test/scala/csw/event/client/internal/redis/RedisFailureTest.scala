@@ -2,10 +2,12 @@ package csw.event.client.internal.redis
 
 import akka.actor.testkit.typed.scaladsl.TestProbe
 import akka.stream.scaladsl.{Keep, Sink, Source}
+import com.typesafe.config.ConfigFactory
 import csw.event.api.exceptions.{EventServerNotAvailable, PublishFailure}
 import csw.event.client.helpers.TestFutureExt.RichFuture
 import csw.event.client.helpers.Utils
 import csw.event.client.helpers.Utils.makeDistinctEvent
+import csw.event.client.internal.commons.Settings
 import csw.params.events.{Event, EventKey}
 import csw.time.core.models.UTCTime
 import io.lettuce.core.ClientOptions.DisconnectedBehavior
@@ -29,6 +31,12 @@ class RedisFailureTest extends FunSuite with Matchers with MockitoSugar with Bef
 
   private val redisTestProps: RedisTestProps = RedisTestProps.createRedisProperties(clientOptions = redisClientOptions)
 
+  private val batchingSettings = new Settings(
+    ConfigFactory
+      .parseString("csw-event.redis.publisher { batching-enabled = true, max-batch-size = 3, max-linger = 100ms }")
+      .withFallback(redisTestProps.actorSystem.settings.config)
+  )
+
   override def beforeAll(): Unit = redisTestProps.start()
 
   override def afterAll(): Unit = redisTestProps.shutdown()
@@ -53,6 +61,45 @@ class RedisFailureTest extends FunSuite with Matchers with MockitoSugar with Bef
     failure.getCause shouldBe a[RedisException]
   }
 
+  test("should fail the publish of every event of a batch with a PublishFailure of its own event") {
+    import redisTestProps._
+    val publisher = makePublisher(batchingSettings)
+    publisher.publish(Utils.makeEvent(1)).await
+
+    redisServer.stop()
+
+    Thread.sleep(1000) // wait till the publisher is shutdown successfully
+
+    val failedEvents = (1 to 3).map(_ ⇒ makeDistinctEvent(Random.nextInt()))
+    val failures     = failedEvents.map(publisher.publish).map(published ⇒ intercept[PublishFailure](published.await))
+
+    redisServer.start()
+
+    failures.map(_.event) shouldBe failedEvents
+    failures.foreach(_.getCause shouldBe a[RedisException])
+  }
+
+  test("should invoke onError callback for every failed event of a stream when batching is enabled") {
+    import redisTestProps._
+    val publisher = makePublisher(batchingSettings)
+    val testProbe = TestProbe[PublishFailure]()(typedActorSystem)
+    publisher.publish(Utils.makeEvent(1)).await
+
+    publisher.shutdown().await
+
+    Thread.sleep(1000) // wait till the publisher is shutdown successfully
+
+    val events = (1 to 3).map(Utils.makeEvent)
+
+    publisher.publish(Source(events), failure ⇒ testProbe.ref ! failure)
+
+    events.foreach { event ⇒
+      val failure = testProbe.expectMessageType[PublishFailure]
+      failure.event shouldBe event
+      failure.getCause shouldBe a[RedisException]
+    }
+  }
+
   //DEOPSCSW-334: Publish an event
   test("should invoke onError callback on publish failure [stream API]") {
     import redisTestProps._
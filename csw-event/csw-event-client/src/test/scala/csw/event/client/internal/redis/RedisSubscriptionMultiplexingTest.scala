@@ -0,0 +1,143 @@
+package csw.event.client.internal.redis
+
+import akka.stream.scaladsl.{Keep, Sink}
+import com.typesafe.config.ConfigFactory
+import csw.event.client.helpers.TestFutureExt.RichFuture
+import csw.event.client.helpers.Utils.{makeEventForPrefixAndKeyName, prefix}
+import csw.event.client.internal.commons.Settings
+import csw.params.core.generics.KeyType.DoubleArrayKey
+import csw.params.core.models.{ArrayData, Subsystem}
+import csw.params.events.{Event, EventName, SystemEvent}
+import io.lettuce.core.{ClientOptions, RedisClient}
+import org.scalatest.{BeforeAndAfterAll, FunSuite, Matchers}
+import romaine.exceptions.RedisOperationFailed
+
+import scala.util.Random
+
+class RedisSubscriptionMultiplexingTest extends FunSuite with Matchers with BeforeAndAfterAll {
+
+  private val redisTestProps: RedisTestProps = RedisTestProps.createRedisProperties()
+  import redisTestProps._
+
+  private val multiplexingSettings = new Settings(
+    ConfigFactory
+      .parseString("csw-event.redis.subscriber { multiplexing-enabled = true, connection-pool-size = 2 }")
+      .withFallback(actorSystem.settings.config)
+  )
+
+  private lazy val multiplexedSubscriber = makeSubscriber(multiplexingSettings)
+
+  override def beforeAll(): Unit = redisTestProps.start()
+
+  override def afterAll(): Unit = {
+    multiplexedSubscriber.shutdown().await
+    redisTestProps.shutdown()
+  }
+
+  private def uniqueEventName() = EventName(s"multiplexed_${Random.nextInt()}")
+
+  test("should deliver events of a key to all the subscriptions of that key") {
+    val eventName = uniqueEventName()
+    val event1    = makeEventForPrefixAndKeyName(prefix, eventName, 1)
+
+    val (subscription1, seqF1) = multiplexedSubscriber.subscribe(Set(event1.eventKey)).take(2).toMat(Sink.seq)(Keep.both).run()
+    val (subscription2, seqF2) = multiplexedSubscriber.subscribe(Set(event1.eventKey)).take(2).toMat(Sink.seq)(Keep.both).run()
+    subscription1.ready().await
+    subscription2.ready().await
+
+    publisher.publish(event1).await
+
+    seqF1.await shouldBe Seq(Event.invalidEvent(event1.eventKey), event1)
+    seqF2.await shouldBe Seq(Event.invalidEvent(event1.eventKey), event1)
+  }
+
+  test("should keep delivering events to other subscriptions of a key when one of them unsubscribes") {
+    val eventName = uniqueEventName()
+    val event1    = makeEventForPrefixAndKeyName(prefix, eventName, 1)
+    val event2    = makeEventForPrefixAndKeyName(prefix, eventName, 2)
+
+    val (subscription1, _)     = multiplexedSubscriber.subscribe(Set(event1.eventKey)).toMat(Sink.ignore)(Keep.both).run()
+    val (subscription2, seqF2) = multiplexedSubscriber.subscribe(Set(event1.eventKey)).take(3).toMat(Sink.seq)(Keep.both).run()
+    subscription1.ready().await
+    subscription2.ready().await
+
+    subscription1.unsubscribe().await
+
+    publisher.publish(event1).await
+    publisher.publish(event2).await
+
+    seqF2.await shouldBe Seq(Event.invalidEvent(event1.eventKey), event1, event2)
+  }
+
+  test("should deliver events matching a pattern to all the pattern subscriptions") {
+    val eventName = uniqueEventName()
+    val event1    = makeEventForPrefixAndKeyName(prefix, eventName, 1)
+
+    val (subscription1, seqF1) = multiplexedSubscriber.pSubscribe(Subsystem.TEST, "*").take(1).toMat(Sink.seq)(Keep.both).run()
+    val (subscription2, seqF2) = multiplexedSubscriber.pSubscribe(Subsystem.TEST, "*").take(1).toMat(Sink.seq)(Keep.both).run()
+    subscription1.ready().await
+    subscription2.ready().await
+
+    publisher.publish(event1).await
+
+    seqF1.await shouldBe Seq(event1)
+    seqF2.await shouldBe Seq(event1)
+  }
+
+  test("should rebuild delta encoded events for overlapping pattern subscriptions served by different pooled connections") {
+    val deltaPublisher = makePublisher(
+      new Settings(
+        ConfigFactory
+          .parseString("csw-event.redis.publisher { delta-encoding-enabled = true, delta-keyframe-interval = 3 }")
+          .withFallback(actorSystem.settings.config)
+      )
+    )
+    val eventName = uniqueEventName()
+    val slopesKey = DoubleArrayKey.make("slopes")
+    val events = (1 to 7).map { sample ⇒
+      SystemEvent(prefix, eventName).add(slopesKey.set(ArrayData.fromArray(Array.tabulate(100)(i ⇒ if (i == sample) -1.0 else i))))
+    }
+
+    // the patterns differ by a character of odd code, hence the parity of their hash codes differs and a pool of two connections
+    // serves them on different connections, each of which receives every event of the key
+    val (subscription1, seqF1) = multiplexedSubscriber
+      .pSubscribe(Subsystem.TEST, s"pr*.${eventName.name}")
+      .take(events.size)
+      .toMat(Sink.seq)(Keep.both)
+      .run()
+    val (subscription2, seqF2) = multiplexedSubscriber
+      .pSubscribe(Subsystem.TEST, s"pre*.${eventName.name}")
+      .take(events.size)
+      .toMat(Sink.seq)(Keep.both)
+      .run()
+    subscription1.ready().await
+    subscription2.ready().await
+
+    events.foreach(event ⇒ deltaPublisher.publish(event).await)
+
+    seqF1.await shouldBe events
+    seqF2.await shouldBe events
+    deltaPublisher.shutdown().await
+  }
+
+  test("should fail the subscriptions of a pooled connection which is dropped and not reconnected") {
+    val client = RedisClient.create()
+    client.setOptions(ClientOptions.builder().autoReconnect(false).build())
+    val eventName = uniqueEventName()
+    val event1    = makeEventForPrefixAndKeyName(prefix, eventName, 1)
+
+    val subscriber = makeSubscriber(multiplexingSettings, client)
+
+    try {
+      val (subscription, doneF) = subscriber.subscribe(Set(event1.eventKey)).toMat(Sink.ignore)(Keep.both).run()
+      subscription.ready().await
+
+      killPubSubConnections().await
+
+      a[RedisOperationFailed] shouldBe thrownBy doneF.await
+    } finally {
+      subscriber.shutdown().await
+      client.shutdown()
+    }
+  }
+}
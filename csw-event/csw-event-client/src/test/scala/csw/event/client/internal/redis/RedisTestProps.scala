@@ -9,7 +9,10 @@ import csw.event.api.javadsl.{IEventPublisher, IEventService, IEventSubscriber}
 import csw.event.api.scaladsl._
 import csw.event.client.EventServiceFactory
 import csw.event.client.helpers.TestFutureExt.RichFuture
+import csw.event.client.internal.commons.Settings
 import csw.event.client.internal.commons.javawrappers.JEventService
+import csw.event.client.internal.commons.serviceresolver.EventServiceLocationResolver
+import csw.event.client.internal.redisstreams.RedisStreamsEventService
 import csw.event.client.internal.wiring.BaseProperties
 import csw.event.client.internal.wiring.BaseProperties.createInfra
 import csw.event.client.models.EventStores.RedisStore
@@ -18,7 +21,7 @@ import csw.location.server.http.HTTPLocationServiceOnPorts
 import csw.network.utils.SocketUtils.getFreePort
 import io.lettuce.core.api.async.RedisAsyncCommands
 import io.lettuce.core.codec.StringCodec
-import io.lettuce.core.{ClientOptions, RedisClient, RedisURI}
+import io.lettuce.core.{ClientOptions, KillArgs, RedisClient, RedisURI}
 import redis.embedded.{RedisSentinel, RedisServer}
 
 import scala.compat.java8.FutureConverters.CompletionStageOps
@@ -54,6 +57,25 @@ class RedisTestProps(
 
   override def toString: String = name
 
+  def makePublisher(settings: Settings): RedisPublisher = new RedisPublisher(Future.successful(redisURI), redisClient, settings)
+
+  def makeSubscriber(settings: Settings, client: RedisClient = redisClient): RedisSubscriber =
+    new RedisSubscriber(Future.successful(redisURI), client, settings)
+
+  def makeStreamsEventService(settings: Settings): RedisStreamsEventService =
+    new RedisStreamsEventService(new EventServiceLocationResolver(locationService), settings, redisClient)
+
+  def makeEventService(factory: EventServiceFactory): EventService = factory.make(locationService)
+
+  // major version of the redis server, streams need redis 5 or later
+  def redisMajorVersion(): Future[Int] =
+    asyncConnection.flatMap(c ⇒ c.info("server").toScala).map { info ⇒
+      info.split("\r?\n").collectFirst { case line if line.startsWith("redis_version:") ⇒ line.split("[:.]")(1).trim.toInt }.get
+    }
+
+  def killPubSubConnections(): Future[Done] =
+    asyncConnection.flatMap(c ⇒ c.clientKill(KillArgs.Builder.typePubsub()).toScala.map(_ ⇒ Done))
+
   override lazy val jPublisher: IEventPublisher = jEventService.defaultPublisher
 
   override lazy val jSubscriber: IEventSubscriber = jEventService.defaultSubscriber
@@ -0,0 +1,128 @@
+package csw.event.client.internal.redisstreams
+
+import akka.stream.scaladsl.{Keep, Sink}
+import com.typesafe.config.ConfigFactory
+import csw.event.api.javadsl.IEventHistory
+import csw.event.api.scaladsl.EventHistory
+import csw.event.client.EventServiceFactory
+import csw.event.client.helpers.TestFutureExt.RichFuture
+import csw.event.client.helpers.Utils.{makeEventForPrefixAndKeyName, prefix}
+import csw.event.client.internal.commons.{EventServiceAdapter, Settings}
+import csw.event.client.internal.local.{LocalDeliveryEventService, LocalEventHub}
+import csw.event.client.internal.redis.RedisTestProps
+import csw.event.client.models.EventStores.RedisStreamsStore
+import csw.params.core.models.Subsystem
+import csw.params.events.{Event, EventName}
+import org.scalatest.{BeforeAndAfterAll, FunSuite, Matchers}
+
+import scala.collection.JavaConverters.asScalaBufferConverter
+import scala.util.Random
+
+// streams need redis 5 or later, the tests are cancelled when the embedded redis server is older
+class RedisStreamsEventServiceTest extends FunSuite with Matchers with BeforeAndAfterAll {
+
+  private val redisTestProps: RedisTestProps = RedisTestProps.createRedisProperties()
+  import redisTestProps._
+
+  private val streamsSettings = new Settings(
+    ConfigFactory
+      .parseString("csw-event.redis-streams { block = 100ms, pattern-rescan-interval = 200ms }")
+      .withFallback(actorSystem.settings.config)
+  )
+
+  private lazy val streamsEventService = makeStreamsEventService(streamsSettings)
+  private lazy val streamsPublisher    = streamsEventService.makeNewPublisher()
+  private lazy val streamsSubscriber   = streamsEventService.makeNewSubscriber()
+
+  override def beforeAll(): Unit = redisTestProps.start()
+
+  override def afterAll(): Unit = {
+    streamsPublisher.shutdown().await
+    redisTestProps.shutdown()
+  }
+
+  private def assumeStreams(): Unit = assume(redisMajorVersion().await >= 5, "redis streams need redis 5 or later")
+
+  private def uniqueEventName(): EventName = EventName(s"streams_${Random.nextInt().abs}")
+
+  test("should get the latest event published on a key") {
+    assumeStreams()
+    val eventName = uniqueEventName()
+    val event1    = makeEventForPrefixAndKeyName(prefix, eventName, 1)
+    val event2    = makeEventForPrefixAndKeyName(prefix, eventName, 2)
+
+    streamsSubscriber.get(event1.eventKey).await shouldBe Event.invalidEvent(event1.eventKey)
+
+    streamsPublisher.publish(event1).await
+    streamsPublisher.publish(event2).await
+
+    streamsSubscriber.get(event1.eventKey).await shouldBe event2
+    streamsSubscriber.history(event1.eventKey, 10).await shouldBe List(event1, event2)
+  }
+
+  test("should fetch the history of a key through the subscribers wrapping the subscriber of the store") {
+    assumeStreams()
+    val eventName = uniqueEventName()
+    val events    = (1 to 3).map(makeEventForPrefixAndKeyName(prefix, eventName, _))
+    val eventKey  = events.head.eventKey
+    events.foreach(streamsPublisher.publish(_).await)
+
+    val nearCachedService = makeEventService(new EventServiceFactory(RedisStreamsStore(redisClient)).withNearCache(10))
+    val localDeliveryService = new LocalDeliveryEventService(
+      nearCachedService,
+      new LocalEventHub,
+      bufferSize = 16,
+      dedupWindow = 16,
+      alignedTicks = false,
+      asyncCallbackParallelism = 1
+    )
+
+    List(nearCachedService, localDeliveryService).foreach { service ⇒
+      service.makeNewSubscriber() match {
+        case subscriber: EventHistory ⇒ subscriber.history(eventKey, 2).await shouldBe events.tail
+        case subscriber               ⇒ fail(s"$subscriber does not serve the history of the events of a key")
+      }
+      EventServiceAdapter.asJava(service).makeNewSubscriber() match {
+        case subscriber: IEventHistory ⇒ subscriber.history(eventKey, 2).get().asScala shouldBe events.tail
+        case subscriber                ⇒ fail(s"$subscriber does not serve the history of the events of a key")
+      }
+    }
+  }
+
+  test("should deliver the latest event and then every event published on a key") {
+    assumeStreams()
+    val eventName = uniqueEventName()
+    val event1    = makeEventForPrefixAndKeyName(prefix, eventName, 1)
+    val event2    = makeEventForPrefixAndKeyName(prefix, eventName, 2)
+    val event3    = makeEventForPrefixAndKeyName(prefix, eventName, 3)
+
+    streamsPublisher.publish(event1).await
+
+    val (subscription, seqF) = streamsSubscriber.subscribe(Set(event1.eventKey)).take(3).toMat(Sink.seq)(Keep.both).run()
+    subscription.ready().await
+
+    streamsPublisher.publish(event2).await
+    streamsPublisher.publish(event3).await
+
+    seqF.await shouldBe Seq(event1, event2, event3)
+  }
+
+  test("should deliver the events of the streams matching a pattern, including streams created after subscribing") {
+    assumeStreams()
+    val eventName = uniqueEventName()
+    val existing  = makeEventForPrefixAndKeyName(prefix, EventName(s"${eventName.name}_existing"), 1)
+    val created   = makeEventForPrefixAndKeyName(prefix, EventName(s"${eventName.name}_created"), 2)
+
+    streamsPublisher.publish(existing).await
+
+    val (subscription, seqF) =
+      streamsSubscriber.pSubscribe(Subsystem.TEST, s"*${eventName.name}*").take(2).toMat(Sink.seq)(Keep.both).run()
+    subscription.ready().await
+
+    // the stream of the created event does not exist yet, it is found by a later lookup and read from its start
+    streamsPublisher.publish(created).await
+    streamsPublisher.publish(existing).await
+
+    seqF.await.toSet shouldBe Set(existing, created)
+  }
+}
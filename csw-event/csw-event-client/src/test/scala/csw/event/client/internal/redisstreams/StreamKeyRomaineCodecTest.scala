@@ -0,0 +1,21 @@
+package csw.event.client.internal.redisstreams
+
+import csw.params.events.EventKey
+import org.scalatest.{FunSuite, Matchers}
+
+class StreamKeyRomaineCodecTest extends FunSuite with Matchers {
+
+  private val eventKey = EventKey("wfos.blue.filter.filterwheel")
+
+  test("should prefix the key of a stream so that it does not clash with the keys of the pub/sub event store") {
+    StreamKeyRomaineCodec.toString(eventKey) shouldBe "stream:wfos.blue.filter.filterwheel"
+  }
+
+  test("should strip the prefix when decoding the key of a stream") {
+    StreamKeyRomaineCodec.fromString(StreamKeyRomaineCodec.toString(eventKey)) shouldBe eventKey
+  }
+
+  test("should decode keys of a pattern subscription found by SCAN including their prefix") {
+    StreamKeyRomaineCodec.fromString("stream:wfos.blue.filter.*") shouldBe EventKey("wfos.blue.filter.*")
+  }
+}
@@ -0,0 +1,128 @@
+package csw.event.client.pb
+
+import java.nio.ByteBuffer
+import java.util.concurrent.ConcurrentLinkedQueue
+
+import csw.params.core.generics.KeyType._
+import csw.params.core.generics.LazyParameterSet
+import csw.params.core.models.Units.meter
+import csw.params.core.models._
+import csw.params.events._
+import org.scalatest.{FunSpec, Matchers}
+
+import scala.collection.JavaConverters.iterableAsScalaIterableConverter
+
+class PbDeltaCodecTest extends FunSpec with Matchers {
+
+  private val prefix    = Prefix("wfos.blue.wfs")
+  private val eventName = EventName("slopes")
+
+  private val slopesKey    = DoubleArrayKey.make("slopes")
+  private val positionsKey = FloatMatrixKey.make("positions")
+  private val countsKey    = IntArrayKey.make("counts")
+  private val modeKey      = StringKey.make("mode")
+
+  // consecutive events whose arrays differ by a few values only
+  private def event(sample: Int, size: Int = 1000): SystemEvent = {
+    val slopes    = Array.tabulate(size)(i ⇒ if (i % 100 == 0) i * 0.5 + sample else i * 0.5)
+    val positions = Array.tabulate(4, 4)((row, col) ⇒ if (row == 0 && col == 0) sample.toFloat else (row * 4 + col).toFloat)
+    SystemEvent(prefix, eventName).madd(
+      slopesKey.set(ArrayData.fromJavaArray(slopes)).withUnits(meter),
+      positionsKey.set(MatrixData.fromArrays(positions)),
+      countsKey.set(ArrayData.fromArray(sample, -sample), ArrayData.fromArray(Int.MinValue, sample)),
+      modeKey.set(s"sample-$sample")
+    )
+  }
+
+  describe("PbDeltaCodec") {
+
+    it("should decode delta encoded events as they were before encoding") {
+      val encoder = new PbDeltaCodec.Encoder(5)
+      val decoder = new PbDeltaCodec.Decoder
+      val events  = (1 to 12).map(event(_))
+
+      events.map(e ⇒ decoder.decode(ByteBuffer.wrap(encoder.encode(e)))) shouldBe events.map(Some(_))
+    }
+
+    it("should write the events between two keyframes much smaller than the events written in full") {
+      val encoder = new PbDeltaCodec.Encoder(10)
+      val sizes   = (1 to 3).map(sample ⇒ encoder.encode(event(sample)).length)
+
+      sizes(1) should be < sizes(0) / 10
+      sizes(2) should be < sizes(0) / 10
+    }
+
+    it("should only tell delta encoded events apart from the events written in full") {
+      val encoder = new PbDeltaCodec.Encoder(10)
+
+      PbDeltaCodec.isDeltaEncoded(ByteBuffer.wrap(encoder.encode(event(1)))) shouldBe true
+      PbDeltaCodec.isDeltaEncoded(ByteBuffer.wrap(encoder.encode(event(2)))) shouldBe true
+      PbDeltaCodec.isDeltaEncoded(ByteBuffer.wrap(PbConverter.toPbEvent(event(1)).toByteArray)) shouldBe false
+    }
+
+    it("should not decode the events whose base was missed until the next keyframe") {
+      val encoder = new PbDeltaCodec.Encoder(3)
+      val decoder = new PbDeltaCodec.Decoder
+      val events  = (1 to 5).map(event(_))
+      val encoded = events.map(encoder.encode)
+
+      decoder.decode(ByteBuffer.wrap(encoded(1))) shouldBe None
+      decoder.decode(ByteBuffer.wrap(encoded(2))) shouldBe None
+      decoder.decode(ByteBuffer.wrap(encoded(3))) shouldBe Some(events(3))
+      decoder.decode(ByteBuffer.wrap(encoded(4))) shouldBe Some(events(4))
+    }
+
+    it("should not rebuild the events of a key from the events of the same key encoded by another encoder") {
+      val encoder1 = new PbDeltaCodec.Encoder(10)
+      val encoder2 = new PbDeltaCodec.Encoder(10)
+      val decoder  = new PbDeltaCodec.Decoder
+      val events   = (1 to 4).map(event(_))
+
+      decoder.decode(ByteBuffer.wrap(encoder1.encode(events(0)))) shouldBe Some(events(0))
+      encoder2.encode(events(1))
+      decoder.decode(ByteBuffer.wrap(encoder2.encode(events(2)))) shouldBe None
+      decoder.decode(ByteBuffer.wrap(encoder1.encode(events(3)))) shouldBe Some(events(3))
+    }
+
+    it("should decode an event received twice in a row once") {
+      val encoder = new PbDeltaCodec.Encoder(10)
+      val decoder = new PbDeltaCodec.Decoder
+      val event2  = event(2)
+      decoder.decode(ByteBuffer.wrap(encoder.encode(event(1))))
+      val encoded = encoder.encode(event2)
+
+      val decoded = decoder.decode(ByteBuffer.wrap(encoded))
+      decoded shouldBe Some(event2)
+      decoder.decode(ByteBuffer.wrap(encoded)).get should be theSameInstanceAs decoded.get
+    }
+
+    it("should write the arrays whose shape changed in full") {
+      val encoder = new PbDeltaCodec.Encoder(10)
+      val decoder = new PbDeltaCodec.Decoder
+      val events  = Seq(event(1, size = 1000), event(2, size = 500), event(3, size = 500))
+
+      events.map(e ⇒ decoder.decode(ByteBuffer.wrap(encoder.encode(e)))) shouldBe events.map(Some(_))
+    }
+
+    it("should decode keyframes with the given decoding, leaving the parameters of a lazily decoded event undecoded") {
+      val encoder = new PbDeltaCodec.Encoder(3)
+      val decoder = new PbDeltaCodec.Decoder(PbEventDecoder.decodeLazily)
+      val events  = (1 to 3).map(event(_))
+
+      val keyframe = decoder.decode(ByteBuffer.wrap(encoder.encode(events(0)))).get
+      keyframe.paramSet shouldBe a[LazyParameterSet]
+      (1 to 2).map(i ⇒ decoder.decode(ByteBuffer.wrap(encoder.encode(events(i))))) shouldBe events.tail.map(Some(_))
+      keyframe shouldBe events(0)
+    }
+
+    it("should send the events of a key encoded by concurrent callers in the order they are encoded") {
+      val encoder = new PbDeltaCodec.Encoder(50)
+      val decoder = new PbDeltaCodec.Decoder
+      val sent    = new ConcurrentLinkedQueue[Array[Byte]]()
+
+      (1 to 200).par.foreach(sample ⇒ encoder.encodeAll(List(event(sample), event(-sample)))(_.foreach(sent.add)))
+
+      sent.asScala.map(bytes ⇒ decoder.decode(ByteBuffer.wrap(bytes))).toList should not contain None
+    }
+  }
+}
@@ -0,0 +1,109 @@
+package csw.event.client.pb
+
+import java.nio.ByteBuffer
+import java.time.Instant
+
+import csw.params.core.generics.KeyType._
+import csw.params.core.generics.{LazyParameterSet, Parameter}
+import csw.params.core.models.Units.{arcmin, joule, meter}
+import csw.params.core.models._
+import csw.params.events._
+import csw_protobuf.events.PbEvent
+import org.scalatest.{FunSpec, Matchers}
+
+class PbEventDecoderTest extends FunSpec with Matchers {
+
+  private val prefix    = Prefix("wfos.blue.filter")
+  private val eventName = EventName("filter wheel")
+
+  private val choice = Choice("Jupiter")
+  private val struct = Struct().madd(StringKey.make("ra").set("12:13:14.1"), DoubleKey.make("epoch").set(1950.0))
+
+  private val params: Set[Parameter[_]] = Set(
+    ChoiceKey.make("choiceKey", choice, Choice("Saturn")).set(choice).withUnits(arcmin),
+    RaDecKey.make("raDecKey").set(RaDec(7.3, 12.1), RaDec(9.1, 2.9)),
+    StructKey.make("structKey").set(struct).withUnits(joule),
+    TimestampKey.make("timestampKey").set(Instant.ofEpochSecond(1552000000, 123456789)),
+    StringKey.make("stringKey").set("a", "", "c"),
+    BooleanKey.make("booleanKey").set(true, false),
+    CharKey.make("charKey").set('a', 'b'),
+    ByteKey.make("byteKey").set(Array[Byte](1, -2, 3)),
+    ShortKey.make("shortKey").set(Array[Short](1, -2)),
+    IntKey.make("intKey").set(1, -2, Int.MaxValue).withUnits(meter),
+    LongKey.make("longKey").set(1L, Long.MinValue),
+    FloatKey.make("floatKey").set(1.5f, -2.5f),
+    DoubleKey.make("doubleKey").set(1.5, Double.MaxValue),
+    ByteArrayKey.make("byteArrayKey").set(ArrayData.fromArray[Byte](1, 2), ArrayData.fromArray[Byte](3)),
+    ShortArrayKey.make("shortArrayKey").set(ArrayData.fromArray[Short](1, 2)),
+    IntArrayKey.make("intArrayKey").set(ArrayData.fromArray(1, 2, 3)),
+    LongArrayKey.make("longArrayKey").set(ArrayData.fromArray(1L, 2L)),
+    FloatArrayKey.make("floatArrayKey").set(ArrayData.fromArray(1f, 2f)),
+    DoubleArrayKey.make("doubleArrayKey").set(ArrayData.fromArray(1.0, 2.0)),
+    ByteMatrixKey.make("byteMatrixKey").set(MatrixData.fromArrays(Array[Byte](1, 2), Array[Byte](3, 4))),
+    ShortMatrixKey.make("shortMatrixKey").set(MatrixData.fromArrays(Array[Short](1, 2), Array[Short](3, 4))),
+    IntMatrixKey.make("intMatrixKey").set(MatrixData.fromArrays(Array(1, 2), Array(3, 4))),
+    LongMatrixKey.make("longMatrixKey").set(MatrixData.fromArrays(Array(1L, 2L), Array(3L, 4L))),
+    FloatMatrixKey.make("floatMatrixKey").set(MatrixData.fromArrays(Array(1f, 2f), Array(3f, 4f))),
+    DoubleMatrixKey.make("doubleMatrixKey").set(MatrixData.fromArrays(Array(1.0, 2.0), Array(3.0, 4.0)))
+  )
+
+  describe("PbEventDecoder") {
+
+    it("should decode a SystemEvent with parameters of all the key types") {
+      val systemEvent = SystemEvent(prefix, eventName).madd(params)
+      val bytes       = PbConverter.toPbEvent(systemEvent).toByteArray
+
+      PbEventDecoder.decode(bytes) shouldBe systemEvent
+      PbEventDecoder.decode(bytes) shouldBe PbConverter.fromPbEvent[SystemEvent](PbEvent.parseFrom(bytes))
+    }
+
+    it("should decode an ObserveEvent from a direct buffer") {
+      val observeEvent = ObserveEvent(prefix, eventName).madd(params)
+      val bytes        = PbConverter.toPbEvent(observeEvent).toByteArray
+      val byteBuffer   = ByteBuffer.allocateDirect(bytes.length).put(bytes)
+      byteBuffer.flip()
+
+      PbEventDecoder.decode(byteBuffer) shouldBe observeEvent
+    }
+
+    it("should decode an event without parameters") {
+      val systemEvent = SystemEvent(prefix, eventName)
+
+      PbEventDecoder.decode(PbConverter.toPbEvent(systemEvent).toByteArray) shouldBe systemEvent
+    }
+
+    it("should decode an event lazily, decoding a parameter only when it is looked up") {
+      val systemEvent = SystemEvent(prefix, eventName).madd(params)
+      val lazyEvent   = PbEventDecoder.decodeLazily(PbConverter.toPbEvent(systemEvent).toByteArray).asInstanceOf[SystemEvent]
+
+      lazyEvent.paramSet shouldBe a[LazyParameterSet]
+      lazyEvent.size shouldBe params.size
+      lazyEvent.exists(IntKey.make("intKey")) shouldBe true
+      lazyEvent.get(IntKey.make("intKey")) shouldBe systemEvent.get(IntKey.make("intKey"))
+      lazyEvent.get(StructKey.make("structKey")) shouldBe systemEvent.get(StructKey.make("structKey"))
+      lazyEvent.get(IntKey.make("structKey")) shouldBe None
+      lazyEvent.get(IntKey.make("missingKey")) shouldBe None
+
+      lazyEvent shouldBe systemEvent
+      lazyEvent.remove(IntKey.make("intKey")).paramSet shouldBe systemEvent.remove(IntKey.make("intKey")).paramSet
+    }
+
+    it("should read the byte and float arrays of a lazily decoded event in place from its bytes") {
+      val bytesKey    = ByteArrayKey.make("byteArrayKey")
+      val floatsKey   = FloatArrayKey.make("floatArrayKey")
+      val systemEvent = SystemEvent(prefix, eventName).madd(params)
+      val lazyEvent   = PbEventDecoder.decodeLazily(PbConverter.toPbEvent(systemEvent).toByteArray)
+
+      lazyEvent(bytesKey).head.data shouldBe a[ByteBufferArray[_]]
+      lazyEvent(floatsKey).head.data shouldBe a[ByteBufferArray[_]]
+      lazyEvent(bytesKey) shouldBe systemEvent(bytesKey)
+      lazyEvent(floatsKey) shouldBe systemEvent(floatsKey)
+      lazyEvent(floatsKey).head.values shouldBe Array(1f, 2f)
+      PbEventDecoder.decode(PbConverter.toPbEvent(lazyEvent).toByteArray) shouldBe systemEvent
+    }
+
+    it("should fail to decode bytes which are not an event") {
+      an[Exception] shouldBe thrownBy(PbEventDecoder.decode(Array[Byte](1, 2, 3)))
+    }
+  }
+}
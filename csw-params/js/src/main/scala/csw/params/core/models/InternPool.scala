@@ -0,0 +1,18 @@
+package csw.params.core.models
+
+/**
+ * Pool of canonical instances by key. Weak references are not available in Scala.js, so instances are not pooled and every
+ * lookup creates a new instance.
+ *
+ * @tparam K the key of an instance
+ * @tparam V the type of the instances
+ */
+private[params] final class InternPool[K <: AnyRef, V <: AnyRef] {
+
+  /**
+   * @param key the key of the instance
+   * @param create creates the instance of the given key
+   * @return a new instance of the given key
+   */
+  def intern(key: K)(create: K ⇒ V): V = create(key)
+}
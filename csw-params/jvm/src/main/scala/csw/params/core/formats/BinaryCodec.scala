@@ -0,0 +1,524 @@
+package csw.params.core.formats
+
+import java.nio.{BufferUnderflowException, ByteBuffer}
+import java.nio.charset.StandardCharsets.UTF_8
+import java.time.Instant
+import java.util
+
+import csw.params.commands.CommandIssue._
+import csw.params.commands.CommandResponse._
+import csw.params.commands._
+import csw.params.core.generics.KeyType._
+import csw.params.core.generics.{KeyType, Parameter}
+import csw.params.core.models._
+import csw.params.core.states.{CurrentState, StateName}
+import play.api.libs.json.Format
+
+import scala.reflect.ClassTag
+
+/**
+ * Writes and reads control commands, submit responses, current states and parameters to and from a compact binary form.
+ *
+ * Unlike a generic serializer, no class names are written: key types, command kinds, responses and issues are written
+ * as one byte tags, and the values of parameters as the fixed width big-endian primitives, length prefixed UTF-8
+ * strings and nested parameter sets their key type implies. The arrays and matrices of primitives are written and read
+ * in bulk, without boxing their values.
+ *
+ * The tags are part of the binary form: new key types, commands, responses and issues get new tags, existing tags are
+ * never reused.
+ */
+object BinaryCodec extends MiscJsonFormats {
+
+  private type ParameterFactory = (String, Units) ⇒ Parameter[_]
+
+  // the index of a key type in this list is its tag, new key types are appended
+  private val keyTypes: Array[KeyType[_]] = Array(
+    ChoiceKey,
+    RaDecKey,
+    StringKey,
+    StructKey,
+    TimestampKey,
+    BooleanKey,
+    CharKey,
+    ByteKey,
+    ShortKey,
+    LongKey,
+    IntKey,
+    FloatKey,
+    DoubleKey,
+    ByteArrayKey,
+    ShortArrayKey,
+    LongArrayKey,
+    IntArrayKey,
+    FloatArrayKey,
+    DoubleArrayKey,
+    ByteMatrixKey,
+    ShortMatrixKey,
+    LongMatrixKey,
+    IntMatrixKey,
+    FloatMatrixKey,
+    DoubleMatrixKey
+  )
+
+  // the key types of the java API are equal to, but not the same instances as, the scala ones
+  private val keyTypeTags: Map[String, Byte] =
+    keyTypes.zipWithIndex.map { case (keyType, tag) ⇒ keyType.entryName → tag.toByte }.toMap
+
+  // the index of an issue in this list is its tag, new issues are appended
+  private val issues: Array[String ⇒ CommandIssue] = Array(
+    MissingKeyIssue,
+    WrongPrefixIssue,
+    WrongParameterTypeIssue,
+    WrongUnitsIssue,
+    WrongNumberOfParametersIssue,
+    AssemblyBusyIssue,
+    UnresolvedLocationsIssue,
+    ParameterValueOutOfRangeIssue,
+    WrongInternalStateIssue,
+    UnsupportedCommandInStateIssue,
+    UnsupportedCommandIssue,
+    RequiredServiceUnavailableIssue,
+    RequiredHCDUnavailableIssue,
+    RequiredAssemblyUnavailableIssue,
+    RequiredSequencerUnavailableIssue,
+    OtherIssue
+  )
+
+  /**
+   * Writes a control command
+   *
+   * @param command a Setup or an Observe
+   * @return the binary form of the command
+   */
+  def writeCommand(command: ControlCommand): Array[Byte] = write { out ⇒
+    out.putByte(command match {
+      case _: Setup   ⇒ 0
+      case _: Observe ⇒ 1
+    })
+    out.putString(command.runId.id)
+    out.putString(command.source.prefix)
+    out.putString(command.commandName.name)
+    command.maybeObsId match {
+      case Some(obsId) ⇒ out.putByte(1); out.putString(obsId.obsId)
+      case None        ⇒ out.putByte(0)
+    }
+    writeParamSet(out, command.paramSet)
+  }
+
+  /**
+   * Writes a submit response
+   *
+   * @param response any instance of SubmitResponse
+   * @return the binary form of the response
+   */
+  def writeSubmitResponse(response: SubmitResponse): Array[Byte] = write { out ⇒
+    def tagged(tag: Int): Unit = {
+      out.putByte(tag)
+      out.putString(response.runId.id)
+    }
+
+    response match {
+      case Started(_)   ⇒ tagged(0)
+      case Completed(_) ⇒ tagged(1)
+      case CompletedWithResult(_, result) ⇒
+        tagged(2)
+        out.putString(result.prefix.prefix)
+        writeParamSet(out, result.paramSet)
+      case Invalid(_, issue) ⇒
+        tagged(3)
+        out.putByte(issueTag(issue))
+        out.putString(issue.reason)
+      case Error(_, message) ⇒
+        tagged(4)
+        out.putString(message)
+      case Cancelled(_) ⇒ tagged(5)
+      case Locked(_)    ⇒ tagged(6)
+    }
+  }
+
+  /**
+   * Writes a current state
+   *
+   * @param currentState the current state to write
+   * @return the binary form of the current state
+   */
+  def writeCurrentState(currentState: CurrentState): Array[Byte] = write { out ⇒
+    out.putString(currentState.prefix.prefix)
+    out.putString(currentState.stateName.name)
+    writeParamSet(out, currentState.paramSet)
+  }
+
+  /**
+   * Writes a parameter
+   *
+   * @param parameter a parameter of any key type
+   * @return the binary form of the parameter
+   */
+  def writeParameter(parameter: Parameter[_]): Array[Byte] = write(writeParameter(_, parameter))
+
+  /**
+   * Reads a control command
+   *
+   * @param bytes the binary form written by `writeCommand`
+   * @tparam A the type of the command, a ControlCommand or one of its subtypes
+   * @return the command, or an exception if the bytes are not the binary form of a command
+   */
+  def readCommand[A <: ControlCommand](bytes: Array[Byte]): A = read(bytes) { in ⇒
+    val tag         = in.get()
+    val runId       = Id(readString(in))
+    val source      = Prefix(readString(in))
+    val commandName = CommandName(readString(in))
+    val maybeObsId  = if (in.get() == 1) Some(ObsId(readString(in))) else None
+    val paramSet    = readParamSet(in)
+    tag match {
+      case 0 ⇒ Setup(runId, source, commandName, maybeObsId, paramSet)
+      case 1 ⇒ Observe(runId, source, commandName, maybeObsId, paramSet)
+      case _ ⇒ throw new IllegalArgumentException(s"unknown command tag $tag")
+    }
+  }.asInstanceOf[A]
+
+  /**
+   * Reads a submit response
+   *
+   * @param bytes the binary form written by `writeSubmitResponse`
+   * @tparam A the type of the response, a SubmitResponse or one of its subtypes
+   * @return the response, or an exception if the bytes are not the binary form of a submit response
+   */
+  def readSubmitResponse[A <: SubmitResponse](bytes: Array[Byte]): A = read(bytes) { in ⇒
+    val tag   = in.get()
+    val runId = Id(readString(in))
+    tag match {
+      case 0 ⇒ Started(runId)
+      case 1 ⇒ Completed(runId)
+      case 2 ⇒
+        val prefix = Prefix(readString(in))
+        CompletedWithResult(runId, Result(prefix, readParamSet(in)))
+      case 3 ⇒
+        val issueTag = in.get()
+        require(issueTag >= 0 && issueTag < issues.length, s"unknown issue tag $issueTag")
+        Invalid(runId, issues(issueTag)(readString(in)))
+      case 4 ⇒ Error(runId, readString(in))
+      case 5 ⇒ Cancelled(runId)
+      case 6 ⇒ Locked(runId)
+      case _ ⇒ throw new IllegalArgumentException(s"unknown submit response tag $tag")
+    }
+  }.asInstanceOf[A]
+
+  /**
+   * Reads a current state
+   *
+   * @param bytes the binary form written by `writeCurrentState`
+   * @return the current state, or an exception if the bytes are not the binary form of a current state
+   */
+  def readCurrentState(bytes: Array[Byte]): CurrentState = read(bytes) { in ⇒
+    val prefix    = Prefix(readString(in))
+    val stateName = StateName(readString(in))
+    CurrentState(prefix, stateName, readParamSet(in))
+  }
+
+  /**
+   * Reads a parameter
+   *
+   * @param bytes the binary form written by `writeParameter`
+   * @return the parameter, with the key type of the scala API, or an exception if the bytes are not the binary form of a
+   *         parameter
+   */
+  def readParameter(bytes: Array[Byte]): Parameter[_] = read(bytes)(parseParameter)
+
+  /////////////////////////// writing ///////////////////////////
+
+  private def write(writeValue: Output ⇒ Unit): Array[Byte] = {
+    val out = new Output
+    writeValue(out)
+    out.toByteArray
+  }
+
+  private def issueTag(issue: CommandIssue): Int = issue match {
+    case _: MissingKeyIssue                   ⇒ 0
+    case _: WrongPrefixIssue                  ⇒ 1
+    case _: WrongParameterTypeIssue           ⇒ 2
+    case _: WrongUnitsIssue                   ⇒ 3
+    case _: WrongNumberOfParametersIssue      ⇒ 4
+    case _: AssemblyBusyIssue                 ⇒ 5
+    case _: UnresolvedLocationsIssue          ⇒ 6
+    case _: ParameterValueOutOfRangeIssue     ⇒ 7
+    case _: WrongInternalStateIssue           ⇒ 8
+    case _: UnsupportedCommandInStateIssue    ⇒ 9
+    case _: UnsupportedCommandIssue           ⇒ 10
+    case _: RequiredServiceUnavailableIssue   ⇒ 11
+    case _: RequiredHCDUnavailableIssue       ⇒ 12
+    case _: RequiredAssemblyUnavailableIssue  ⇒ 13
+    case _: RequiredSequencerUnavailableIssue ⇒ 14
+    case _: OtherIssue                        ⇒ 15
+  }
+
+  private def writeParamSet(out: Output, paramSet: Set[Parameter[_]]): Unit = {
+    out.putVarInt(paramSet.size)
+    paramSet.foreach(writeParameter(out, _))
+  }
+
+  private def writeParameter(out: Output, parameter: Parameter[_]): Unit = {
+    out.putString(parameter.keyName)
+    out.putByte(keyTypeTags(parameter.keyType.entryName))
+    out.putString(parameter.units.entryName)
+    out.putVarInt(parameter.items.length)
+    writeArray(out, parameter.items.array, 0, parameter.items.length)
+  }
+
+  // arrays of primitives are written in bulk, the arrays of Java parameters hold boxed values which are written one by one
+  private def writeArray(out: Output, array: Array[_], from: Int, until: Int): Unit = array match {
+    case xs: Array[Byte]   ⇒ out.ensure(until - from).put(xs, from, until - from)
+    case xs: Array[Short]  ⇒ out.putShorts(xs, from, until)
+    case xs: Array[Int]    ⇒ out.putInts(xs, from, until)
+    case xs: Array[Long]   ⇒ out.putLongs(xs, from, until)
+    case xs: Array[Float]  ⇒ out.putFloats(xs, from, until)
+    case xs: Array[Double] ⇒ out.putDoubles(xs, from, until)
+    case xs ⇒
+      var i = from
+      while (i < until) { writeValue(out, xs(i)); i += 1 }
+  }
+
+  private def writeValue(out: Output, value: Any): Unit = value match {
+    case x: String  ⇒ out.putString(x)
+    case x: Int     ⇒ out.ensure(4).putInt(x)
+    case x: Long    ⇒ out.ensure(8).putLong(x)
+    case x: Short   ⇒ out.ensure(2).putShort(x)
+    case x: Byte    ⇒ out.ensure(1).put(x)
+    case x: Float   ⇒ out.ensure(4).putFloat(x)
+    case x: Double  ⇒ out.ensure(8).putDouble(x)
+    case x: Boolean ⇒ out.putByte(if (x) 1 else 0)
+    case x: Char    ⇒ out.ensure(2).putChar(x)
+    case x: Instant ⇒
+      out.ensure(8).putLong(x.getEpochSecond)
+      out.putVarInt(x.getNano)
+    case x: Choice ⇒ out.putString(x.name)
+    case x: RaDec  ⇒ out.ensure(16).putDouble(x.ra).putDouble(x.dec)
+    case x: Struct ⇒ writeParamSet(out, x.paramSet)
+    case x: ArrayData[_] ⇒
+      out.putVarInt(x.data.length)
+      writeArray(out, x.data.array, 0, x.data.length)
+    case x: MatrixData[_] ⇒
+      out.putVarInt(x.rows)
+      out.putVarInt(x.cols)
+      writeArray(out, x.flatValues, 0, x.rows * x.cols)
+    case x ⇒ throw new IllegalArgumentException(s"no binary representation for values of ${x.getClass}")
+  }
+
+  // a heap buffer which doubles its capacity whenever the next value does not fit in it
+  private final class Output {
+    private var buffer = ByteBuffer.allocate(256)
+
+    def ensure(bytes: Int): ByteBuffer = {
+      if (buffer.remaining() < bytes) {
+        val grown = ByteBuffer.allocate(math.max(buffer.capacity() * 2, buffer.position() + bytes))
+        buffer.flip()
+        grown.put(buffer)
+        buffer = grown
+      }
+      buffer
+    }
+
+    def putByte(x: Int): Unit = ensure(1).put(x.toByte)
+
+    // unsigned LEB128, seven bits at a time starting with the lowest ones
+    def putVarInt(x: Int): Unit = {
+      ensure(5)
+      var rest = x
+      while ((rest & ~0x7F) != 0) {
+        buffer.put(((rest & 0x7F) | 0x80).toByte)
+        rest >>>= 7
+      }
+      buffer.put(rest.toByte)
+    }
+
+    def putString(x: String): Unit = {
+      val bytes = x.getBytes(UTF_8)
+      putVarInt(bytes.length)
+      ensure(bytes.length).put(bytes)
+    }
+
+    def putShorts(xs: Array[Short], from: Int, until: Int): Unit = {
+      ensure((until - from) * 2).asShortBuffer().put(xs, from, until - from)
+      skip((until - from) * 2)
+    }
+
+    def putInts(xs: Array[Int], from: Int, until: Int): Unit = {
+      ensure((until - from) * 4).asIntBuffer().put(xs, from, until - from)
+      skip((until - from) * 4)
+    }
+
+    def putLongs(xs: Array[Long], from: Int, until: Int): Unit = {
+      ensure((until - from) * 8).asLongBuffer().put(xs, from, until - from)
+      skip((until - from) * 8)
+    }
+
+    def putFloats(xs: Array[Float], from: Int, until: Int): Unit = {
+      ensure((until - from) * 4).asFloatBuffer().put(xs, from, until - from)
+      skip((until - from) * 4)
+    }
+
+    def putDoubles(xs: Array[Double], from: Int, until: Int): Unit = {
+      ensure((until - from) * 8).asDoubleBuffer().put(xs, from, until - from)
+      skip((until - from) * 8)
+    }
+
+    def toByteArray: Array[Byte] = util.Arrays.copyOf(buffer.array(), buffer.position())
+
+    // the views written through do not move the position of the buffer
+    private def skip(bytes: Int): Unit = buffer.position(buffer.position() + bytes)
+  }
+
+  /////////////////////////// reading ///////////////////////////
+
+  private def read[T](bytes: Array[Byte])(readValue: ByteBuffer ⇒ T): T = {
+    val in = ByteBuffer.wrap(bytes)
+    val value =
+      try readValue(in)
+      catch {
+        case e: BufferUnderflowException ⇒ throw new IllegalArgumentException(s"${bytes.length} bytes end before the value", e)
+      }
+    require(!in.hasRemaining, s"${in.remaining()} bytes left after reading ${value.getClass.getSimpleName}")
+    value
+  }
+
+  private def readParamSet(in: ByteBuffer): Set[Parameter[_]] = {
+    val paramSet = Set.newBuilder[Parameter[_]]
+    var count    = readCount(in, 1)
+    while (count > 0) {
+      paramSet += parseParameter(in)
+      count -= 1
+    }
+    paramSet.result()
+  }
+
+  private def parseParameter(in: ByteBuffer): Parameter[_] = {
+    val keyName = readString(in)
+    val tag     = in.get()
+    require(tag >= 0 && tag < keyTypes.length, s"unknown key type tag $tag")
+    val units = Units.withName(readString(in))
+    readValues(in, keyTypes(tag), readCount(in, 1))(keyName, units)
+  }
+
+  private def readValues(in: ByteBuffer, keyType: KeyType[_], count: Int): ParameterFactory = keyType match {
+    case ChoiceKey       ⇒ items(ChoiceKey, Array.fill(count)(Choice(readString(in))))
+    case RaDecKey        ⇒ items(RaDecKey, Array.fill(count)(RaDec(in.getDouble, in.getDouble)))
+    case StringKey       ⇒ items(StringKey, Array.fill(count)(readString(in)))
+    case StructKey       ⇒ items(StructKey, Array.fill(count)(Struct(readParamSet(in))))
+    case TimestampKey    ⇒ items(TimestampKey, Array.fill(count)(Instant.ofEpochSecond(in.getLong, readVarInt(in))))
+    case BooleanKey      ⇒ items(BooleanKey, Array.fill(count)(in.get() != 0))
+    case CharKey         ⇒ items(CharKey, readChars(in, count))
+    case ByteKey         ⇒ items(ByteKey, readBytes(in, count))
+    case ShortKey        ⇒ items(ShortKey, readShorts(in, count))
+    case IntKey          ⇒ items(IntKey, readInts(in, count))
+    case LongKey         ⇒ items(LongKey, readLongs(in, count))
+    case FloatKey        ⇒ items(FloatKey, readFloats(in, count))
+    case DoubleKey       ⇒ items(DoubleKey, readDoubles(in, count))
+    case ByteArrayKey    ⇒ items(ByteArrayKey, readArrays(in, count, 1)(readBytes))
+    case ShortArrayKey   ⇒ items(ShortArrayKey, readArrays(in, count, 2)(readShorts))
+    case IntArrayKey     ⇒ items(IntArrayKey, readArrays(in, count, 4)(readInts))
+    case LongArrayKey    ⇒ items(LongArrayKey, readArrays(in, count, 8)(readLongs))
+    case FloatArrayKey   ⇒ items(FloatArrayKey, readArrays(in, count, 4)(readFloats))
+    case DoubleArrayKey  ⇒ items(DoubleArrayKey, readArrays(in, count, 8)(readDoubles))
+    case ByteMatrixKey   ⇒ items(ByteMatrixKey, readMatrices(in, count, 1)(readBytes))
+    case ShortMatrixKey  ⇒ items(ShortMatrixKey, readMatrices(in, count, 2)(readShorts))
+    case IntMatrixKey    ⇒ items(IntMatrixKey, readMatrices(in, count, 4)(readInts))
+    case LongMatrixKey   ⇒ items(LongMatrixKey, readMatrices(in, count, 8)(readLongs))
+    case FloatMatrixKey  ⇒ items(FloatMatrixKey, readMatrices(in, count, 4)(readFloats))
+    case DoubleMatrixKey ⇒ items(DoubleMatrixKey, readMatrices(in, count, 8)(readDoubles))
+  }
+
+  private def items[S: Format: ClassTag](keyType: KeyType[S], values: Array[S]): ParameterFactory = { (name, units) ⇒
+    Parameter(name, keyType, values, units)
+  }
+
+  private def readArrays[T](in: ByteBuffer, count: Int, size: Int)(read: (ByteBuffer, Int) ⇒ Array[T]): Array[ArrayData[T]] =
+    Array.fill(count)(ArrayData.fromArray(read(in, readCount(in, size))))
+
+  private def readMatrices[T: ClassTag](in: ByteBuffer, count: Int, size: Int)(
+      read: (ByteBuffer, Int) ⇒ Array[T]
+  ): Array[MatrixData[T]] =
+    Array.fill(count) {
+      val rows = readVarInt(in)
+      val cols = readVarInt(in)
+      require(rows.toLong * cols <= in.remaining() / size, s"$rows x $cols matrix exceeds the ${in.remaining()} bytes left")
+      MatrixData.fromFlatArray(rows, cols, read(in, rows * cols))
+    }
+
+  private def readChars(in: ByteBuffer, count: Int): Array[Char] = {
+    val xs = new Array[Char](count)
+    in.asCharBuffer().get(xs)
+    skip(in, count * 2)
+    xs
+  }
+
+  private def readBytes(in: ByteBuffer, count: Int): Array[Byte] = {
+    val xs = new Array[Byte](count)
+    in.get(xs)
+    xs
+  }
+
+  private def readShorts(in: ByteBuffer, count: Int): Array[Short] = {
+    val xs = new Array[Short](count)
+    in.asShortBuffer().get(xs)
+    skip(in, count * 2)
+    xs
+  }
+
+  private def readInts(in: ByteBuffer, count: Int): Array[Int] = {
+    val xs = new Array[Int](count)
+    in.asIntBuffer().get(xs)
+    skip(in, count * 4)
+    xs
+  }
+
+  private def readLongs(in: ByteBuffer, count: Int): Array[Long] = {
+    val xs = new Array[Long](count)
+    in.asLongBuffer().get(xs)
+    skip(in, count * 8)
+    xs
+  }
+
+  private def readFloats(in: ByteBuffer, count: Int): Array[Float] = {
+    val xs = new Array[Float](count)
+    in.asFloatBuffer().get(xs)
+    skip(in, count * 4)
+    xs
+  }
+
+  private def readDoubles(in: ByteBuffer, count: Int): Array[Double] = {
+    val xs = new Array[Double](count)
+    in.asDoubleBuffer().get(xs)
+    skip(in, count * 8)
+    xs
+  }
+
+  // the views read through do not move the position of the buffer
+  private def skip(in: ByteBuffer, bytes: Int): Unit = in.position(in.position() + bytes)
+
+  // a count of values taking at least `size` bytes each, checked against the bytes left before anything is allocated for them
+  private def readCount(in: ByteBuffer, size: Int): Int = {
+    val count = readVarInt(in)
+    require(count >= 0 && count <= in.remaining() / size, s"$count values exceed the ${in.remaining()} bytes left")
+    count
+  }
+
+  private def readVarInt(in: ByteBuffer): Int = {
+    var value = 0
+    var shift = 0
+    var byte  = 0
+    do {
+      require(shift < 32, "malformed variable length int")
+      byte = in.get()
+      value |= (byte & 0x7F) << shift
+      shift += 7
+    } while ((byte & 0x80) != 0)
+    value
+  }
+
+  private def readString(in: ByteBuffer): String = {
+    val length = readCount(in, 1)
+    val string = new String(in.array(), in.arrayOffset() + in.position(), length, UTF_8)
+    skip(in, length)
+    string
+  }
+}
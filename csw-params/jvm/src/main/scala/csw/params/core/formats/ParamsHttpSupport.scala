@@ -0,0 +1,50 @@
+package csw.params.core.formats
+
+import akka.http.scaladsl.marshalling.{Marshaller, ToEntityMarshaller}
+import akka.http.scaladsl.model.{ContentTypes, HttpEntity, MediaTypes}
+import akka.http.scaladsl.unmarshalling.{FromEntityUnmarshaller, Unmarshaller}
+import csw.params.commands.Command
+import csw.params.core.states.StateVariable.StateVariable
+import csw.params.events.Event
+import play.api.libs.json.{Json, Reads, Writes}
+
+object ParamsHttpSupport extends ParamsHttpSupport
+
+/**
+ * Akka HTTP marshallers of commands, events and state variables to and from JSON entities.
+ *
+ * The JSON is written and read by [[csw.params.core.formats.StreamingJsonCodec]] unless `streamingJson` is overridden to
+ * be false, in which case the play-json formats of [[csw.params.core.formats.JsonSupport]] are used. Both codecs write
+ * the same bytes, so clients and servers can switch independently.
+ */
+trait ParamsHttpSupport {
+
+  /**
+   * Whether the entities are written and read by the streaming codec rather than by the play-json formats
+   */
+  protected def streamingJson: Boolean = true
+
+  implicit val commandMarshaller: ToEntityMarshaller[Command] =
+    marshaller(StreamingJsonCodec.writeCommand, JsonSupport.commandFormat)
+  implicit val eventMarshaller: ToEntityMarshaller[Event] =
+    marshaller(StreamingJsonCodec.writeEvent, JsonSupport.eventFormat)
+  implicit val stateVariableMarshaller: ToEntityMarshaller[StateVariable] =
+    marshaller(StreamingJsonCodec.writeStateVariable, JsonSupport.stateVariableFormat)
+
+  implicit val commandUnmarshaller: FromEntityUnmarshaller[Command] =
+    unmarshaller(StreamingJsonCodec.readCommand[Command], JsonSupport.commandFormat)
+  implicit val eventUnmarshaller: FromEntityUnmarshaller[Event] =
+    unmarshaller(StreamingJsonCodec.readEvent[Event], JsonSupport.eventFormat)
+  implicit val stateVariableUnmarshaller: FromEntityUnmarshaller[StateVariable] =
+    unmarshaller(StreamingJsonCodec.readStateVariable[StateVariable], JsonSupport.stateVariableFormat)
+
+  private def marshaller[T](write: T ⇒ Array[Byte], writes: Writes[T]): ToEntityMarshaller[T] =
+    Marshaller.withFixedContentType(ContentTypes.`application/json`) { value ⇒
+      HttpEntity(ContentTypes.`application/json`, if (streamingJson) write(value) else Json.toBytes(writes.writes(value)))
+    }
+
+  private def unmarshaller[T](read: Array[Byte] ⇒ T, reads: Reads[T]): FromEntityUnmarshaller[T] =
+    Unmarshaller.byteArrayUnmarshaller.forContentTypes(MediaTypes.`application/json`).map { bytes ⇒
+      if (streamingJson) read(bytes) else Json.parse(bytes).as[T](reads)
+    }
+}
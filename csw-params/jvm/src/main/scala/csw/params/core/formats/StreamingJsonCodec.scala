@@ -0,0 +1,488 @@
+package csw.params.core.formats
+
+import java.io.ByteArrayOutputStream
+import java.math.BigInteger
+import java.time.Instant
+
+import com.fasterxml.jackson.core.JsonToken._
+import com.fasterxml.jackson.core.{JsonEncoding, JsonFactory, JsonGenerator, JsonParser}
+import csw.params.commands._
+import csw.params.core.generics.KeyType._
+import csw.params.core.generics.{KeyType, Parameter}
+import csw.params.core.models._
+import csw.params.core.states.StateVariable.StateVariable
+import csw.params.core.states.{CurrentState, DemandState, StateName}
+import csw.params.events._
+import csw.time.core.models.UTCTime
+import play.api.libs.json._
+
+import scala.collection.mutable
+import scala.reflect.ClassTag
+import scala.util.control.NonFatal
+
+/**
+ * Writes and reads commands, events and state variables to and from the same JSON as [[csw.params.core.formats.JsonSupport]],
+ * byte for byte, without building a `JsValue` tree: values are streamed straight between the model and the bytes with
+ * the jackson generator and parser play-json itself is built upon.
+ *
+ * Input which the streaming reader does not expect, such as fields in a different order than the one written by either
+ * codec, is read again with the play-json formats, which also report the errors of invalid input.
+ */
+object StreamingJsonCodec extends MiscJsonFormats {
+
+  private type ParameterFactory = (String, Units) ⇒ Parameter[_]
+
+  private val factory = new JsonFactory()
+
+  // the bounds between which play-json writes decimals plainly rather than in scientific notation
+  private val MaxPlain: BigDecimal = 1e20
+  private val MinPlain: BigDecimal = 1e-10
+
+  private val floatWrites  = implicitly[Writes[Float]]
+  private val doubleWrites = implicitly[Writes[Double]]
+
+  /**
+   * Writes a command to JSON
+   *
+   * @param command any instance of Command
+   * @return the JSON written by `JsonSupport.writes(command)`, encoded in UTF-8
+   */
+  def writeCommand(command: Command): Array[Byte] = write { gen ⇒
+    gen.writeStartObject()
+    gen.writeStringField("type", command.typeName)
+    gen.writeStringField("runId", command.runId.id)
+    gen.writeStringField("source", command.source.prefix)
+    gen.writeStringField("commandName", command.commandName.name)
+    command.maybeObsId.foreach(obsId ⇒ gen.writeStringField("maybeObsId", obsId.obsId))
+    writeParamSet(gen, command.paramSet)
+    gen.writeEndObject()
+  }
+
+  /**
+   * Writes an event to JSON
+   *
+   * @param event any instance of Event
+   * @return the JSON written by `JsonSupport.writes(event)`, encoded in UTF-8
+   */
+  def writeEvent(event: Event): Array[Byte] = write { gen ⇒
+    gen.writeStartObject()
+    gen.writeStringField("type", event.typeName)
+    gen.writeStringField("eventId", event.eventId.id)
+    gen.writeStringField("source", event.source.prefix)
+    gen.writeStringField("eventName", event.eventName.name)
+    gen.writeStringField("eventTime", event.eventTime.value.toString)
+    writeParamSet(gen, event.paramSet)
+    gen.writeEndObject()
+  }
+
+  /**
+   * Writes a state variable to JSON
+   *
+   * @param stateVariable any instance of StateVariable
+   * @return the JSON written by `JsonSupport.writes(stateVariable)`, encoded in UTF-8
+   */
+  def writeStateVariable(stateVariable: StateVariable): Array[Byte] = write { gen ⇒
+    gen.writeStartObject()
+    gen.writeStringField("type", stateVariable.typeName)
+    gen.writeStringField("prefix", stateVariable.prefix.prefix)
+    gen.writeObjectFieldStart("stateName")
+    gen.writeStringField("name", stateVariable.stateName.name)
+    gen.writeEndObject()
+    writeParamSet(gen, stateVariable.paramSet)
+    gen.writeEndObject()
+  }
+
+  /**
+   * Reads a command back from JSON
+   *
+   * @param bytes the JSON, encoded in UTF-8
+   * @tparam A the type of the command (implied)
+   * @return an instance of the given command type, or an exception if the JSON is not valid for that type
+   */
+  def readCommand[A <: Command](bytes: Array[Byte]): A =
+    read(bytes, JsonSupport.commandFormat)(parseCommand).asInstanceOf[A]
+
+  /**
+   * Reads an event back from JSON
+   *
+   * @param bytes the JSON, encoded in UTF-8
+   * @tparam A the type of the event (use Any and match on the type if you don't know)
+   * @return an instance of the given event type, or an exception if the JSON is not valid for that type
+   */
+  def readEvent[A <: Event](bytes: Array[Byte]): A =
+    read(bytes, JsonSupport.eventFormat)(parseEvent).asInstanceOf[A]
+
+  /**
+   * Reads a state variable back from JSON
+   *
+   * @param bytes the JSON, encoded in UTF-8
+   * @tparam A the type of the state variable (implied)
+   * @return an instance of the given state variable type, or an exception if the JSON is not valid for that type
+   */
+  def readStateVariable[A <: StateVariable](bytes: Array[Byte]): A =
+    read(bytes, JsonSupport.stateVariableFormat)(parseStateVariable).asInstanceOf[A]
+
+  /////////////////////////// writing ///////////////////////////
+
+  private def write(writeValue: JsonGenerator ⇒ Unit): Array[Byte] = {
+    val out = new ByteArrayOutputStream(512)
+    val gen = factory.createGenerator(out, JsonEncoding.UTF8)
+    writeValue(gen)
+    gen.close()
+    out.toByteArray
+  }
+
+  private def writeParamSet(gen: JsonGenerator, paramSet: Set[Parameter[_]]): Unit = {
+    gen.writeArrayFieldStart("paramSet")
+    paramSet.foreach(writeParameter(gen, _))
+    gen.writeEndArray()
+  }
+
+  private def writeParameter(gen: JsonGenerator, parameter: Parameter[_]): Unit = {
+    gen.writeStartObject()
+    gen.writeStringField("keyName", parameter.keyName)
+    gen.writeStringField("keyType", parameter.keyType.entryName)
+    gen.writeArrayFieldStart("values")
+    writeItems(gen, parameter.items)
+    gen.writeEndArray()
+    gen.writeStringField("units", parameter.units.entryName)
+    gen.writeEndObject()
+  }
+
+  private def writeItems(gen: JsonGenerator, items: mutable.WrappedArray[_]): Unit = writeArray(gen, items.array, 0, items.length)
+
+  // arrays of primitives are written without boxing their values, the arrays of Java parameters hold boxed values
+  private def writeArray(gen: JsonGenerator, array: Array[_], from: Int, until: Int): Unit = {
+    var i = from
+    array match {
+      case xs: Array[Byte]   ⇒ while (i < until) { gen.writeNumber(xs(i).toInt); i += 1 }
+      case xs: Array[Short]  ⇒ while (i < until) { gen.writeNumber(xs(i)); i += 1 }
+      case xs: Array[Int]    ⇒ while (i < until) { gen.writeNumber(xs(i)); i += 1 }
+      case xs: Array[Long]   ⇒ while (i < until) { gen.writeNumber(xs(i)); i += 1 }
+      case xs: Array[Float]  ⇒ while (i < until) { writeFloat(gen, xs(i)); i += 1 }
+      case xs: Array[Double] ⇒ while (i < until) { writeDouble(gen, xs(i)); i += 1 }
+      case xs                ⇒ while (i < until) { writeValue(gen, xs(i)); i += 1 }
+    }
+  }
+
+  private def writeValue(gen: JsonGenerator, value: Any): Unit = value match {
+    case x: String        ⇒ gen.writeString(x)
+    case x: Int           ⇒ gen.writeNumber(x)
+    case x: Long          ⇒ gen.writeNumber(x)
+    case x: Short         ⇒ gen.writeNumber(x)
+    case x: Byte          ⇒ gen.writeNumber(x.toInt)
+    case x: Float         ⇒ writeFloat(gen, x)
+    case x: Double        ⇒ writeDouble(gen, x)
+    case x: Boolean       ⇒ gen.writeBoolean(x)
+    case x: Char          ⇒ gen.writeString(String.valueOf(x))
+    case x: Instant       ⇒ gen.writeString(x.toString)
+    case x: Choice        ⇒ writeObject(gen)(gen.writeStringField("name", x.name))
+    case x: RaDec         ⇒ writeObject(gen)(writeRaDec(gen, x))
+    case x: Struct        ⇒ writeObject(gen)(writeParamSet(gen, x.paramSet))
+    case x: ArrayData[_]  ⇒ writeObject(gen)(writeData(gen)(writeItems(gen, x.data)))
+    case x: MatrixData[_] ⇒ writeObject(gen)(writeData(gen)(writeMatrix(gen, x)))
+    case x                ⇒ throw new IllegalArgumentException(s"no JSON representation for values of ${x.getClass}")
+  }
+
+  private def writeObject(gen: JsonGenerator)(writeFields: ⇒ Unit): Unit = {
+    gen.writeStartObject()
+    writeFields
+    gen.writeEndObject()
+  }
+
+  private def writeData(gen: JsonGenerator)(writeValues: ⇒ Unit): Unit = {
+    gen.writeArrayFieldStart("data")
+    writeValues
+    gen.writeEndArray()
+  }
+
+  private def writeRaDec(gen: JsonGenerator, raDec: RaDec): Unit = {
+    gen.writeFieldName("ra")
+    writeDouble(gen, raDec.ra)
+    gen.writeFieldName("dec")
+    writeDouble(gen, raDec.dec)
+  }
+
+  // the values of a matrix are held row after row, and copied only for a view over part of a matrix
+  private def writeMatrix(gen: JsonGenerator, matrix: MatrixData[_]): Unit = {
+    val values = matrix.flatValues
+    var row    = 0
+    while (row < matrix.rows) {
+      gen.writeStartArray()
+      writeArray(gen, values, row * matrix.cols, (row + 1) * matrix.cols)
+      gen.writeEndArray()
+      row += 1
+    }
+  }
+
+  private def writeFloat(gen: JsonGenerator, x: Float): Unit   = writeDecimal(gen, floatWrites.writes(x).as[BigDecimal])
+  private def writeDouble(gen: JsonGenerator, x: Double): Unit = writeDecimal(gen, doubleWrites.writes(x).as[BigDecimal])
+
+  // play-json writes numbers without trailing zeros, as integers when they have no fraction and in scientific notation
+  // outside of [MinPlain, MaxPlain], which is mirrored here to write the same bytes
+  private def writeDecimal(gen: JsonGenerator, value: BigDecimal): Unit = {
+    val abs      = value.abs
+    val stripped = value.bigDecimal.stripTrailingZeros
+    val raw      = if (abs <= MaxPlain && abs >= MinPlain) stripped.toPlainString else stripped.toString
+    if (raw.indexOf('E') < 0 && raw.indexOf('.') < 0) gen.writeNumber(new BigInteger(raw))
+    else gen.writeNumber(new java.math.BigDecimal(raw))
+  }
+
+  /////////////////////////// reading ///////////////////////////
+
+  // reads the value of the leading `type` field and hands the parser, positioned at that value, to `readType`
+  private def read[T](bytes: Array[Byte], reads: Reads[T])(readType: (JsonParser, String) ⇒ T): T =
+    try {
+      val parser = factory.createParser(bytes)
+      try {
+        require(parser.nextToken() == START_OBJECT && parser.nextToken() == FIELD_NAME && parser.getCurrentName == "type")
+        parser.nextToken()
+        val value = readType(parser, readString(parser))
+        require(parser.nextToken() == null, "trailing content after the JSON object")
+        value
+      } finally parser.close()
+    } catch {
+      case NonFatal(_) ⇒ Json.parse(bytes).as[T](reads)
+    }
+
+  private def parseCommand(parser: JsonParser, typeName: String): Command = {
+    var runId: String               = null
+    var source: String              = null
+    var commandName: String         = null
+    var maybeObsId: Option[ObsId]   = None
+    var paramSet: Set[Parameter[_]] = null
+
+    readFields(parser) {
+      case "runId"       ⇒ runId = readString(parser)
+      case "source"      ⇒ source = readString(parser)
+      case "commandName" ⇒ commandName = readString(parser)
+      case "maybeObsId"  ⇒ maybeObsId = if (parser.currentToken == VALUE_NULL) None else Some(ObsId(readString(parser)))
+      case "paramSet"    ⇒ paramSet = readParamSet(parser)
+      case _             ⇒ parser.skipChildren()
+    }
+
+    require(runId != null && source != null && commandName != null && paramSet != null)
+    typeName match {
+      case "Setup"   ⇒ Setup(Id(runId), Prefix(source), CommandName(commandName), maybeObsId, paramSet)
+      case "Observe" ⇒ Observe(Id(runId), Prefix(source), CommandName(commandName), maybeObsId, paramSet)
+      case "Wait"    ⇒ Wait(Id(runId), Prefix(source), CommandName(commandName), maybeObsId, paramSet)
+    }
+  }
+
+  private def parseEvent(parser: JsonParser, typeName: String): Event = {
+    var eventId: String             = null
+    var source: String              = null
+    var eventName: String           = null
+    var eventTime: UTCTime          = null
+    var paramSet: Set[Parameter[_]] = null
+
+    readFields(parser) {
+      case "eventId"   ⇒ eventId = readString(parser)
+      case "source"    ⇒ source = readString(parser)
+      case "eventName" ⇒ eventName = readString(parser)
+      case "eventTime" ⇒ eventTime = UTCTime(Instant.parse(readString(parser)))
+      case "paramSet"  ⇒ paramSet = readParamSet(parser)
+      case _           ⇒ parser.skipChildren()
+    }
+
+    require(eventId != null && source != null && eventName != null && eventTime != null && paramSet != null)
+    typeName match {
+      case "SystemEvent"  ⇒ SystemEvent(Id(eventId), Prefix(source), EventName(eventName), eventTime, paramSet)
+      case "ObserveEvent" ⇒ ObserveEvent(Id(eventId), Prefix(source), EventName(eventName), eventTime, paramSet)
+    }
+  }
+
+  private def parseStateVariable(parser: JsonParser, typeName: String): StateVariable = {
+    var prefix: String              = null
+    var stateName: String           = null
+    var paramSet: Set[Parameter[_]] = null
+
+    readFields(parser) {
+      case "prefix"    ⇒ prefix = readString(parser)
+      case "stateName" ⇒ stateName = readObject(parser, "name")(readString(parser))
+      case "paramSet"  ⇒ paramSet = readParamSet(parser)
+      case _           ⇒ parser.skipChildren()
+    }
+
+    require(prefix != null && stateName != null && paramSet != null)
+    typeName match {
+      case "CurrentState" ⇒ CurrentState(Prefix(prefix), StateName(stateName), paramSet)
+      case "DemandState"  ⇒ DemandState(Prefix(prefix), StateName(stateName), paramSet)
+    }
+  }
+
+  private def readParamSet(parser: JsonParser): Set[Parameter[_]] = {
+    val paramSet = Set.newBuilder[Parameter[_]]
+    readArray(parser)(paramSet += readParameter(parser))
+    paramSet.result()
+  }
+
+  // the values can only be read once the key type is known, which both codecs write before them
+  private def readParameter(parser: JsonParser): Parameter[_] = {
+    var keyName: String           = null
+    var keyType: KeyType[_]       = null
+    var units: Units              = null
+    var factory: ParameterFactory = null
+
+    require(parser.currentToken == START_OBJECT)
+    readFields(parser) {
+      case "keyName" ⇒ keyName = readString(parser)
+      case "keyType" ⇒ keyType = KeyType.withName(readString(parser))
+      case "units"   ⇒ units = Units.withName(readString(parser))
+      case "values" ⇒
+        require(keyType != null, "values precede the key type")
+        factory = readValues(parser, keyType)
+      case _         ⇒ parser.skipChildren()
+    }
+
+    require(keyName != null && units != null && factory != null)
+    factory(keyName, units)
+  }
+
+  private def readValues(parser: JsonParser, keyType: KeyType[_]): ParameterFactory = keyType match {
+    case ChoiceKey       ⇒ items(ChoiceKey, readArrayOf(parser)(Choice(readObject(parser, "name")(readString(parser)))))
+    case RaDecKey        ⇒ items(RaDecKey, readArrayOf(parser)(readRaDec(parser)))
+    case StringKey       ⇒ items(StringKey, readArrayOf(parser)(readString(parser)))
+    case StructKey       ⇒ items(StructKey, readArrayOf(parser)(Struct(readObject(parser, "paramSet")(readParamSet(parser)))))
+    case TimestampKey    ⇒ items(TimestampKey, readArrayOf(parser)(Instant.parse(readString(parser))))
+    case BooleanKey      ⇒ items(BooleanKey, readArrayOf(parser)(readBoolean(parser)))
+    case CharKey         ⇒ items(CharKey, readArrayOf(parser)(readChar(parser)))
+    case ByteKey         ⇒ items(ByteKey, readBytes(parser))
+    case ShortKey        ⇒ items(ShortKey, readShorts(parser))
+    case IntKey          ⇒ items(IntKey, readInts(parser))
+    case LongKey         ⇒ items(LongKey, readLongs(parser))
+    case FloatKey        ⇒ items(FloatKey, readFloats(parser))
+    case DoubleKey       ⇒ items(DoubleKey, readDoubles(parser))
+    case ByteArrayKey    ⇒ items(ByteArrayKey, readArrays(parser)(readBytes))
+    case ShortArrayKey   ⇒ items(ShortArrayKey, readArrays(parser)(readShorts))
+    case IntArrayKey     ⇒ items(IntArrayKey, readArrays(parser)(readInts))
+    case LongArrayKey    ⇒ items(LongArrayKey, readArrays(parser)(readLongs))
+    case FloatArrayKey   ⇒ items(FloatArrayKey, readArrays(parser)(readFloats))
+    case DoubleArrayKey  ⇒ items(DoubleArrayKey, readArrays(parser)(readDoubles))
+    case ByteMatrixKey   ⇒ items(ByteMatrixKey, readMatrices(parser)(readBytes))
+    case ShortMatrixKey  ⇒ items(ShortMatrixKey, readMatrices(parser)(readShorts))
+    case IntMatrixKey    ⇒ items(IntMatrixKey, readMatrices(parser)(readInts))
+    case LongMatrixKey   ⇒ items(LongMatrixKey, readMatrices(parser)(readLongs))
+    case FloatMatrixKey  ⇒ items(FloatMatrixKey, readMatrices(parser)(readFloats))
+    case DoubleMatrixKey ⇒ items(DoubleMatrixKey, readMatrices(parser)(readDoubles))
+  }
+
+  private def items[S: Format: ClassTag](keyType: KeyType[S], values: Array[S]): ParameterFactory = { (name, units) ⇒
+    Parameter(name, keyType, values, units)
+  }
+
+  private def readRaDec(parser: JsonParser): RaDec = {
+    var ra: Option[Double]  = None
+    var dec: Option[Double] = None
+    require(parser.currentToken == START_OBJECT)
+    readFields(parser) {
+      case "ra"  ⇒ ra = Some(readDouble(parser))
+      case "dec" ⇒ dec = Some(readDouble(parser))
+      case _     ⇒ parser.skipChildren()
+    }
+    RaDec(ra.get, dec.get)
+  }
+
+  private def readArrays[T: ClassTag](parser: JsonParser)(readValues: JsonParser ⇒ Array[T]): Array[ArrayData[T]] =
+    readArrayOf(parser)(ArrayData.fromArray(readObject(parser, "data")(readValues(parser))))
+
+  private def readMatrices[T: ClassTag](parser: JsonParser)(readValues: JsonParser ⇒ Array[T]): Array[MatrixData[T]] =
+    readArrayOf(parser)(MatrixData.fromArrays(readObject(parser, "data")(readArrayOf(parser)(readValues(parser)))))
+
+  private def readBytes(parser: JsonParser): Array[Byte] = {
+    val builder = new mutable.ArrayBuilder.ofByte
+    readArray(parser)(builder += readIntegral(parser, Byte.MinValue, Byte.MaxValue).toByte)
+    builder.result()
+  }
+
+  private def readShorts(parser: JsonParser): Array[Short] = {
+    val builder = new mutable.ArrayBuilder.ofShort
+    readArray(parser)(builder += readIntegral(parser, Short.MinValue, Short.MaxValue).toShort)
+    builder.result()
+  }
+
+  private def readInts(parser: JsonParser): Array[Int] = {
+    val builder = new mutable.ArrayBuilder.ofInt
+    readArray(parser)(builder += readIntegral(parser, Int.MinValue, Int.MaxValue).toInt)
+    builder.result()
+  }
+
+  private def readLongs(parser: JsonParser): Array[Long] = {
+    val builder = new mutable.ArrayBuilder.ofLong
+    readArray(parser)(builder += readIntegral(parser, Long.MinValue, Long.MaxValue))
+    builder.result()
+  }
+
+  private def readFloats(parser: JsonParser): Array[Float] = {
+    val builder = new mutable.ArrayBuilder.ofFloat
+    readArray(parser)(builder += java.lang.Float.parseFloat(readNumber(parser)))
+    builder.result()
+  }
+
+  private def readDoubles(parser: JsonParser): Array[Double] = {
+    val builder = new mutable.ArrayBuilder.ofDouble
+    readArray(parser)(builder += readDouble(parser))
+    builder.result()
+  }
+
+  private def readIntegral(parser: JsonParser, min: Long, max: Long): Long = {
+    require(parser.currentToken == VALUE_NUMBER_INT)
+    val value = parser.getLongValue
+    require(value >= min && value <= max, s"$value is out of [$min, $max]")
+    value
+  }
+
+  private def readDouble(parser: JsonParser): Double = java.lang.Double.parseDouble(readNumber(parser))
+
+  private def readNumber(parser: JsonParser): String = {
+    require(parser.currentToken == VALUE_NUMBER_INT || parser.currentToken == VALUE_NUMBER_FLOAT)
+    parser.getText
+  }
+
+  private def readString(parser: JsonParser): String = {
+    require(parser.currentToken == VALUE_STRING)
+    parser.getText
+  }
+
+  private def readChar(parser: JsonParser): Char = {
+    val string = readString(parser)
+    require(string.length == 1)
+    string.charAt(0)
+  }
+
+  private def readBoolean(parser: JsonParser): Boolean = {
+    require(parser.currentToken == VALUE_TRUE || parser.currentToken == VALUE_FALSE)
+    parser.getBooleanValue
+  }
+
+  // reads the field `name` of the object the parser is positioned at, the parser being left at the end of the object
+  private def readObject[T](parser: JsonParser, name: String)(readValue: ⇒ T): T = {
+    var value: Option[T] = None
+    require(parser.currentToken == START_OBJECT)
+    readFields(parser) {
+      case `name` ⇒ value = Some(readValue)
+      case _      ⇒ parser.skipChildren()
+    }
+    value.get
+  }
+
+  private def readArrayOf[T: ClassTag](parser: JsonParser)(readValue: ⇒ T): Array[T] = {
+    val builder = mutable.ArrayBuilder.make[T]()
+    readArray(parser)(builder += readValue)
+    builder.result()
+  }
+
+  // calls `readValue` with the parser positioned at every value of the array the parser is positioned at
+  private def readArray(parser: JsonParser)(readValue: ⇒ Unit): Unit = {
+    require(parser.currentToken == START_ARRAY)
+    while (parser.nextToken() != END_ARRAY) readValue
+  }
+
+  // calls `onField` with the parser positioned at the value of every remaining field of the current object
+  private def readFields(parser: JsonParser)(onField: String ⇒ Unit): Unit =
+    while (parser.nextToken() == FIELD_NAME) {
+      val name = parser.getCurrentName
+      parser.nextToken()
+      onField(name)
+    }
+}
@@ -0,0 +1,22 @@
+package csw.params.core.models
+
+import com.github.benmanes.caffeine.cache.{Cache, Caffeine}
+
+/**
+ * Pool of canonical instances by key, so that equal instances built again and again (for example while decoding events)
+ * are shared and compare by identity. Instances are weakly held: an instance leaves the pool once it is no longer used outside
+ * of it, its key is dropped by the next maintenance of the pool. Looking up an instance already in the pool takes no lock.
+ *
+ * @tparam K the key of an instance
+ * @tparam V the type of the instances
+ */
+private[params] final class InternPool[K <: AnyRef, V <: AnyRef] {
+  private val pool: Cache[K, V] = Caffeine.newBuilder().weakValues().build()
+
+  /**
+   * @param key the key of the instance
+   * @param create creates the instance of the given key when the pool does not have one yet
+   * @return the instance of the pool equal to the given key
+   */
+  def intern(key: K)(create: K ⇒ V): V = pool.get(key, k ⇒ create(k))
+}
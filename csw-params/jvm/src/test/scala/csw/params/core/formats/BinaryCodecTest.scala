@@ -0,0 +1,110 @@
+package csw.params.core.formats
+
+import java.nio.ByteBuffer
+import java.time.Instant
+import java.util
+
+import csw.params.commands.CommandIssue.{OtherIssue, WrongPrefixIssue}
+import csw.params.commands.CommandResponse._
+import csw.params.commands._
+import csw.params.core.generics.KeyType._
+import csw.params.core.generics.Parameter
+import csw.params.core.models.Units.{arcmin, joule, meter}
+import csw.params.core.models._
+import csw.params.core.states.{CurrentState, StateName}
+import csw.params.javadsl.JKeyType
+import org.scalatest.{FunSpec, Matchers}
+
+class BinaryCodecTest extends FunSpec with Matchers {
+
+  private val prefix = Prefix("wfos.blue.filter")
+  private val choice = Choice("Jupiter")
+  private val struct = Struct().madd(StringKey.make("ra").set("12:13:14.1"), DoubleKey.make("epoch").set(1950.0))
+
+  private val params: Set[Parameter[_]] = Set(
+    ChoiceKey.make("choiceKey", choice, Choice("Saturn")).set(choice).withUnits(arcmin),
+    RaDecKey.make("raDecKey").set(RaDec(7.3, 12.1), RaDec(9.1, 2.9)),
+    StructKey.make("structKey").set(struct, Struct()).withUnits(joule),
+    TimestampKey.make("timestampKey").set(Instant.ofEpochSecond(1552000000, 123456789), Instant.ofEpochSecond(-1)),
+    StringKey.make("stringKey").set("a", "", "\"quoted\" \\ é \n ☃"),
+    BooleanKey.make("booleanKey").set(true, false),
+    CharKey.make("charKey").set('a', 'é'),
+    ByteKey.make("byteKey").set(Array[Byte](1, -2, 0)),
+    ShortKey.make("shortKey").set(Array[Short](1, -2)),
+    IntKey.make("intKey").set(1, -2, Int.MaxValue).withUnits(meter),
+    LongKey.make("longKey").set(1L, Long.MinValue),
+    FloatKey.make("floatKey").set(1.5f, -0.1f, Float.MaxValue),
+    DoubleKey.make("doubleKey").set(1.5, Double.NegativeInfinity, Double.MinPositiveValue),
+    ByteArrayKey.make("byteArrayKey").set(ArrayData.fromArray[Byte](1, 2), ArrayData.fromArray(Array.empty[Byte])),
+    ShortArrayKey.make("shortArrayKey").set(ArrayData.fromArray[Short](1, 2)),
+    IntArrayKey.make("intArrayKey").set(ArrayData.fromArray(1, 2, 3)),
+    LongArrayKey.make("longArrayKey").set(ArrayData.fromArray(1L, 2L)),
+    FloatArrayKey.make("floatArrayKey").set(ArrayData.fromArray(1f, 2.25f)),
+    DoubleArrayKey.make("doubleArrayKey").set(ArrayData.fromArray(1.0, 2.5e-3)),
+    ByteMatrixKey.make("byteMatrixKey").set(MatrixData.fromArrays(Array[Byte](1, 2), Array[Byte](3, 4))),
+    ShortMatrixKey.make("shortMatrixKey").set(MatrixData.fromArrays(Array[Short](1, 2), Array[Short](3, 4))),
+    IntMatrixKey.make("intMatrixKey").set(MatrixData.fromArrays(Array(1, 2, 3), Array(4, 5, 6)).subMatrix(0, 2, 1, 3)),
+    LongMatrixKey.make("longMatrixKey").set(MatrixData.fromArrays(Array(1L, 2L), Array(3L, 4L))),
+    FloatMatrixKey.make("floatMatrixKey").set(MatrixData.fromArrays(Array(1f, 2f), Array(3f, 4f))),
+    DoubleMatrixKey.make("doubleMatrixKey").set(MatrixData.fromArrays(Array(1.0, 2.0), Array(3.0, 4.0))),
+    JKeyType.IntKey.make("javaIntKey").set(Array[Integer](1, 2)),
+    JKeyType.FloatKey.make("javaFloatKey").set(Array[java.lang.Float](0.5f))
+  )
+
+  describe("BinaryCodec") {
+
+    it("should write control commands and read them back") {
+      val commands = List(
+        Setup(prefix, CommandName("move"), Some(ObsId("Obs001"))).madd(params),
+        Observe(prefix, CommandName("move"), None).madd(params),
+        Setup(prefix, CommandName("move"), None)
+      )
+
+      commands.foreach { command ⇒
+        BinaryCodec.readCommand[ControlCommand](BinaryCodec.writeCommand(command)) shouldBe command
+      }
+    }
+
+    it("should write submit responses and read them back") {
+      val responses = List(
+        Started(Id()),
+        Completed(Id()),
+        CompletedWithResult(Id(), Result(prefix, params)),
+        Invalid(Id(), WrongPrefixIssue("wrong prefix")),
+        Invalid(Id(), OtherIssue("other")),
+        Error(Id(), "failed"),
+        Cancelled(Id()),
+        Locked(Id())
+      )
+
+      responses.foreach { response ⇒
+        BinaryCodec.readSubmitResponse[SubmitResponse](BinaryCodec.writeSubmitResponse(response)) shouldBe response
+      }
+    }
+
+    it("should write current states and parameters and read them back") {
+      val currentState = CurrentState(prefix, StateName("testStateName"), params)
+
+      BinaryCodec.readCurrentState(BinaryCodec.writeCurrentState(currentState)) shouldBe currentState
+      params.foreach(param ⇒ BinaryCodec.readParameter(BinaryCodec.writeParameter(param)) shouldBe param)
+    }
+
+    it("should write the values of arrays back to back, without class names") {
+      val values = Array.range(0, 1000)
+      val bytes  = BinaryCodec.writeParameter(IntKey.make("ints").set(values))
+
+      val expected = ByteBuffer.allocate(values.length * 4)
+      expected.asIntBuffer().put(values)
+      util.Arrays.equals(bytes.takeRight(values.length * 4), expected.array()) shouldBe true
+      bytes.length should be < values.length * 4 + 20
+    }
+
+    it("should fail to read truncated or malformed bytes") {
+      val bytes = BinaryCodec.writeCommand(Setup(prefix, CommandName("move"), None).madd(params))
+
+      an[IllegalArgumentException] shouldBe thrownBy BinaryCodec.readCommand[Setup](bytes.take(bytes.length / 2))
+      an[IllegalArgumentException] shouldBe thrownBy BinaryCodec.readCommand[Setup](bytes :+ 0.toByte)
+      an[IllegalArgumentException] shouldBe thrownBy BinaryCodec.readCommand[Setup](7.toByte +: bytes.tail)
+    }
+  }
+}
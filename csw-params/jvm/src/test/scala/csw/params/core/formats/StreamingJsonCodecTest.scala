@@ -0,0 +1,111 @@
+package csw.params.core.formats
+
+import java.nio.charset.StandardCharsets.UTF_8
+import java.time.Instant
+
+import csw.params.commands.{Command, CommandName, Observe, Setup, Wait}
+import csw.params.core.generics.KeyType._
+import csw.params.core.generics.Parameter
+import csw.params.core.models.Units.{arcmin, joule, meter}
+import csw.params.core.models._
+import csw.params.core.states.StateVariable.StateVariable
+import csw.params.core.states.{CurrentState, DemandState, StateName}
+import csw.params.events.{Event, EventName, ObserveEvent, SystemEvent}
+import csw.params.javadsl.JKeyType
+import org.scalatest.{FunSpec, Matchers}
+import play.api.libs.json.{JsObject, JsResultException, JsString, Json}
+
+class StreamingJsonCodecTest extends FunSpec with Matchers {
+
+  private val prefix = Prefix("wfos.blue.filter")
+  private val choice = Choice("Jupiter")
+  private val struct = Struct().madd(StringKey.make("ra").set("12:13:14.1"), DoubleKey.make("epoch").set(1950.0))
+
+  private val params: Set[Parameter[_]] = Set(
+    ChoiceKey.make("choiceKey", choice, Choice("Saturn")).set(choice).withUnits(arcmin),
+    RaDecKey.make("raDecKey").set(RaDec(7.3, 12.1), RaDec(9.1, 2.9)),
+    StructKey.make("structKey").set(struct).withUnits(joule),
+    TimestampKey.make("timestampKey").set(Instant.ofEpochSecond(1552000000, 123456789)),
+    StringKey.make("stringKey").set("a", "", "\"quoted\" \\ é \n"),
+    BooleanKey.make("booleanKey").set(true, false),
+    CharKey.make("charKey").set('a', '"'),
+    ByteKey.make("byteKey").set(Array[Byte](1, -2, 0)),
+    ShortKey.make("shortKey").set(Array[Short](1, -2)),
+    IntKey.make("intKey").set(1, -2, Int.MaxValue).withUnits(meter),
+    LongKey.make("longKey").set(1L, Long.MinValue),
+    FloatKey.make("floatKey").set(1.5f, -2.5f, 0.1f, 3f, 1e-12f, Float.MaxValue),
+    DoubleKey.make("doubleKey").set(1.5, 0.0, 0.1, 100.0, 1e-7, 1e-11, 1e21, Double.MaxValue, Double.MinPositiveValue),
+    ByteArrayKey.make("byteArrayKey").set(ArrayData.fromArray[Byte](1, 2), ArrayData.fromArray[Byte](3)),
+    ShortArrayKey.make("shortArrayKey").set(ArrayData.fromArray[Short](1, 2)),
+    IntArrayKey.make("intArrayKey").set(ArrayData.fromArray(1, 2, 3)),
+    LongArrayKey.make("longArrayKey").set(ArrayData.fromArray(1L, 2L)),
+    FloatArrayKey.make("floatArrayKey").set(ArrayData.fromArray(1f, 2.25f)),
+    DoubleArrayKey.make("doubleArrayKey").set(ArrayData.fromArray(1.0, 2.5e-3)),
+    ByteMatrixKey.make("byteMatrixKey").set(MatrixData.fromArrays(Array[Byte](1, 2), Array[Byte](3, 4))),
+    ShortMatrixKey.make("shortMatrixKey").set(MatrixData.fromArrays(Array[Short](1, 2), Array[Short](3, 4))),
+    IntMatrixKey.make("intMatrixKey").set(MatrixData.fromArrays(Array(1, 2, 3), Array(4, 5, 6)).subMatrix(0, 2, 1, 3)),
+    LongMatrixKey.make("longMatrixKey").set(MatrixData.fromArrays(Array(1L, 2L), Array(3L, 4L))),
+    FloatMatrixKey.make("floatMatrixKey").set(MatrixData.fromArrays(Array(1f, 2f), Array(3f, 4f))),
+    DoubleMatrixKey.make("doubleMatrixKey").set(MatrixData.fromArrays(Array(1.0, 2.0), Array(3.0, 4.0))),
+    JKeyType.IntKey.make("javaIntKey").set(Array[Integer](1, 2)),
+    JKeyType.FloatKey.make("javaFloatKey").set(Array[java.lang.Float](0.5f))
+  )
+
+  describe("StreamingJsonCodec") {
+
+    it("should write commands as play-json does and read them back") {
+      val commands = List(
+        Setup(prefix, CommandName("move"), Some(ObsId("Obs001"))).madd(params),
+        Observe(prefix, CommandName("move"), None).madd(params),
+        Wait(prefix, CommandName("move"), Some(ObsId("Obs001")))
+      )
+
+      commands.foreach { command ⇒
+        val bytes = StreamingJsonCodec.writeCommand(command)
+        new String(bytes, UTF_8) shouldBe Json.stringify(JsonSupport.writes(command))
+        StreamingJsonCodec.readCommand[Command](bytes) shouldBe command
+      }
+    }
+
+    it("should write events as play-json does and read them back") {
+      val events = List(
+        SystemEvent(prefix, EventName("filter wheel")).madd(params),
+        ObserveEvent(prefix, EventName("filter wheel"), params)
+      )
+
+      events.foreach { event ⇒
+        val bytes = StreamingJsonCodec.writeEvent(event)
+        new String(bytes, UTF_8) shouldBe Json.stringify(JsonSupport.writes(event))
+        StreamingJsonCodec.readEvent[Event](bytes) shouldBe event
+      }
+    }
+
+    it("should write state variables as play-json does and read them back") {
+      val stateVariables = List(
+        CurrentState(prefix, StateName("testStateName"), params),
+        DemandState(prefix, StateName("testStateName"), params)
+      )
+
+      stateVariables.foreach { stateVariable ⇒
+        val bytes = StreamingJsonCodec.writeStateVariable(stateVariable)
+        new String(bytes, UTF_8) shouldBe Json.stringify(JsonSupport.writes(stateVariable))
+        StreamingJsonCodec.readStateVariable[StateVariable](bytes) shouldBe stateVariable
+      }
+    }
+
+    it("should read the JSON written by play-json, with fields in any order") {
+      val event     = SystemEvent(prefix, EventName("filter wheel")).madd(params)
+      val json      = JsonSupport.writes(event).as[JsObject]
+      val reordered = Json.toBytes(json - "type" + ("type" → JsString("SystemEvent")))
+
+      StreamingJsonCodec.readEvent[SystemEvent](Json.toBytes(json)) shouldBe event
+      StreamingJsonCodec.readEvent[SystemEvent](reordered) shouldBe event
+    }
+
+    it("should fail to read invalid JSON as play-json does") {
+      val json = """{"type":"SystemEvent","eventId":"1","source":"wfos.blue.filter","eventName":"name"}"""
+
+      a[JsResultException] shouldBe thrownBy StreamingJsonCodec.readEvent[SystemEvent](json.getBytes(UTF_8))
+    }
+  }
+}
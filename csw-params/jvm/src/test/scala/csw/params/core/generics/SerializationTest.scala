@@ -6,8 +6,9 @@ import com.twitter.chill.KryoInjection
 import csw.params.commands._
 import csw.params.events.{Event, EventName, SystemEvent}
 import csw.params.core.generics.KeyType.ChoiceKey
-import csw.params.core.models.{Choice, ObsId, Prefix}
+import csw.params.core.models.{Choice, Id, ObsId, Prefix}
 import csw.params.core.states.{CurrentState, CurrentStates, StateName}
+import csw.time.core.models.UTCTime
 import org.scalatest.FunSuite
 
 // DEOPSCSW-183: Configure attributes and values
@@ -103,6 +104,16 @@ class SerializationTest extends FunSuite {
     assert(out1 == event)
   }
 
+  test("Lazily decoded event kryo serialization") {
+    val params: Array[Parameter[_]] = Array(ra.set("12:32:11"), dec.set("30:22:22"))
+    val lazyParamSet                = new LazyParameterSet(params.map(_.keyName), params(_))
+    val event                       = SystemEvent(Id(), fqn1prefix, EventName("filter wheel"), UTCTime.now(), lazyParamSet)
+
+    val out1 = read[SystemEvent](write(event))
+    assert(!out1.paramSet.isInstanceOf[LazyParameterSet])
+    assert(out1 == event)
+  }
+
   test("CurrentStates kryo serialization") {
 
     val sca1   = CurrentStates(List(cs1))
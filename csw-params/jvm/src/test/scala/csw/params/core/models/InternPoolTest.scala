@@ -0,0 +1,51 @@
+package csw.params.core.models
+
+import csw.params.commands.CommandName
+import csw.params.core.generics.KeyType
+import csw.params.events.{EventKey, EventName, SystemEvent}
+import csw.params.javadsl.JKeyType
+import org.scalatest.{FunSpec, Matchers}
+
+class InternPoolTest extends FunSpec with Matchers {
+
+  describe("InternPool") {
+
+    it("should share the instances of equal prefixes, event names and command names") {
+      Prefix(new String("wfos.blue.filter")) should be theSameInstanceAs Prefix("wfos.blue.filter")
+      EventName(new String("filter wheel")) should be theSameInstanceAs EventName("filter wheel")
+      CommandName(new String("move")) should be theSameInstanceAs CommandName("move")
+      Prefix("wfos.blue.filter") should not be theSameInstanceAs(Prefix("wfos.red.filter"))
+    }
+
+    it("should share the instances of equal event keys however they are built") {
+      val eventKey = EventKey(Prefix("wfos.blue.filter"), EventName("filter wheel"))
+
+      EventKey("wfos.blue.filter.filter wheel") should be theSameInstanceAs eventKey
+      SystemEvent(Prefix("wfos.blue.filter"), EventName("filter wheel")).eventKey should be theSameInstanceAs eventKey
+      eventKey.key shouldBe "wfos.blue.filter.filter wheel"
+    }
+
+    it("should share the instances of event keys looked up concurrently") {
+      val eventKeys = (1 to 1000).par.map(_ ⇒ EventKey(Prefix("wfos.blue.filter"), EventName("concurrent"))).toList
+
+      eventKeys.foreach(_ should be theSameInstanceAs eventKeys.head)
+    }
+
+    it("should keep instances built without the pool equal to the pooled instances") {
+      val eventKey = new EventKey(new Prefix("wfos.blue.filter"), new EventName("filter wheel"))
+
+      new Prefix("wfos.blue.filter") shouldBe Prefix("wfos.blue.filter")
+      eventKey shouldBe EventKey("wfos.blue.filter.filter wheel")
+      eventKey.hashCode() shouldBe EventKey("wfos.blue.filter.filter wheel").hashCode()
+      new Prefix("wfos.blue.filter").subsystem shouldBe Subsystem.WFOS
+    }
+
+    it("should keep key types equal to the java key types of the same name only") {
+      KeyType.IntKey shouldBe KeyType.IntKey
+      JKeyType.IntKey shouldBe KeyType.IntKey
+      KeyType.IntKey.hashCode() shouldBe JKeyType.IntKey.hashCode()
+      KeyType.IntKey should not be KeyType.LongKey
+      KeyType.IntKey should not equal "IntKey"
+    }
+  }
+}
@@ -1,5 +1,6 @@
 package csw.params.commands
 
+import csw.params.core.models.InternPool
 import play.api.libs.json._
 
 /**
@@ -10,6 +11,13 @@ import play.api.libs.json._
 case class CommandName(name: String)
 
 object CommandName {
+  private val pool = new InternPool[String, CommandName]
+
+  /**
+   * @param name the name of the command
+   * @return the shared instance of the given name, which is only created the first time the name is seen
+   */
+  def apply(name: String): CommandName = pool.intern(name)(new CommandName(_))
 
   implicit val format: Format[CommandName] = new Format[CommandName] {
     override def writes(obj: CommandName): JsValue           = JsString(obj.name)
@@ -3,7 +3,7 @@ package csw.params.commands
 import java.util.Optional
 
 import csw.params.extensions.OptionConverters.{RichOption, RichOptional}
-import csw.params.core.generics.{Parameter, ParameterSetType}
+import csw.params.core.generics.{IndexedParameterSet, Parameter, ParameterSetType}
 import csw.params.core.models.{Id, ObsId, Prefix}
 
 /**
@@ -122,7 +122,7 @@ object Setup {
       commandName: CommandName,
       maybeObsId: Option[ObsId],
       paramSet: Set[Parameter[_]]
-  ): Setup = new Setup(runId, source, commandName, maybeObsId, paramSet)
+  ): Setup = new Setup(runId, source, commandName, maybeObsId, IndexedParameterSet.from(paramSet))
 
   /**
    * The apply method is used to create Setup command by end-user. runId is not accepted and will be created internally to guarantee unique value.
@@ -191,7 +191,7 @@ object Observe {
       commandName: CommandName,
       maybeObsId: Option[ObsId],
       paramSet: Set[Parameter[_]]
-  ) = new Observe(runId, source, commandName, maybeObsId, paramSet)
+  ) = new Observe(runId, source, commandName, maybeObsId, IndexedParameterSet.from(paramSet))
 
   /**
    * The apply method is used to create Observe command by end-user. runId is not accepted and will be created internally to guarantee unique value.
@@ -260,7 +260,7 @@ object Wait {
       commandName: CommandName,
       maybeObsId: Option[ObsId],
       paramSet: Set[Parameter[_]]
-  ) = new Wait(runId, source, commandName, maybeObsId, paramSet)
+  ) = new Wait(runId, source, commandName, maybeObsId, IndexedParameterSet.from(paramSet))
 
   /**
    * The apply method is used to create Wait command by end-user. runId is not accepted and will be created internally to guarantee unique value.
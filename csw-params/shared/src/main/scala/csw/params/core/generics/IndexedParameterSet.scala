@@ -0,0 +1,62 @@
+package csw.params.core.generics
+
+import scala.collection.AbstractSet
+
+/**
+ * A set of parameters with distinct key names, indexed by key name, which backs the parameter sets built through
+ * [[csw.params.core.generics.ParameterSetType]] so that looking up, adding or removing a parameter by key name takes
+ * effectively constant time. It is otherwise an ordinary immutable set, equal to any set holding the same parameters.
+ *
+ * @param index every parameter of the set by its key name
+ */
+private[csw] final class IndexedParameterSet private (index: Map[String, Parameter[_]])
+    extends AbstractSet[Parameter[_]]
+    with Set[Parameter[_]] {
+
+  def get(keyName: String): Option[Parameter[_]] = index.get(keyName)
+
+  def containsKeyName(keyName: String): Boolean = index.contains(keyName)
+
+  /**
+   * @return this set with the given parameter in place of the parameter of the same key name, if any
+   */
+  def updated(parameter: Parameter[_]): IndexedParameterSet = new IndexedParameterSet(index.updated(parameter.keyName, parameter))
+
+  /**
+   * @return this set without the parameter of the given key name, if any
+   */
+  def removed(keyName: String): IndexedParameterSet =
+    if (index.contains(keyName)) new IndexedParameterSet(index - keyName) else this
+
+  override def size: Int = index.size
+
+  override def contains(parameter: Parameter[_]): Boolean = index.get(parameter.keyName).contains(parameter)
+
+  override def iterator: Iterator[Parameter[_]] = index.valuesIterator
+
+  // a parameter of a key name already in the set is another element of the set, which the index can not hold
+  override def +(parameter: Parameter[_]): Set[Parameter[_]] = index.get(parameter.keyName) match {
+    case None                                    ⇒ updated(parameter)
+    case Some(existing) if existing == parameter ⇒ this
+    case Some(_)                                 ⇒ index.values.toSet + parameter
+  }
+
+  override def -(parameter: Parameter[_]): Set[Parameter[_]] = if (contains(parameter)) removed(parameter.keyName) else this
+}
+
+private[csw] object IndexedParameterSet {
+
+  val empty: IndexedParameterSet = new IndexedParameterSet(Map.empty)
+
+  /**
+   * @return the given parameters as an indexed set, unless they are decoded lazily or their key names are not distinct
+   */
+  def from(parameters: Set[Parameter[_]]): Set[Parameter[_]] = parameters match {
+    case indexed: IndexedParameterSet ⇒ indexed
+    case lazySet: LazyParameterSet    ⇒ lazySet
+    case _ if parameters.isEmpty      ⇒ empty
+    case _ ⇒
+      val index = parameters.iterator.map(parameter ⇒ parameter.keyName → parameter).toMap
+      if (index.size == parameters.size) new IndexedParameterSet(index) else parameters
+  }
+}
@@ -17,8 +17,13 @@ import scala.reflect.ClassTag
  * @tparam S the type of values that will sit against the key in Parameter
  */
 sealed class KeyType[S: Format: ClassTag] extends EnumEntry with Serializable {
-  override def hashCode: Int              = toString.hashCode
-  override def equals(that: Any): Boolean = that.toString == this.toString
+  override def hashCode: Int = entryName.hashCode
+
+  // key types are singletons, but the java key types are equal to the scala key types of the same name
+  override def equals(that: Any): Boolean = that match {
+    case keyType: KeyType[_] ⇒ (this eq keyType) || keyType.entryName == entryName
+    case _                   ⇒ false
+  }
 
   private[params] def paramFormat: Format[Parameter[S]] = Parameter[S]
 }
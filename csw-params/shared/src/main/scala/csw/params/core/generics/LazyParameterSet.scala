@@ -0,0 +1,58 @@
+package csw.params.core.generics
+
+import scala.collection.AbstractSet
+
+/**
+ * A set of parameters of which only the key names are known upfront, a parameter is decoded on its first access and
+ * cached afterwards. Looking up a parameter by key name through [[csw.params.core.generics.ParameterSetType]] decodes
+ * just that parameter, whereas operations which need all the elements (iterating, equality, adding or removing) decode
+ * the rest of them.
+ *
+ * Instances are safe to share between threads: two threads racing on the same parameter both decode it into equal
+ * immutable values and either of them ends up in the cache.
+ *
+ * Serializing the set decodes all the parameters and writes them as an ordinary set, neither the bytes nor the function
+ * decoding them are serialized.
+ *
+ * @param keyNames the key name of every parameter in the set
+ * @param decode decodes the parameter at the given index of `keyNames`
+ */
+private[csw] final class LazyParameterSet(keyNames: Array[String], decode: Int ⇒ Parameter[_])
+    extends AbstractSet[Parameter[_]]
+    with Set[Parameter[_]]
+    with Serializable {
+
+  private val decoded = new Array[Parameter[_]](keyNames.length)
+
+  private lazy val materialized: Set[Parameter[_]] = iterator.toSet
+
+  /**
+   * Decodes only the parameters named `keyName` to find the one of the given key type
+   */
+  def get(keyName: String, keyType: KeyType[_]): Option[Parameter[_]] =
+    keyNames.indices.iterator.filter(keyNames(_) == keyName).map(decodedParameter).find(_.keyType == keyType)
+
+  def containsKeyName(keyName: String): Boolean = keyNames.contains(keyName)
+
+  override def size: Int = keyNames.length
+
+  override def contains(parameter: Parameter[_]): Boolean = get(parameter.keyName, parameter.keyType).contains(parameter)
+
+  override def iterator: Iterator[Parameter[_]] = keyNames.indices.iterator.map(decodedParameter)
+
+  override def +(parameter: Parameter[_]): Set[Parameter[_]] = materialized + parameter
+
+  override def -(parameter: Parameter[_]): Set[Parameter[_]] = materialized - parameter
+
+  // java serialization writes the decoded parameters in place of this set, kryo iterates over them as it does for any set
+  protected def writeReplace(): AnyRef = materialized
+
+  private def decodedParameter(index: Int): Parameter[_] = {
+    var parameter = decoded(index)
+    if (parameter == null) {
+      parameter = decode(index)
+      decoded(index) = parameter
+    }
+    parameter
+  }
+}
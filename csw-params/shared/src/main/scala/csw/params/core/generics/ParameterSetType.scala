@@ -46,9 +46,7 @@ abstract class ParameterSetType[T <: ParameterSetType[T]] extends TMTSerializabl
    * @tparam P the Parameter type
    * @return a new instance of this parameter set with the given parameter added
    */
-  def add[P <: Parameter[_]](parameter: P): T = doAdd(this, parameter)
-
-  private def doAdd[P <: Parameter[_]](c: T, parameter: P): T = create(removeByKeyname(c, parameter.keyName).paramSet + parameter)
+  def add[P <: Parameter[_]](parameter: P): T = create(indexed(paramSet).updated(parameter))
 
   /**
    * Adds several parameters to the parameter set
@@ -69,7 +67,9 @@ abstract class ParameterSetType[T <: ParameterSetType[T]] extends TMTSerializabl
    * @tparam P must be a subclass of Parameter
    * @return a new instance of this parameter set with the given parameter added
    */
-  def madd[P <: Parameter[_]](parametersToAdd: Set[P]): T = parametersToAdd.foldLeft(this)((c, parameter) => doAdd(c, parameter))
+  def madd[P <: Parameter[_]](parametersToAdd: Set[P]): T =
+    if (parametersToAdd.isEmpty) this
+    else create(parametersToAdd.foldLeft(indexed(paramSet))((parameters, parameter) => parameters.updated(parameter)))
 
   /**
    * Returns an Option with the parameter for the key if found, otherwise None
@@ -98,7 +98,12 @@ abstract class ParameterSetType[T <: ParameterSetType[T]] extends TMTSerializabl
    * @return the parameter for the key, if found
    */
   def get[S](keyName: String, keyType: KeyType[S]): Option[Parameter[S]] = {
-    paramSet.find(p ⇒ p.keyName == keyName && p.keyType == keyType).asInstanceOf[Option[Parameter[S]]]
+    val parameter = paramSet match {
+      case indexedParamSet: IndexedParameterSet ⇒ indexedParamSet.get(keyName).filter(_.keyType == keyType)
+      case lazyParamSet: LazyParameterSet       ⇒ lazyParamSet.get(keyName, keyType)
+      case _                                    ⇒ paramSet.find(p ⇒ p.keyName == keyName && p.keyType == keyType)
+    }
+    parameter.asInstanceOf[Option[Parameter[S]]]
   }
 
   /**
@@ -182,12 +187,15 @@ abstract class ParameterSetType[T <: ParameterSetType[T]] extends TMTSerializabl
    * @tparam P the Parameter type
    * @return a new T, where T is a parameter set child with the parameter removed or identical if the parameter is not present
    */
-  private def removeByKeyname[P <: Parameter[_]](c: ParameterSetType[T], keyname: String): T = {
-    val f: Option[P] = getByKeyname(c.paramSet, keyname)
-    f match {
-      case Some(parameter) => create(c.paramSet - parameter)
-      case None            => c.asInstanceOf[T] //create(c.parameters) also works
-    }
+  private def removeByKeyname[P <: Parameter[_]](c: ParameterSetType[T], keyname: String): T = c.paramSet match {
+    case indexedParamSet: IndexedParameterSet =>
+      if (indexedParamSet.containsKeyName(keyname)) create(indexedParamSet.removed(keyname)) else c.asInstanceOf[T]
+    case _ =>
+      val f: Option[P] = getByKeyname(c.paramSet, keyname)
+      f match {
+        case Some(parameter) => create(c.paramSet - parameter)
+        case None            => c.asInstanceOf[T] //create(c.parameters) also works
+      }
   }
 
   /**
@@ -198,12 +206,21 @@ abstract class ParameterSetType[T <: ParameterSetType[T]] extends TMTSerializabl
    * @tparam P the Parameter type
    * @return a new T, where T is a parameter set child with the parameter removed or identical if the parameter is not presen
    */
-  private def removeByParameter[P <: Parameter[_]](c: ParameterSetType[T], parameterIn: P): T = {
-    val f: Option[P] = getByParameter(c.paramSet, parameterIn)
-    f match {
-      case Some(parameter) => create(c.paramSet.-(parameter))
-      case None            => c.asInstanceOf[T]
-    }
+  private def removeByParameter[P <: Parameter[_]](c: ParameterSetType[T], parameterIn: P): T = c.paramSet match {
+    case indexedParamSet: IndexedParameterSet =>
+      if (indexedParamSet.contains(parameterIn)) create(indexedParamSet.removed(parameterIn.keyName)) else c.asInstanceOf[T]
+    case _ =>
+      val f: Option[P] = getByParameter(c.paramSet, parameterIn)
+      f match {
+        case Some(parameter) => create(c.paramSet.-(parameter))
+        case None            => c.asInstanceOf[T]
+      }
+  }
+
+  // the parameters of the given set indexed by key name, the first one found wins if key names are not distinct
+  private def indexed(parametersIn: Set[Parameter[_]]): IndexedParameterSet = IndexedParameterSet.from(parametersIn) match {
+    case indexedParamSet: IndexedParameterSet => indexedParamSet
+    case _                                    => parametersIn.foldRight(IndexedParameterSet.empty)((p, acc) => acc.updated(p))
   }
 
   // Function to find a parameter by keyname
@@ -236,7 +253,11 @@ abstract class ParameterSetType[T <: ParameterSetType[T]] extends TMTSerializabl
   /**
    * Returns true if the data contains the given key
    */
-  def contains(key: Key[_]): Boolean = paramSet.exists(_.keyName == key.keyName)
+  def contains(key: Key[_]): Boolean = paramSet match {
+    case indexedParamSet: IndexedParameterSet ⇒ indexedParamSet.containsKeyName(key.keyName)
+    case lazyParamSet: LazyParameterSet       ⇒ lazyParamSet.containsKeyName(key.keyName)
+    case _                                    ⇒ paramSet.exists(_.keyName == key.keyName)
+  }
 
   /**
    * Returns a set containing the names of any of the given keys that are missing in the data
@@ -1,5 +1,6 @@
 package csw.params.core.models
 
+import java.nio.ByteBuffer
 import java.util
 
 import play.api.libs.json.{Format, Json}
@@ -26,6 +27,15 @@ case class ArrayData[T](data: mutable.WrappedArray[T]) {
    */
   def jValues: util.List[T] = data.asJava
 
+  /**
+   * A read-only buffer over the values this parameter holds, without copying them, if they are held in a buffer or are bytes
+   */
+  def byteBuffer: Option[ByteBuffer] = data match {
+    case buffered: ByteBufferArray[_]       ⇒ Some(buffered.byteBuffer)
+    case bytes: mutable.WrappedArray.ofByte ⇒ Some(ByteBuffer.wrap(bytes.array).asReadOnlyBuffer())
+    case _                                  ⇒ None
+  }
+
   /**
    * A comma separated string representation of all values this ArrayData holds
    */
@@ -62,6 +72,30 @@ object ArrayData {
    */
   def fromJavaArray[T](values: Array[T]): ArrayData[T] = ArrayData.fromArray(values)
 
+  /**
+   * Create an ArrayData of the bytes of a buffer, which are read in place and not copied
+   *
+   * @param buffer a direct or heap buffer holding the values from its position to its limit
+   * @return an instance of read-only ArrayData
+   */
+  def fromByteBuffer(buffer: ByteBuffer): ArrayData[Byte] = new ArrayData(ByteBufferArray.ofBytes(buffer))
+
+  /**
+   * Create an ArrayData of the shorts of a buffer in its byte order, which are read in place and not copied
+   *
+   * @param buffer a direct or heap buffer holding the values from its position to its limit
+   * @return an instance of read-only ArrayData
+   */
+  def fromByteBufferOfShorts(buffer: ByteBuffer): ArrayData[Short] = new ArrayData(ByteBufferArray.ofShorts(buffer))
+
+  /**
+   * Create an ArrayData of the floats of a buffer in its byte order, which are read in place and not copied
+   *
+   * @param buffer a direct or heap buffer holding the values from its position to its limit
+   * @return an instance of read-only ArrayData
+   */
+  def fromByteBufferOfFloats(buffer: ByteBuffer): ArrayData[Float] = new ArrayData(ByteBufferArray.ofFloats(buffer))
+
   /**
    * Convert an Array of data from one type to other
    *
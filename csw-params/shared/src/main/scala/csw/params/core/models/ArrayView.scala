@@ -0,0 +1,37 @@
+package csw.params.core.models
+
+import scala.collection.mutable
+import scala.reflect.ClassTag
+
+/**
+ * A read-only view of `length` values of an array from the index `from`, which are read in place. It lets the rows of a
+ * [[csw.params.core.models.MatrixData]] be written one by one without copying them. `array` copies the values of the view
+ * into a new array every time it is called.
+ *
+ * @param values the array viewed
+ * @param from the index in `values` of the first value of the view
+ * @param length the number of values of the view
+ * @tparam T the type of values
+ */
+private[models] final class ArrayView[T](values: Array[T], from: Int, override val length: Int)(implicit cTag: ClassTag[T])
+    extends mutable.WrappedArray[T]
+    with Serializable {
+
+  override def elemTag: ClassTag[T] = cTag
+
+  override def apply(index: Int): T = {
+    if (index < 0 || index >= length) throw new IndexOutOfBoundsException(s"$index out of a view of $length values")
+    values(from + index)
+  }
+
+  override def update(index: Int, elem: T): Unit = throw new UnsupportedOperationException("an ArrayView is read-only")
+
+  override def array: Array[T] = {
+    val copy = cTag.newArray(length)
+    Array.copy(values, from, copy, 0, length)
+    copy
+  }
+
+  // java serialization writes the values as an ordinary wrapped array
+  protected def writeReplace(): AnyRef = mutable.WrappedArray.make[T](array)
+}
@@ -0,0 +1,137 @@
+package csw.params.core.models
+
+import java.nio.ByteBuffer
+
+import scala.collection.mutable
+import scala.reflect.ClassTag
+import scala.util.hashing.MurmurHash3
+
+/**
+ * A read-only array of bytes, shorts or floats backed by a `ByteBuffer`, direct or heap, whose values are read in place.
+ *
+ * It backs the [[csw.params.core.models.ArrayData]] of large payloads such as images and spectra, so that they pass from
+ * the buffer they were received in to the buffer they are written to without being copied into intermediate arrays.
+ * `array` copies the values into a new array every time it is called.
+ *
+ * @param buffer the values of the array, from its position to its limit
+ * @tparam T the type of values
+ */
+abstract class ByteBufferArray[T] private[models] (buffer: ByteBuffer) extends mutable.WrappedArray[T] with Serializable {
+
+  // a read-only view of the values, in the byte order of the given buffer, which does not change when the buffer does
+  protected val values: ByteBuffer = buffer.slice().asReadOnlyBuffer().order(buffer.order())
+
+  protected def elementSize: Int
+
+  /**
+   * A read-only buffer over the values of this array, which are not copied
+   */
+  def byteBuffer: ByteBuffer = values.duplicate().order(values.order())
+
+  override def length: Int = values.capacity() / elementSize
+
+  override def update(index: Int, elem: T): Unit = throw new UnsupportedOperationException("a ByteBufferArray is read-only")
+
+  // the hash of the wrapped array of the same values, computed from the values read in place rather than from a copy of them,
+  // and not cached as the values change with the buffer they are read from
+  override def hashCode(): Int = {
+    var hash  = MurmurHash3.seqSeed
+    var index = 0
+    while (index < length) {
+      hash = MurmurHash3.mix(hash, elementHash(index))
+      index += 1
+    }
+    MurmurHash3.finalizeHash(hash, length)
+  }
+
+  protected def elementHash(index: Int): Int = apply(index).##
+
+  // java serialization writes the values as an ordinary wrapped array
+  protected def writeReplace(): AnyRef = mutable.WrappedArray.make[T](array)
+}
+
+object ByteBufferArray {
+
+  /**
+   * @param buffer the bytes of the array, from its position to its limit, which are not copied
+   * @return a read-only array of the given bytes
+   */
+  def ofBytes(buffer: ByteBuffer): ByteBufferArray[Byte] = new OfBytes(buffer)
+
+  /**
+   * @param buffer the shorts of the array in the byte order of the buffer, from its position to its limit, which are not copied
+   * @return a read-only array of the given shorts
+   */
+  def ofShorts(buffer: ByteBuffer): ByteBufferArray[Short] = new OfShorts(buffer)
+
+  /**
+   * @param buffer the floats of the array in the byte order of the buffer, from its position to its limit, which are not copied
+   * @return a read-only array of the given floats
+   */
+  def ofFloats(buffer: ByteBuffer): ByteBufferArray[Float] = new OfFloats(buffer)
+
+  private final class OfBytes(buffer: ByteBuffer) extends ByteBufferArray[Byte](buffer) {
+    override protected def elementSize: Int = 1
+    override def elemTag: ClassTag[Byte]    = ClassTag.Byte
+    override def apply(index: Int): Byte    = values.get(index)
+
+    // a wrapped array of bytes hashes its bytes four at a time, as MurmurHash3.bytesHash does
+    override def hashCode(): Int = {
+      var hash  = MurmurHash3.seqSeed
+      var index = 0
+      while (index + 4 <= length) {
+        val bytes = (values.get(index) & 0xff) | (values.get(index + 1) & 0xff) << 8 | (values.get(index + 2) & 0xff) << 16 |
+          (values.get(index + 3) & 0xff) << 24
+        hash = MurmurHash3.mix(hash, bytes)
+        index += 4
+      }
+      if (index < length) {
+        var tail = 0
+        while (index < length) {
+          tail |= (values.get(index) & 0xff) << (8 * (index % 4))
+          index += 1
+        }
+        hash = MurmurHash3.mixLast(hash, tail)
+      }
+      MurmurHash3.finalizeHash(hash, length)
+    }
+
+    override def array: Array[Byte] = {
+      val array = new Array[Byte](length)
+      byteBuffer.get(array)
+      array
+    }
+  }
+
+  private final class OfShorts(buffer: ByteBuffer) extends ByteBufferArray[Short](buffer) {
+    require(buffer.remaining() % 2 == 0, s"${buffer.remaining()} bytes do not hold whole shorts")
+
+    override protected def elementSize: Int = 2
+    override def elemTag: ClassTag[Short]   = ClassTag.Short
+    override def apply(index: Int): Short   = values.getShort(index * 2)
+
+    override protected def elementHash(index: Int): Int = values.getShort(index * 2).##
+
+    override def array: Array[Short] = {
+      val array = new Array[Short](length)
+      byteBuffer.asShortBuffer().get(array)
+      array
+    }
+  }
+
+  private final class OfFloats(buffer: ByteBuffer) extends ByteBufferArray[Float](buffer) {
+    require(buffer.remaining() % 4 == 0, s"${buffer.remaining()} bytes do not hold whole floats")
+
+    override protected def elementSize: Int = 4
+    override def elemTag: ClassTag[Float]   = ClassTag.Float
+    override def apply(index: Int): Float   = values.getFloat(index * 4)
+
+    override protected def elementHash(index: Int): Int = values.getFloat(index * 4).##
+
+    override def array: Array[Float] = {
+      val array = new Array[Float](length)
+      byteBuffer.asFloatBuffer().get(array)
+      array
+    }
+  }
+}
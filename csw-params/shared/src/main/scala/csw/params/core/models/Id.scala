@@ -1,7 +1,5 @@
 package csw.params.core.models
 
-import java.util.UUID
-
 import play.api.libs.json._
 
 /**
@@ -13,12 +11,24 @@ case class Id(id: String)
 
 object Id {
 
+  @volatile private var generator: IdGenerator = IdGenerator.TimeOrderedUUID
+
   /**
-   * A helper method to create Id with random unique id generator
+   * A helper method to create Id with the unique id generator set by `setGenerator`, time ordered UUIDs by default
    *
    * @return an instance of Id
    */
-  def apply(): Id = new Id(UUID.randomUUID().toString)
+  def apply(): Id = new Id(generator.generate())
+
+  /**
+   * Sets the generator of the ids created by `Id()` from now on, for example [[csw.params.core.models.IdGenerator.RandomUUID]]
+   *
+   * @param idGenerator the generator of unique ids
+   */
+  def setGenerator(idGenerator: IdGenerator): Unit = {
+    require(idGenerator != null)
+    generator = idGenerator
+  }
 
   implicit val format: Format[Id] = new Format[Id] {
     override def writes(obj: Id): JsValue           = JsString(obj.id)
@@ -0,0 +1,43 @@
+package csw.params.core.models
+
+import java.util.UUID
+import java.util.concurrent.ThreadLocalRandom
+
+/**
+ * Generates the unique ids of [[csw.params.core.models.Id]], for example the runIds of commands and the eventIds of events.
+ * Set the generator used by `Id()` with [[csw.params.core.models.Id.setGenerator]].
+ */
+trait IdGenerator {
+
+  /**
+   * @return a new unique id
+   */
+  def generate(): String
+}
+
+object IdGenerator {
+
+  /**
+   * Generates random UUIDs (version 4) from a shared `SecureRandom`, which threads creating many ids at once contend on.
+   */
+  object RandomUUID extends IdGenerator {
+    override def generate(): String = UUID.randomUUID().toString
+  }
+
+  /**
+   * Generates time ordered UUIDs (version 7): the current time in milliseconds followed by 74 random bits drawn from the
+   * random generator of the calling thread, so threads never contend. The ids sort lexicographically by the millisecond
+   * they were created in, which helps correlating commands and events by time. This is the default generator.
+   */
+  object TimeOrderedUUID extends IdGenerator {
+    private val Version = 0x7000L
+    private val Variant = 0x8000000000000000L
+
+    override def generate(): String = {
+      val random = ThreadLocalRandom.current()
+      val msb    = (System.currentTimeMillis() << 16) | Version | (random.nextLong() & 0xfffL)
+      val lsb    = Variant | (random.nextLong() & 0x3fffffffffffffffL)
+      new UUID(msb, lsb).toString
+    }
+  }
+}
@@ -2,77 +2,263 @@ package csw.params.core.models
 
 import java.util
 
-import play.api.libs.json.{Format, Json}
+import play.api.libs.json._
 
 import scala.collection.JavaConverters._
 import scala.collection.mutable
 import scala.language.implicitConversions
 import scala.reflect.ClassTag
+import scala.util.hashing.MurmurHash3
 
 /**
  * A top level key for a parameter set representing an matrix like collection.
  *
- * @param data input array of array
+ * The values are held row after row in a single array, of primitives for the matrices of primitives. The rows, columns and
+ * sub-matrices of a matrix are views over the values of the matrix, which are not copied.
+ *
+ * @param flat the array holding the values of the matrix, and possibly values outside of this view of it
+ * @param offset the index in `flat` of the value at [0][0]
+ * @param rows the number of rows of the matrix
+ * @param cols the number of columns of the matrix
+ * @param rowStride the distance in `flat` between the values of two consecutive rows of the same column
  */
-case class MatrixData[T](data: mutable.WrappedArray[mutable.WrappedArray[T]])(implicit cTag: ClassTag[T]) {
+final class MatrixData[T] private (
+    private val flat: Array[T],
+    private val offset: Int,
+    val rows: Int,
+    val cols: Int,
+    private val rowStride: Int
+)(implicit cTag: ClassTag[T])
+    extends Serializable {
 
   /**
    * Returns a value stored at position represented by [row][col]
    *
    * @return a value represented by T
    */
-  def apply(row: Int, col: Int): T = data(row)(col)
+  def apply(row: Int, col: Int): T = flat(index(row, col))
+
+  /**
+   * Returns the row at the given index, viewed as a matrix of one row without copying its values
+   */
+  def row(row: Int): MatrixData[T] = subMatrix(row, row + 1, 0, cols)
+
+  /**
+   * Returns the column at the given index, viewed as a matrix of one column without copying its values
+   */
+  def column(col: Int): MatrixData[T] = subMatrix(0, rows, col, col + 1)
+
+  /**
+   * Returns the given rows and columns of this matrix, viewed as a matrix without copying its values
+   *
+   * @param rowFrom the index of the first row of the view
+   * @param rowUntil the index of the row following the last row of the view
+   * @param colFrom the index of the first column of the view
+   * @param colUntil the index of the column following the last column of the view
+   * @return a MatrixData of `rowUntil - rowFrom` rows and `colUntil - colFrom` columns
+   */
+  def subMatrix(rowFrom: Int, rowUntil: Int, colFrom: Int, colUntil: Int): MatrixData[T] = {
+    if (rowFrom < 0 || rowFrom > rowUntil || rowUntil > rows || colFrom < 0 || colFrom > colUntil || colUntil > cols)
+      throw new IndexOutOfBoundsException(s"[$rowFrom, $rowUntil) x [$colFrom, $colUntil) out of a $rows x $cols matrix")
+    new MatrixData(flat, offset + rowFrom * rowStride + colFrom, rowUntil - rowFrom, colUntil - colFrom, rowStride)
+  }
 
   /**
    * An Array of values this parameter holds
    */
-  def values: Array[Array[T]] = data.array.map(_.array)
+  def values: Array[Array[T]] = {
+    val values = cTag.wrap.newArray(rows)
+    var row    = 0
+    while (row < rows) {
+      values(row) = copyRow(row)
+      row += 1
+    }
+    values
+  }
+
+  /**
+   * The values this parameter holds row after row, without copying them unless this matrix is a view over part of a matrix
+   */
+  def flatValues: Array[T] =
+    if (offset == 0 && flat.length == rows * cols && (rowStride == cols || rows <= 1)) flat
+    else {
+      val values = cTag.newArray(rows * cols)
+      var row    = 0
+      while (row < rows) {
+        Array.copy(flat, offset + row * rowStride, values, row * cols, cols)
+        row += 1
+      }
+      values
+    }
+
+  /**
+   * The rows of values this parameter holds, as read-only arrays viewing the values of the matrix without copying them
+   */
+  def rowViews: IndexedSeq[mutable.WrappedArray[T]] =
+    (0 until rows).map(row ⇒ new ArrayView(flat, offset + row * rowStride, cols))
+
+  /**
+   * The rows of values this parameter holds, copied from the values of the matrix
+   */
+  def data: mutable.WrappedArray[mutable.WrappedArray[T]] = values.map(row ⇒ row: mutable.WrappedArray[T])
 
   /**
    * A Java helper that returns an Array of values this parameter holds
    */
   def jValues: util.List[util.List[T]] = data.map(_.asJava).asJava
 
+  /**
+   * Returns the byte at position [row][col] of a matrix of bytes, without boxing it for the matrices of primitives
+   */
+  def getByte(row: Int, col: Int): Byte = flat match {
+    case bytes: Array[Byte] ⇒ bytes(index(row, col))
+    case _                  ⇒ apply(row, col).asInstanceOf[Byte]
+  }
+
+  /**
+   * Returns the short at position [row][col] of a matrix of shorts, without boxing it for the matrices of primitives
+   */
+  def getShort(row: Int, col: Int): Short = flat match {
+    case shorts: Array[Short] ⇒ shorts(index(row, col))
+    case _                    ⇒ apply(row, col).asInstanceOf[Short]
+  }
+
+  /**
+   * Returns the int at position [row][col] of a matrix of ints, without boxing it for the matrices of primitives
+   */
+  def getInt(row: Int, col: Int): Int = flat match {
+    case ints: Array[Int] ⇒ ints(index(row, col))
+    case _                ⇒ apply(row, col).asInstanceOf[Int]
+  }
+
+  /**
+   * Returns the long at position [row][col] of a matrix of longs, without boxing it for the matrices of primitives
+   */
+  def getLong(row: Int, col: Int): Long = flat match {
+    case longs: Array[Long] ⇒ longs(index(row, col))
+    case _                  ⇒ apply(row, col).asInstanceOf[Long]
+  }
+
+  /**
+   * Returns the float at position [row][col] of a matrix of floats, without boxing it for the matrices of primitives
+   */
+  def getFloat(row: Int, col: Int): Float = flat match {
+    case floats: Array[Float] ⇒ floats(index(row, col))
+    case _                    ⇒ apply(row, col).asInstanceOf[Float]
+  }
+
+  /**
+   * Returns the double at position [row][col] of a matrix of doubles, without boxing it for the matrices of primitives
+   */
+  def getDouble(row: Int, col: Int): Double = flat match {
+    case doubles: Array[Double] ⇒ doubles(index(row, col))
+    case _                      ⇒ apply(row, col).asInstanceOf[Double]
+  }
+
+  override def equals(that: Any): Boolean = that match {
+    case matrix: MatrixData[_] ⇒
+      (this eq matrix) || rows == matrix.rows && cols == matrix.cols && (0 until rows).forall { row ⇒
+        (0 until cols).forall(col ⇒ apply(row, col) == matrix(row, col))
+      }
+    case _ ⇒ false
+  }
+
+  override def hashCode(): Int =
+    MurmurHash3.orderedHash(for (row <- 0 until rows; col <- 0 until cols) yield apply(row, col), rows)
+
   /**
    * A comma separated string representation of all values this MatrixData holds
    */
-  override def toString: String = (for (l <- data) yield l.mkString("(", ",", ")")).mkString("(", ",", ")")
+  override def toString: String = (for (row <- 0 until rows) yield copyRow(row).mkString("(", ",", ")")).mkString("(", ",", ")")
+
+  private def index(row: Int, col: Int): Int = {
+    if (row < 0 || row >= rows || col < 0 || col >= cols)
+      throw new IndexOutOfBoundsException(s"[$row][$col] out of a $rows x $cols matrix")
+    offset + row * rowStride + col
+  }
+
+  private def copyRow(row: Int): Array[T] = {
+    val values = cTag.newArray(cols)
+    Array.copy(flat, offset + row * rowStride, values, 0, cols)
+    values
+  }
 }
 
 object MatrixData {
 
-  //play-json formatter
-  implicit def format[T: Format: ClassTag]: Format[MatrixData[T]] = Json.format[MatrixData[T]]
+  //play-json formatter, writing the rows of values under `data`
+  implicit def format[T: Format: ClassTag]: Format[MatrixData[T]] = new Format[MatrixData[T]] {
+    override def writes(matrix: MatrixData[T]): JsValue = {
+      def jsRow(row: Int) = JsArray((0 until matrix.cols).map(col ⇒ Json.toJson(matrix(row, col))))
+      Json.obj("data" → JsArray((0 until matrix.rows).map(jsRow)))
+    }
+    override def reads(json: JsValue): JsResult[MatrixData[T]] =
+      (json \ "data").validate[Array[Array[T]]].map(rows ⇒ fromArrays(rows))
+  }
 
   /**
    * Create a MatrixData from one or more arrays of Array[T]
    *
-   * @param values one or more arrays
+   * @param values one or more arrays, all of the same length
    * @tparam T the type of values
    * @return an instance of MatrixData
    */
-  implicit def fromArrays[T: ClassTag](values: Array[Array[T]]): MatrixData[T] =
-    new MatrixData[T](values.map(x ⇒ x: mutable.WrappedArray[T]))
+  implicit def fromArrays[T: ClassTag](values: Array[Array[T]]): MatrixData[T] = {
+    val rows = values.length
+    val cols = if (rows == 0) 0 else values(0).length
+    require(values.forall(_.length == cols), "all the rows of a matrix must have the same length")
+    val flat = implicitly[ClassTag[T]].newArray(rows * cols)
+    var row  = 0
+    while (row < rows) {
+      Array.copy(values(row), 0, flat, row * cols, cols)
+      row += 1
+    }
+    new MatrixData[T](flat, 0, rows, cols, cols)
+  }
 
   /**
    * Create a MatrixData from Array[T]
    *
-   * @param values one or more arrays
+   * @param values one or more arrays, all of the same length
+   * @tparam T the type of values
+   * @return an instance of MatrixData
+   */
+  def fromArrays[T: ClassTag](values: Array[T]*): MatrixData[T] = fromArrays(values.toArray)
+
+  /**
+   * Create a MatrixData holding the given values row after row, without copying them
+   *
+   * @param rows the number of rows of the matrix
+   * @param cols the number of columns of the matrix
+   * @param values `rows * cols` values, row after row
    * @tparam T the type of values
    * @return an instance of MatrixData
    */
-  def fromArrays[T: ClassTag](values: Array[T]*): MatrixData[T] =
-    new MatrixData[T](values.toArray.map(x ⇒ x: mutable.WrappedArray[T]))
+  def fromFlatArray[T: ClassTag](rows: Int, cols: Int, values: Array[T]): MatrixData[T] = {
+    require(rows >= 0 && cols >= 0 && values.length == rows * cols, s"$rows x $cols matrix can not hold ${values.length} values")
+    new MatrixData[T](values, 0, rows, cols, cols)
+  }
 
   /**
    * A Java helper to create an MatrixData from one or more arrays
    *
-   * @param values an Array of one or more array of values
+   * @param values an Array of one or more array of values, all of the same length
+   * @tparam T the type of values
+   * @return an instance of MatrixData
+   */
+  def fromJavaArrays[T](klass: Class[T], values: Array[Array[T]]): MatrixData[T] = fromArrays(values)(ClassTag(klass))
+
+  /**
+   * A Java helper to create a MatrixData holding the given values row after row, without copying them
+   *
+   * @param rows the number of rows of the matrix
+   * @param cols the number of columns of the matrix
+   * @param values `rows * cols` values, row after row
    * @tparam T the type of values
    * @return an instance of MatrixData
    */
-  def fromJavaArrays[T](klass: Class[T], values: Array[Array[T]]): MatrixData[T] =
-    new MatrixData[T](values.map(x ⇒ x: mutable.WrappedArray[T]))(ClassTag(klass))
+  def fromJavaFlatArray[T](klass: Class[T], rows: Int, cols: Int, values: Array[T]): MatrixData[T] =
+    fromFlatArray(rows, cols, values)(ClassTag(klass))
 
   /**
    * Convert a Matrix of data from one type to other
@@ -19,6 +19,14 @@ case class Prefix(prefix: String) extends TMTSerializable {
 object Prefix {
   private val SEPARATOR = "."
 
+  private val pool = new InternPool[String, Prefix]
+
+  /**
+   * @param prefix the subsystem's prefix
+   * @return the shared instance of the given prefix, which is only created the first time the prefix is seen
+   */
+  def apply(prefix: String): Prefix = pool.intern(prefix)(new Prefix(_))
+
   implicit val format: Format[Prefix] = new Format[Prefix] {
     override def writes(obj: Prefix): JsValue           = JsString(obj.prefix)
     override def reads(json: JsValue): JsResult[Prefix] = JsSuccess(Prefix(json.as[String]))
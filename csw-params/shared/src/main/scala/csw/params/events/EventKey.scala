@@ -1,6 +1,6 @@
 package csw.params.events
 
-import csw.params.core.models.Prefix
+import csw.params.core.models.{InternPool, Prefix}
 import play.api.libs.json.{Json, OFormat}
 
 /**
@@ -10,17 +10,27 @@ import play.api.libs.json.{Json, OFormat}
  * @param eventName represents the name of the event
  */
 case class EventKey(source: Prefix, eventName: EventName) {
-  val key                       = s"${source.prefix}.$eventName"
+  lazy val key                  = s"${source.prefix}.$eventName"
   override def toString: String = key
 }
 
 object EventKey {
   private val SEPARATOR = "."
 
+  private val pool = new InternPool[(Prefix, EventName), EventKey]
+
+  /**
+   * @param source the prefix of the component that publishes the event
+   * @param eventName the name of the event
+   * @return the shared instance of the given event key, which is only created the first time the event key is seen
+   */
+  def apply(source: Prefix, eventName: EventName): EventKey =
+    pool.intern((source, eventName)) { case (prefix, name) ⇒ new EventKey(prefix, name) }
+
   def apply(eventKeyStr: String): EventKey = {
     require(eventKeyStr != null)
     val strings = eventKeyStr.splitAt(eventKeyStr.lastIndexOf(SEPARATOR))
-    new EventKey(Prefix(strings._1), EventName(strings._2.tail))
+    EventKey(Prefix(strings._1), EventName(strings._2.tail))
   }
 
   private[params] implicit val format: OFormat[EventKey] = Json.format[EventKey]
@@ -1,5 +1,6 @@
 package csw.params.events
 
+import csw.params.core.models.InternPool
 import play.api.libs.json._
 
 /**
@@ -10,6 +11,14 @@ case class EventName(name: String) {
 }
 
 object EventName {
+  private val pool = new InternPool[String, EventName]
+
+  /**
+   * @param name the name of the event
+   * @return the shared instance of the given name, which is only created the first time the name is seen
+   */
+  def apply(name: String): EventName = pool.intern(name)(new EventName(_))
+
   implicit val format: Format[EventName] = new Format[EventName] {
     override def writes(obj: EventName): JsValue           = JsString(obj.name)
     override def reads(json: JsValue): JsResult[EventName] = JsSuccess(EventName(json.as[String]))
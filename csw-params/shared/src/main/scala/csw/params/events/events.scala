@@ -2,7 +2,7 @@ package csw.params.events
 
 import java.time.Instant
 
-import csw.params.core.generics.{Parameter, ParameterSetType}
+import csw.params.core.generics.{IndexedParameterSet, Parameter, ParameterSetType}
 import csw.params.core.models.{Id, Prefix, Subsystem}
 import csw.time.core.models.UTCTime
 
@@ -126,7 +126,7 @@ object SystemEvent {
       eventName: EventName,
       eventTime: UTCTime,
       paramSet: Set[Parameter[_]]
-  ) = new SystemEvent(eventId, source, eventName, eventTime, paramSet)
+  ) = new SystemEvent(eventId, source, eventName, eventTime, IndexedParameterSet.from(paramSet))
 
   /**
    * The apply method is used to create SystemEvent command by end-user. eventId is not accepted and will be created internally to guarantee unique value.
@@ -185,7 +185,7 @@ object ObserveEvent {
       eventName: EventName,
       eventTime: UTCTime,
       paramSet: Set[Parameter[_]]
-  ) = new ObserveEvent(eventId, source, eventName, eventTime, paramSet)
+  ) = new ObserveEvent(eventId, source, eventName, eventTime, IndexedParameterSet.from(paramSet))
 
   /**
    * The apply method is used to create ObserveEvent command by end-user. eventId is not accepted and will be created internally to guarantee unique value.
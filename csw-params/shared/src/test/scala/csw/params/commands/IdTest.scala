@@ -1,6 +1,8 @@
 package csw.params.commands
 
-import csw.params.core.models.{Id, ObsId, Prefix}
+import java.util.UUID
+
+import csw.params.core.models.{Id, IdGenerator, ObsId, Prefix}
 import org.scalatest.{FunSuite, Matchers}
 
 //DEOPSCSW-205 Return unique id on successful command verification
@@ -47,4 +49,27 @@ class IdTest extends FunSuite with Matchers {
 
     runIds.size shouldBe 10
   }
+
+  test("should create time ordered UUIDs by default") {
+    val uuid = UUID.fromString(Id().id)
+
+    uuid.version() shouldBe 7
+    uuid.variant() shouldBe 2
+  }
+
+  test("should create ids sorting lexicographically by the millisecond they were created in") {
+    val first = IdGenerator.TimeOrderedUUID.generate()
+    val start = System.currentTimeMillis()
+    while (System.currentTimeMillis() == start) {}
+    val second = IdGenerator.TimeOrderedUUID.generate()
+
+    first should be < second
+    (1 to 1000).map(_ ⇒ IdGenerator.TimeOrderedUUID.generate()).toSet.size shouldBe 1000
+  }
+
+  test("should create ids with the generator set") {
+    Id.setGenerator(IdGenerator.RandomUUID)
+    try UUID.fromString(Id().id).version() shouldBe 4
+    finally Id.setGenerator(IdGenerator.TimeOrderedUUID)
+  }
 }
@@ -0,0 +1,75 @@
+package csw.params.core.generics
+
+import csw.params.commands.{CommandName, Setup}
+import csw.params.core.formats.JsonSupport
+import csw.params.core.generics.KeyType.{IntKey, StringKey}
+import csw.params.core.models.Prefix
+import csw.params.events.{EventName, SystemEvent}
+import org.scalatest.{FunSpec, Matchers}
+
+class IndexedParameterSetTest extends FunSpec with Matchers {
+
+  private val prefix      = Prefix("wfos.blue.filter")
+  private val encoderKey  = IntKey.make("encoder")
+  private val filterKey   = StringKey.make("filter")
+  private val encoder     = encoderKey.set(1)
+  private val filter      = filterKey.set("red")
+  private val parameters  = (1 to 100).map(i ⇒ IntKey.make(s"key$i").set(i))
+  private val setup       = Setup(prefix, CommandName("move"), None).madd(encoder, filter)
+  private val systemEvent = SystemEvent(prefix, EventName("filter wheel")).madd(parameters.toSet)
+
+  describe("IndexedParameterSet") {
+
+    it("should back the parameter sets built by adding parameters") {
+      setup.paramSet shouldBe an[IndexedParameterSet]
+      systemEvent.paramSet shouldBe an[IndexedParameterSet]
+      setup.remove(encoderKey).paramSet shouldBe an[IndexedParameterSet]
+    }
+
+    it("should look up parameters by key name and key type") {
+      setup.get(encoderKey) shouldBe Some(encoder)
+      setup.get("encoder", StringKey) shouldBe None
+      setup.exists(filterKey) shouldBe true
+      setup.contains(IntKey.make("missing")) shouldBe false
+      systemEvent.get(IntKey.make("key42")) shouldBe Some(parameters(41))
+    }
+
+    it("should replace the parameter of the same key name when adding a parameter") {
+      val changed = setup.add(encoderKey.set(2))
+
+      changed.size shouldBe 2
+      changed.get(encoderKey) shouldBe Some(encoderKey.set(2))
+      changed.paramSet shouldBe Set(encoderKey.set(2), filter)
+    }
+
+    it("should remove parameters by key and by parameter") {
+      setup.remove(encoderKey).paramSet shouldBe Set(filter)
+      setup.remove(filter).paramSet shouldBe Set(encoder)
+      setup.remove(filterKey.set("blue")) shouldBe setup
+      systemEvent.remove(IntKey.make("key1")).size shouldBe 99
+    }
+
+    it("should be equal to the plain set holding the same parameters") {
+      setup.paramSet shouldBe Set(encoder, filter)
+      Set(encoder, filter) shouldBe setup.paramSet
+      setup.paramSet.hashCode() shouldBe Set(encoder, filter).hashCode()
+      systemEvent.paramSet shouldBe parameters.toSet
+    }
+
+    it("should keep every element when adding a parameter of a key name already in the set as a set") {
+      val parameterSet = setup.paramSet + encoderKey.set(2)
+
+      parameterSet shouldBe Set(encoder, encoderKey.set(2), filter)
+      parameterSet should not be an[IndexedParameterSet]
+    }
+
+    it("should look up, add and remove the parameters of a deserialized parameter set") {
+      val deserialized = JsonSupport.readSequenceCommand[Setup](JsonSupport.writeSequenceCommand(setup))
+
+      deserialized shouldBe setup
+      deserialized.get(encoderKey) shouldBe Some(encoder)
+      deserialized.add(encoderKey.set(2)).paramSet shouldBe Set(encoderKey.set(2), filter)
+      deserialized.remove(filterKey).paramSet shouldBe Set(encoder)
+    }
+  }
+}
@@ -0,0 +1,65 @@
+package csw.params.core.models
+
+import java.nio.{ByteBuffer, ByteOrder}
+
+import org.scalatest.{FunSpec, Matchers}
+import play.api.libs.json.Json
+
+class ByteBufferArrayTest extends FunSpec with Matchers {
+
+  describe("ArrayData backed by a ByteBuffer") {
+
+    it("should read the values in place from the remaining bytes of the buffer") {
+      val buffer = ByteBuffer.wrap(Array[Byte](9, 1, 2, 3, 9), 1, 3)
+      val bytes  = ArrayData.fromByteBuffer(buffer)
+
+      bytes shouldBe ArrayData.fromArray[Byte](1, 2, 3)
+      bytes.hashCode() shouldBe ArrayData.fromArray[Byte](1, 2, 3).hashCode()
+      bytes.values shouldBe Array[Byte](1, 2, 3)
+
+      buffer.put(1, 20.toByte)
+      bytes.values shouldBe Array[Byte](20, 2, 3)
+    }
+
+    it("should read shorts and floats in the byte order of the buffer") {
+      val shorts = ByteBuffer.allocate(4).order(ByteOrder.LITTLE_ENDIAN).putShort(1.toShort).putShort(-2.toShort)
+      val floats = ByteBuffer.allocateDirect(8).putFloat(1.5f).putFloat(-2.5f)
+      shorts.flip()
+      floats.flip()
+
+      ArrayData.fromByteBufferOfShorts(shorts) shouldBe ArrayData.fromArray[Short](1, -2)
+      ArrayData.fromByteBufferOfFloats(floats) shouldBe ArrayData.fromArray(1.5f, -2.5f)
+      ArrayData.fromByteBufferOfFloats(floats).byteBuffer.map(_.order()) shouldBe Some(ByteOrder.BIG_ENDIAN)
+      an[IllegalArgumentException] shouldBe thrownBy ArrayData.fromByteBufferOfFloats(ByteBuffer.allocate(6))
+    }
+
+    it("should hash as the arrays of the same values without copying them") {
+      (0 to 9).foreach { length ⇒
+        val bytes = Array.tabulate[Byte](length)(i ⇒ (i * 37 - 100).toByte)
+        ArrayData.fromByteBuffer(ByteBuffer.wrap(bytes)).hashCode() shouldBe ArrayData.fromArray(bytes).hashCode()
+      }
+
+      val shorts = ByteBuffer.allocate(6).putShort(1.toShort).putShort(-2.toShort).putShort(300.toShort)
+      val floats = ByteBuffer.allocateDirect(12).putFloat(1.5f).putFloat(-2.5f).putFloat(3f)
+      shorts.flip()
+      floats.flip()
+      ArrayData.fromByteBufferOfShorts(shorts).hashCode() shouldBe ArrayData.fromArray[Short](1, -2, 300).hashCode()
+      ArrayData.fromByteBufferOfFloats(floats).hashCode() shouldBe ArrayData.fromArray(1.5f, -2.5f, 3f).hashCode()
+    }
+
+    it("should be read-only") {
+      val bytes = ArrayData.fromByteBuffer(ByteBuffer.wrap(Array[Byte](1, 2)))
+
+      an[UnsupportedOperationException] shouldBe thrownBy bytes.data.update(0, 3.toByte)
+      bytes.byteBuffer.map(_.isReadOnly) shouldBe Some(true)
+      bytes.byteBuffer.map(_.remaining()) shouldBe Some(2)
+    }
+
+    it("should write and read its values to and from JSON") {
+      val json = Json.toJson(ArrayData.fromByteBuffer(ByteBuffer.wrap(Array[Byte](1, -2))))
+
+      json shouldBe Json.parse("""{"data":[1,-2]}""")
+      json.as[ArrayData[Byte]] shouldBe ArrayData.fromArray[Byte](1, -2)
+    }
+  }
+}
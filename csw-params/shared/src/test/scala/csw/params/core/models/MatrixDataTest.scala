@@ -0,0 +1,71 @@
+package csw.params.core.models
+
+import org.scalatest.{FunSpec, Matchers}
+import play.api.libs.json.Json
+
+class MatrixDataTest extends FunSpec with Matchers {
+
+  private val matrix = MatrixData.fromArrays(Array(1f, 2f, 3f), Array(4f, 5f, 6f), Array(7f, 8f, 9f))
+
+  describe("MatrixData") {
+
+    it("should hold the values of a matrix of primitives row after row in a single array of primitives") {
+      matrix.rows shouldBe 3
+      matrix.cols shouldBe 3
+      matrix.flatValues shouldBe Array(1f, 2f, 3f, 4f, 5f, 6f, 7f, 8f, 9f)
+      matrix.flatValues should be theSameInstanceAs matrix.flatValues
+      matrix(1, 2) shouldBe 6f
+      matrix.getFloat(2, 0) shouldBe 7f
+      matrix.values shouldBe Array(Array(1f, 2f, 3f), Array(4f, 5f, 6f), Array(7f, 8f, 9f))
+    }
+
+    it("should view rows, columns and sub-matrices without copying the values of the matrix") {
+      val flat   = Array(1, 2, 3, 4, 5, 6)
+      val matrix = MatrixData.fromFlatArray(2, 3, flat)
+
+      matrix.row(1) shouldBe MatrixData.fromArrays(Array(4, 5, 6))
+      matrix.column(1) shouldBe MatrixData.fromArrays(Array(2), Array(5))
+      matrix.subMatrix(0, 2, 1, 3) shouldBe MatrixData.fromArrays(Array(2, 3), Array(5, 6))
+      matrix.subMatrix(0, 2, 1, 3).column(1).getInt(1, 0) shouldBe 6
+      matrix.toString shouldBe "((1,2,3),(4,5,6))"
+
+      flat(5) = 60
+      matrix.column(2).flatValues shouldBe Array(3, 60)
+    }
+
+    it("should view the rows of a matrix as read-only arrays without copying the values of the matrix") {
+      val flat  = Array(1, 2, 3, 4, 5, 6)
+      val views = MatrixData.fromFlatArray(2, 3, flat).subMatrix(0, 2, 1, 3).rowViews
+
+      views shouldBe Seq(Seq(2, 3), Seq(5, 6))
+      views(1).array shouldBe Array(5, 6)
+      flat(5) = 60
+      views(1) shouldBe Seq(5, 60)
+      an[IndexOutOfBoundsException] shouldBe thrownBy views(0)(2)
+      an[UnsupportedOperationException] shouldBe thrownBy views(0).update(0, 7)
+    }
+
+    it("should not read the values outside of a view") {
+      an[IndexOutOfBoundsException] shouldBe thrownBy matrix.row(0)(0, 3)
+      an[IndexOutOfBoundsException] shouldBe thrownBy matrix.subMatrix(1, 4, 0, 3)
+      an[IllegalArgumentException] shouldBe thrownBy MatrixData.fromArrays(Array(1, 2), Array(3))
+      an[IllegalArgumentException] shouldBe thrownBy MatrixData.fromFlatArray(2, 2, Array(1, 2, 3))
+    }
+
+    it("should be equal to the matrices holding the same values however they are held") {
+      val view = MatrixData.fromArrays(Array(0f, 1f, 2f, 3f), Array(0f, 4f, 5f, 6f), Array(0f, 7f, 8f, 9f)).subMatrix(0, 3, 1, 4)
+
+      view shouldBe matrix
+      view.hashCode() shouldBe matrix.hashCode()
+      view.toString shouldBe matrix.toString
+      view should not be matrix.subMatrix(0, 3, 0, 2)
+    }
+
+    it("should write and read the rows of values to and from JSON") {
+      val json = Json.toJson(matrix.subMatrix(1, 3, 0, 2))
+
+      json shouldBe Json.parse("""{"data":[[4.0,5.0],[7.0,8.0]]}""")
+      json.as[MatrixData[Float]] shouldBe MatrixData.fromArrays(Array(4f, 5f), Array(7f, 8f))
+    }
+  }
+}
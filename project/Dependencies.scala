@@ -187,6 +187,10 @@ object Dependencies {
 
   val ParamsJvm = Def.setting(
     Seq(
+      Jackson.`jackson-core`,
+      Libs.`caffeine`,
+      Akka.`akka-stream`      % Provided,
+      AkkaHttp.`akka-http`    % Provided,
       Chill.`chill-bijection` % Test,
       Libs.`junit`            % Test,
       Libs.`junit-interface`  % Test
@@ -266,6 +270,8 @@ object Dependencies {
       Libs.`lettuce`,
       Libs.`reactor-core`,
       Libs.`scalapb-runtime`,
+      Libs.`caffeine`,
+      Libs.`HdrHistogram`,
       Akka.`akka-actor-testkit-typed` % Test,
       Akka.`akka-stream-testkit`      % Test,
       Libs.`scalatest`.value          % Test,
@@ -275,7 +281,6 @@ object Dependencies {
       Libs.`embedded-redis`           % Test,
       Libs.`scalatest-embedded-kafka` % Test,
       Akka.`akka-multi-node-testkit`  % Test,
-      Libs.HdrHistogram               % Test,
       Libs.testng                     % Test
     )
   )
@@ -522,6 +527,7 @@ object Dependencies {
       Jackson.`jackson-core`,
       Jackson.`jackson-databind`,
       Akka.`akka-actor-testkit-typed`,
+      Libs.`embedded-redis`,
       Libs.`scalatest`.value % Test
     )
   )
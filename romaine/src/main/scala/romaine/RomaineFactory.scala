@@ -1,10 +1,15 @@
 package romaine
 
+import akka.stream.Materializer
+import io.lettuce.core.codec.{ByteArrayCodec, RedisCodec}
+import io.lettuce.core.pubsub.api.reactive.RedisPubSubReactiveCommands
 import io.lettuce.core.{RedisClient, RedisURI}
+import reactor.core.publisher.FluxSink.OverflowStrategy
 import romaine.async.RedisAsyncApi
-import romaine.codec.{RomaineByteCodec, RomaineRedisCodec}
+import romaine.codec.{RomaineByteBufCodec, RomaineByteBufRedisCodec, RomaineByteCodec, RomaineRedisCodec}
 import romaine.exceptions.RedisServerNotAvailable
-import romaine.reactive.RedisSubscriptionApi
+import romaine.reactive.{RedisSubscriptionApi, RedisSubscriptionMultiplexer}
+import romaine.streams.RedisStreamsApi
 
 import scala.async.Async
 import scala.compat.java8.FutureConverters.CompletionStageOps
@@ -18,24 +23,59 @@ class RomaineFactory(redisClient: RedisClient)(implicit val ec: ExecutionContext
       Async.async {
         val redisURI = await(redisURIF)
         val connectionF = init { () =>
-          redisClient.connectAsync(new RomaineRedisCodec[K, V], redisURI).toScala
+          redisClient.connectAsync(redisCodec[K, V], redisURI).toScala
         }
         await(connectionF).async()
       }
     )
 
-  def redisSubscriptionApi[K: RomaineByteCodec, V: RomaineByteCodec](redisURIF: Future[RedisURI]): RedisSubscriptionApi[K, V] =
-    new RedisSubscriptionApi(
-      () =>
-        Async.async {
-          val redisURI = await(redisURIF)
-          val connectionF = init { () =>
-            redisClient.connectPubSubAsync(new RomaineRedisCodec[K, V], redisURI).toScala
-          }
-          await(connectionF).reactive()
+  // every call opens a connection of its own, as blocking stream reads hold their connection
+  def redisStreamsApi[K: RomaineByteCodec, V: RomaineByteCodec](redisURIF: Future[RedisURI]): RedisStreamsApi[K, V] =
+    new RedisStreamsApi(
+      Async.async {
+        val redisURI = await(redisURIF)
+        val connectionF = init { () =>
+          redisClient.connectAsync(ByteArrayCodec.INSTANCE, redisURI).toScala
+        }
+        await(connectionF).async()
       }
     )
 
+  def redisSubscriptionApi[K: RomaineByteCodec, V: RomaineByteCodec](redisURIF: Future[RedisURI]): RedisSubscriptionApi[K, V] =
+    new RedisSubscriptionApi(() => redisPubSubReactiveCommands[K, V](redisURIF))
+
+  // every pooled connection decodes its values with a codec of its own, for codecs which keep state across the values decoded
+  def redisSubscriptionMultiplexer[K: RomaineByteCodec, V](
+      redisURIF: Future[RedisURI],
+      poolSize: Int,
+      bufferSize: Int,
+      overflowStrategy: OverflowStrategy,
+      valueCodecFactory: () ⇒ RomaineByteCodec[V]
+  )(implicit mat: Materializer): RedisSubscriptionMultiplexer[K, V] =
+    new RedisSubscriptionMultiplexer(
+      () => redisPubSubReactiveCommands[K, V](redisURIF)(implicitly[RomaineByteCodec[K]], valueCodecFactory()),
+      poolSize,
+      bufferSize,
+      overflowStrategy
+    )
+
+  private def redisPubSubReactiveCommands[K: RomaineByteCodec, V: RomaineByteCodec](
+      redisURIF: Future[RedisURI]
+  ): Future[RedisPubSubReactiveCommands[K, V]] =
+    Async.async {
+      val redisURI = await(redisURIF)
+      val connectionF = init { () =>
+        redisClient.connectPubSubAsync(redisCodec[K, V], redisURI).toScala
+      }
+      await(connectionF).reactive()
+    }
+
+  // values whose codec can write into a ByteBuf are encoded directly into the buffers of the connection
+  private def redisCodec[K: RomaineByteCodec, V: RomaineByteCodec]: RedisCodec[K, V] = implicitly[RomaineByteCodec[V]] match {
+    case valueCodec: RomaineByteBufCodec[V @unchecked] ⇒ new RomaineByteBufRedisCodec[K, V]()(implicitly, valueCodec)
+    case _                                            ⇒ new RomaineRedisCodec[K, V]
+  }
+
   private def init[T](conn: () ⇒ Future[T]): Future[T] = Future.unit.flatMap(_ => conn()).recover {
     case NonFatal(ex) ⇒ throw RedisServerNotAvailable(ex.getCause)
   }
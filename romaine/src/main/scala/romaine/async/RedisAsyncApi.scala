@@ -42,5 +42,16 @@ class RedisAsyncApi[K, V](redisAsyncCommands: Future[RedisAsyncCommands[K, V]])(
 
   def publish(key: K, value: V): Future[Long] = redisAsyncCommands.flatMap(_.publish(key, value).toScala.map(_.toLong))
 
+  /**
+   * Pipelines a `PUBLISH` for every message on the underlying connection without waiting for replies in between.
+   * Commands are written in the order of the given messages.
+   *
+   * @return a future which completes once all the commands are written, holding the reply of every `PUBLISH` in the same order
+   */
+  def publishAll(messages: List[(K, V)]): Future[List[Future[Long]]] =
+    redisAsyncCommands.map { commands ⇒
+      messages.map { case (key, value) ⇒ commands.publish(key, value).toScala.map(_.toLong) }
+    }
+
   def quit(): Future[String] = redisAsyncCommands.flatMap(_.quit().toScala)
 }
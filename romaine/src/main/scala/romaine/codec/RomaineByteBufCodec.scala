@@ -0,0 +1,11 @@
+package romaine.codec
+
+import io.netty.buffer.ByteBuf
+
+/**
+ * A [[RomaineByteCodec]] which is also able to write a value straight into the (pooled) buffer of the redis connection,
+ * which saves allocating and copying an intermediate byte array for every encoded value
+ */
+trait RomaineByteBufCodec[T] extends RomaineByteCodec[T] {
+  def writeBytes(x: T, target: ByteBuf): Unit
+}
@@ -0,0 +1,16 @@
+package romaine.codec
+
+import io.lettuce.core.codec.ToByteBufEncoder
+import io.netty.buffer.ByteBuf
+import romaine.codec.RomaineByteCodec.ToBytes
+
+class RomaineByteBufRedisCodec[K, V](implicit keyCodec: RomaineByteCodec[K], valueCodec: RomaineByteBufCodec[V])
+    extends RomaineRedisCodec[K, V]()(keyCodec, valueCodec)
+    with ToByteBufEncoder[K, V] {
+
+  override def encodeKey(key: K, target: ByteBuf): Unit     = target.writeBytes(key.asBytes)
+  override def encodeValue(value: V, target: ByteBuf): Unit = valueCodec.writeBytes(value, target)
+
+  // initial capacity of the buffer which lettuce allocates for a key or value, the codec grows it when needed
+  override def estimateSize(keyOrValue: Any): Int = 256
+}
@@ -0,0 +1,266 @@
+package romaine.reactive
+
+import java.util.concurrent.atomic.AtomicBoolean
+
+import akka.Done
+import akka.actor.{ActorRef, Cancellable, PoisonPill, Status}
+import akka.stream.scaladsl.{Keep, Sink, Source}
+import akka.stream.{KillSwitch, Materializer}
+import io.lettuce.core.pubsub.api.reactive.RedisPubSubReactiveCommands
+import org.reactivestreams.Subscription
+import reactor.core.publisher.FluxSink.OverflowStrategy
+import reactor.core.publisher.{Flux, Mono}
+import romaine.RedisResult
+import romaine.exceptions.RedisOperationFailed
+import romaine.extensions.SourceExtensions.RichSource
+
+import scala.async.Async.{async, await}
+import scala.compat.java8.FutureConverters.CompletionStageOps
+import scala.concurrent.duration.{DurationInt, FiniteDuration}
+import scala.concurrent.{ExecutionContext, Future, Promise}
+import scala.util.control.NonFatal
+
+/**
+ * Serves any number of subscriptions over a small pool of pub/sub connections instead of a connection per subscription.
+ *
+ * A channel (or pattern) is always subscribed on the same connection of the pool. It is subscribed on redis when the first
+ * local stream asks for it and unsubscribed when the last of them goes away, so unsubscribing one stream never affects the
+ * others. Messages received on a connection are fanned out to all the local streams of their channel (or pattern).
+ * A connection is opened when the first channel is assigned to it and closed once it has no channels left.
+ *
+ * Lettuce reconnects a dropped connection and subscribes its channels again by itself, messages published in the meantime are
+ * lost as they are for any pub/sub connection. When reconnecting is disabled in the client options, a dropped connection
+ * stays closed: the streams of all its subscriptions are failed within a second and the connection is replaced the next time
+ * one of its channels is subscribed.
+ *
+ * @param reactiveApiFactory opens a new pub/sub connection
+ * @param poolSize maximum number of connections opened by this multiplexer
+ * @param bufferSize number of messages buffered for a slow local stream before the oldest ones get dropped
+ * @param overflowStrategy strategy applied by lettuce when the fan-out of a connection falls behind
+ */
+class RedisSubscriptionMultiplexer[K, V](
+    reactiveApiFactory: () => Future[RedisPubSubReactiveCommands[K, V]],
+    poolSize: Int,
+    bufferSize: Int,
+    overflowStrategy: OverflowStrategy
+)(implicit ec: ExecutionContext, mat: Materializer) {
+
+  private val HealthCheckInterval: FiniteDuration = 1.second
+
+  private val connections = new Array[Connection](poolSize)
+  private val channels    = new Mode((c, keys) ⇒ c.subscribe(keys: _*), (c, keys) ⇒ c.unsubscribe(keys: _*))
+  private val patterns    = new Mode((c, keys) ⇒ c.psubscribe(keys: _*), (c, keys) ⇒ c.punsubscribe(keys: _*))
+
+  def subscribe(keys: List[K]): Source[RedisResult[K, V], RedisSubscription] = subscribeInternal(keys, channels)
+
+  def psubscribe(keys: List[K]): Source[RedisResult[K, V], RedisSubscription] = subscribeInternal(keys, patterns)
+
+  /**
+   * Closes every connection of the pool and completes the streams of all the subscriptions served by them
+   */
+  def shutdown(): Unit = synchronized {
+    connections.indices.foreach { index ⇒
+      if (connections(index) != null) close(connections(index))
+    }
+    List(channels, patterns).foreach { mode ⇒
+      val refs = mode.subscribers.values.flatMap(_.refs).toSet
+      mode.subscribers = Map.empty
+      refs.foreach(_ ! Status.Success(Done))
+    }
+  }
+
+  private def subscribeInternal(keys: List[K], mode: Mode): Source[RedisResult[K, V], RedisSubscription] =
+    Source
+      .actorRef[RedisResult[K, V]](bufferSize, akka.stream.OverflowStrategy.dropHead)
+      .watchTermination()(Keep.both)
+      .mapMaterializedValue {
+        case (subscriber, terminationSignal) ⇒
+          val distinctKeys = keys.distinct
+          val connectedF   = register(mode, distinctKeys, subscriber)
+          val unregisterF  = () ⇒ unregister(mode, distinctKeys, subscriber)
+          connectedF.failed.foreach(ex ⇒ subscriber ! Status.Failure(ex))
+          new MultiplexedSubscription(connectedF, terminationSignal, subscriber, unregisterF)
+      }
+
+  private def register(mode: Mode, keys: List[K], subscriber: ActorRef): Future[Done] = synchronized {
+    val (subscribedKeys, newKeys) = keys.partition(mode.subscribers.contains)
+
+    val pendingSubscriptions = subscribedKeys.map(mode.subscribers(_).connection.pending)
+    val newSubscriptions = newKeys.groupBy(connectionIndex).map {
+      case (index, keysOfConnection) ⇒
+        val connection = connectionAt(index)
+        connection.keyCount += keysOfConnection.size
+        connection.run(mode.subscribe(_, keysOfConnection))
+    }
+
+    mode.subscribers = keys.foldLeft(mode.subscribers) { (subscribers, key) ⇒
+      subscribers.get(key) match {
+        case Some(s) ⇒ subscribers.updated(key, s.copy(refs = s.refs + subscriber))
+        case None    ⇒ subscribers.updated(key, Subscribers(connections(connectionIndex(key)), Set(subscriber)))
+      }
+    }
+
+    Future.sequence(pendingSubscriptions ++ newSubscriptions).map(_ ⇒ Done)
+  }
+
+  private def unregister(mode: Mode, keys: List[K], subscriber: ActorRef): Future[Done] = synchronized {
+    val (remaining, removedKeys) = keys.flatMap(key ⇒ mode.subscribers.get(key).map(key → _)).partition {
+      case (_, subscribers) ⇒ (subscribers.refs - subscriber).nonEmpty
+    }
+
+    mode.subscribers = remaining.foldLeft(mode.subscribers -- removedKeys.map(_._1)) {
+      case (subscribers, (key, s)) ⇒ subscribers.updated(key, s.copy(refs = s.refs - subscriber))
+    }
+
+    val unsubscriptions = removedKeys.groupBy(_._2.connection).map {
+      case (connection, keysOfConnection) ⇒
+        val unsubscribed = connection.run(mode.unsubscribe(_, keysOfConnection.map(_._1)))
+        connection.keyCount -= keysOfConnection.size
+        if (connection.keyCount == 0) close(connection)
+        unsubscribed
+    }
+
+    Future.sequence(unsubscriptions).map(_ ⇒ Done)
+  }
+
+  // must be called while holding the lock
+  private def connectionAt(index: Int): Connection = {
+    if (connections(index) == null) {
+      val connection = new Connection
+      connections(index) = connection
+      connection.commands.failed.foreach(ex ⇒ onConnectionFailure(connection, ex))
+    }
+    connections(index)
+  }
+
+  // must be called while holding the lock
+  private def close(connection: Connection): Unit = {
+    val index = connections.indexWhere(_ eq connection)
+    if (index >= 0) connections(index) = null
+    connection.close()
+  }
+
+  // forgets every subscription served by the failed connection and fails their streams, so that a new connection is opened
+  // when those keys are subscribed again
+  private def onConnectionFailure(connection: Connection, ex: Throwable): Unit = synchronized {
+    val index = connections.indexWhere(_ eq connection)
+    if (index >= 0) {
+      connections(index) = null
+      connection.close()
+    }
+    List(channels, patterns).foreach { mode ⇒
+      val (failed, healthy) = mode.subscribers.partition(_._2.connection eq connection)
+      mode.subscribers = healthy
+      failed.values.flatMap(_.refs).toSet[ActorRef].foreach(_ ! Status.Failure(ex))
+    }
+  }
+
+  private def connectionIndex(key: K): Int = Math.floorMod(key.hashCode, poolSize)
+
+  private def dispatch(mode: Mode, key: K, result: RedisResult[K, V]): Unit =
+    mode.subscribers.get(key).foreach(_.refs.foreach(_ ! result))
+
+  private case class Subscribers(connection: Connection, refs: Set[ActorRef])
+
+  private class Mode(
+      val subscribe: (RedisPubSubReactiveCommands[K, V], Seq[K]) ⇒ Mono[Void],
+      val unsubscribe: (RedisPubSubReactiveCommands[K, V], Seq[K]) ⇒ Mono[Void]
+  ) {
+    // only updated while holding the lock, read without it by the fan-out of connections
+    @volatile var subscribers: Map[K, Subscribers] = Map.empty
+  }
+
+  private class Connection {
+    val commands: Future[RedisPubSubReactiveCommands[K, V]] = reactiveApiFactory()
+
+    private val channelsObserved = Promise[Done]
+    private val patternsObserved = Promise[Done]
+
+    // only accessed while holding the lock
+    var keyCount = 0
+    // the first command waits for the fan-outs to listen to the connection, so that a subscription reported ready misses no
+    // message
+    private var lastCommand: Future[Done] = commands.flatMap(_ ⇒ channelsObserved.future).flatMap(_ ⇒ patternsObserved.future)
+
+    private val killSwitches: Future[List[KillSwitch]] = commands.map { reactiveCommands ⇒
+      List(
+        fanOut(reactiveCommands.observeChannels(overflowStrategy), channelsObserved) { message ⇒
+          dispatch(channels, message.getChannel, RedisResult(message.getChannel, message.getMessage))
+        },
+        fanOut(reactiveCommands.observePatterns(overflowStrategy), patternsObserved) { message ⇒
+          dispatch(patterns, message.getPattern, RedisResult(message.getChannel, message.getMessage))
+        }
+      )
+    }
+
+    // a connection which lettuce does not reconnect stays closed once dropped
+    private val healthCheck: Future[Cancellable] = commands.map { reactiveCommands ⇒
+      val statefulConnection = reactiveCommands.getStatefulConnection
+      mat.schedulePeriodically(HealthCheckInterval, HealthCheckInterval, () ⇒ {
+        if (!statefulConnection.isOpen && !statefulConnection.getOptions.isAutoReconnect)
+          onConnectionFailure(this, RedisOperationFailed("Pub/sub connection to redis is closed"))
+      })
+    }
+
+    /**
+     * Runs the given command once the previous one has completed, so that commands reach redis in the order they were
+     * requested, e.g. an `UNSUBSCRIBE` never overtakes the `SUBSCRIBE` of the same channel
+     *
+     * @return a future which completes when the command is done
+     */
+    def run(command: RedisPubSubReactiveCommands[K, V] ⇒ Mono[_]): Future[Done] = {
+      val result = lastCommand
+        .recover { case NonFatal(_) ⇒ Done }
+        .flatMap(_ ⇒ commands)
+        .flatMap(reactiveCommands ⇒ command(reactiveCommands).toFuture.toScala.map(_ ⇒ Done))
+      lastCommand = result
+      result
+    }
+
+    def pending: Future[Done] = lastCommand
+
+    def close(): Unit = {
+      healthCheck.foreach(_.cancel())
+      run(_.quit()).onComplete(_ ⇒ killSwitches.foreach(_.foreach(_.shutdown())))
+    }
+
+    private def fanOut[T](flux: Flux[T], observed: Promise[Done])(f: T ⇒ Unit): KillSwitch =
+      Source
+        .fromPublisher(flux.doOnSubscribe((_: Subscription) ⇒ observed.trySuccess(Done)))
+        .cancellable
+        .to(Sink.foreach(f))
+        .run()
+  }
+}
+
+private class MultiplexedSubscription(
+    connectedF: Future[Done],
+    terminationSignal: Future[Done],
+    subscriber: ActorRef,
+    unregister: () ⇒ Future[Done]
+)(implicit executionContext: ExecutionContext)
+    extends RedisSubscription {
+
+  private val unsubscribed = new AtomicBoolean(false)
+
+  terminationSignal.onComplete(_ => unsubscribe()) //unsubscribe on stream termination
+
+  /**
+   * To unsubscribe a given subscription. Channels are unsubscribed from redis only when no other subscription needs them.
+   * @return a future which completes when the unsubscribe is completed
+   */
+  def unsubscribe(): Future[Done] = async {
+    if (unsubscribed.compareAndSet(false, true)) {
+      subscriber ! PoisonPill
+      await(unregister())
+    }
+    await(connectedF)
+    await(terminationSignal) // await on terminationSignal when unsubscribe is called by user
+  }
+
+  /**
+   * To check if the underlying subscription is ready to emit elements
+   * @return a future which completes when the underlying subscription is ready to emit elements
+   */
+  def ready(): Future[Done] = connectedF
+}
@@ -0,0 +1,144 @@
+package romaine.streams
+
+import java.nio.ByteBuffer
+import java.nio.charset.StandardCharsets.US_ASCII
+import java.util
+
+import io.lettuce.core.api.async.RedisAsyncCommands
+import io.lettuce.core.{ScanArgs, ScanCursor}
+import io.lettuce.core.codec.ByteArrayCodec
+import io.lettuce.core.output.{NestedMultiOutput, StatusOutput}
+import io.lettuce.core.protocol.{CommandArgs, ProtocolKeyword}
+import romaine.codec.RomaineByteCodec
+import romaine.codec.RomaineByteCodec.{FromBytes, ToBytes}
+import romaine.exceptions.RedisOperationFailed
+
+import scala.collection.JavaConverters.iterableAsScalaIterableConverter
+import scala.compat.java8.FutureConverters.CompletionStageOps
+import scala.concurrent.duration.FiniteDuration
+import scala.concurrent.{ExecutionContext, Future}
+import scala.util.control.NonFatal
+
+/**
+ * Commands of redis streams whose entries hold a single value.
+ *
+ * The lettuce version in use has no API for streams yet, so the commands are dispatched as custom commands on a connection
+ * exchanging raw bytes, and the keys and values are encoded with their [[romaine.codec.RomaineByteCodec]].
+ */
+class RedisStreamsApi[K: RomaineByteCodec, V: RomaineByteCodec](
+    redisAsyncCommands: Future[RedisAsyncCommands[Array[Byte], Array[Byte]]]
+)(implicit ec: ExecutionContext) {
+
+  import RedisStreamsApi._
+
+  /**
+   * Appends the value to the stream of the key, trimming the stream to about `maxLength` entries
+   *
+   * @return the id of the new entry
+   */
+  def xadd(key: K, maxLength: Long, value: V): Future[String] =
+    redisAsyncCommands.flatMap { commands ⇒
+      val args = newArgs.addKey(bytes(key)).add("MAXLEN").add("~").add(maxLength).add("*").add(ValueField).addValue(bytes(value))
+      commands.dispatch(XADD, new StatusOutput(ByteArrayCodec.INSTANCE), args).toScala
+    } recover {
+      case NonFatal(ex) ⇒ throw RedisOperationFailed(s"Redis 'XADD' operation failed for [key:$key]", ex)
+    }
+
+  /**
+   * @return the latest `count` entries of the stream of the key, the latest first
+   */
+  def xrevrange(key: K, count: Int): Future[List[StreamEntry[K, V]]] =
+    redisAsyncCommands.flatMap { commands ⇒
+      val args = newArgs.addKey(bytes(key)).add("+").add("-").add("COUNT").add(count.toLong)
+      commands.dispatch(XREVRANGE, new NestedMultiOutput(ByteArrayCodec.INSTANCE), args).toScala.map(entries[K, V](key, _))
+    }
+
+  /**
+   * Reads the entries following the given id of every stream, waiting up to `block` for one if there is none yet.
+   * A blocked read holds the connection, hence blocking reads should have a connection of their own.
+   *
+   * @param offsets the id after which every stream is read, `0-0` reads a stream from its start
+   * @return the entries read, in order within a stream, or an empty list if no entry came in time
+   */
+  def xread(offsets: Map[K, String], count: Int, block: FiniteDuration): Future[List[StreamEntry[K, V]]] =
+    redisAsyncCommands.flatMap { commands ⇒
+      val streams = offsets.toList
+      val args    = newArgs.add("COUNT").add(count.toLong).add("BLOCK").add(block.toMillis).add("STREAMS")
+      streams.foreach { case (key, _) ⇒ args.addKey(bytes(key)) }
+      streams.foreach { case (_, id)  ⇒ args.add(id) }
+      val reply = commands.dispatch(XREAD, new NestedMultiOutput(ByteArrayCodec.INSTANCE), args).toScala
+      reply.map(streamsReply ⇒ streamEntries[K, V](streamsReply))
+    }
+
+  /**
+   * Iterates over the keys matching the given glob-style pattern with `SCAN`, which unlike `KEYS` never blocks the server
+   * for long, however many keys it holds. A key created or deleted while the keys are iterated may or may not be returned.
+   *
+   * @return the keys matching the pattern
+   */
+  def scan(pattern: String): Future[List[K]] = {
+    val args = ScanArgs.Builder.matches(pattern).limit(ScanCount)
+
+    // a key may be returned by more than one iteration
+    def scanFrom(cursor: ScanCursor, keys: List[K]): Future[List[K]] =
+      redisAsyncCommands.flatMap(_.scan(cursor, args).toScala).flatMap { keyCursor ⇒
+        val scannedKeys = keyCursor.getKeys.asScala.toList.map(ByteBuffer.wrap(_).as[K]) ::: keys
+        if (keyCursor.isFinished) Future.successful(scannedKeys.distinct) else scanFrom(keyCursor, scannedKeys)
+      }
+
+    scanFrom(ScanCursor.INITIAL, Nil)
+  }
+
+  def quit(): Future[String] = redisAsyncCommands.flatMap(_.quit().toScala)
+
+  private def newArgs: CommandArgs[Array[Byte], Array[Byte]] = new CommandArgs(ByteArrayCodec.INSTANCE)
+
+  private def bytes[T: RomaineByteCodec](x: T): Array[Byte] = {
+    val buffer = x.asBytes
+    val array  = new Array[Byte](buffer.remaining())
+    buffer.get(array)
+    array
+  }
+}
+
+object RedisStreamsApi {
+  private val ValueField      = "value"
+  private val ValueFieldBytes = ValueField.getBytes(US_ASCII)
+
+  // number of keys a single `SCAN` call looks at
+  private val ScanCount = 1000L
+
+  private val XADD      = keyword("XADD")
+  private val XREAD     = keyword("XREAD")
+  private val XREVRANGE = keyword("XREVRANGE")
+
+  // every stream is replied as [key, [entry, ...]], a read which timed out replies with null
+  private[streams] def streamEntries[K: RomaineByteCodec, V: RomaineByteCodec](
+      reply: util.List[AnyRef]
+  ): List[StreamEntry[K, V]] =
+    Option(reply).toList.flatMap(_.asScala).flatMap {
+      case stream: util.List[AnyRef @unchecked] if stream.size() == 2 ⇒
+        val key = ByteBuffer.wrap(stream.get(0).asInstanceOf[Array[Byte]]).as[K]
+        entries[K, V](key, stream.get(1).asInstanceOf[util.List[AnyRef]])
+      case _ ⇒ Nil
+    }
+
+  // an entry is replied as [id, [field, value, ...]], entries lacking the value field are not written by this api
+  private[streams] def entries[K, V: RomaineByteCodec](key: K, reply: util.List[AnyRef]): List[StreamEntry[K, V]] =
+    Option(reply).toList.flatMap(_.asScala).flatMap {
+      case entry: util.List[AnyRef @unchecked] if entry.size() == 2 ⇒
+        val id     = new String(entry.get(0).asInstanceOf[Array[Byte]], US_ASCII)
+        val fields = entry.get(1).asInstanceOf[util.List[AnyRef]].asScala.toList
+        fields.grouped(2).collectFirst {
+          case (field: Array[Byte]) :: (value: Array[Byte]) :: Nil if util.Arrays.equals(field, ValueFieldBytes) ⇒
+            StreamEntry(key, id, ByteBuffer.wrap(value).as[V])
+        }
+      case _ ⇒ None
+    }
+
+  private def keyword(command: String): ProtocolKeyword = new ProtocolKeyword {
+    private val commandBytes            = command.getBytes(US_ASCII)
+    override def getBytes: Array[Byte] = commandBytes
+    override def name(): String        = command
+  }
+}
@@ -0,0 +1,10 @@
+package romaine.streams
+
+/**
+ * An entry of the redis stream of a key
+ *
+ * @param key the key of the stream
+ * @param id the id redis gave to the entry, ids grow within a stream
+ * @param value the value held by the entry
+ */
+case class StreamEntry[K, V](key: K, id: String, value: V)
@@ -0,0 +1,62 @@
+package romaine.streams
+
+import java.nio.charset.StandardCharsets.UTF_8
+import java.util
+
+import org.scalatest.{FunSuite, Matchers}
+
+class RedisStreamsApiTest extends FunSuite with Matchers {
+
+  private def bytes(str: String): Array[Byte]                       = str.getBytes(UTF_8)
+  private def list(elements: AnyRef*): util.List[AnyRef]            = util.Arrays.asList(elements: _*)
+  private def entry(id: String, fields: String*): util.List[AnyRef] = list(bytes(id), list(fields.map(bytes): _*))
+
+  test("should parse the entries of every stream replied by XREAD") {
+    val reply = list(
+      list(bytes("stream:a"), list(entry("1-0", "value", "a1"), entry("2-0", "value", "a2"))),
+      list(bytes("stream:b"), list(entry("1-1", "value", "b1")))
+    )
+
+    RedisStreamsApi.streamEntries[String, String](reply) shouldBe List(
+      StreamEntry("stream:a", "1-0", "a1"),
+      StreamEntry("stream:a", "2-0", "a2"),
+      StreamEntry("stream:b", "1-1", "b1")
+    )
+  }
+
+  test("should parse the reply of a read which timed out as no entries") {
+    RedisStreamsApi.streamEntries[String, String](null) shouldBe Nil
+    RedisStreamsApi.streamEntries[String, String](list()) shouldBe Nil
+  }
+
+  test("should parse the entries replied by XREVRANGE in order") {
+    val reply = list(entry("2-0", "value", "2"), entry("1-0", "value", "1"))
+
+    RedisStreamsApi.entries[String, String]("stream:a", reply) shouldBe List(
+      StreamEntry("stream:a", "2-0", "2"),
+      StreamEntry("stream:a", "1-0", "1")
+    )
+    RedisStreamsApi.entries[String, String]("stream:a", null) shouldBe Nil
+  }
+
+  test("should find the value among the fields of an entry and skip entries without it") {
+    val reply = list(
+      entry("1-0", "other", "x", "value", "1"),
+      entry("2-0", "other", "x"),
+      entry("3-0"),
+      list(bytes("4-0")),
+      entry("5-0", "value", "5")
+    )
+
+    RedisStreamsApi.entries[String, String]("stream:a", reply) shouldBe List(
+      StreamEntry("stream:a", "1-0", "1"),
+      StreamEntry("stream:a", "5-0", "5")
+    )
+  }
+
+  test("should skip malformed streams") {
+    val reply = list(list(bytes("stream:a")), list(bytes("stream:b"), list(entry("1-0", "value", "b1"))))
+
+    RedisStreamsApi.streamEntries[String, String](reply) shouldBe List(StreamEntry("stream:b", "1-0", "b1"))
+  }
+}